@@ -0,0 +1,8 @@
+package ewallet.config;
+
+public enum EngineMode {
+
+    LOCKING,
+    SHARDED,
+    JOURNALED
+}
@@ -0,0 +1,247 @@
+package ewallet.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@ConfigurationProperties(prefix = "ewallet")
+public class EwalletProperties {
+
+    private Engine engine = new Engine();
+
+    private Hot hot = new Hot();
+
+    private Locking locking = new Locking();
+
+    private Limit limit = new Limit();
+
+    private Batch batch = new Batch();
+
+    private Id id = new Id();
+
+    private Declined declined = new Declined();
+
+    private Journal journal = new Journal();
+
+    private Idempotency idempotency = new Idempotency();
+
+    private Async async = new Async();
+
+    private Combining combining = new Combining();
+
+    private GroupCommit groupCommit = new GroupCommit();
+
+    private BalanceCache balanceCache = new BalanceCache();
+
+    private CustomerCache customerCache = new CustomerCache();
+
+    private History history = new History();
+
+    private Export export = new Export();
+
+    private Archive archive = new Archive();
+
+    @Data
+    public static class Engine {
+
+        private EngineMode mode = EngineMode.LOCKING;
+
+        private int shards = Runtime.getRuntime().availableProcessors();
+
+        private int batchSize = 256;
+    }
+
+    @Data
+    public static class Hot {
+
+        private int stripes = 8;
+
+        private long sweepIntervalMillis = 1000;
+
+        private List<UUID> ewallets = new ArrayList<>();
+    }
+
+    @Data
+    public static class Locking {
+
+        private LockingMode mode = LockingMode.PESSIMISTIC;
+
+        private int maxAttempts = 5;
+
+        private long backoffMillis = 5;
+
+        private long maxBackoffMillis = 100;
+
+        private double conflictRateThreshold = 0.2;
+    }
+
+    @Data
+    public static class Limit {
+
+        private LimitSource source = LimitSource.MEMORY;
+
+        private int buckets = 288;
+
+        private long bucketMillis = 300_000;
+
+        private long evictionIntervalMillis = 300_000;
+    }
+
+    @Data
+    public static class Batch {
+
+        private int maxItems = 10_000;
+
+        private int groupSize = 500;
+    }
+
+    @Data
+    public static class Id {
+
+        private IdGeneratorType generator = IdGeneratorType.TIME_ORDERED;
+    }
+
+    @Data
+    public static class Declined {
+
+        private int capacity = 10_000;
+
+        private int batchSize = 256;
+
+        private OverflowPolicy overflowPolicy = OverflowPolicy.CALLER_WRITES;
+
+        private long offerTimeoutMillis = 10;
+
+        private long retryBackoffMillis = 100;
+
+        private int maxWriteAttempts = 5;
+    }
+
+    @Data
+    public static class Journal {
+
+        private String directory = "journal";
+
+        private int segmentBytes = 64 * 1024 * 1024;
+
+        private long snapshotIntervalMillis = 60_000;
+
+        private long retryBackoffMillis = 100;
+
+        private int maxWriteAttempts = 50;
+    }
+
+    @Data
+    public static class Idempotency {
+
+        private int capacity = 100_000;
+
+        private long ttlMillis = 86_400_000;
+
+        private long purgeIntervalMillis = 3_600_000;
+
+        private long claimLeaseMillis = 60_000;
+    }
+
+    @Data
+    public static class Async {
+
+        private boolean enabled = false;
+
+        private int lanes = 16;
+
+        private int queueCapacity = 10_000;
+
+        private int statusCapacity = 100_000;
+
+        private long statusTtlMillis = 600_000;
+
+        private long maxPollMillis = 30_000;
+    }
+
+    @Data
+    public static class Combining {
+
+        private boolean enabled = false;
+
+        private int stripes = 1024;
+
+        private int maxGroupSize = 64;
+
+        private long parkMicros = 1000;
+    }
+
+    @Data
+    public static class GroupCommit {
+
+        private boolean enabled = false;
+
+        private int stripes = 1;
+
+        private int batchSize = 256;
+
+        private long parkMicros = 1000;
+
+        private long lingerMicros = 200;
+    }
+
+    @Data
+    public static class BalanceCache {
+
+        private int capacity = 100_000;
+
+        private long ttlMillis = 60_000;
+
+        private int stripes = 1024;
+    }
+
+    @Data
+    public static class CustomerCache {
+
+        private int capacity = 100_000;
+
+        private long ttlMillis = 300_000;
+
+        private int missingCapacity = 10_000;
+
+        private long missingTtlMillis = 5_000;
+    }
+
+    @Data
+    public static class History {
+
+        private int defaultLimit = 50;
+
+        private int maxLimit = 500;
+    }
+
+    @Data
+    public static class Export {
+
+        private int fetchSize = 1000;
+
+        private int bufferBytes = 64 * 1024;
+
+        private ExportFormat format = ExportFormat.NDJSON;
+
+        private boolean gzip = false;
+
+        private String file;
+    }
+
+    @Data
+    public static class Archive {
+
+        private boolean enabled = true;
+
+        private int horizonDays = 90;
+
+        private int batchSize = 1000;
+
+        private long intervalMillis = 3_600_000;
+    }
+}
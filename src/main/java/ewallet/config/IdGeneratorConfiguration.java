@@ -0,0 +1,24 @@
+package ewallet.config;
+
+import ewallet.util.id.Ids;
+import ewallet.util.id.RandomIdGenerator;
+import ewallet.util.id.TimeOrderedIdGenerator;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@RequiredArgsConstructor
+public class IdGeneratorConfiguration {
+
+    private final EwalletProperties properties;
+
+    @PostConstruct
+    public void configure() {
+
+        Ids.use(switch (properties.getId().getGenerator()) {
+            case RANDOM -> new RandomIdGenerator();
+            case TIME_ORDERED -> new TimeOrderedIdGenerator();
+        });
+    }
+}
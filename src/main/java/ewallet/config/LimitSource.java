@@ -0,0 +1,7 @@
+package ewallet.config;
+
+public enum LimitSource {
+
+    MEMORY,
+    DATABASE
+}
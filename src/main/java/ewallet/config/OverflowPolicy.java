@@ -0,0 +1,8 @@
+package ewallet.config;
+
+public enum OverflowPolicy {
+
+    BLOCK,
+    CALLER_WRITES,
+    DROP
+}
@@ -4,18 +4,20 @@ import ewallet.dto.customer.api.CreateCustomerRequestDto;
 import ewallet.dto.customer.api.CreateCustomerResponseDto;
 import ewallet.dto.customer.api.GetCustomerResponseDto;
 import ewallet.dto.customer.internal.CustomerDto;
-import ewallet.entity.customer.Customer;
 import ewallet.service.customer.CustomerService;
 import ewallet.util.api.MediaType;
 import ewallet.util.api.RestUrl;
 import ewallet.util.mapper.customer.CustomerMapper;
 import lombok.AllArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.UUID;
 
 @RestController
+@Profile("!reactive")
 @AllArgsConstructor
 @RequestMapping(RestUrl.API_V1)
 public class CustomerController {
@@ -38,10 +40,12 @@ public class CustomerController {
             value = RestUrl.CUSTOMER_BY_UUID,
             consumes = MediaType.GET_CUSTOMER_REQUEST
     )
-    public GetCustomerResponseDto get(@PathVariable(value = "uuid") UUID uuid) {
+    public ResponseEntity<GetCustomerResponseDto> get(@PathVariable(value = "uuid") UUID uuid) {
 
-        Customer customer = customerService.get(uuid);
+        CustomerDto customer = customerService.get(uuid);
 
-        return CustomerMapper.toGetCustomerResponseDto(customer);
+        return ResponseEntity.ok()
+                .eTag(CustomerMapper.toETag(customer))
+                .body(CustomerMapper.toGetCustomerResponseDto(customer));
     }
 }
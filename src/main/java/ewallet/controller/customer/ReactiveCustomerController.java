@@ -0,0 +1,48 @@
+package ewallet.controller.customer;
+
+import ewallet.dto.customer.api.CreateCustomerRequestDto;
+import ewallet.dto.customer.api.CreateCustomerResponseDto;
+import ewallet.dto.customer.api.GetCustomerResponseDto;
+import ewallet.dto.customer.internal.CustomerDto;
+import ewallet.service.customer.ReactiveCustomerService;
+import ewallet.util.api.MediaType;
+import ewallet.util.api.RestUrl;
+import ewallet.util.mapper.customer.CustomerMapper;
+import lombok.AllArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+@RestController
+@Profile("reactive")
+@AllArgsConstructor
+@RequestMapping(RestUrl.API_V1)
+public class ReactiveCustomerController {
+
+    private ReactiveCustomerService reactiveCustomerService;
+
+    @PostMapping(
+            value = RestUrl.CUSTOMER,
+            consumes = MediaType.CREATE_CUSTOMER_REQUEST
+    )
+    public Mono<CreateCustomerResponseDto> save(@RequestBody @Validated CreateCustomerRequestDto createCustomerRequestDto) {
+
+        CustomerDto customer = CustomerMapper.toDto(createCustomerRequestDto);
+
+        return reactiveCustomerService.save(customer)
+                .map(CustomerMapper::toCreateCustomerResponseDto);
+    }
+
+    @GetMapping(
+            value = RestUrl.CUSTOMER_BY_UUID,
+            consumes = MediaType.GET_CUSTOMER_REQUEST
+    )
+    public Mono<GetCustomerResponseDto> get(@PathVariable(value = "uuid") UUID uuid) {
+
+        return reactiveCustomerService.get(uuid)
+                .map(CustomerMapper::toGetCustomerResponseDto);
+    }
+}
@@ -1,22 +1,35 @@
 package ewallet.controller.ewallet;
 
 import ewallet.dto.ewallet.api.DepositEwalletRequestDto;
+import ewallet.dto.ewallet.api.GetEwalletResponseDto;
 import ewallet.dto.ewallet.api.MakeOperationResponseDto;
 import ewallet.dto.ewallet.api.MakeTransactionEwalletRequestDto;
 import ewallet.dto.ewallet.api.WithdrawEwalletRequestDto;
+import ewallet.dto.ewallet.internal.EwalletDto;
 import ewallet.dto.operation.internal.OperationDto;
 import ewallet.service.ewallet.EwalletService;
+import ewallet.service.ewallet.async.EwalletAsyncService;
+import ewallet.service.ewallet.combining.EwalletCombiner;
+import ewallet.service.ewallet.groupcommit.EwalletGroupCommitter;
+import ewallet.service.idempotency.IdempotencyService;
 import ewallet.util.api.MediaType;
+import ewallet.util.api.RestHeader;
 import ewallet.util.api.RestUrl;
+import ewallet.util.mapper.ewallet.EwalletMapper;
 import ewallet.util.mapper.operation.OperationMapper;
 import lombok.AllArgsConstructor;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.UUID;
+import java.util.function.UnaryOperator;
 
 @RestController
+@Profile("!reactive")
 @AllArgsConstructor
 @RequestMapping(RestUrl.API_V1)
 @ResponseStatus(HttpStatus.ACCEPTED)
@@ -24,33 +37,76 @@ public class EwalletController {
 
     private EwalletService ewalletService;
 
+    private IdempotencyService idempotencyService;
+
+    private EwalletAsyncService ewalletAsyncService;
+
+    private EwalletCombiner ewalletCombiner;
+
+    private EwalletGroupCommitter ewalletGroupCommitter;
+
+    // A matching If-None-Match is answered with 304 by Spring from the ETag alone
+    @GetMapping(value = RestUrl.EWALLET_BY_UUID,
+            consumes = MediaType.GET_EWALLET_REQUEST)
+    @ResponseStatus(HttpStatus.OK)
+    public ResponseEntity<GetEwalletResponseDto> get(@PathVariable(value = "uuid") UUID uuid) {
+
+        EwalletDto ewallet = ewalletService.find(uuid)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Ewallet was not found with uuid=[%s]".formatted(uuid)));
+
+        return ResponseEntity.ok()
+                .eTag(EwalletMapper.toETag(ewallet))
+                .body(EwalletMapper.toGetEwalletResponseDto(ewallet));
+    }
+
     @PutMapping(value = RestUrl.EWALLET_BY_UUID_DEPOSIT,
             consumes = MediaType.DEPOSIT_EWALLET_REQUEST)
-    public MakeOperationResponseDto deposit(@PathVariable(value = "uuid") UUID uuid, @RequestBody @Validated DepositEwalletRequestDto request) {
+    public MakeOperationResponseDto deposit(@PathVariable(value = "uuid") UUID uuid,
+                                            @RequestHeader(value = RestHeader.IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+                                            @RequestBody @Validated DepositEwalletRequestDto request) {
 
         OperationDto operation = OperationMapper.toOperationDto(uuid, request);
-        OperationDto depositOperation = ewalletService.deposit(operation);
+        OperationDto depositOperation = execute(idempotencyKey, operation, ewalletService::deposit);
 
         return OperationMapper.toMakeOperationResponseDto(depositOperation);
     }
 
     @PutMapping(value = RestUrl.EWALLET_BY_UUID_WITHDRAWAL,
             consumes = MediaType.WITHDRAW_EWALLET_REQUEST)
-    public MakeOperationResponseDto withdraw(@PathVariable(value = "uuid") UUID uuid, @RequestBody @Validated WithdrawEwalletRequestDto request) {
+    public MakeOperationResponseDto withdraw(@PathVariable(value = "uuid") UUID uuid,
+                                             @RequestHeader(value = RestHeader.IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+                                             @RequestBody @Validated WithdrawEwalletRequestDto request) {
 
         OperationDto operation = OperationMapper.toOperationDto(uuid, request);
-        OperationDto depositOperation = ewalletService.withdraw(operation);
+        OperationDto depositOperation = execute(idempotencyKey, operation, ewalletService::withdraw);
 
         return OperationMapper.toMakeOperationResponseDto(depositOperation);
     }
 
     @PutMapping(value = RestUrl.EWALLET_BY_UUID_TRANSACTION,
             consumes = MediaType.MAKE_TRANSACTION_EWALLET_REQUEST)
-    public MakeOperationResponseDto makeTransaction(@PathVariable(value = "uuid") UUID uuid, @RequestBody @Validated MakeTransactionEwalletRequestDto request) {
+    public MakeOperationResponseDto makeTransaction(@PathVariable(value = "uuid") UUID uuid,
+                                                    @RequestHeader(value = RestHeader.IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+                                                    @RequestBody @Validated MakeTransactionEwalletRequestDto request) {
 
         OperationDto operation = OperationMapper.toOperationDto(uuid, request);
-        OperationDto depositOperation = ewalletService.makeTransaction(operation);
+        OperationDto depositOperation = execute(idempotencyKey, operation, ewalletService::makeTransaction);
 
         return OperationMapper.toMakeOperationResponseDto(depositOperation);
     }
+
+    // In async mode the operation is only queued here, and the response carries the uuid to poll
+    private OperationDto execute(String idempotencyKey, OperationDto operation, UnaryOperator<OperationDto> action) {
+
+        UnaryOperator<OperationDto> apply = ewalletCombiner.isEnabled()
+                ? combined -> ewalletCombiner.apply(combined, action)
+                : ewalletGroupCommitter.isEnabled()
+                ? grouped -> ewalletGroupCommitter.apply(grouped, action)
+                : action;
+        UnaryOperator<OperationDto> dispatch = ewalletAsyncService.isEnabled()
+                ? accepted -> ewalletAsyncService.submit(accepted, apply)
+                : apply;
+
+        return idempotencyService.execute(idempotencyKey, operation, dispatch);
+    }
 }
@@ -0,0 +1,62 @@
+package ewallet.controller.ewallet;
+
+import ewallet.dto.ewallet.api.DepositEwalletRequestDto;
+import ewallet.dto.ewallet.api.MakeOperationResponseDto;
+import ewallet.dto.ewallet.api.MakeTransactionEwalletRequestDto;
+import ewallet.dto.ewallet.api.WithdrawEwalletRequestDto;
+import ewallet.dto.operation.internal.OperationDto;
+import ewallet.service.ewallet.ReactiveEwalletService;
+import ewallet.util.api.MediaType;
+import ewallet.util.api.RestUrl;
+import ewallet.util.mapper.operation.OperationMapper;
+import lombok.AllArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+@RestController
+@Profile("reactive")
+@AllArgsConstructor
+@RequestMapping(RestUrl.API_V1)
+@ResponseStatus(HttpStatus.ACCEPTED)
+public class ReactiveEwalletController {
+
+    private ReactiveEwalletService reactiveEwalletService;
+
+    @PutMapping(value = RestUrl.EWALLET_BY_UUID_DEPOSIT,
+            consumes = MediaType.DEPOSIT_EWALLET_REQUEST)
+    public Mono<MakeOperationResponseDto> deposit(@PathVariable(value = "uuid") UUID uuid,
+                                                  @RequestBody @Validated DepositEwalletRequestDto request) {
+
+        OperationDto operation = OperationMapper.toOperationDto(uuid, request);
+
+        return reactiveEwalletService.deposit(operation)
+                .map(OperationMapper::toMakeOperationResponseDto);
+    }
+
+    @PutMapping(value = RestUrl.EWALLET_BY_UUID_WITHDRAWAL,
+            consumes = MediaType.WITHDRAW_EWALLET_REQUEST)
+    public Mono<MakeOperationResponseDto> withdraw(@PathVariable(value = "uuid") UUID uuid,
+                                                   @RequestBody @Validated WithdrawEwalletRequestDto request) {
+
+        OperationDto operation = OperationMapper.toOperationDto(uuid, request);
+
+        return reactiveEwalletService.withdraw(operation)
+                .map(OperationMapper::toMakeOperationResponseDto);
+    }
+
+    @PutMapping(value = RestUrl.EWALLET_BY_UUID_TRANSACTION,
+            consumes = MediaType.MAKE_TRANSACTION_EWALLET_REQUEST)
+    public Mono<MakeOperationResponseDto> makeTransaction(@PathVariable(value = "uuid") UUID uuid,
+                                                          @RequestBody @Validated MakeTransactionEwalletRequestDto request) {
+
+        OperationDto operation = OperationMapper.toOperationDto(uuid, request);
+
+        return reactiveEwalletService.makeTransaction(operation)
+                .map(OperationMapper::toMakeOperationResponseDto);
+    }
+}
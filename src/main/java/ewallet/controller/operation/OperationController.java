@@ -0,0 +1,177 @@
+package ewallet.controller.operation;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ewallet.config.EwalletProperties;
+import ewallet.config.ExportFormat;
+import ewallet.dto.ewallet.api.BatchOperationRequestDto;
+import ewallet.dto.ewallet.api.MakeOperationResponseDto;
+import ewallet.dto.ewallet.api.OperationHistoryResponseDto;
+import ewallet.dto.operation.internal.OperationCursor;
+import ewallet.dto.operation.internal.OperationDto;
+import ewallet.dto.operation.internal.OperationFilterDto;
+import ewallet.dto.operation.internal.OperationStatusDto;
+import ewallet.dto.operation.internal.OperationTypeDto;
+import ewallet.service.ewallet.async.EwalletAsyncService;
+import ewallet.service.ewallet.batch.EwalletBatchService;
+import ewallet.service.operation.OperationService;
+import ewallet.service.operation.export.OperationExportService;
+import ewallet.util.api.MediaType;
+import ewallet.util.api.RestUrl;
+import ewallet.util.mapper.operation.OperationMapper;
+import jakarta.validation.Validator;
+import lombok.AllArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+@RestController
+@Profile("!reactive")
+@AllArgsConstructor
+@RequestMapping(RestUrl.API_V1)
+@ResponseStatus(HttpStatus.ACCEPTED)
+public class OperationController {
+
+    private EwalletBatchService ewalletBatchService;
+
+    private EwalletAsyncService ewalletAsyncService;
+
+    private OperationService operationService;
+
+    private OperationExportService operationExportService;
+
+    private EwalletProperties properties;
+
+    private ObjectMapper objectMapper;
+
+    private Validator validator;
+
+    @PostMapping(value = RestUrl.OPERATION_BATCH,
+            consumes = MediaType.BATCH_OPERATIONS_REQUEST)
+    public List<MakeOperationResponseDto> executeAll(InputStream body) throws IOException {
+
+        List<OperationDto> operations = readOperations(body);
+        List<OperationDto> executedOperations = ewalletBatchService.executeAll(operations);
+
+        return executedOperations.stream().map(OperationMapper::toMakeOperationResponseDto).toList();
+    }
+
+    // With waitMillis a pending operation is held open until it completes, without holding the request thread
+    @GetMapping(value = RestUrl.OPERATION_BY_UUID,
+            consumes = MediaType.GET_OPERATION_REQUEST)
+    @ResponseStatus(HttpStatus.OK)
+    public CompletableFuture<MakeOperationResponseDto> get(@PathVariable(value = "uuid") UUID uuid,
+                                                           @RequestParam(value = "waitMillis", defaultValue = "0") long waitMillis) {
+
+        return ewalletAsyncService.find(uuid, waitMillis)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Operation was not found with uuid=[%s]".formatted(uuid)))
+                .thenApply(OperationMapper::toMakeOperationResponseDto);
+    }
+
+    // Newest first; pass nextCursor back as cursor to continue after the last operation of the previous page
+    @GetMapping(value = RestUrl.EWALLET_BY_UUID_OPERATIONS,
+            consumes = MediaType.GET_OPERATIONS_REQUEST)
+    @ResponseStatus(HttpStatus.OK)
+    public OperationHistoryResponseDto history(@PathVariable(value = "uuid") UUID uuid,
+                                               @RequestParam(value = "type", required = false) OperationTypeDto type,
+                                               @RequestParam(value = "status", required = false) OperationStatusDto status,
+                                               @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                               @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+                                               @RequestParam(value = "cursor", required = false) String cursor,
+                                               @RequestParam(value = "limit", required = false) Integer limit) {
+
+        EwalletProperties.History history = properties.getHistory();
+        int pageSize = limit == null ? history.getDefaultLimit() : limit;
+        if (pageSize < 1 || pageSize > history.getMaxLimit()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Limit must be between 1 and [%d]".formatted(history.getMaxLimit()));
+        }
+
+        OperationCursor after;
+        try {
+            after = cursor == null ? null : OperationCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+
+        OperationFilterDto filter = toFilter(type, status, from, to);
+
+        return OperationMapper.toOperationHistoryResponseDto(operationService.findPage(uuid, filter, after, pageSize));
+    }
+
+    // Rows are written to the response while the cursor advances; without ewalletUuid every operation is exported
+    @GetMapping(value = RestUrl.OPERATION_EXPORT,
+            consumes = MediaType.EXPORT_OPERATIONS_REQUEST)
+    @ResponseStatus(HttpStatus.OK)
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(value = "format", defaultValue = "NDJSON") ExportFormat format,
+                                                        @RequestParam(value = "gzip", defaultValue = "false") boolean gzip,
+                                                        @RequestParam(value = "ewalletUuid", required = false) UUID ewalletUuid,
+                                                        @RequestParam(value = "type", required = false) OperationTypeDto type,
+                                                        @RequestParam(value = "status", required = false) OperationStatusDto status,
+                                                        @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                                        @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to) {
+
+        OperationFilterDto filter = toFilter(type, status, from, to);
+        String fileName = format == ExportFormat.CSV ? "operations.csv" : "operations.ndjson";
+        String contentType = format == ExportFormat.CSV ? "text/csv" : "application/x-ndjson";
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_TYPE, gzip ? "application/gzip" : contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(gzip ? fileName + ".gz" : fileName).build().toString())
+                .body(out -> operationExportService.export(ewalletUuid, filter, format, gzip, out));
+    }
+
+    private OperationFilterDto toFilter(OperationTypeDto type, OperationStatusDto status, Instant from, Instant to) {
+
+        return OperationFilterDto.builder()
+                .operationType(type)
+                .operationStatus(status)
+                .from(from == null ? null : Timestamp.from(from))
+                .to(to == null ? null : Timestamp.from(to))
+                .build();
+    }
+
+    // Items are bound one by one from the token stream, so the request body is never buffered as a whole
+    private List<OperationDto> readOperations(InputStream body) throws IOException {
+
+        List<OperationDto> operations = new ArrayList<>();
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Batch must be a JSON array");
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                if (operations.size() == properties.getBatch().getMaxItems()) {
+                    throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                            "Batch must not exceed [%s] operations".formatted(properties.getBatch().getMaxItems()));
+                }
+                BatchOperationRequestDto request = objectMapper.readValue(parser, BatchOperationRequestDto.class);
+                if (!validator.validate(request).isEmpty()) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Batch operation [%s] is invalid".formatted(operations.size()));
+                }
+                operations.add(OperationMapper.toOperationDto(request));
+            }
+            if (parser.currentToken() != JsonToken.END_ARRAY) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Batch must contain only operation objects");
+            }
+        } catch (JsonProcessingException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Batch is not valid JSON", e);
+        }
+        return operations;
+    }
+}
@@ -0,0 +1,34 @@
+package ewallet.dto.ewallet.api;
+
+import ewallet.dto.operation.internal.OperationTypeDto;
+import ewallet.util.money.Money;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@AllArgsConstructor
+@Data
+@Builder
+public class BatchOperationRequestDto {
+
+    @NotNull
+    private final OperationTypeDto operationType;
+
+    @NotNull
+    private final UUID ewalletUuid;
+
+    @NotNull
+    @Positive
+    @Digits(integer = Money.MAX_INTEGER_DIGITS, fraction = Money.SCALE)
+    private final BigDecimal amount;
+
+    private final UUID destinationWalletUuid;
+
+    private final String description;
+}
@@ -1,5 +1,7 @@
 package ewallet.dto.ewallet.api;
 
+import ewallet.util.money.Money;
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import lombok.AllArgsConstructor;
@@ -15,6 +17,7 @@ public class DepositEwalletRequestDto {
 
     @NotNull
     @Positive
+    @Digits(integer = Money.MAX_INTEGER_DIGITS, fraction = Money.SCALE)
     private final BigDecimal amount;
 
     private final String description;
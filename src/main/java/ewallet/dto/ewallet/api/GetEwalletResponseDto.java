@@ -0,0 +1,24 @@
+package ewallet.dto.ewallet.api;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@AllArgsConstructor
+@Data
+@Builder
+public class GetEwalletResponseDto {
+
+    @NotNull
+    private final UUID uuid;
+
+    @NotNull
+    private final UUID customerUuid;
+
+    @NotNull
+    private final BigDecimal balance;
+}
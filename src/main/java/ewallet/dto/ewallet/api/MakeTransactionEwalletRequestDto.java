@@ -1,5 +1,7 @@
 package ewallet.dto.ewallet.api;
 
+import ewallet.util.money.Money;
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import lombok.AllArgsConstructor;
@@ -16,6 +18,7 @@ public class MakeTransactionEwalletRequestDto {
 
     @NotNull
     @Positive
+    @Digits(integer = Money.MAX_INTEGER_DIGITS, fraction = Money.SCALE)
     private final BigDecimal amount;
 
     @NotNull
@@ -0,0 +1,37 @@
+package ewallet.dto.ewallet.api;
+
+import ewallet.dto.operation.internal.OperationStatusDto;
+import ewallet.dto.operation.internal.OperationTypeDto;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+@AllArgsConstructor
+@Data
+@Builder
+public class OperationHistoryItemDto {
+
+    @NotNull
+    private final UUID uuid;
+
+    @NotNull
+    private final BigDecimal amount;
+
+    @NotNull
+    private final OperationTypeDto type;
+
+    @NotNull
+    private final OperationStatusDto status;
+
+    private final String description;
+
+    private final UUID destinationWalletUuid;
+
+    @NotNull
+    private final Instant createdDate;
+}
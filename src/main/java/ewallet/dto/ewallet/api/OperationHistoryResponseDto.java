@@ -0,0 +1,19 @@
+package ewallet.dto.ewallet.api;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@AllArgsConstructor
+@Data
+@Builder
+public class OperationHistoryResponseDto {
+
+    @NotNull
+    private final List<OperationHistoryItemDto> operations;
+
+    private final String nextCursor;
+}
@@ -4,7 +4,6 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 
-import java.math.BigDecimal;
 import java.util.UUID;
 
 @AllArgsConstructor
@@ -14,26 +13,28 @@ public class EwalletDto {
 
     private UUID uuid;
 
-    private BigDecimal balance;
+    private long balance;
 
     private UUID customerUuid;
 
-    public EwalletDto deposit(BigDecimal amount) {
+    private int stripes;
 
-        BigDecimal newBalance = balance.add(amount).setScale(2);
-        setBalance(newBalance);
+    private Long version;
+
+    public EwalletDto deposit(long amount) {
+
+        balance = Math.addExact(balance, amount);
         return this;
     }
 
-    public EwalletDto withdraw(BigDecimal amount) {
+    public EwalletDto withdraw(long amount) {
 
-        BigDecimal newBalance = balance.subtract(amount).setScale(2);
-        setBalance(newBalance);
+        balance = Math.subtractExact(balance, amount);
         return this;
     }
 
-    public boolean isEnoughBalance(BigDecimal amount) {
+    public boolean isEnoughBalance(long amount) {
 
-        return balance.compareTo(amount) >= 0;
+        return balance >= amount;
     }
 }
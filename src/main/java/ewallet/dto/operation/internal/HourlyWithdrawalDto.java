@@ -0,0 +1,33 @@
+package ewallet.dto.operation.internal;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@AllArgsConstructor
+@Data
+@Builder
+public class HourlyWithdrawalDto {
+
+    public static final long HOUR_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private UUID ewalletUuid;
+
+    private long hourBucket;
+
+    private long withdrawnSum;
+
+    public static long hourBucketOf(long timestamp) {
+
+        return timestamp / HOUR_MILLIS;
+    }
+
+    // Placed at the end of its hour so the aggregate never expires before any withdrawal it contains
+    public long lastTimestamp() {
+
+        return (hourBucket + 1) * HOUR_MILLIS - 1;
+    }
+}
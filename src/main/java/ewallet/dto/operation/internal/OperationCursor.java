@@ -0,0 +1,27 @@
+package ewallet.dto.operation.internal;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+// Position of the last operation on a page; the next page starts strictly after it in (createdDate, uuid) order
+public record OperationCursor(Timestamp createdDate, UUID uuid) {
+
+    public static OperationCursor decode(String cursor) {
+
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("/", 2);
+            return new OperationCursor(Timestamp.from(Instant.parse(parts[0])), UUID.fromString(parts[1]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor [%s] is invalid".formatted(cursor), e);
+        }
+    }
+
+    public String encode() {
+
+        String position = createdDate.toInstant() + "/" + uuid;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+}
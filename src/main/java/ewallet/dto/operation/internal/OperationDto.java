@@ -4,7 +4,6 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 
-import java.math.BigDecimal;
 import java.sql.Timestamp;
 import java.util.UUID;
 
@@ -15,7 +14,7 @@ public class OperationDto {
 
     private UUID uuid;
 
-    private BigDecimal amount;
+    private long amount;
 
     private OperationTypeDto operationType;
 
@@ -0,0 +1,21 @@
+package ewallet.dto.operation.internal;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.sql.Timestamp;
+
+@AllArgsConstructor
+@Data
+@Builder
+public class OperationFilterDto {
+
+    private OperationTypeDto operationType;
+
+    private OperationStatusDto operationStatus;
+
+    private Timestamp from;
+
+    private Timestamp to;
+}
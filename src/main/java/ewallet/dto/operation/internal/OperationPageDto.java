@@ -0,0 +1,17 @@
+package ewallet.dto.operation.internal;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@AllArgsConstructor
+@Data
+@Builder
+public class OperationPageDto {
+
+    private List<OperationDto> operations;
+
+    private OperationCursor nextCursor;
+}
@@ -3,5 +3,7 @@ package ewallet.dto.operation.internal;
 public enum OperationStatusDto {
 
     COMPLETED,
-    DECLINED
+    DECLINED,
+    PENDING,
+    FAILED
 }
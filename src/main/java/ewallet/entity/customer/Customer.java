@@ -1,21 +1,22 @@
 package ewallet.entity.customer;
 
-import jakarta.persistence.Column;
-import jakarta.persistence.Entity;
-import jakarta.persistence.Id;
+import ewallet.entity.AssignedIdEntity;
+import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 
 import java.util.UUID;
 
 @Builder
 @Data
+@EqualsAndHashCode(callSuper = false)
 @Entity
 @AllArgsConstructor
 @NoArgsConstructor
-public class Customer {
+public class Customer extends AssignedIdEntity {
 
     @Id
     private UUID uuid;
@@ -28,4 +29,10 @@ public class Customer {
 
     @Column(nullable = false, unique = true)
     private String email;
+
+    @Override
+    public UUID getId() {
+
+        return uuid;
+    }
 }
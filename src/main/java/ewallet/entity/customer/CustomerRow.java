@@ -0,0 +1,42 @@
+package ewallet.entity.customer;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.domain.Persistable;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.util.UUID;
+
+// R2DBC mapping of the table owned by Customer, used by the reactive profile
+@Builder
+@Data
+@Table("customer")
+@AllArgsConstructor
+@NoArgsConstructor
+public class CustomerRow implements Persistable<UUID> {
+
+    @Id
+    private UUID uuid;
+
+    private String firstName;
+
+    private String lastName;
+
+    private String email;
+
+    @Override
+    public UUID getId() {
+
+        return uuid;
+    }
+
+    // Customers are only ever inserted through this mapping
+    @Override
+    public boolean isNew() {
+
+        return true;
+    }
+}
@@ -3,12 +3,13 @@ package ewallet.entity.ewallet;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
 
-import java.math.BigDecimal;
 import java.util.UUID;
 
 @Builder
@@ -16,14 +17,32 @@ import java.util.UUID;
 @Entity
 @AllArgsConstructor
 @NoArgsConstructor
-public class Ewallet {
+public class Ewallet implements Persistable<UUID> {
 
     @Id
     private UUID uuid;
 
     @Column(nullable = false)
-    private BigDecimal balance;
+    private long balance;
 
     @Column(nullable = false)
     private UUID customerUuid;
+
+    private int stripes;
+
+    @Version
+    private Long version;
+
+    @Override
+    public UUID getId() {
+
+        return uuid;
+    }
+
+    // Ewallets are saved as copies rebuilt from their dto, so only the version tells a stored row from a new one
+    @Override
+    public boolean isNew() {
+
+        return version == null;
+    }
 }
@@ -0,0 +1,32 @@
+package ewallet.entity.ewallet;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.util.UUID;
+
+// R2DBC mapping of the table owned by Ewallet, used by the reactive profile
+@Builder
+@Data
+@Table("ewallet")
+@AllArgsConstructor
+@NoArgsConstructor
+public class EwalletRow {
+
+    @Id
+    private UUID uuid;
+
+    private long balance;
+
+    private UUID customerUuid;
+
+    private int stripes;
+
+    @Version
+    private Long version;
+}
@@ -0,0 +1,43 @@
+package ewallet.entity.ewallet;
+
+import ewallet.entity.AssignedIdEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Builder
+@Data
+@EqualsAndHashCode(callSuper = false)
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = {"ewalletUuid", "stripe"}))
+public class EwalletStripe extends AssignedIdEntity {
+
+    @Id
+    private UUID uuid;
+
+    @Column(nullable = false)
+    private UUID ewalletUuid;
+
+    @Column(nullable = false)
+    private int stripe;
+
+    @Column(nullable = false)
+    private long balance;
+
+    @Override
+    public UUID getId() {
+
+        return uuid;
+    }
+}
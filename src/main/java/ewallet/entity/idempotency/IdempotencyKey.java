@@ -0,0 +1,61 @@
+package ewallet.entity.idempotency;
+
+import ewallet.entity.AssignedIdEntity;
+import ewallet.entity.operation.OperationStatus;
+import ewallet.entity.operation.OperationType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.sql.Timestamp;
+import java.util.UUID;
+
+@Builder
+@Data
+@EqualsAndHashCode(callSuper = false)
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(indexes = {
+        @Index(name = "ux_idempotency_key_key", columnList = "idempotencyKey", unique = true),
+        @Index(name = "idx_idempotency_key_created_date", columnList = "createdDate")
+})
+public class IdempotencyKey extends AssignedIdEntity {
+
+    @Id
+    private UUID uuid;
+
+    @Column(nullable = false)
+    private String idempotencyKey;
+
+    @Column(nullable = false)
+    private UUID ewalletUuid;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OperationType operationType;
+
+    @Column(nullable = false)
+    private String requestFingerprint;
+
+    // Assigned with the claim, so a request taking over an abandoned claim can find the operation it may have left behind
+    @Column(nullable = false)
+    private UUID operationUuid;
+
+    // Stays null while the first request holding the key is still running
+    @Enumerated(EnumType.STRING)
+    private OperationStatus operationStatus;
+
+    @CreationTimestamp
+    private Timestamp createdDate;
+
+    @Override
+    public UUID getId() {
+
+        return uuid;
+    }
+}
@@ -0,0 +1,48 @@
+package ewallet.entity.operation;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.sql.Timestamp;
+import java.util.UUID;
+
+// Operations older than the retention horizon; rows are only ever moved in from operation, never changed
+@Builder
+@Data
+@Entity
+@Immutable
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "operation_archive",
+        indexes = @Index(name = "operation_archive_ewallet_uuid_created_date_uuid_idx", columnList = "ewalletUuid, createdDate, uuid"))
+public class ArchivedOperation {
+
+    @Id
+    private UUID uuid;
+
+    @Column(nullable = false)
+    private long amount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OperationType operationType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OperationStatus operationStatus;
+
+    private String description;
+
+    private boolean suspicious;
+
+    @Column(nullable = false)
+    private UUID ewalletUuid;
+
+    private UUID destinationWalletUuid;
+
+    private Timestamp createdDate;
+}
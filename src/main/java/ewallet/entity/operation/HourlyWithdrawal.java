@@ -0,0 +1,28 @@
+package ewallet.entity.operation;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Builder
+@Data
+@Entity
+@IdClass(HourlyWithdrawalId.class)
+@Table(indexes = @Index(name = "hourly_withdrawal_hour_bucket_idx", columnList = "hourBucket"))
+@AllArgsConstructor
+@NoArgsConstructor
+public class HourlyWithdrawal {
+
+    @Id
+    private UUID ewalletUuid;
+
+    @Id
+    private long hourBucket;
+
+    @Column(nullable = false)
+    private long withdrawnSum;
+}
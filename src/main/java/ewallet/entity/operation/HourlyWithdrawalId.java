@@ -0,0 +1,18 @@
+package ewallet.entity.operation;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class HourlyWithdrawalId implements Serializable {
+
+    private UUID ewalletUuid;
+
+    private long hourBucket;
+}
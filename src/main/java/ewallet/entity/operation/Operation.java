@@ -1,28 +1,34 @@
 package ewallet.entity.operation;
 
+import ewallet.entity.AssignedIdEntity;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
 
-import java.math.BigDecimal;
 import java.sql.Timestamp;
 import java.util.UUID;
 
 @Builder
 @Data
+@EqualsAndHashCode(callSuper = false)
 @Entity
 @AllArgsConstructor
 @NoArgsConstructor
-public class Operation {
+@Table(indexes = {
+        @Index(name = "operation_ewallet_uuid_created_date_uuid_idx", columnList = "ewalletUuid, createdDate, uuid"),
+        @Index(name = "operation_created_date_uuid_idx", columnList = "createdDate, uuid")
+})
+public class Operation extends AssignedIdEntity {
 
     @Id
     private UUID uuid;
 
     @Column(nullable = false)
-    private BigDecimal amount;
+    private long amount;
 
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
@@ -43,4 +49,10 @@ public class Operation {
 
     @CreationTimestamp
     private Timestamp createdDate;
+
+    @Override
+    public UUID getId() {
+
+        return uuid;
+    }
 }
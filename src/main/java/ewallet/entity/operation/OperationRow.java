@@ -0,0 +1,53 @@
+package ewallet.entity.operation;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.domain.Persistable;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// R2DBC mapping of the table owned by Operation, used by the reactive profile
+@Builder
+@Data
+@Table("operation")
+@AllArgsConstructor
+@NoArgsConstructor
+public class OperationRow implements Persistable<UUID> {
+
+    @Id
+    private UUID uuid;
+
+    private long amount;
+
+    private OperationType operationType;
+
+    private OperationStatus operationStatus;
+
+    private String description;
+
+    private boolean suspicious;
+
+    private UUID ewalletUuid;
+
+    private UUID destinationWalletUuid;
+
+    private LocalDateTime createdDate;
+
+    @Override
+    public UUID getId() {
+
+        return uuid;
+    }
+
+    // Operations are only ever inserted through this mapping
+    @Override
+    public boolean isNew() {
+
+        return true;
+    }
+}
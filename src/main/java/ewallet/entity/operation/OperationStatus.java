@@ -3,5 +3,7 @@ package ewallet.entity.operation;
 public enum OperationStatus {
 
     COMPLETED,
-    DECLINED
+    DECLINED,
+    PENDING,
+    FAILED
 }
@@ -0,0 +1,9 @@
+package ewallet.repository.customer;
+
+import ewallet.entity.customer.CustomerRow;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+
+import java.util.UUID;
+
+public interface ReactiveCustomerDao extends R2dbcRepository<CustomerRow, UUID> {
+}
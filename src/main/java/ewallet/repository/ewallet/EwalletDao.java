@@ -4,8 +4,11 @@ import ewallet.entity.ewallet.Ewallet;
 import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -14,4 +17,29 @@ public interface EwalletDao extends JpaRepository<Ewallet, UUID> {
     @Query(value = "SELECT u FROM Ewallet u WHERE uuid = ?1")
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     Optional<Ewallet> findByIdAndLock(UUID uuid);
+
+    @Query(value = "SELECT u FROM Ewallet u WHERE uuid IN ?1 ORDER BY uuid")
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<Ewallet> findAllByIdAndLock(Collection<UUID> uuids);
+
+    // The row and its stripes are read by one statement, so a concurrent consolidate is seen either entirely or not at all
+    @Query(value = "SELECT new ewallet.repository.ewallet.EwalletSummary(u.uuid, " +
+            "u.balance + COALESCE((SELECT SUM(s.balance) FROM EwalletStripe s WHERE s.ewalletUuid = u.uuid), 0), " +
+            "u.customerUuid, u.stripes, u.version) FROM Ewallet u WHERE u.uuid = ?1")
+    Optional<EwalletSummary> findWithStripesBalance(UUID uuid);
+
+    @Modifying
+    @Query(value = "UPDATE ewallet SET balance = balance + ?2, version = version + 1 WHERE uuid = ?1", nativeQuery = true)
+    int deposit(UUID uuid, long amount);
+
+    @Modifying
+    @Query(value = "UPDATE ewallet SET balance = balance - ?2, version = version + 1 WHERE uuid = ?1 AND balance >= ?2", nativeQuery = true)
+    int withdraw(UUID uuid, long amount);
+
+    @Modifying
+    @Query(value = "UPDATE ewallet SET balance = ?2, version = version + 1 WHERE uuid = ?1", nativeQuery = true)
+    int setBalance(UUID uuid, long balance);
+
+    @Query(value = "SELECT u FROM Ewallet u WHERE stripes > 0")
+    List<Ewallet> findAllStriped();
 }
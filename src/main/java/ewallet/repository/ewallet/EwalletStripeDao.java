@@ -0,0 +1,25 @@
+package ewallet.repository.ewallet;
+
+import ewallet.entity.ewallet.EwalletStripe;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface EwalletStripeDao extends JpaRepository<EwalletStripe, UUID> {
+
+    @Modifying
+    @Query(value = "UPDATE ewallet_stripe SET balance = balance + ?3 WHERE ewallet_uuid = ?1 AND stripe = ?2", nativeQuery = true)
+    int credit(UUID ewalletUuid, int stripe, long amount);
+
+    @Query(value = "SELECT COALESCE(SUM(u.balance), 0) FROM EwalletStripe u WHERE u.ewalletUuid = ?1")
+    long sumBalanceByEwalletUuid(UUID ewalletUuid);
+
+    @Query(value = "SELECT u FROM EwalletStripe u WHERE u.ewalletUuid = ?1 ORDER BY u.stripe")
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<EwalletStripe> findAllByEwalletUuidAndLock(UUID ewalletUuid);
+}
@@ -0,0 +1,7 @@
+package ewallet.repository.ewallet;
+
+import java.util.UUID;
+
+// A hot ewallet is read straight into this with its stripes already added, so the sum never leaves the statement
+public record EwalletSummary(UUID uuid, long balance, UUID customerUuid, int stripes, Long version) {
+}
@@ -0,0 +1,25 @@
+package ewallet.repository.ewallet;
+
+import ewallet.entity.ewallet.EwalletRow;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.UUID;
+
+public interface ReactiveEwalletDao extends R2dbcRepository<EwalletRow, UUID> {
+
+    @Query(value = "SELECT * FROM ewallet WHERE uuid IN (:uuids) ORDER BY uuid FOR UPDATE")
+    Flux<EwalletRow> findAllByIdAndLock(Collection<UUID> uuids);
+
+    @Modifying
+    @Query(value = "UPDATE ewallet SET balance = balance + :amount, version = version + 1 WHERE uuid = :uuid")
+    Mono<Integer> deposit(UUID uuid, long amount);
+
+    @Modifying
+    @Query(value = "UPDATE ewallet SET balance = balance - :amount, version = version + 1 WHERE uuid = :uuid AND balance >= :amount")
+    Mono<Integer> withdraw(UUID uuid, long amount);
+}
@@ -0,0 +1,25 @@
+package ewallet.repository.idempotency;
+
+import ewallet.entity.idempotency.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface IdempotencyKeyDao extends JpaRepository<IdempotencyKey, UUID> {
+
+    Optional<IdempotencyKey> findByIdempotencyKey(String idempotencyKey);
+
+    @Modifying
+    @Query(value = "DELETE FROM IdempotencyKey u WHERE u.createdDate < ?1")
+    int deleteAllCreatedBefore(Timestamp timestamp);
+
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE IdempotencyKey u SET u.createdDate = ?4 WHERE u.idempotencyKey = ?1 AND u.requestFingerprint = ?2 AND u.operationStatus IS NULL AND u.createdDate < ?3")
+    int renewUnfinishedCreatedBefore(String idempotencyKey, String requestFingerprint, Timestamp timestamp, Timestamp renewedDate);
+}
@@ -0,0 +1,35 @@
+package ewallet.repository.operation;
+
+import ewallet.entity.operation.HourlyWithdrawal;
+import ewallet.entity.operation.HourlyWithdrawalId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface HourlyWithdrawalDao extends JpaRepository<HourlyWithdrawal, HourlyWithdrawalId> {
+
+    @Modifying
+    @Query(value = "MERGE INTO hourly_withdrawal t " +
+            "USING (SELECT CAST(?1 AS UUID) AS ewallet_uuid, CAST(?2 AS BIGINT) AS hour_bucket, CAST(?3 AS BIGINT) AS amount) s " +
+            "ON t.ewallet_uuid = s.ewallet_uuid AND t.hour_bucket = s.hour_bucket " +
+            "WHEN MATCHED THEN UPDATE SET withdrawn_sum = t.withdrawn_sum + s.amount " +
+            "WHEN NOT MATCHED THEN INSERT (ewallet_uuid, hour_bucket, withdrawn_sum) VALUES (s.ewallet_uuid, s.hour_bucket, s.amount)",
+            nativeQuery = true)
+    int add(UUID ewalletUuid, long hourBucket, long amount);
+
+    @Query(value = "SELECT COALESCE(SUM(u.withdrawnSum), 0) FROM HourlyWithdrawal u WHERE u.ewalletUuid = ?1 AND u.hourBucket >= ?2")
+    long sumByEwalletUuidSince(UUID ewalletUuid, long hourBucket);
+
+    @Query(value = "SELECT u FROM HourlyWithdrawal u WHERE u.ewalletUuid = ?1 AND u.hourBucket >= ?2 ORDER BY u.hourBucket")
+    List<HourlyWithdrawal> findAllByEwalletUuidSince(UUID ewalletUuid, long hourBucket);
+
+    @Query(value = "SELECT u FROM HourlyWithdrawal u WHERE u.hourBucket >= ?1")
+    List<HourlyWithdrawal> findAllSince(long hourBucket);
+
+    @Modifying
+    @Query(value = "DELETE FROM HourlyWithdrawal u WHERE u.hourBucket < ?1")
+    int deleteAllBefore(long hourBucket);
+}
@@ -0,0 +1,35 @@
+package ewallet.repository.operation;
+
+import ewallet.entity.operation.ArchivedOperation;
+import ewallet.entity.operation.OperationStatus;
+import ewallet.entity.operation.OperationType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface OperationArchiveDao extends JpaRepository<ArchivedOperation, UUID> {
+
+    String SUMMARY = OperationDao.SUMMARY_SELECT + "FROM ArchivedOperation o " + OperationDao.SUMMARY_FILTER;
+
+    @Query(SUMMARY + OperationDao.NEWEST_FIRST)
+    List<OperationSummary> findFirstPage(UUID ewalletUuid, OperationType operationType, OperationStatus operationStatus,
+                                         Timestamp from, Timestamp to, Pageable pageable);
+
+    @Query(SUMMARY + OperationDao.BEFORE_CURSOR + OperationDao.NEWEST_FIRST)
+    List<OperationSummary> findPageBefore(UUID ewalletUuid, OperationType operationType, OperationStatus operationStatus,
+                                          Timestamp from, Timestamp to, Timestamp createdDate, UUID uuid, Pageable pageable);
+
+    @Modifying
+    @Query(value = "INSERT INTO operation_archive " +
+            "(uuid, amount, operation_type, operation_status, description, suspicious, ewallet_uuid, destination_wallet_uuid, created_date) " +
+            "SELECT uuid, amount, operation_type, operation_status, description, suspicious, ewallet_uuid, destination_wallet_uuid, created_date " +
+            "FROM operation WHERE uuid IN (:uuids)",
+            nativeQuery = true)
+    int copyFromOperations(Collection<UUID> uuids);
+}
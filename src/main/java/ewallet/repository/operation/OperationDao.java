@@ -1,20 +1,49 @@
 package ewallet.repository.operation;
 
 import ewallet.entity.operation.Operation;
-import jakarta.persistence.LockModeType;
+import ewallet.entity.operation.OperationStatus;
+import ewallet.entity.operation.OperationType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
 import java.sql.Timestamp;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 public interface OperationDao extends JpaRepository<Operation, UUID> {
 
+    String SUMMARY_SELECT = "SELECT new ewallet.repository.operation.OperationSummary(" +
+            "o.uuid, o.amount, o.operationType, o.operationStatus, o.description, o.destinationWalletUuid, o.createdDate) ";
 
-    @Query(value = "SELECT u FROM Operation u WHERE ewalletUuid = ?1 AND operationType = 'WITHDRAWAL' AND createdDate > ?2 AND operationStatus = 'COMPLETED'")
-    @Lock(LockModeType.PESSIMISTIC_WRITE)
-    List<Operation> lastDayWithdrawalsByWalletUuidAndLock(UUID uuid, Timestamp lastDay);
-}
+    String SUMMARY_FILTER = "WHERE o.ewalletUuid = :ewalletUuid " +
+            "AND (:operationType IS NULL OR o.operationType = :operationType) " +
+            "AND (:operationStatus IS NULL OR o.operationStatus = :operationStatus) " +
+            "AND (:from IS NULL OR o.createdDate >= :from) " +
+            "AND (:to IS NULL OR o.createdDate < :to) ";
+
+    String SUMMARY = SUMMARY_SELECT + "FROM Operation o " + SUMMARY_FILTER;
+
+    String BEFORE_CURSOR = "AND (o.createdDate < :createdDate OR o.createdDate = :createdDate AND o.uuid < :uuid) ";
+
+    String NEWEST_FIRST = "ORDER BY o.createdDate DESC, o.uuid DESC";
 
+    // Both pages walk operation_ewallet_uuid_created_date_uuid_idx backwards and stop after the page size
+    @Query(SUMMARY + NEWEST_FIRST)
+    List<OperationSummary> findFirstPage(UUID ewalletUuid, OperationType operationType, OperationStatus operationStatus,
+                                         Timestamp from, Timestamp to, Pageable pageable);
+
+    @Query(SUMMARY + BEFORE_CURSOR + NEWEST_FIRST)
+    List<OperationSummary> findPageBefore(UUID ewalletUuid, OperationType operationType, OperationStatus operationStatus,
+                                          Timestamp from, Timestamp to, Timestamp createdDate, UUID uuid, Pageable pageable);
+
+    // Oldest first on operation_created_date_uuid_idx, so whatever is archived always sorts before what stays hot
+    @Query("SELECT o.uuid FROM Operation o WHERE o.createdDate < :before ORDER BY o.createdDate, o.uuid")
+    List<UUID> findOldestCreatedBefore(Timestamp before, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM Operation o WHERE o.uuid IN :uuids")
+    int deleteAllByUuidIn(Collection<UUID> uuids);
+}
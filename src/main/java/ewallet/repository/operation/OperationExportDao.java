@@ -0,0 +1,89 @@
+package ewallet.repository.operation;
+
+import ewallet.dto.operation.internal.OperationFilterDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+// Rows go from a forward-only cursor straight to the consumer, so neither the persistence context nor a result list grows with the export
+@Repository
+@RequiredArgsConstructor
+public class OperationExportDao {
+
+    private static final String SELECT = "SELECT uuid, ewallet_uuid, destination_wallet_uuid, operation_type, operation_status, " +
+            "amount, suspicious, description, created_date FROM ";
+
+    // Archived operations are all older than the hot ones, so reading the archive first keeps the export chronological
+    private static final List<String> TABLES = List.of("operation_archive", "operation");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Drivers such as PostgreSQL only honour the fetch size inside a transaction, otherwise the whole result is loaded at once
+    public long streamAll(UUID ewalletUuid, OperationFilterDto filter, int fetchSize, Consumer<OperationExportRow> consumer) {
+
+        List<String> conditions = new ArrayList<>();
+        List<Object> parameters = new ArrayList<>();
+        if (ewalletUuid != null) {
+            conditions.add("ewallet_uuid = ?");
+            parameters.add(ewalletUuid);
+        }
+        if (filter.getOperationType() != null) {
+            conditions.add("operation_type = ?");
+            parameters.add(filter.getOperationType().name());
+        }
+        if (filter.getOperationStatus() != null) {
+            conditions.add("operation_status = ?");
+            parameters.add(filter.getOperationStatus().name());
+        }
+        if (filter.getFrom() != null) {
+            conditions.add("created_date >= ?");
+            parameters.add(filter.getFrom());
+        }
+        if (filter.getTo() != null) {
+            conditions.add("created_date < ?");
+            parameters.add(filter.getTo());
+        }
+
+        // A single ewallet walks its created_date index; everything else walks the primary key, which follows creation order while ids are time-ordered
+        String where = (conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions))
+                + (ewalletUuid != null ? " ORDER BY created_date, uuid" : " ORDER BY uuid");
+
+        long[] count = new long[1];
+        for (String table : TABLES) {
+            jdbcTemplate.query(statement(SELECT + table + where, parameters, fetchSize), resultSet -> {
+                consumer.accept(new OperationExportRow(
+                        resultSet.getObject("uuid", UUID.class),
+                        resultSet.getObject("ewallet_uuid", UUID.class),
+                        resultSet.getObject("destination_wallet_uuid", UUID.class),
+                        resultSet.getString("operation_type"),
+                        resultSet.getString("operation_status"),
+                        resultSet.getLong("amount"),
+                        resultSet.getBoolean("suspicious"),
+                        resultSet.getString("description"),
+                        resultSet.getTimestamp("created_date")));
+                count[0]++;
+            });
+        }
+        return count[0];
+    }
+
+    private static PreparedStatementCreator statement(String sql, List<Object> parameters, int fetchSize) {
+
+        return connection -> {
+            PreparedStatement preparedStatement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            preparedStatement.setFetchSize(fetchSize);
+            for (int i = 0; i < parameters.size(); i++) {
+                preparedStatement.setObject(i + 1, parameters.get(i));
+            }
+            return preparedStatement;
+        };
+    }
+}
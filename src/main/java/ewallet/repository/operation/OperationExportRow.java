@@ -0,0 +1,9 @@
+package ewallet.repository.operation;
+
+import java.sql.Timestamp;
+import java.util.UUID;
+
+// Enum columns stay as their stored names, the export writes them out unchanged
+public record OperationExportRow(UUID uuid, UUID ewalletUuid, UUID destinationWalletUuid, String operationType, String operationStatus,
+                                 long amount, boolean suspicious, String description, Timestamp createdDate) {
+}
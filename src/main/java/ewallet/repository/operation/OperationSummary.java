@@ -0,0 +1,12 @@
+package ewallet.repository.operation;
+
+import ewallet.entity.operation.OperationStatus;
+import ewallet.entity.operation.OperationType;
+
+import java.sql.Timestamp;
+import java.util.UUID;
+
+// History rows are read straight into this, so a page never builds managed entities
+public record OperationSummary(UUID uuid, long amount, OperationType operationType, OperationStatus operationStatus,
+                               String description, UUID destinationWalletUuid, Timestamp createdDate) {
+}
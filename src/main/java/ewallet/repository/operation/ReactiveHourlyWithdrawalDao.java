@@ -0,0 +1,41 @@
+package ewallet.repository.operation;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+// hourly_withdrawal has a composite key, which R2DBC repositories cannot map, so the statements are issued directly
+@Repository
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveHourlyWithdrawalDao {
+
+    private final DatabaseClient databaseClient;
+
+    public Mono<Long> add(UUID ewalletUuid, long hourBucket, long amount) {
+
+        return databaseClient.sql("MERGE INTO hourly_withdrawal t " +
+                        "USING (SELECT CAST(:ewalletUuid AS UUID) AS ewallet_uuid, CAST(:hourBucket AS BIGINT) AS hour_bucket, CAST(:amount AS BIGINT) AS amount) s " +
+                        "ON t.ewallet_uuid = s.ewallet_uuid AND t.hour_bucket = s.hour_bucket " +
+                        "WHEN MATCHED THEN UPDATE SET withdrawn_sum = t.withdrawn_sum + s.amount " +
+                        "WHEN NOT MATCHED THEN INSERT (ewallet_uuid, hour_bucket, withdrawn_sum) VALUES (s.ewallet_uuid, s.hour_bucket, s.amount)")
+                .bind("ewalletUuid", ewalletUuid)
+                .bind("hourBucket", hourBucket)
+                .bind("amount", amount)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Mono<Long> sumByEwalletUuidSince(UUID ewalletUuid, long hourBucket) {
+
+        return databaseClient.sql("SELECT CAST(COALESCE(SUM(withdrawn_sum), 0) AS BIGINT) AS total FROM hourly_withdrawal WHERE ewallet_uuid = :ewalletUuid AND hour_bucket >= :hourBucket")
+                .bind("ewalletUuid", ewalletUuid)
+                .bind("hourBucket", hourBucket)
+                .map(row -> row.get("total", Long.class))
+                .one();
+    }
+}
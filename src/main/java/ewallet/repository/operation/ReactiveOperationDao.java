@@ -0,0 +1,10 @@
+package ewallet.repository.operation;
+
+import ewallet.entity.operation.OperationRow;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+
+import java.util.UUID;
+
+public interface ReactiveOperationDao extends R2dbcRepository<OperationRow, UUID> {
+
+}
@@ -0,0 +1,101 @@
+package ewallet.service.customer;
+
+import ewallet.config.EwalletProperties;
+import ewallet.dto.customer.internal.CustomerDto;
+import ewallet.util.cache.ExpiringCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+// Concurrent misses for one uuid share a single load; unknown uuids are remembered for a short while
+@Component
+@RequiredArgsConstructor
+public class CustomerCache {
+
+    private final EwalletProperties properties;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<UUID, CompletableFuture<Optional<CustomerDto>>> loads = new ConcurrentHashMap<>();
+
+    private ExpiringCache<UUID, CustomerDto> customers;
+
+    private ExpiringCache<UUID, Boolean> missing;
+
+    private Counter hits;
+
+    private Counter misses;
+
+    private Counter coalesced;
+
+    private Timer loadTimer;
+
+    @PostConstruct
+    public void start() {
+
+        EwalletProperties.CustomerCache customerCache = properties.getCustomerCache();
+        customers = new ExpiringCache<>(customerCache.getCapacity(), customerCache.getTtlMillis());
+        missing = new ExpiringCache<>(customerCache.getMissingCapacity(), customerCache.getMissingTtlMillis());
+        meterRegistry.gauge("ewallet.customer.cache.size", this, cache -> cache.customers.size());
+        hits = meterRegistry.counter("ewallet.customer.cache.hits");
+        misses = meterRegistry.counter("ewallet.customer.cache.misses");
+        coalesced = meterRegistry.counter("ewallet.customer.cache.coalesced");
+        loadTimer = meterRegistry.timer("ewallet.customer.cache.load");
+    }
+
+    public Optional<CustomerDto> get(UUID uuid, Supplier<Optional<CustomerDto>> loader) {
+
+        CustomerDto cached = customers.get(uuid);
+        if (cached != null) {
+            hits.increment();
+            return Optional.of(cached);
+        }
+        if (missing.get(uuid) != null) {
+            hits.increment();
+            return Optional.empty();
+        }
+
+        misses.increment();
+        CompletableFuture<Optional<CustomerDto>> load = new CompletableFuture<>();
+        CompletableFuture<Optional<CustomerDto>> running = loads.putIfAbsent(uuid, load);
+        if (running != null) {
+            coalesced.increment();
+            return await(running);
+        }
+
+        try {
+            Optional<CustomerDto> loaded = loadTimer.record(loader);
+            loaded.ifPresentOrElse(customer -> customers.put(uuid, customer), () -> missing.put(uuid, Boolean.TRUE));
+            load.complete(loaded);
+            return loaded;
+        } catch (RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            loads.remove(uuid, load);
+        }
+    }
+
+    private static Optional<CustomerDto> await(CompletableFuture<Optional<CustomerDto>> load) {
+
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -12,6 +12,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.NoSuchElementException;
+import java.util.Optional;
 import java.util.UUID;
 
 @Service
@@ -22,6 +23,8 @@ public class CustomerService {
 
     private EwalletService ewalletService;
 
+    private CustomerCache customerCache;
+
     @Transactional
     public CustomerDto save(CustomerDto customerDto) {
 
@@ -34,8 +37,9 @@ public class CustomerService {
         return CustomerMapper.toDto(savedCustomer);
     }
 
-    public Customer get(UUID uuid) {
+    public CustomerDto get(UUID uuid) {
 
-        return customerDao.findById(uuid).orElseThrow(() -> new NoSuchElementException("Customer was not found with uuid=[%s]".formatted(uuid)));
+        Optional<CustomerDto> customer = customerCache.get(uuid, () -> customerDao.findById(uuid).map(CustomerMapper::toDto));
+        return customer.orElseThrow(() -> new NoSuchElementException("Customer was not found with uuid=[%s]".formatted(uuid)));
     }
 }
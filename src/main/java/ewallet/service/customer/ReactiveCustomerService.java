@@ -0,0 +1,45 @@
+package ewallet.service.customer;
+
+import ewallet.dto.customer.internal.CustomerDto;
+import ewallet.entity.customer.CustomerRow;
+import ewallet.repository.customer.ReactiveCustomerDao;
+import ewallet.service.ewallet.ReactiveEwalletService;
+import ewallet.util.mapper.customer.CustomerMapper;
+import ewallet.util.mapper.ewallet.EwalletMapper;
+import lombok.AllArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+
+import java.util.NoSuchElementException;
+import java.util.UUID;
+
+@Service
+@Profile("reactive")
+@AllArgsConstructor
+public class ReactiveCustomerService {
+
+    private ReactiveCustomerDao reactiveCustomerDao;
+
+    private ReactiveEwalletService reactiveEwalletService;
+
+    private TransactionalOperator transactionalOperator;
+
+    public Mono<CustomerDto> save(CustomerDto customerDto) {
+
+        CustomerRow customer = CustomerMapper.toRow(customerDto);
+
+        return reactiveCustomerDao.save(customer)
+                .flatMap(savedCustomer -> reactiveEwalletService.save(EwalletMapper.createDtoWithCustomerUuid(savedCustomer.getUuid()))
+                        .thenReturn(CustomerMapper.toDto(savedCustomer)))
+                .as(transactionalOperator::transactional);
+    }
+
+    public Mono<CustomerDto> get(UUID uuid) {
+
+        return reactiveCustomerDao.findById(uuid)
+                .map(CustomerMapper::toDto)
+                .switchIfEmpty(Mono.error(() -> new NoSuchElementException("Customer was not found with uuid=[%s]".formatted(uuid))));
+    }
+}
@@ -0,0 +1,57 @@
+package ewallet.service.ewallet;
+
+import ewallet.config.EwalletProperties;
+import ewallet.config.LockingMode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+@RequiredArgsConstructor
+public class EwalletConflictTracker {
+
+    private static final double SMOOTHING = 0.1;
+
+    private static final double EVICTION_RATE = 0.001;
+
+    private final EwalletProperties properties;
+
+    private final Map<UUID, ConflictRate> conflictRates = new ConcurrentHashMap<>();
+
+    public boolean isOptimistic(UUID uuid) {
+
+        if (properties.getLocking().getMode() != LockingMode.OPTIMISTIC) {
+            return false;
+        }
+        ConflictRate conflictRate = conflictRates.get(uuid);
+        return conflictRate == null || !conflictRate.pessimistic;
+    }
+
+    public void recordAttempt(UUID uuid, boolean conflicted) {
+
+        if (properties.getLocking().getMode() != LockingMode.OPTIMISTIC) {
+            return;
+        }
+        double threshold = properties.getLocking().getConflictRateThreshold();
+        conflictRates.compute(uuid, (key, conflictRate) -> {
+            ConflictRate updated = conflictRate == null ? new ConflictRate() : conflictRate;
+            updated.rate = updated.rate * (1 - SMOOTHING) + (conflicted ? SMOOTHING : 0);
+            if (updated.rate > threshold) {
+                updated.pessimistic = true;
+            } else if (updated.rate < threshold / 2) {
+                updated.pessimistic = false;
+            }
+            return updated.rate < EVICTION_RATE && !updated.pessimistic ? null : updated;
+        });
+    }
+
+    private static class ConflictRate {
+
+        private double rate;
+
+        private boolean pessimistic;
+    }
+}
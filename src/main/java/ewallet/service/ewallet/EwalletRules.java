@@ -0,0 +1,35 @@
+package ewallet.service.ewallet;
+
+import java.util.UUID;
+
+public final class EwalletRules {
+
+    public static final long SINGLE_TRANSACTION_LIMIT = 200_000;
+
+    public static final long DAILY_WITHDRAW_LIMIT = 500_000;
+
+    public static boolean isAmountBiggerThanDailyLimit(long amount) {
+
+        return amount > DAILY_WITHDRAW_LIMIT;
+    }
+
+    public static boolean isDailyLimitExceeded(long lastDayWithdrawalsAmount) {
+
+        return lastDayWithdrawalsAmount > DAILY_WITHDRAW_LIMIT;
+    }
+
+    public static boolean isTransactionRequestValid(long amount, UUID sourceUuid, UUID destinationUuid) {
+
+        return isTransactionRequestValid(amount) && destinationUuid != null && !sourceUuid.equals(destinationUuid);
+    }
+
+    public static boolean isTransactionRequestValid(long amount) {
+
+        return isAmountValid(amount) && amount < SINGLE_TRANSACTION_LIMIT;
+    }
+
+    public static boolean isAmountValid(long amount) {
+
+        return amount > 0;
+    }
+}
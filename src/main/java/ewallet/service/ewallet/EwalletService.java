@@ -3,19 +3,33 @@ package ewallet.service.ewallet;
 import ewallet.dto.ewallet.internal.EwalletDto;
 import ewallet.dto.operation.internal.OperationDto;
 import ewallet.dto.operation.internal.OperationStatusDto;
+import ewallet.dto.operation.internal.OperationTypeDto;
 import ewallet.entity.ewallet.Ewallet;
 import ewallet.repository.ewallet.EwalletDao;
+import ewallet.service.ewallet.cache.EwalletBalanceCache;
+import ewallet.service.ewallet.hot.HotEwalletService;
+import ewallet.service.ewallet.limit.DailyWithdrawalTracker;
+import ewallet.service.ewallet.shard.EwalletShardEngine;
 import ewallet.service.operation.OperationService;
 import ewallet.util.mapper.ewallet.EwalletMapper;
-import jakarta.transaction.Transactional;
 import lombok.AllArgsConstructor;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.support.RetrySynchronizationManager;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.math.BigDecimal;
-import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static ewallet.service.ewallet.EwalletRules.*;
 
 @Service
 @AllArgsConstructor
@@ -25,9 +39,17 @@ public class EwalletService {
 
     private OperationService operationService;
 
-    private static final BigDecimal SINGLE_TRANSACTION_LIMIT = BigDecimal.valueOf(2000);
+    private EwalletShardEngine ewalletShardEngine;
+
+    private HotEwalletService hotEwalletService;
+
+    private EwalletConflictTracker ewalletConflictTracker;
+
+    private DailyWithdrawalTracker dailyWithdrawalTracker;
+
+    private EwalletBalanceCache ewalletBalanceCache;
 
-    private static final BigDecimal DAILY_WITHDRAW_LIMIT = BigDecimal.valueOf(5000);
+    private TransactionTemplate transactionTemplate;
 
     public void save(EwalletDto ewalletDto) {
 
@@ -35,131 +57,387 @@ public class EwalletService {
         ewalletDao.save(ewallet);
     }
 
-    @Transactional
+    // Never locks the row: hot ewallets add up their stripes and the shard engine answers from its own state
+    public Optional<EwalletDto> find(UUID uuid) {
+
+        if (ewalletShardEngine.isEnabled()) {
+            return ewalletShardEngine.find(uuid);
+        }
+
+        if (hotEwalletService.isHot(uuid)) {
+            return ewalletDao.findWithStripesBalance(uuid).map(EwalletMapper::toDto);
+        }
+
+        return ewalletBalanceCache.get(uuid, () -> ewalletDao.findById(uuid).map(EwalletMapper::toDto));
+    }
+
+    // The shard engine commits on its own threads, so only the locking path opens a transaction
+    @RetryOnConflict
     public OperationDto deposit(OperationDto operation) {
 
-        BigDecimal amount = operation.getAmount();
+        if (ewalletShardEngine.isEnabled()) {
+            return ewalletShardEngine.deposit(operation);
+        }
+        return transactionTemplate.execute(status -> depositLocking(operation));
+    }
+
+    @RetryOnConflict
+    public OperationDto withdraw(OperationDto operation) {
+
+        if (ewalletShardEngine.isEnabled()) {
+            return ewalletShardEngine.withdraw(operation);
+        }
+        return transactionTemplate.execute(status -> withdrawLocking(operation));
+    }
+
+    @RetryOnConflict
+    public OperationDto makeTransaction(OperationDto operation) {
+
+        if (ewalletShardEngine.isEnabled()) {
+            return ewalletShardEngine.makeTransaction(operation);
+        }
+        return transactionTemplate.execute(status -> makeTransactionLocking(operation));
+    }
+
+    @RetryOnConflict
+    public List<OperationDto> applyAll(List<OperationDto> operations) {
+
+        // Each operation commits on its own shard, so one that fails is marked instead of hiding those already applied
+        if (ewalletShardEngine.isEnabled()) {
+            return operations.stream().map(this::applyOrMarkFailed).toList();
+        }
+        return transactionTemplate.execute(status -> applyAllLocking(operations));
+    }
+
+    private OperationDto depositLocking(OperationDto operation) {
+
+        long amount = operation.getAmount();
         if (!isAmountValid(amount)) {
             return declineOperationAndGet(operation);
         }
 
-        Optional<Ewallet> optionalEwallet = ewalletDao.findByIdAndLock(operation.getEwalletUuid());
-        if (optionalEwallet.isEmpty()) {
-            return declineOperationAndGet(operation);
+        UUID uuid = operation.getEwalletUuid();
+        if (hotEwalletService.isHot(uuid)) {
+            return creditHotEwalletAndGet(uuid, operation);
         }
 
-        Ewallet ewallet = optionalEwallet.get();
-        EwalletDto ewalletDto = EwalletMapper.toDto(ewallet);
-        ewalletDto.deposit(amount);
-        ewalletDao.save(EwalletMapper.toEntity(ewalletDto));
+        if (ewalletDao.deposit(uuid, amount) == 0) {
+            return declineOperationAndGet(operation);
+        }
 
+        ewalletBalanceCache.evictAfterCommit(List.of(uuid));
         operation.setOperationStatus(OperationStatusDto.COMPLETED);
         return operationService.save(operation);
     }
 
-    @Transactional
-    public OperationDto withdraw(OperationDto operation) {
+    private OperationDto withdrawLocking(OperationDto operation) {
 
-        BigDecimal amount = operation.getAmount();
-        if (!isAmountValid(amount) || amountIsBiggerThanDailyLimit(amount)) {
+        long amount = operation.getAmount();
+        if (!isAmountValid(amount) || isAmountBiggerThanDailyLimit(amount)) {
             return declineOperationAndGet(operation);
         }
 
-        Optional<Ewallet> optionalEwallet = ewalletDao.findByIdAndLock(operation.getEwalletUuid());
-        if (optionalEwallet.isEmpty()) {
-            return declineOperationAndGet(operation);
+        UUID uuid = operation.getEwalletUuid();
+        if (hotEwalletService.isHot(uuid)) {
+            return withdrawFromHotEwallet(operation);
         }
 
-        Ewallet ewallet = optionalEwallet.get();
-        EwalletDto ewalletDto = EwalletMapper.toDto(ewallet);
-        if (!ewalletDto.isEnoughBalance(amount) || amountIsBiggerThanDailyLimit(ewallet.getUuid())) {
+        if (ewalletDao.withdraw(uuid, amount) == 0) {
             return declineOperationAndGet(operation);
         }
 
-        ewalletDto.withdraw(amount);
-        ewalletDao.save(EwalletMapper.toEntity(ewalletDto));
+        ewalletBalanceCache.evictAfterCommit(List.of(uuid));
 
+        // The updated row stays locked until commit, so concurrent withdrawals see each other in the daily sum
+        if (amountIsBiggerThanDailyLimit(uuid)) {
+            ewalletDao.deposit(uuid, amount);
+            return declineOperationAndGet(operation);
+        }
+
+        dailyWithdrawalTracker.record(uuid, amount);
         operation.setOperationStatus(OperationStatusDto.COMPLETED);
         return operationService.save(operation);
     }
 
-    private boolean amountIsBiggerThanDailyLimit(BigDecimal amount) {
+    private OperationDto makeTransactionLocking(OperationDto operation) {
 
-        return amount.compareTo(DAILY_WITHDRAW_LIMIT) > 0;
-    }
-
-    @Transactional
-    public OperationDto makeTransaction(OperationDto operation) {
-
-        BigDecimal amount = operation.getAmount();
-        if (!isTransactionRequestValid(amount)) {
+        long amount = operation.getAmount();
+        UUID sourceUuid = operation.getEwalletUuid();
+        UUID destinationUuid = operation.getDestinationWalletUuid();
+        if (!isTransactionRequestValid(amount, sourceUuid, destinationUuid)) {
             return declineOperationAndGet(operation);
         }
 
-        Optional<Ewallet> optionalSourceEwallet = ewalletDao.findByIdAndLock(operation.getEwalletUuid());
-        if (optionalSourceEwallet.isEmpty()) {
+        if (hotEwalletService.isHot(destinationUuid)) {
+            return makeTransactionToHotEwallet(operation);
+        }
+
+        Map<UUID, Ewallet> ewallets = findAllForUpdate(List.of(sourceUuid, destinationUuid));
+        Ewallet sourceEwallet = ewallets.get(sourceUuid);
+        if (sourceEwallet == null) {
             return declineOperationAndGet(operation);
         }
 
-        Ewallet sourceEwallet = optionalSourceEwallet.get();
         EwalletDto sourceEwalletDto = EwalletMapper.toDto(sourceEwallet);
-        if (!sourceEwalletDto.isEnoughBalance(amount)) {
+        if (!isEnoughBalance(sourceEwalletDto, amount)) {
             return declineOperationAndGet(operation);
         }
 
-        Optional<Ewallet> optionalDestinationEwallet = ewalletDao.findByIdAndLock(operation.getDestinationWalletUuid());
-        if (optionalDestinationEwallet.isEmpty()) {
+        Ewallet destinationEwallet = ewallets.get(destinationUuid);
+        if (destinationEwallet == null) {
             return declineOperationAndGet(operation);
         }
 
-        Ewallet destinationEwallet = optionalDestinationEwallet.get();
         EwalletDto destinationEwalletDto = EwalletMapper.toDto(destinationEwallet);
 
+        borrowIfNeeded(sourceEwalletDto, amount);
         sourceEwalletDto.withdraw(amount);
         destinationEwalletDto.deposit(amount);
 
         Ewallet sourceEwalletToSave = EwalletMapper.toEntity(sourceEwalletDto);
         Ewallet destinationEwalletToSave = EwalletMapper.toEntity(destinationEwalletDto);
-        ewalletDao.saveAll(List.of(sourceEwalletToSave, destinationEwalletToSave));
+        ewalletBalanceCache.putAfterCommit(ewalletDao.saveAll(List.of(sourceEwalletToSave, destinationEwalletToSave)));
 
         operation.setOperationStatus(OperationStatusDto.COMPLETED);
         return operationService.save(operation);
     }
 
-    private boolean amountIsBiggerThanDailyLimit(UUID uuid) {
+    private List<OperationDto> applyAllLocking(List<OperationDto> operations) {
+
+        Set<UUID> uuids = new TreeSet<>();
+        operations.forEach(operation -> {
+            uuids.add(operation.getEwalletUuid());
+            if (operation.getDestinationWalletUuid() != null) {
+                uuids.add(operation.getDestinationWalletUuid());
+            }
+        });
+
+        // Hot ewallets keep their own paths, but every row is locked up front in uuid order so two groups cannot deadlock,
+        // and a conflict still fails the whole group back to applyAll's retry
+        if (uuids.stream().anyMatch(hotEwalletService::isHot)) {
+            findAllForUpdate(List.copyOf(uuids));
+            return operations.stream().map(this::applyLocking).toList();
+        }
 
-        List<OperationDto> operations = operationService.lastDayWithdrawalsByWalletUuid(uuid);
-        BigDecimal lastDayOperationsAmount = operations.stream()
-                .map(OperationDto::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        Map<UUID, EwalletDto> ewallets = findAllForUpdate(List.copyOf(uuids)).values().stream()
+                .map(EwalletMapper::toDto)
+                .collect(Collectors.toMap(EwalletDto::getUuid, Function.identity()));
+        Map<UUID, Long> withdrawals = new HashMap<>();
+        Set<UUID> changedEwallets = new LinkedHashSet<>();
+
+        for (OperationDto operation : operations) {
+            boolean completed = switch (operation.getOperationType()) {
+                case DEPOSIT -> applyDeposit(operation, ewallets);
+                case WITHDRAWAL -> applyWithdrawal(operation, ewallets, withdrawals);
+                case TRANSACTION -> applyTransaction(operation, ewallets);
+            };
+            if (completed) {
+                changedEwallets.add(operation.getEwalletUuid());
+                if (operation.getOperationType() == OperationTypeDto.TRANSACTION) {
+                    changedEwallets.add(operation.getDestinationWalletUuid());
+                }
+            }
+            operation.setOperationStatus(completed ? OperationStatusDto.COMPLETED : OperationStatusDto.DECLINED);
+        }
 
-        return lastDayOperationsAmount.compareTo(DAILY_WITHDRAW_LIMIT) > 0;
+        ewalletBalanceCache.putAfterCommit(ewalletDao.saveAll(changedEwallets.stream().map(uuid -> EwalletMapper.toEntity(ewallets.get(uuid))).toList()));
+        withdrawals.forEach(dailyWithdrawalTracker::record);
+        return operationService.saveAll(operations);
     }
 
-    private OperationDto declineOperationAndGet(OperationDto operationDto) {
+    private OperationDto applyOrMarkFailed(OperationDto operation) {
 
-        operationDto.setOperationStatus(OperationStatusDto.DECLINED);
-        return operationService.save(operationDto);
+        try {
+            return apply(operation);
+        } catch (RuntimeException e) {
+            operation.setOperationStatus(OperationStatusDto.FAILED);
+            return operation;
+        }
+    }
+
+    private OperationDto apply(OperationDto operation) {
+
+        return switch (operation.getOperationType()) {
+            case DEPOSIT -> deposit(operation);
+            case WITHDRAWAL -> withdraw(operation);
+            case TRANSACTION -> makeTransaction(operation);
+        };
+    }
+
+    private OperationDto applyLocking(OperationDto operation) {
+
+        return switch (operation.getOperationType()) {
+            case DEPOSIT -> depositLocking(operation);
+            case WITHDRAWAL -> withdrawLocking(operation);
+            case TRANSACTION -> makeTransactionLocking(operation);
+        };
     }
 
-    private boolean isTransactionRequestValid(BigDecimal amount) {
+    private static boolean applyDeposit(OperationDto operation, Map<UUID, EwalletDto> ewallets) {
+
+        long amount = operation.getAmount();
+        EwalletDto ewallet = ewallets.get(operation.getEwalletUuid());
+        if (!isAmountValid(amount) || ewallet == null) {
+            return false;
+        }
+
+        ewallet.deposit(amount);
+        return true;
+    }
+
+    private boolean applyWithdrawal(OperationDto operation, Map<UUID, EwalletDto> ewallets, Map<UUID, Long> withdrawals) {
+
+        long amount = operation.getAmount();
+        EwalletDto ewallet = ewallets.get(operation.getEwalletUuid());
+        if (!isAmountValid(amount) || isAmountBiggerThanDailyLimit(amount) || ewallet == null || !ewallet.isEnoughBalance(amount)) {
+            return false;
+        }
+
+        long withdrawn = withdrawals.getOrDefault(ewallet.getUuid(), 0L);
+        if (isDailyLimitExceeded(dailyWithdrawalTracker.lastDayWithdrawals(ewallet.getUuid()) + withdrawn)) {
+            return false;
+        }
 
-        return isAmountValid(amount) && amount.compareTo(SINGLE_TRANSACTION_LIMIT) < 0;
+        ewallet.withdraw(amount);
+        withdrawals.put(ewallet.getUuid(), withdrawn + amount);
+        return true;
     }
 
-    private boolean isAmountValid(BigDecimal amount) {
+    private static boolean applyTransaction(OperationDto operation, Map<UUID, EwalletDto> ewallets) {
+
+        long amount = operation.getAmount();
+        UUID sourceUuid = operation.getEwalletUuid();
+        UUID destinationUuid = operation.getDestinationWalletUuid();
+        if (!isTransactionRequestValid(amount, sourceUuid, destinationUuid)) {
+            return false;
+        }
 
-        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+        EwalletDto sourceEwallet = ewallets.get(sourceUuid);
+        EwalletDto destinationEwallet = ewallets.get(destinationUuid);
+        if (sourceEwallet == null || destinationEwallet == null || !sourceEwallet.isEnoughBalance(amount)) {
             return false;
         }
-        BigInteger fractionalPart = amount.remainder(BigDecimal.ONE).unscaledValue();
-        int fractionalDigitsQuantity = getFractionalDigitsQuantity(fractionalPart);
 
-        return fractionalDigitsQuantity <= 2;
+        sourceEwallet.withdraw(amount);
+        destinationEwallet.deposit(amount);
+        return true;
+    }
+
+    private OperationDto withdrawFromHotEwallet(OperationDto operation) {
+
+        long amount = operation.getAmount();
+        Optional<Ewallet> optionalEwallet = findForUpdate(operation.getEwalletUuid());
+        if (optionalEwallet.isEmpty()) {
+            return declineOperationAndGet(operation);
+        }
+
+        Ewallet ewallet = optionalEwallet.get();
+        EwalletDto ewalletDto = EwalletMapper.toDto(ewallet);
+        if (!isEnoughBalance(ewalletDto, amount) || amountIsBiggerThanDailyLimit(ewallet.getUuid())) {
+            return declineOperationAndGet(operation);
+        }
+
+        borrowIfNeeded(ewalletDto, amount);
+        ewalletDto.withdraw(amount);
+        ewalletDao.save(EwalletMapper.toEntity(ewalletDto));
+        dailyWithdrawalTracker.record(ewallet.getUuid(), amount);
+
+        operation.setOperationStatus(OperationStatusDto.COMPLETED);
+        return operationService.save(operation);
     }
 
-    private static int getFractionalDigitsQuantity(BigInteger fractionalPart) {
+    private OperationDto makeTransactionToHotEwallet(OperationDto operation) {
+
+        long amount = operation.getAmount();
+        UUID sourceUuid = operation.getEwalletUuid();
+        // A hot source borrows from its stripes while the destination's are credited, so both rows are locked first, in uuid order
+        Optional<Ewallet> optionalSourceEwallet = hotEwalletService.isHot(sourceUuid)
+                ? Optional.ofNullable(findAllForUpdate(List.of(sourceUuid, operation.getDestinationWalletUuid())).get(sourceUuid))
+                : findForUpdate(sourceUuid);
+        if (optionalSourceEwallet.isEmpty()) {
+            return declineOperationAndGet(operation);
+        }
 
-        return (int) (Math.log10(fractionalPart.intValue()) + 1);
+        EwalletDto sourceEwalletDto = EwalletMapper.toDto(optionalSourceEwallet.get());
+        if (!isEnoughBalance(sourceEwalletDto, amount)) {
+            return declineOperationAndGet(operation);
+        }
+
+        // Credited before the source is touched, so a destination without stripes declines with nothing to undo
+        if (!hotEwalletService.credit(operation.getDestinationWalletUuid(), amount)) {
+            return declineOperationAndGet(operation);
+        }
+
+        borrowIfNeeded(sourceEwalletDto, amount);
+        sourceEwalletDto.withdraw(amount);
+        ewalletBalanceCache.putAfterCommit(List.of(ewalletDao.save(EwalletMapper.toEntity(sourceEwalletDto))));
+
+        operation.setOperationStatus(OperationStatusDto.COMPLETED);
+        return operationService.save(operation);
+    }
+
+    private boolean amountIsBiggerThanDailyLimit(UUID uuid) {
+
+        return isDailyLimitExceeded(dailyWithdrawalTracker.lastDayWithdrawals(uuid));
+    }
+
+    private Optional<Ewallet> findForUpdate(UUID uuid) {
+
+        ewalletConflictTracker.recordAttempt(uuid, isRetry());
+        return isOptimistic(uuid) ? ewalletDao.findById(uuid) : ewalletDao.findByIdAndLock(uuid);
+    }
+
+    private Map<UUID, Ewallet> findAllForUpdate(List<UUID> uuids) {
+
+        boolean retry = isRetry();
+        uuids.forEach(uuid -> ewalletConflictTracker.recordAttempt(uuid, retry));
+
+        List<Ewallet> ewallets = uuids.stream().allMatch(this::isOptimistic)
+                ? ewalletDao.findAllById(uuids)
+                : ewalletDao.findAllByIdAndLock(uuids);
+
+        return ewallets.stream()
+                .collect(Collectors.toMap(Ewallet::getUuid, Function.identity()));
+    }
+
+    // Stripes are borrowed only behind their ewallet's row lock, so a hot ewallet is never read optimistically
+    private boolean isOptimistic(UUID uuid) {
+
+        return ewalletConflictTracker.isOptimistic(uuid) && !hotEwalletService.isHot(uuid);
+    }
+
+    private static boolean isRetry() {
+
+        RetryContext retryContext = RetrySynchronizationManager.getContext();
+        return retryContext != null && retryContext.getRetryCount() > 0;
+    }
+
+    private boolean isEnoughBalance(EwalletDto ewalletDto, long amount) {
+
+        return ewalletDto.isEnoughBalance(amount) ||
+                hotEwalletService.isHot(ewalletDto.getUuid()) && hotEwalletService.canBorrow(ewalletDto, amount);
+    }
+
+    private void borrowIfNeeded(EwalletDto ewalletDto, long amount) {
+
+        if (!ewalletDto.isEnoughBalance(amount)) {
+            hotEwalletService.borrow(ewalletDto, amount);
+        }
+    }
+
+    private OperationDto creditHotEwalletAndGet(UUID uuid, OperationDto operation) {
+
+        if (!hotEwalletService.credit(uuid, operation.getAmount())) {
+            return declineOperationAndGet(operation);
+        }
+
+        operation.setOperationStatus(OperationStatusDto.COMPLETED);
+        return operationService.save(operation);
+    }
+
+    private OperationDto declineOperationAndGet(OperationDto operationDto) {
+
+        operationDto.setOperationStatus(OperationStatusDto.DECLINED);
+        return operationService.recordDeclined(operationDto);
     }
 }
@@ -0,0 +1,112 @@
+package ewallet.service.ewallet;
+
+import ewallet.dto.ewallet.internal.EwalletDto;
+import ewallet.dto.operation.internal.OperationDto;
+import ewallet.dto.operation.internal.OperationStatusDto;
+import ewallet.repository.ewallet.ReactiveEwalletDao;
+import ewallet.service.operation.ReactiveOperationService;
+import ewallet.util.mapper.ewallet.EwalletMapper;
+import lombok.AllArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.UUID;
+
+import static ewallet.service.ewallet.EwalletRules.*;
+
+// Same rules as EwalletService's locking engine, without the shard engine and hot ewallet stripes
+@Service
+@Profile("reactive")
+@AllArgsConstructor
+public class ReactiveEwalletService {
+
+    private ReactiveEwalletDao reactiveEwalletDao;
+
+    private ReactiveOperationService reactiveOperationService;
+
+    private TransactionalOperator transactionalOperator;
+
+    public Mono<Void> save(EwalletDto ewalletDto) {
+
+        return reactiveEwalletDao.save(EwalletMapper.createRow(ewalletDto)).then();
+    }
+
+    public Mono<OperationDto> deposit(OperationDto operation) {
+
+        long amount = operation.getAmount();
+        if (!isAmountValid(amount)) {
+            return declineOperationAndGet(operation);
+        }
+
+        return reactiveEwalletDao.deposit(operation.getEwalletUuid(), amount)
+                .flatMap(updated -> updated == 0 ? declineOperationAndGet(operation) : completeOperationAndGet(operation))
+                .as(transactionalOperator::transactional);
+    }
+
+    public Mono<OperationDto> withdraw(OperationDto operation) {
+
+        long amount = operation.getAmount();
+        if (!isAmountValid(amount) || isAmountBiggerThanDailyLimit(amount)) {
+            return declineOperationAndGet(operation);
+        }
+
+        return reactiveEwalletDao.withdraw(operation.getEwalletUuid(), amount)
+                .flatMap(updated -> updated == 0 ? declineOperationAndGet(operation) : checkDailyLimitAndGet(operation))
+                .as(transactionalOperator::transactional);
+    }
+
+    public Mono<OperationDto> makeTransaction(OperationDto operation) {
+
+        long amount = operation.getAmount();
+        UUID sourceUuid = operation.getEwalletUuid();
+        UUID destinationUuid = operation.getDestinationWalletUuid();
+        if (!isTransactionRequestValid(amount, sourceUuid, destinationUuid)) {
+            return declineOperationAndGet(operation);
+        }
+
+        return reactiveEwalletDao.findAllByIdAndLock(List.of(sourceUuid, destinationUuid))
+                .map(EwalletMapper::toDto)
+                .collectMap(EwalletDto::getUuid)
+                .flatMap(ewallets -> {
+                    EwalletDto sourceEwallet = ewallets.get(sourceUuid);
+                    if (sourceEwallet == null || !sourceEwallet.isEnoughBalance(amount) || !ewallets.containsKey(destinationUuid)) {
+                        return declineOperationAndGet(operation);
+                    }
+                    return reactiveEwalletDao.withdraw(sourceUuid, amount)
+                            .then(reactiveEwalletDao.deposit(destinationUuid, amount))
+                            .then(completeOperationAndGet(operation));
+                })
+                .as(transactionalOperator::transactional);
+    }
+
+    // The updated row stays locked until commit, so concurrent withdrawals see each other in the daily sum
+    private Mono<OperationDto> checkDailyLimitAndGet(OperationDto operation) {
+
+        UUID uuid = operation.getEwalletUuid();
+        long amount = operation.getAmount();
+
+        return reactiveOperationService.lastDayWithdrawalsAmount(uuid)
+                .flatMap(withdrawn -> isDailyLimitExceeded(withdrawn)
+                        ? reactiveEwalletDao.deposit(uuid, amount).then(declineOperationAndGet(operation))
+                        : completeOperationAndGet(operation));
+    }
+
+    private Mono<OperationDto> completeOperationAndGet(OperationDto operation) {
+
+        return Mono.defer(() -> {
+            operation.setOperationStatus(OperationStatusDto.COMPLETED);
+            return reactiveOperationService.save(operation);
+        });
+    }
+
+    private Mono<OperationDto> declineOperationAndGet(OperationDto operation) {
+
+        return Mono.defer(() -> {
+            operation.setOperationStatus(OperationStatusDto.DECLINED);
+            return reactiveOperationService.save(operation);
+        });
+    }
+}
@@ -0,0 +1,25 @@
+package ewallet.service.ewallet;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Retryable(
+        retryFor = OptimisticLockingFailureException.class,
+        maxAttemptsExpression = "${ewallet.locking.max-attempts:5}",
+        backoff = @Backoff(
+                delayExpression = "${ewallet.locking.backoff-millis:5}",
+                maxDelayExpression = "${ewallet.locking.max-backoff-millis:100}",
+                multiplier = 2,
+                random = true
+        )
+)
+public @interface RetryOnConflict {
+}
@@ -0,0 +1,148 @@
+package ewallet.service.ewallet.async;
+
+import ewallet.config.EwalletProperties;
+import ewallet.dto.operation.internal.OperationDto;
+import ewallet.dto.operation.internal.OperationStatusDto;
+import ewallet.service.operation.OperationService;
+import ewallet.util.cache.ExpiringCache;
+import ewallet.util.id.Ids;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+@Service
+@RequiredArgsConstructor
+public class EwalletAsyncService {
+
+    private static final long SHUTDOWN_MILLIS = 30_000;
+
+    private final EwalletProperties properties;
+
+    private final OperationService operationService;
+
+    private final MeterRegistry meterRegistry;
+
+    private ThreadPoolExecutor[] lanes;
+
+    private ExpiringCache<UUID, CompletableFuture<OperationDto>> results;
+
+    private Counter rejected;
+
+    private Counter failed;
+
+    @PostConstruct
+    public void start() {
+
+        EwalletProperties.Async async = properties.getAsync();
+        results = new ExpiringCache<>(async.getStatusCapacity(), async.getStatusTtlMillis());
+        rejected = meterRegistry.counter("ewallet.async.rejected");
+        failed = meterRegistry.counter("ewallet.async.failed");
+        if (!async.isEnabled()) {
+            return;
+        }
+
+        lanes = new ThreadPoolExecutor[async.getLanes()];
+        for (int i = 0; i < lanes.length; i++) {
+            String name = "ewallet-async-" + i;
+            lanes[i] = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(async.getQueueCapacity()),
+                    runnable -> new Thread(runnable, name));
+        }
+    }
+
+    // Lets every accepted operation finish, so nothing answered as pending is lost on a graceful shutdown
+    @PreDestroy
+    public void stop() throws InterruptedException {
+
+        if (lanes == null) {
+            return;
+        }
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.shutdown();
+        }
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.awaitTermination(SHUTDOWN_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public boolean isEnabled() {
+
+        return lanes != null;
+    }
+
+    // Operations of one source ewallet run one at a time in arrival order; the caller only gets the uuid to poll
+    public OperationDto submit(OperationDto operation, UnaryOperator<OperationDto> action) {
+
+        if (operation.getUuid() == null) {
+            operation.setUuid(Ids.next());
+        }
+        OperationDto pending = pending(operation.getUuid());
+        CompletableFuture<OperationDto> result = new CompletableFuture<>();
+        results.put(operation.getUuid(), result);
+
+        try {
+            laneOf(operation.getEwalletUuid()).execute(() -> apply(operation, action, result));
+        } catch (RejectedExecutionException e) {
+            results.remove(operation.getUuid());
+            rejected.increment();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Operation queue is full");
+        }
+        return pending;
+    }
+
+    // Waits up to waitMillis for a pending operation; results that left the cache are looked up in the database
+    public Optional<CompletableFuture<OperationDto>> find(UUID uuid, long waitMillis) {
+
+        CompletableFuture<OperationDto> result = results.get(uuid);
+        if (result == null) {
+            return operationService.find(uuid).map(CompletableFuture::completedFuture);
+        }
+
+        long wait = Math.min(waitMillis, properties.getAsync().getMaxPollMillis());
+        if (result.isDone()) {
+            return Optional.of(result.copy());
+        }
+        if (wait <= 0) {
+            return Optional.of(CompletableFuture.completedFuture(pending(uuid)));
+        }
+        return Optional.of(result.copy().completeOnTimeout(pending(uuid), wait, TimeUnit.MILLISECONDS));
+    }
+
+    private void apply(OperationDto operation, UnaryOperator<OperationDto> action, CompletableFuture<OperationDto> result) {
+
+        try {
+            result.complete(action.apply(operation));
+        } catch (RuntimeException e) {
+            // Declines come back as a declined operation; anything thrown is a failure, not a decline
+            failed.increment();
+            result.completeExceptionally(new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+                    "Operation failed with uuid=[%s]".formatted(operation.getUuid()), e));
+        }
+    }
+
+    private ThreadPoolExecutor laneOf(UUID uuid) {
+
+        return lanes[Math.floorMod(uuid.hashCode(), lanes.length)];
+    }
+
+    private static OperationDto pending(UUID uuid) {
+
+        return OperationDto.builder()
+                .uuid(uuid)
+                .operationStatus(OperationStatusDto.PENDING)
+                .build();
+    }
+}
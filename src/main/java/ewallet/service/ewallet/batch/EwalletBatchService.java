@@ -0,0 +1,66 @@
+package ewallet.service.ewallet.batch;
+
+import ewallet.config.EwalletProperties;
+import ewallet.dto.operation.internal.OperationDto;
+import ewallet.dto.operation.internal.OperationStatusDto;
+import ewallet.service.ewallet.EwalletService;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@Service
+@AllArgsConstructor
+public class EwalletBatchService {
+
+    private EwalletProperties properties;
+
+    private EwalletService ewalletService;
+
+    public List<OperationDto> executeAll(List<OperationDto> operations) {
+
+        Map<UUID, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < operations.size(); i++) {
+            groups.computeIfAbsent(operations.get(i).getEwalletUuid(), uuid -> new ArrayList<>()).add(i);
+        }
+
+        OperationDto[] results = new OperationDto[operations.size()];
+        int groupSize = properties.getBatch().getGroupSize();
+        groups.values().forEach(indexes -> {
+            for (int from = 0; from < indexes.size(); from += groupSize) {
+                List<Integer> chunk = indexes.subList(from, Math.min(from + groupSize, indexes.size()));
+                List<OperationDto> appliedOperations = applyAll(chunk.stream().map(operations::get).toList());
+                for (int i = 0; i < chunk.size(); i++) {
+                    results[chunk.get(i)] = appliedOperations.get(i);
+                }
+            }
+        });
+
+        return Arrays.asList(results);
+    }
+
+    // A failed group rolled back, so each of its operations is retried alone and only those failing again are reported failed
+    private List<OperationDto> applyAll(List<OperationDto> operations) {
+
+        try {
+            return ewalletService.applyAll(operations);
+        } catch (RuntimeException e) {
+            return operations.stream().map(this::applyAlone).toList();
+        }
+    }
+
+    private OperationDto applyAlone(OperationDto operation) {
+
+        try {
+            return ewalletService.applyAll(List.of(operation)).get(0);
+        } catch (RuntimeException e) {
+            operation.setOperationStatus(OperationStatusDto.FAILED);
+            return operation;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package ewallet.service.ewallet.cache;
+
+import ewallet.config.EwalletProperties;
+import ewallet.dto.ewallet.internal.EwalletDto;
+import ewallet.entity.ewallet.Ewallet;
+import ewallet.util.cache.ExpiringCache;
+import ewallet.util.mapper.ewallet.EwalletMapper;
+import ewallet.util.transaction.AfterCommit;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+// Only committed state is cached: writers update or evict an ewallet after their transaction commits
+@Component
+@RequiredArgsConstructor
+public class EwalletBalanceCache {
+
+    private final EwalletProperties properties;
+
+    private final MeterRegistry meterRegistry;
+
+    private ExpiringCache<UUID, EwalletDto> ewallets;
+
+    // Bumped on every eviction, so a load that raced with a writer never stores the balance it read before the commit
+    private AtomicLongArray evictions;
+
+    private Counter hits;
+
+    private Counter misses;
+
+    @PostConstruct
+    public void start() {
+
+        EwalletProperties.BalanceCache balanceCache = properties.getBalanceCache();
+        ewallets = new ExpiringCache<>(balanceCache.getCapacity(), balanceCache.getTtlMillis());
+        evictions = new AtomicLongArray(balanceCache.getStripes());
+        meterRegistry.gauge("ewallet.balance.cache.size", this, cache -> cache.ewallets.size());
+        hits = meterRegistry.counter("ewallet.balance.cache.hits");
+        misses = meterRegistry.counter("ewallet.balance.cache.misses");
+    }
+
+    public Optional<EwalletDto> get(UUID uuid, Supplier<Optional<EwalletDto>> loader) {
+
+        EwalletDto cached = ewallets.get(uuid);
+        if (cached != null) {
+            hits.increment();
+            return Optional.of(cached);
+        }
+
+        misses.increment();
+        int stripe = stripeOf(uuid);
+        long evictionsBeforeLoad = evictions.get(stripe);
+        Optional<EwalletDto> loaded = loader.get();
+        loaded.ifPresent(ewallet -> {
+            ewallets.put(uuid, ewallet, EwalletBalanceCache::isNewer);
+            if (evictions.get(stripe) != evictionsBeforeLoad) {
+                ewallets.remove(uuid);
+            }
+        });
+        return loaded;
+    }
+
+    // Versions are assigned on flush, so the saved entities are only read once the transaction has committed
+    public void putAfterCommit(List<Ewallet> savedEwallets) {
+
+        AfterCommit.run(() -> savedEwallets.stream()
+                .map(EwalletMapper::toDto)
+                .forEach(ewallet -> ewallets.put(ewallet.getUuid(), ewallet, EwalletBalanceCache::isNewer)));
+    }
+
+    public void evictAfterCommit(Collection<UUID> uuids) {
+
+        AfterCommit.run(() -> uuids.forEach(uuid -> {
+            evictions.incrementAndGet(stripeOf(uuid));
+            ewallets.remove(uuid);
+        }));
+    }
+
+    private static boolean isNewer(EwalletDto current, EwalletDto ewallet) {
+
+        return ewallet.getVersion() > current.getVersion();
+    }
+
+    private int stripeOf(UUID uuid) {
+
+        return Math.floorMod(uuid.hashCode(), evictions.length());
+    }
+}
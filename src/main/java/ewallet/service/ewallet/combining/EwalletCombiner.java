@@ -0,0 +1,44 @@
+package ewallet.service.ewallet.combining;
+
+import ewallet.config.EwalletProperties;
+import ewallet.dto.operation.internal.OperationDto;
+import ewallet.service.ewallet.EwalletService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.function.UnaryOperator;
+
+// Concurrent operations on one ewallet queue up while a leader holds its stripe; the next leader applies them all
+// in one applyAll, so a lone request is applied straight away and groups only grow while the row lock is busy
+@Service
+@RequiredArgsConstructor
+public class EwalletCombiner {
+
+    private final EwalletProperties properties;
+
+    private final EwalletService ewalletService;
+
+    private final MeterRegistry meterRegistry;
+
+    private StripedGrouper grouper;
+
+    @PostConstruct
+    public void start() {
+
+        EwalletProperties.Combining combining = properties.getCombining();
+        grouper = new StripedGrouper(ewalletService, meterRegistry, "ewallet.combining",
+                combining.getStripes(), combining.getMaxGroupSize(), combining.getParkMicros(), 0);
+    }
+
+    public boolean isEnabled() {
+
+        return properties.getCombining().isEnabled();
+    }
+
+    public OperationDto apply(OperationDto operation, UnaryOperator<OperationDto> action) {
+
+        return grouper.apply(operation, action);
+    }
+}
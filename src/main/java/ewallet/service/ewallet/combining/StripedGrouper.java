@@ -0,0 +1,199 @@
+package ewallet.service.ewallet.combining;
+
+import ewallet.dto.operation.internal.OperationDto;
+import ewallet.dto.operation.internal.OperationStatusDto;
+import ewallet.service.ewallet.EwalletService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
+
+// Callers queue on the stripe of their ewallet and whoever takes its lock applies everything queued in one applyAll,
+// so each stripe commits its own groups on a caller thread and a lone request is applied straight away
+public class StripedGrouper {
+
+    private final EwalletService ewalletService;
+
+    private final Stripe[] stripes;
+
+    private final int maxGroupSize;
+
+    private final long parkNanos;
+
+    private final long lingerNanos;
+
+    private final DistributionSummary groupSize;
+
+    private final Counter groupFailures;
+
+    private final Counter committed;
+
+    public StripedGrouper(EwalletService ewalletService, MeterRegistry meterRegistry, String metricPrefix,
+                          int stripes, int maxGroupSize, long parkMicros, long lingerMicros) {
+
+        this.ewalletService = ewalletService;
+        this.stripes = new Stripe[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new Stripe();
+        }
+        this.maxGroupSize = maxGroupSize;
+        this.parkNanos = TimeUnit.MICROSECONDS.toNanos(parkMicros);
+        this.lingerNanos = TimeUnit.MICROSECONDS.toNanos(lingerMicros);
+        groupSize = meterRegistry.summary(metricPrefix + ".group.size");
+        groupFailures = meterRegistry.counter(metricPrefix + ".group.failures");
+        committed = meterRegistry.counter(metricPrefix + ".committed");
+    }
+
+    public OperationDto apply(OperationDto operation, UnaryOperator<OperationDto> action) {
+
+        Stripe stripe = stripeOf(operation.getEwalletUuid());
+        Waiter waiter = new Waiter(operation, action, Thread.currentThread());
+        stripe.queue.add(waiter);
+
+        while (!waiter.done) {
+            if (stripe.lock.tryLock()) {
+                try {
+                    while (!waiter.done) {
+                        linger(stripe);
+                        applyGroup(stripe.drain(maxGroupSize));
+                    }
+                } finally {
+                    stripe.lock.unlock();
+                }
+                // Hands the stripe to whoever queued behind this group instead of letting it wait out its park
+                Waiter next = stripe.queue.peek();
+                if (next != null) {
+                    LockSupport.unpark(next.thread);
+                }
+            } else {
+                LockSupport.parkNanos(this, parkNanos);
+            }
+        }
+        return waiter.result();
+    }
+
+    // Only a stripe that already has company waits for its group to fill, so a lone request never pays the linger
+    private void linger(Stripe stripe) {
+
+        if (lingerNanos == 0 || stripe.queue.size() < 2) {
+            return;
+        }
+        long deadline = System.nanoTime() + lingerNanos;
+        while (stripe.queue.size() < maxGroupSize && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private void applyGroup(List<Waiter> group) {
+
+        groupSize.record(group.size());
+        if (group.size() == 1) {
+            applyAlone(group.get(0));
+            return;
+        }
+
+        List<OperationDto> applied;
+        try {
+            applied = ewalletService.applyAll(group.stream().map(waiter -> waiter.operation).toList());
+        } catch (RuntimeException e) {
+            // The whole group rolled back, so each operation is retried on its own and only its own failure reaches its caller
+            groupFailures.increment();
+            group.forEach(this::applyAlone);
+            return;
+        }
+        for (int i = 0; i < group.size(); i++) {
+            if (applied.get(i).getOperationStatus() == OperationStatusDto.FAILED) {
+                applyAlone(group.get(i));
+            } else {
+                committed.increment();
+                group.get(i).complete(applied.get(i));
+            }
+        }
+    }
+
+    private void applyAlone(Waiter waiter) {
+
+        try {
+            OperationDto applied = waiter.action.apply(waiter.operation);
+            committed.increment();
+            waiter.complete(applied);
+        } catch (RuntimeException e) {
+            waiter.fail(e);
+        }
+    }
+
+    // Ewallets sharing a stripe are grouped too; applyAll locks every row of a group in uuid order
+    private Stripe stripeOf(UUID uuid) {
+
+        return stripes[Math.floorMod(uuid.hashCode(), stripes.length)];
+    }
+
+    private static class Stripe {
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private final ConcurrentLinkedQueue<Waiter> queue = new ConcurrentLinkedQueue<>();
+
+        private List<Waiter> drain(int maxGroupSize) {
+
+            List<Waiter> group = new ArrayList<>();
+            Waiter waiter;
+            while (group.size() < maxGroupSize && (waiter = queue.poll()) != null) {
+                group.add(waiter);
+            }
+            return group;
+        }
+    }
+
+    private static class Waiter {
+
+        private final OperationDto operation;
+
+        private final UnaryOperator<OperationDto> action;
+
+        private final Thread thread;
+
+        private OperationDto result;
+
+        private RuntimeException failure;
+
+        private volatile boolean done;
+
+        private Waiter(OperationDto operation, UnaryOperator<OperationDto> action, Thread thread) {
+
+            this.operation = operation;
+            this.action = action;
+            this.thread = thread;
+        }
+
+        private void complete(OperationDto applied) {
+
+            result = applied;
+            done = true;
+            LockSupport.unpark(thread);
+        }
+
+        private void fail(RuntimeException e) {
+
+            failure = e;
+            done = true;
+            LockSupport.unpark(thread);
+        }
+
+        private OperationDto result() {
+
+            if (failure != null) {
+                throw failure;
+            }
+            return result;
+        }
+    }
+}
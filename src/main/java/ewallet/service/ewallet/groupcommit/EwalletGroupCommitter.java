@@ -0,0 +1,47 @@
+package ewallet.service.ewallet.groupcommit;
+
+import ewallet.config.EwalletProperties;
+import ewallet.dto.operation.internal.OperationDto;
+import ewallet.service.ewallet.EwalletService;
+import ewallet.service.ewallet.combining.StripedGrouper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.function.UnaryOperator;
+
+// Operations from concurrent requests share one applyAll transaction per stripe, so each balance change commits together
+// with its audit row and a caller is answered only once that commit has happened. Unlike the combiner, a stripe spans
+// many ewallets and its leader lingers for the group to fill once others are queued behind it
+@Component
+@RequiredArgsConstructor
+public class EwalletGroupCommitter {
+
+    private final EwalletProperties properties;
+
+    private final EwalletService ewalletService;
+
+    private final MeterRegistry meterRegistry;
+
+    private StripedGrouper grouper;
+
+    @PostConstruct
+    public void start() {
+
+        EwalletProperties.GroupCommit groupCommit = properties.getGroupCommit();
+        grouper = new StripedGrouper(ewalletService, meterRegistry, "ewallet.group.commit",
+                groupCommit.getStripes(), groupCommit.getBatchSize(), groupCommit.getParkMicros(), groupCommit.getLingerMicros());
+    }
+
+    public boolean isEnabled() {
+
+        return properties.getGroupCommit().isEnabled();
+    }
+
+    // The caller holds no transaction while it waits; only the stripe's current leader takes a connection
+    public OperationDto apply(OperationDto operation, UnaryOperator<OperationDto> action) {
+
+        return grouper.apply(operation, action);
+    }
+}
@@ -0,0 +1,157 @@
+package ewallet.service.ewallet.hot;
+
+import ewallet.config.EwalletProperties;
+import ewallet.dto.ewallet.internal.EwalletDto;
+import ewallet.entity.ewallet.Ewallet;
+import ewallet.entity.ewallet.EwalletStripe;
+import ewallet.repository.ewallet.EwalletDao;
+import ewallet.repository.ewallet.EwalletStripeDao;
+import ewallet.service.ewallet.shard.EwalletShardEngine;
+import ewallet.util.id.Ids;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+@Service
+@RequiredArgsConstructor
+public class HotEwalletService {
+
+    private final EwalletProperties properties;
+
+    private final EwalletDao ewalletDao;
+
+    private final EwalletStripeDao ewalletStripeDao;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final EwalletShardEngine ewalletShardEngine;
+
+    private final Map<UUID, Integer> hotEwallets = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadHotEwallets() {
+
+        ewalletDao.findAllStriped().forEach(ewallet -> hotEwallets.put(ewallet.getUuid(), ewallet.getStripes()));
+        properties.getHot().getEwallets().forEach(this::markHot);
+    }
+
+    public boolean markHot(UUID uuid) {
+
+        Integer stripes = transactionTemplate.execute(status -> {
+            Optional<Ewallet> optionalEwallet = ewalletDao.findByIdAndLock(uuid);
+            if (optionalEwallet.isEmpty()) {
+                return null;
+            }
+
+            Ewallet ewallet = optionalEwallet.get();
+            int configuredStripes = properties.getHot().getStripes();
+            if (ewallet.getStripes() < configuredStripes) {
+                List<EwalletStripe> newStripes = IntStream.range(ewallet.getStripes(), configuredStripes)
+                        .mapToObj(stripe -> EwalletStripe.builder()
+                                .uuid(Ids.next())
+                                .ewalletUuid(uuid)
+                                .stripe(stripe)
+                                .balance(0)
+                                .build())
+                        .toList();
+                ewalletStripeDao.saveAll(newStripes);
+                ewallet.setStripes(configuredStripes);
+                ewalletDao.save(ewallet);
+            }
+            return ewallet.getStripes();
+        });
+
+        if (stripes == null) {
+            return false;
+        }
+        hotEwallets.put(uuid, stripes);
+        return true;
+    }
+
+    public boolean isHot(UUID uuid) {
+
+        return hotEwallets.containsKey(uuid);
+    }
+
+    public boolean credit(UUID uuid, long amount) {
+
+        int stripe = ThreadLocalRandom.current().nextInt(hotEwallets.get(uuid));
+        return ewalletStripeDao.credit(uuid, stripe, amount) > 0;
+    }
+
+    public boolean canBorrow(EwalletDto ewalletDto, long amount) {
+
+        return ewalletDto.getBalance() + stripesBalance(ewalletDto.getUuid()) >= amount;
+    }
+
+    public long stripesBalance(UUID uuid) {
+
+        return ewalletStripeDao.sumBalanceByEwalletUuid(uuid);
+    }
+
+    public void borrow(EwalletDto ewalletDto, long amount) {
+
+        List<EwalletStripe> stripes = ewalletStripeDao.findAllByEwalletUuidAndLock(ewalletDto.getUuid());
+        for (EwalletStripe stripe : stripes) {
+            if (ewalletDto.isEnoughBalance(amount)) {
+                break;
+            }
+            long missingAmount = amount - ewalletDto.getBalance();
+            long borrowedAmount = Math.min(stripe.getBalance(), missingAmount);
+            stripe.setBalance(stripe.getBalance() - borrowedAmount);
+            ewalletDto.deposit(borrowedAmount);
+        }
+        ewalletStripeDao.saveAll(stripes);
+    }
+
+    @Scheduled(fixedDelayString = "${ewallet.hot.sweep-interval-millis:1000}")
+    public void sweep() {
+
+        hotEwallets.keySet().forEach(uuid -> {
+            if (ewalletShardEngine.isEnabled()) {
+                if (stripesBalance(uuid) != 0) {
+                    ewalletShardEngine.consolidate(uuid, this::drainStripes);
+                }
+            } else {
+                transactionTemplate.executeWithoutResult(status -> consolidate(uuid));
+            }
+        });
+    }
+
+    // The row is locked before its stripes, in the same order borrow takes them
+    private void consolidate(UUID uuid) {
+
+        if (ewalletDao.findByIdAndLock(uuid).isEmpty()) {
+            return;
+        }
+
+        long stripesBalance = drainStripes(uuid);
+        if (stripesBalance != 0) {
+            ewalletDao.deposit(uuid, stripesBalance);
+        }
+    }
+
+    private long drainStripes(UUID uuid) {
+
+        List<EwalletStripe> stripes = ewalletStripeDao.findAllByEwalletUuidAndLock(uuid);
+        long stripesBalance = stripes.stream()
+                .mapToLong(EwalletStripe::getBalance)
+                .sum();
+        if (stripesBalance != 0) {
+            stripes.forEach(stripe -> stripe.setBalance(0));
+            ewalletStripeDao.saveAll(stripes);
+        }
+        return stripesBalance;
+    }
+}
@@ -0,0 +1,109 @@
+package ewallet.service.ewallet.limit;
+
+import ewallet.config.EwalletProperties;
+import ewallet.config.LimitSource;
+import ewallet.service.operation.OperationService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+@RequiredArgsConstructor
+public class DailyWithdrawalTracker {
+
+    private final EwalletProperties properties;
+
+    private final OperationService operationService;
+
+    private final Map<UUID, WithdrawalWindow> windows = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void rebuild() {
+
+        windows.clear();
+        if (isDatabaseSource()) {
+            return;
+        }
+        operationService.lastDayWithdrawals().forEach(hourlyWithdrawal ->
+                add(hourlyWithdrawal.getEwalletUuid(), hourlyWithdrawal.getWithdrawnSum(), hourlyWithdrawal.lastTimestamp()));
+    }
+
+    public long lastDayWithdrawals(UUID uuid) {
+
+        if (isDatabaseSource()) {
+            return operationService.lastDayWithdrawalsAmount(uuid);
+        }
+        return lastDayWithdrawals(uuid, System.currentTimeMillis());
+    }
+
+    public void record(UUID uuid, long amount) {
+
+        // The hourly aggregate is written together with the completed operation
+        if (isDatabaseSource()) {
+            return;
+        }
+        long timestamp = System.currentTimeMillis();
+        add(uuid, amount, timestamp);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+
+                    if (status != STATUS_COMMITTED) {
+                        add(uuid, -amount, timestamp);
+                    }
+                }
+            });
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${ewallet.limit.eviction-interval-millis:300000}")
+    public void evictIdle() {
+
+        evictIdle(System.currentTimeMillis());
+    }
+
+    long lastDayWithdrawals(UUID uuid, long now) {
+
+        WithdrawalWindow window = windows.get(uuid);
+        return window == null ? 0 : window.sum(bucketOf(now));
+    }
+
+    void add(UUID uuid, long amount, long timestamp) {
+
+        long bucket = bucketOf(timestamp);
+        windows.compute(uuid, (key, window) -> {
+            WithdrawalWindow updated = window == null ? new WithdrawalWindow(properties.getLimit().getBuckets()) : window;
+            updated.add(bucket, amount);
+            return updated;
+        });
+    }
+
+    void evictIdle(long now) {
+
+        long bucket = bucketOf(now);
+        windows.keySet().forEach(uuid -> windows.computeIfPresent(uuid, (key, window) -> window.isEmpty(bucket) ? null : window));
+    }
+
+    boolean isTracked(UUID uuid) {
+
+        return windows.containsKey(uuid);
+    }
+
+    private boolean isDatabaseSource() {
+
+        return properties.getLimit().getSource() == LimitSource.DATABASE;
+    }
+
+    private long bucketOf(long timestamp) {
+
+        return timestamp / properties.getLimit().getBucketMillis();
+    }
+}
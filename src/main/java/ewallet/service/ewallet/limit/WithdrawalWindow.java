@@ -0,0 +1,56 @@
+package ewallet.service.ewallet.limit;
+
+class WithdrawalWindow {
+
+    private final long[] amounts;
+
+    private long latestBucket = Long.MIN_VALUE;
+
+    private long total;
+
+    WithdrawalWindow(int buckets) {
+
+        this.amounts = new long[buckets];
+    }
+
+    synchronized void add(long bucket, long amount) {
+
+        advance(bucket);
+        if (bucket <= latestBucket - amounts.length) {
+            return;
+        }
+        amounts[index(bucket)] += amount;
+        total += amount;
+    }
+
+    synchronized long sum(long bucket) {
+
+        advance(bucket);
+        return total;
+    }
+
+    synchronized boolean isEmpty(long bucket) {
+
+        advance(bucket);
+        return total == 0;
+    }
+
+    private void advance(long bucket) {
+
+        if (bucket <= latestBucket) {
+            return;
+        }
+        long firstExpiredBucket = Math.max(latestBucket + 1, bucket - amounts.length + 1);
+        for (long expiredBucket = firstExpiredBucket; expiredBucket <= bucket; expiredBucket++) {
+            int index = index(expiredBucket);
+            total -= amounts[index];
+            amounts[index] = 0;
+        }
+        latestBucket = bucket;
+    }
+
+    private int index(long bucket) {
+
+        return (int) Math.floorMod(bucket, (long) amounts.length);
+    }
+}
@@ -0,0 +1,22 @@
+package ewallet.service.ewallet.shard;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+// Down once the journal writer gave up on a batch, so the halted engine shows on /actuator/health
+@Component
+@RequiredArgsConstructor
+public class EwalletJournalHealthIndicator implements HealthIndicator {
+
+    private final EwalletShardEngine ewalletShardEngine;
+
+    @Override
+    public Health health() {
+
+        return ewalletShardEngine.writeFailure()
+                .map(failure -> Health.down(failure).build())
+                .orElseGet(() -> Health.up().build());
+    }
+}
@@ -0,0 +1,407 @@
+package ewallet.service.ewallet.shard;
+
+import ewallet.dto.ewallet.internal.EwalletDto;
+import ewallet.dto.operation.internal.HourlyWithdrawalDto;
+import ewallet.dto.operation.internal.OperationDto;
+import ewallet.dto.operation.internal.OperationStatusDto;
+import ewallet.dto.operation.internal.OperationTypeDto;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+import static ewallet.service.ewallet.EwalletRules.*;
+
+class EwalletShard implements Runnable {
+
+    private static final long POLL_TIMEOUT_MILLIS = 100;
+
+    private static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    private final int batchSize;
+
+    private final EwalletShardEngine engine;
+
+    private final Thread thread;
+
+    private final BlockingQueue<Runnable> commands = new LinkedBlockingQueue<>();
+
+    private final Map<UUID, ShardEwallet> ewallets = new HashMap<>();
+
+    private final Map<UUID, EwalletDto> dirtyEwallets = new LinkedHashMap<>();
+
+    private final List<OperationDto> pendingOperations = new ArrayList<>();
+
+    private final List<CompletableFuture<OperationDto>> pendingResults = new ArrayList<>();
+
+    private final List<CompletableFuture<Void>> pendingCredits = new ArrayList<>();
+
+    private final List<Runnable> pendingReads = new ArrayList<>();
+
+    private volatile boolean running = true;
+
+    EwalletShard(int index, int batchSize, EwalletShardEngine engine) {
+
+        this.batchSize = batchSize;
+        this.engine = engine;
+        this.thread = new Thread(this, "ewallet-shard-" + index);
+    }
+
+    void start() {
+
+        thread.start();
+    }
+
+    void stop() {
+
+        running = false;
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    <T> CompletableFuture<T> execute(Consumer<CompletableFuture<T>> command) {
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        commands.add(() -> {
+            try {
+                command.accept(result);
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public void run() {
+
+        while (running || !commands.isEmpty()) {
+            try {
+                Runnable command = commands.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                int applied = 0;
+                while (command != null) {
+                    command.run();
+                    command = ++applied < batchSize ? commands.poll() : null;
+                }
+                flush();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    void deposit(OperationDto operation, CompletableFuture<OperationDto> result) {
+
+        long amount = operation.getAmount();
+        if (!isAmountValid(amount)) {
+            decline(operation, result);
+            return;
+        }
+
+        ShardEwallet ewallet = ewallet(operation.getEwalletUuid());
+        if (ewallet == null) {
+            decline(operation, result);
+            return;
+        }
+
+        ewallet.deposit(amount);
+        markDirty(ewallet);
+        complete(operation, result);
+    }
+
+    void withdraw(OperationDto operation, CompletableFuture<OperationDto> result) {
+
+        long amount = operation.getAmount();
+        if (!isAmountValid(amount) || isAmountBiggerThanDailyLimit(amount)) {
+            decline(operation, result);
+            return;
+        }
+
+        ShardEwallet ewallet = ewallet(operation.getEwalletUuid());
+        if (ewallet == null) {
+            decline(operation, result);
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        if (!ewallet.isEnoughBalance(amount) || isDailyLimitExceeded(ewallet.lastDayWithdrawalsAmount(now))) {
+            decline(operation, result);
+            return;
+        }
+
+        ewallet.withdraw(amount, now);
+        markDirty(ewallet);
+        complete(operation, result);
+    }
+
+    void makeTransaction(OperationDto operation, CompletableFuture<OperationDto> result) {
+
+        long amount = operation.getAmount();
+        if (!isTransactionRequestValid(amount, operation.getEwalletUuid(), operation.getDestinationWalletUuid())) {
+            decline(operation, result);
+            return;
+        }
+
+        ShardEwallet sourceEwallet = ewallet(operation.getEwalletUuid());
+        if (sourceEwallet == null || !sourceEwallet.isEnoughBalance(amount)) {
+            decline(operation, result);
+            return;
+        }
+
+        UUID destinationUuid = operation.getDestinationWalletUuid();
+        EwalletShard destinationShard = engine.shardOf(destinationUuid);
+        if (destinationShard == this) {
+            ShardEwallet destinationEwallet = ewallet(destinationUuid);
+            if (destinationEwallet == null) {
+                decline(operation, result);
+                return;
+            }
+            sourceEwallet.withdraw(amount);
+            destinationEwallet.deposit(amount);
+            markDirty(sourceEwallet);
+            markDirty(destinationEwallet);
+            complete(operation, result);
+            return;
+        }
+
+        if (!engine.ewalletExists(destinationUuid)) {
+            decline(operation, result);
+            return;
+        }
+
+        sourceEwallet.withdraw(amount);
+        markDirty(sourceEwallet);
+
+        // The destination is credited only once the debit is persisted, and a failed credit is refunded to the source
+        CompletableFuture<OperationDto> debited = new CompletableFuture<>();
+        complete(operation, debited);
+        debited.thenCompose(savedOperation -> destinationShard.credit(destinationUuid, amount).thenApply(ignored -> savedOperation))
+                .whenComplete((savedOperation, e) -> {
+                    if (e == null) {
+                        result.complete(savedOperation);
+                    } else if (debited.isCompletedExceptionally()) {
+                        result.completeExceptionally(e);
+                    } else {
+                        refund(debited.join(), e instanceof CompletionException && e.getCause() != null ? e.getCause() : e, result);
+                    }
+                });
+    }
+
+    // Answered once the batch in front of it is persisted, so a read never sees a balance that could still be rolled back
+    void find(UUID uuid, CompletableFuture<Optional<EwalletDto>> result) {
+
+        pendingReads.add(() -> {
+            try {
+                result.complete(Optional.ofNullable(ewallet(uuid)).map(ewallet -> copyOf(ewallet.dto)));
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        });
+    }
+
+    // Runs between batches, so the balance written with the drained stripes already holds every change this shard applied
+    void consolidate(UUID uuid, ToLongFunction<UUID> drainStripes, CompletableFuture<Long> result) {
+
+        flush();
+        ShardEwallet ewallet = ewallet(uuid);
+        if (ewallet == null) {
+            result.complete(0L);
+            return;
+        }
+
+        try {
+            result.complete(engine.consolidate(ewallet.dto, drainStripes));
+        } catch (RuntimeException e) {
+            ewallets.remove(uuid);
+            result.completeExceptionally(e);
+        }
+    }
+
+    private CompletableFuture<Void> credit(UUID uuid, long amount) {
+
+        return execute(credited -> {
+            ShardEwallet ewallet = existingEwallet(uuid);
+            ewallet.deposit(amount);
+            markDirty(ewallet);
+            pendingCredits.add(credited);
+        });
+    }
+
+    // Runs on the source shard and records the returned amount as a deposit, so the history still adds up to the balance
+    private void refund(OperationDto operation, Throwable failure, CompletableFuture<OperationDto> result) {
+
+        this.<OperationDto>execute(refunded -> {
+            ShardEwallet ewallet = existingEwallet(operation.getEwalletUuid());
+            ewallet.deposit(operation.getAmount());
+            markDirty(ewallet);
+            complete(OperationDto.builder()
+                    .amount(operation.getAmount())
+                    .operationType(OperationTypeDto.DEPOSIT)
+                    .ewalletUuid(operation.getEwalletUuid())
+                    .description("Refund of operation uuid=[%s]".formatted(operation.getUuid()))
+                    .build(), refunded);
+        }).whenComplete((refundOperation, e) -> {
+            if (e != null) {
+                failure.addSuppressed(e);
+            }
+            result.completeExceptionally(failure);
+        });
+    }
+
+    private void flush() {
+
+        if (pendingOperations.isEmpty() && dirtyEwallets.isEmpty()) {
+            answerReads();
+            return;
+        }
+
+        try {
+            List<OperationDto> savedOperations = engine.persist(dirtyEwallets.values(), pendingOperations);
+            for (int i = 0; i < pendingResults.size(); i++) {
+                pendingResults.get(i).complete(savedOperations.get(i));
+            }
+            pendingCredits.forEach(credited -> credited.complete(null));
+        } catch (RuntimeException e) {
+            dirtyEwallets.keySet().forEach(ewallets::remove);
+            pendingResults.forEach(pendingResult -> pendingResult.completeExceptionally(e));
+            pendingCredits.forEach(credited -> credited.completeExceptionally(e));
+        } finally {
+            dirtyEwallets.clear();
+            pendingOperations.clear();
+            pendingResults.clear();
+            pendingCredits.clear();
+        }
+        answerReads();
+    }
+
+    private void answerReads() {
+
+        pendingReads.forEach(Runnable::run);
+        pendingReads.clear();
+    }
+
+    private ShardEwallet ewallet(UUID uuid) {
+
+        ShardEwallet ewallet = ewallets.get(uuid);
+        if (ewallet == null) {
+            ewallet = engine.loadEwallet(uuid).map(ShardEwallet::new).orElse(null);
+            if (ewallet != null) {
+                ewallets.put(uuid, ewallet);
+            }
+        }
+        return ewallet;
+    }
+
+    private ShardEwallet existingEwallet(UUID uuid) {
+
+        ShardEwallet ewallet = ewallet(uuid);
+        if (ewallet == null) {
+            throw new IllegalStateException("Ewallet was not found with uuid=[%s]".formatted(uuid));
+        }
+        return ewallet;
+    }
+
+    private static EwalletDto copyOf(EwalletDto ewallet) {
+
+        return EwalletDto.builder()
+                .uuid(ewallet.getUuid())
+                .balance(ewallet.getBalance())
+                .customerUuid(ewallet.getCustomerUuid())
+                .stripes(ewallet.getStripes())
+                .version(ewallet.getVersion())
+                .build();
+    }
+
+    private void markDirty(ShardEwallet ewallet) {
+
+        dirtyEwallets.put(ewallet.dto.getUuid(), ewallet.dto);
+    }
+
+    private void complete(OperationDto operation, CompletableFuture<OperationDto> result) {
+
+        operation.setOperationStatus(OperationStatusDto.COMPLETED);
+        enqueue(operation, result);
+    }
+
+    private void decline(OperationDto operation, CompletableFuture<OperationDto> result) {
+
+        operation.setOperationStatus(OperationStatusDto.DECLINED);
+        enqueue(operation, result);
+    }
+
+    private void enqueue(OperationDto operation, CompletableFuture<OperationDto> result) {
+
+        pendingOperations.add(operation);
+        pendingResults.add(result);
+    }
+
+    private record Withdrawal(long timestamp, long amount) {
+    }
+
+    private class ShardEwallet {
+
+        private final EwalletDto dto;
+
+        private Deque<Withdrawal> lastDayWithdrawals;
+
+        private ShardEwallet(EwalletDto dto) {
+
+            this.dto = dto;
+        }
+
+        private boolean isEnoughBalance(long amount) {
+
+            return dto.isEnoughBalance(amount);
+        }
+
+        private void deposit(long amount) {
+
+            dto.deposit(amount);
+        }
+
+        private void withdraw(long amount) {
+
+            dto.withdraw(amount);
+        }
+
+        private void withdraw(long amount, long timestamp) {
+
+            dto.withdraw(amount);
+            lastDayWithdrawals.addLast(new Withdrawal(timestamp, amount));
+        }
+
+        private long lastDayWithdrawalsAmount(long now) {
+
+            if (lastDayWithdrawals == null) {
+                lastDayWithdrawals = new ArrayDeque<>();
+                engine.loadLastDayWithdrawals(dto.getUuid()).stream()
+                        .sorted(Comparator.comparingLong(HourlyWithdrawalDto::getHourBucket))
+                        .forEach(hourlyWithdrawal -> lastDayWithdrawals.addLast(new Withdrawal(hourlyWithdrawal.lastTimestamp(), hourlyWithdrawal.getWithdrawnSum())));
+            }
+            while (!lastDayWithdrawals.isEmpty() && lastDayWithdrawals.peekFirst().timestamp() <= now - DAY_MILLIS) {
+                lastDayWithdrawals.pollFirst();
+            }
+            return lastDayWithdrawals.stream()
+                    .mapToLong(Withdrawal::amount)
+                    .sum();
+        }
+    }
+}
@@ -0,0 +1,378 @@
+package ewallet.service.ewallet.shard;
+
+import ewallet.config.EngineMode;
+import ewallet.config.EwalletProperties;
+import ewallet.dto.ewallet.internal.EwalletDto;
+import ewallet.dto.operation.internal.HourlyWithdrawalDto;
+import ewallet.dto.operation.internal.OperationDto;
+import ewallet.entity.ewallet.Ewallet;
+import ewallet.repository.ewallet.EwalletDao;
+import ewallet.service.journal.JournalReader;
+import ewallet.service.journal.OperationJournal;
+import ewallet.service.operation.OperationService;
+import ewallet.util.id.Ids;
+import ewallet.util.mapper.ewallet.EwalletMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+
+@Component
+@RequiredArgsConstructor
+public class EwalletShardEngine {
+
+    private static final long WRITER_SHUTDOWN_SECONDS = 30;
+
+    private final EwalletProperties properties;
+
+    private final EwalletDao ewalletDao;
+
+    private final OperationService operationService;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Set<UUID> knownEwallets = ConcurrentHashMap.newKeySet();
+
+    private EwalletShard[] shards = new EwalletShard[0];
+
+    private OperationJournal journal;
+
+    private ExecutorService journalWriter;
+
+    private volatile RuntimeException writeFailure;
+
+    @PostConstruct
+    public void start() {
+
+        EwalletProperties.Engine engine = properties.getEngine();
+        if (engine.getMode() == EngineMode.LOCKING) {
+            return;
+        }
+        if (engine.getMode() == EngineMode.JOURNALED) {
+            openJournal();
+        }
+
+        EwalletShard[] startedShards = new EwalletShard[engine.getShards()];
+        for (int i = 0; i < startedShards.length; i++) {
+            startedShards[i] = new EwalletShard(i, engine.getBatchSize(), this);
+            startedShards[i].start();
+        }
+        shards = startedShards;
+    }
+
+    @PreDestroy
+    public void stop() {
+
+        for (EwalletShard shard : shards) {
+            shard.stop();
+        }
+        shards = new EwalletShard[0];
+
+        if (journal != null) {
+            closeJournal();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${ewallet.journal.snapshot-interval-millis:60000}")
+    public void snapshotJournal() {
+
+        if (journal != null) {
+            journal.snapshot();
+        }
+    }
+
+    public boolean isEnabled() {
+
+        return shards.length > 0;
+    }
+
+    public OperationDto deposit(OperationDto operation) {
+
+        requireWritable();
+        EwalletShard shard = shardOf(operation.getEwalletUuid());
+        return await(shard.execute(result -> shard.deposit(operation, result)));
+    }
+
+    public OperationDto withdraw(OperationDto operation) {
+
+        requireWritable();
+        EwalletShard shard = shardOf(operation.getEwalletUuid());
+        return await(shard.execute(result -> shard.withdraw(operation, result)));
+    }
+
+    public OperationDto makeTransaction(OperationDto operation) {
+
+        requireWritable();
+        EwalletShard shard = shardOf(operation.getEwalletUuid());
+        return await(shard.execute(result -> shard.makeTransaction(operation, result)));
+    }
+
+    // The engine owns the balance, so the stripes are folded into it on the ewallet's shard rather than behind its back
+    public long consolidate(UUID uuid, ToLongFunction<UUID> drainStripes) {
+
+        requireWritable();
+        EwalletShard shard = shardOf(uuid);
+        return await(shard.execute(result -> shard.consolidate(uuid, drainStripes, result)));
+    }
+
+    public Optional<EwalletDto> find(UUID uuid) {
+
+        EwalletShard shard = shardOf(uuid);
+        return await(shard.execute(result -> shard.find(uuid, result)));
+    }
+
+    public Optional<RuntimeException> writeFailure() {
+
+        return Optional.ofNullable(writeFailure);
+    }
+
+    EwalletShard shardOf(UUID uuid) {
+
+        return shards[Math.floorMod(uuid.hashCode(), shards.length)];
+    }
+
+    Optional<EwalletDto> loadEwallet(UUID uuid) {
+
+        Optional<EwalletDto> ewallet = ewalletDao.findById(uuid).map(EwalletMapper::toDto);
+        ewallet.ifPresent(found -> knownEwallets.add(found.getUuid()));
+        // The database may still lag behind the journal, which holds the committed balance
+        if (journal != null) {
+            ewallet.ifPresent(found -> journal.balanceOf(uuid).ifPresent(found::setBalance));
+        }
+        return ewallet;
+    }
+
+    boolean ewalletExists(UUID uuid) {
+
+        if (knownEwallets.contains(uuid)) {
+            return true;
+        }
+        boolean exists = ewalletDao.existsById(uuid);
+        if (exists) {
+            knownEwallets.add(uuid);
+        }
+        return exists;
+    }
+
+    List<HourlyWithdrawalDto> loadLastDayWithdrawals(UUID uuid) {
+
+        return operationService.lastDayWithdrawalsByWalletUuid(uuid);
+    }
+
+    List<OperationDto> persist(Collection<EwalletDto> ewallets, List<OperationDto> operations) {
+
+        if (journal != null) {
+            return journal(ewallets, operations);
+        }
+
+        List<Ewallet> savedEwallets = new ArrayList<>();
+        List<OperationDto> savedOperations = transactionTemplate.execute(status -> {
+            if (!ewallets.isEmpty()) {
+                savedEwallets.addAll(ewalletDao.saveAll(ewallets.stream().map(EwalletMapper::toEntity).toList()));
+            }
+            return operationService.saveAll(operations);
+        });
+
+        Iterator<EwalletDto> ewalletIterator = ewallets.iterator();
+        savedEwallets.forEach(savedEwallet -> ewalletIterator.next().setVersion(savedEwallet.getVersion()));
+        return savedOperations;
+    }
+
+    // The drained stripes and the new balance commit together
+    long consolidate(EwalletDto ewallet, ToLongFunction<UUID> drainStripes) {
+
+        if (journal != null) {
+            return consolidateJournaled(ewallet, drainStripes);
+        }
+
+        long amount = transactionTemplate.execute(status -> {
+            long drained = drainStripes.applyAsLong(ewallet.getUuid());
+            if (drained != 0) {
+                ewalletDao.setBalance(ewallet.getUuid(), ewallet.getBalance() + drained);
+            }
+            return drained;
+        });
+        if (amount != 0) {
+            ewallet.deposit(amount);
+            ewallet.setVersion(ewallet.getVersion() + 1);
+        }
+        return amount;
+    }
+
+    // The new balance is journaled before the drained stripes commit, and reaches the database in journal order like any batch
+    private long consolidateJournaled(EwalletDto ewallet, ToLongFunction<UUID> drainStripes) {
+
+        OperationJournal operationJournal = journal;
+        UUID uuid = ewallet.getUuid();
+        long balance = ewallet.getBalance();
+        boolean[] journaled = new boolean[1];
+        long amount;
+        try {
+            amount = transactionTemplate.execute(status -> {
+                long drained = drainStripes.applyAsLong(uuid);
+                if (drained != 0) {
+                    journalBalance(operationJournal, uuid, balance + drained);
+                    journaled[0] = true;
+                }
+                return drained;
+            });
+        } catch (RuntimeException e) {
+            // The stripes rolled back and still hold the amount, so the journal goes back to the balance without it
+            if (journaled[0]) {
+                journalBalance(operationJournal, uuid, balance);
+            }
+            throw e;
+        }
+        ewallet.deposit(amount);
+        return amount;
+    }
+
+    private void journalBalance(OperationJournal operationJournal, UUID uuid, long balance) {
+
+        Map<UUID, Long> balances = Map.of(uuid, balance);
+        long sequence = operationJournal.append(balances, List.of());
+        journalWriter.execute(() -> write(operationJournal, sequence, balances, List.of()));
+    }
+
+    // The batch is committed once it is on disk; the database catches up in journal order on a single writer
+    private List<OperationDto> journal(Collection<EwalletDto> ewallets, List<OperationDto> operations) {
+
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        List<OperationDto> journaled = List.copyOf(operations);
+        journaled.forEach(operation -> {
+            if (operation.getUuid() == null) {
+                operation.setUuid(Ids.next());
+            }
+            operation.setCreatedDate(now);
+        });
+
+        Map<UUID, Long> balances = new LinkedHashMap<>();
+        ewallets.forEach(ewallet -> balances.put(ewallet.getUuid(), ewallet.getBalance()));
+
+        OperationJournal operationJournal = journal;
+        long sequence = operationJournal.append(balances, journaled);
+        journalWriter.execute(() -> write(operationJournal, sequence, balances, journaled));
+        return journaled;
+    }
+
+    // A batch the database keeps rejecting halts the engine; it and every later batch stay in the journal and are written on restart
+    private void write(OperationJournal operationJournal, long sequence, Map<UUID, Long> balances, List<OperationDto> operations) {
+
+        EwalletProperties.Journal journalProperties = properties.getJournal();
+        for (int attempt = 1; writeFailure == null; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    balances.forEach(ewalletDao::setBalance);
+                    operationService.saveAll(operations);
+                });
+                operationJournal.markApplied(sequence);
+                return;
+            } catch (RuntimeException e) {
+                if (attempt >= journalProperties.getMaxWriteAttempts()) {
+                    writeFailure = e;
+                    return;
+                }
+                try {
+                    Thread.sleep(journalProperties.getRetryBackoffMillis());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    // Batches the database missed before a restart are written before any shard accepts new work
+    private void openJournal() {
+
+        RecoveredBatches recovered = new RecoveredBatches();
+        journal = OperationJournal.open(Path.of(properties.getJournal().getDirectory()), properties.getJournal().getSegmentBytes(), recovered);
+        if (journal.lastSequence() > journal.appliedSequence()) {
+            transactionTemplate.executeWithoutResult(status -> {
+                recovered.balances.forEach(ewalletDao::setBalance);
+                operationService.saveAllMissing(recovered.operations);
+            });
+            journal.markApplied(journal.lastSequence());
+            journal.snapshot();
+        }
+        journalWriter = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "ewallet-journal-writer"));
+    }
+
+    private void closeJournal() {
+
+        journalWriter.shutdown();
+        try {
+            if (!journalWriter.awaitTermination(WRITER_SHUTDOWN_SECONDS, TimeUnit.SECONDS)) {
+                journalWriter.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            journalWriter.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        journal.snapshot();
+        journal.close();
+        journal = null;
+    }
+
+    private void requireWritable() {
+
+        if (writeFailure != null) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Ewallet journal writer halted", writeFailure);
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> result) {
+
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static class RecoveredBatches implements JournalReader {
+
+        private final Map<UUID, Long> balances = new HashMap<>();
+
+        private final List<OperationDto> operations = new ArrayList<>();
+
+        @Override
+        public void operation(long sequence, OperationDto operation) {
+
+            operations.add(operation);
+        }
+
+        @Override
+        public void balance(long sequence, UUID ewalletUuid, long balance) {
+
+            balances.put(ewalletUuid, balance);
+        }
+    }
+}
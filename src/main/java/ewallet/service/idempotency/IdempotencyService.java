@@ -0,0 +1,179 @@
+package ewallet.service.idempotency;
+
+import ewallet.config.EwalletProperties;
+import ewallet.dto.operation.internal.OperationDto;
+import ewallet.entity.idempotency.IdempotencyKey;
+import ewallet.repository.idempotency.IdempotencyKeyDao;
+import ewallet.service.operation.OperationService;
+import ewallet.util.cache.ExpiringCache;
+import ewallet.util.mapper.idempotency.IdempotencyKeyMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.sql.Timestamp;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+@Service
+@RequiredArgsConstructor
+public class IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final EwalletProperties properties;
+
+    private final IdempotencyKeyDao idempotencyKeyDao;
+
+    private final OperationService operationService;
+
+    private final Map<String, CompletableFuture<IdempotentResult>> inFlight = new ConcurrentHashMap<>();
+
+    private ExpiringCache<String, IdempotentResult> completed;
+
+    @PostConstruct
+    public void start() {
+
+        completed = new ExpiringCache<>(properties.getIdempotency().getCapacity(), properties.getIdempotency().getTtlMillis());
+    }
+
+    // A repeated key answers with the first result; duplicates arriving together wait for the one execution in flight
+    public OperationDto execute(String idempotencyKey, OperationDto operation, UnaryOperator<OperationDto> action) {
+
+        if (idempotencyKey == null) {
+            return action.apply(operation);
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Idempotency-Key must be 1 to %d characters".formatted(MAX_KEY_LENGTH));
+        }
+
+        String fingerprint = IdempotencyKeyMapper.fingerprintOf(operation);
+        IdempotentResult cached = completed.get(idempotencyKey);
+        if (cached != null) {
+            return matching(idempotencyKey, fingerprint, cached);
+        }
+
+        CompletableFuture<IdempotentResult> result = new CompletableFuture<>();
+        CompletableFuture<IdempotentResult> running = inFlight.putIfAbsent(idempotencyKey, result);
+        if (running != null) {
+            return matching(idempotencyKey, fingerprint, await(running));
+        }
+
+        try {
+            IdempotentResult executed = executeOnce(idempotencyKey, operation, action);
+            completed.put(idempotencyKey, executed);
+            result.complete(executed);
+            return matching(idempotencyKey, fingerprint, executed);
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(idempotencyKey, result);
+        }
+    }
+
+    @Transactional
+    @Scheduled(fixedDelayString = "${ewallet.idempotency.purge-interval-millis:3600000}")
+    public void purgeExpired() {
+
+        idempotencyKeyDao.deleteAllCreatedBefore(new Timestamp(System.currentTimeMillis() - properties.getIdempotency().getTtlMillis()));
+    }
+
+    // The unique index decides between nodes: only the request that inserts the key runs the operation, under the uuid the claim assigned
+    private IdempotentResult executeOnce(String idempotencyKey, OperationDto operation, UnaryOperator<OperationDto> action) {
+
+        IdempotencyKey claim;
+        try {
+            claim = insert(idempotencyKey, operation);
+        } catch (DataIntegrityViolationException e) {
+            Optional<IdempotencyKey> takenOver = takeOver(idempotencyKey, IdempotencyKeyMapper.fingerprintOf(operation));
+            if (takenOver.isEmpty()) {
+                return stored(idempotencyKey);
+            }
+            claim = takenOver.get();
+            // The request that let the lease run out may still have committed its operation before dying
+            Optional<OperationDto> applied = operationService.find(claim.getOperationUuid());
+            if (applied.isPresent()) {
+                return complete(claim, applied.get());
+            }
+        }
+
+        operation.setUuid(claim.getOperationUuid());
+        OperationDto executed;
+        try {
+            executed = action.apply(operation);
+        } catch (RuntimeException e) {
+            idempotencyKeyDao.delete(claim);
+            throw e;
+        }
+        return complete(claim, executed);
+    }
+
+    // A claim whose request died before answering would block its key until purged, so it is taken over once its lease runs out;
+    // a request still running past its lease collides on the operation uuid instead of applying twice
+    private Optional<IdempotencyKey> takeOver(String idempotencyKey, String fingerprint) {
+
+        long now = System.currentTimeMillis();
+        Timestamp leaseExpired = new Timestamp(now - properties.getIdempotency().getClaimLeaseMillis());
+        if (idempotencyKeyDao.renewUnfinishedCreatedBefore(idempotencyKey, fingerprint, leaseExpired, new Timestamp(now)) == 0) {
+            return Optional.empty();
+        }
+        return idempotencyKeyDao.findByIdempotencyKey(idempotencyKey);
+    }
+
+    private IdempotentResult complete(IdempotencyKey claim, OperationDto executed) {
+
+        IdempotencyKeyMapper.complete(claim, executed);
+        idempotencyKeyDao.save(claim);
+        return new IdempotentResult(claim.getRequestFingerprint(), executed);
+    }
+
+    private IdempotencyKey insert(String idempotencyKey, OperationDto operation) {
+
+        IdempotencyKey claim = IdempotencyKeyMapper.createEntity(idempotencyKey, operation);
+        idempotencyKeyDao.saveAndFlush(claim);
+        return claim;
+    }
+
+    private IdempotentResult stored(String idempotencyKey) {
+
+        return idempotencyKeyDao.findByIdempotencyKey(idempotencyKey)
+                .filter(idempotency -> idempotency.getOperationStatus() != null)
+                .map(idempotency -> new IdempotentResult(idempotency.getRequestFingerprint(), IdempotencyKeyMapper.toOperationDto(idempotency)))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.CONFLICT,
+                        "Request with Idempotency-Key=[%s] is still in progress".formatted(idempotencyKey)));
+    }
+
+    private static OperationDto matching(String idempotencyKey, String fingerprint, IdempotentResult result) {
+
+        if (!fingerprint.equals(result.fingerprint())) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    "Idempotency-Key=[%s] was already used for another request".formatted(idempotencyKey));
+        }
+        return result.operation();
+    }
+
+    private static IdempotentResult await(CompletableFuture<IdempotentResult> result) {
+
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record IdempotentResult(String fingerprint, OperationDto operation) {
+    }
+}
@@ -0,0 +1,12 @@
+package ewallet.service.journal;
+
+import ewallet.dto.operation.internal.OperationDto;
+
+import java.util.UUID;
+
+public interface JournalReader {
+
+    void operation(long sequence, OperationDto operation);
+
+    void balance(long sequence, UUID ewalletUuid, long balance);
+}
@@ -0,0 +1,168 @@
+package ewallet.service.journal;
+
+import ewallet.dto.operation.internal.OperationDto;
+import ewallet.dto.operation.internal.OperationStatusDto;
+import ewallet.dto.operation.internal.OperationTypeDto;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.CRC32C;
+
+// One record per appended batch: [length][crc32c][sequence, operations, balances], so a batch is replayed whole or not at all
+final class JournalRecords {
+
+    static final int HEADER_BYTES = Integer.BYTES * 2;
+
+    private static final int BATCH_BYTES = Long.BYTES + Integer.BYTES * 2;
+
+    private static final int OPERATION_BYTES = Long.BYTES * 6 + 3;
+
+    private static final int BALANCE_BYTES = Long.BYTES * 3;
+
+    private static final byte HAS_DESTINATION = 1;
+
+    private static final byte HAS_DESCRIPTION = 2;
+
+    private static final byte SUSPICIOUS = 4;
+
+    // Enum ordinals are part of the file format, so constants may only be appended
+    private static final OperationTypeDto[] TYPES = OperationTypeDto.values();
+
+    private static final OperationStatusDto[] STATUSES = OperationStatusDto.values();
+
+    static ByteBuffer encode(long sequence, Map<UUID, Long> balances, List<OperationDto> operations) {
+
+        List<byte[]> descriptions = new ArrayList<>(operations.size());
+        int bytes = HEADER_BYTES + BATCH_BYTES + balances.size() * BALANCE_BYTES;
+        for (OperationDto operation : operations) {
+            byte[] description = operation.getDescription() == null ? null : operation.getDescription().getBytes(StandardCharsets.UTF_8);
+            descriptions.add(description);
+            bytes += OPERATION_BYTES
+                    + (operation.getDestinationWalletUuid() == null ? 0 : Long.BYTES * 2)
+                    + (description == null ? 0 : Integer.BYTES + description.length);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(bytes);
+        buffer.position(HEADER_BYTES);
+        buffer.putLong(sequence);
+        buffer.putInt(operations.size());
+        buffer.putInt(balances.size());
+        for (int i = 0; i < operations.size(); i++) {
+            putOperation(buffer, operations.get(i), descriptions.get(i));
+        }
+        balances.forEach((uuid, balance) -> {
+            putUuid(buffer, uuid);
+            buffer.putLong(balance);
+        });
+
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), HEADER_BYTES, bytes - HEADER_BYTES);
+        buffer.putInt(0, bytes - HEADER_BYTES);
+        buffer.putInt(Integer.BYTES, (int) crc.getValue());
+        return buffer.flip();
+    }
+
+    // Returns the record length, or -1 at the end of the valid records: zero fill, a torn write or a sequence gap
+    static int decode(ByteBuffer buffer, long expectedSequence, boolean skip, JournalReader reader) {
+
+        int position = buffer.position();
+        if (buffer.remaining() < HEADER_BYTES + BATCH_BYTES) {
+            return -1;
+        }
+        int length = buffer.getInt(position);
+        if (length < BATCH_BYTES || length > buffer.remaining() - HEADER_BYTES) {
+            return -1;
+        }
+        ByteBuffer body = buffer.slice(position + HEADER_BYTES, length);
+        if (body.getLong(0) != expectedSequence) {
+            return -1;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(body.duplicate());
+        if ((int) crc.getValue() != buffer.getInt(position + Integer.BYTES)) {
+            return -1;
+        }
+
+        if (!skip) {
+            long sequence = body.getLong();
+            int operations = body.getInt();
+            int balances = body.getInt();
+            for (int i = 0; i < operations; i++) {
+                reader.operation(sequence, getOperation(body));
+            }
+            for (int i = 0; i < balances; i++) {
+                reader.balance(sequence, getUuid(body), body.getLong());
+            }
+        }
+        return HEADER_BYTES + length;
+    }
+
+    private static void putOperation(ByteBuffer buffer, OperationDto operation, byte[] description) {
+
+        byte flags = 0;
+        if (operation.getDestinationWalletUuid() != null) {
+            flags |= HAS_DESTINATION;
+        }
+        if (description != null) {
+            flags |= HAS_DESCRIPTION;
+        }
+        if (operation.isSuspicious()) {
+            flags |= SUSPICIOUS;
+        }
+
+        putUuid(buffer, operation.getUuid());
+        putUuid(buffer, operation.getEwalletUuid());
+        buffer.putLong(operation.getAmount());
+        buffer.putLong(operation.getCreatedDate().getTime());
+        buffer.put((byte) operation.getOperationType().ordinal());
+        buffer.put((byte) operation.getOperationStatus().ordinal());
+        buffer.put(flags);
+        if (operation.getDestinationWalletUuid() != null) {
+            putUuid(buffer, operation.getDestinationWalletUuid());
+        }
+        if (description != null) {
+            buffer.putInt(description.length);
+            buffer.put(description);
+        }
+    }
+
+    private static OperationDto getOperation(ByteBuffer buffer) {
+
+        OperationDto operation = OperationDto.builder()
+                .uuid(getUuid(buffer))
+                .ewalletUuid(getUuid(buffer))
+                .amount(buffer.getLong())
+                .createdDate(new Timestamp(buffer.getLong()))
+                .operationType(TYPES[buffer.get()])
+                .operationStatus(STATUSES[buffer.get()])
+                .build();
+
+        byte flags = buffer.get();
+        operation.setSuspicious((flags & SUSPICIOUS) != 0);
+        if ((flags & HAS_DESTINATION) != 0) {
+            operation.setDestinationWalletUuid(getUuid(buffer));
+        }
+        if ((flags & HAS_DESCRIPTION) != 0) {
+            byte[] description = new byte[buffer.getInt()];
+            buffer.get(description);
+            operation.setDescription(new String(description, StandardCharsets.UTF_8));
+        }
+        return operation;
+    }
+
+    private static void putUuid(ByteBuffer buffer, UUID uuid) {
+
+        buffer.putLong(uuid.getMostSignificantBits());
+        buffer.putLong(uuid.getLeastSignificantBits());
+    }
+
+    private static UUID getUuid(ByteBuffer buffer) {
+
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+}
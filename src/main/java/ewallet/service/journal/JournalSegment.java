@@ -0,0 +1,80 @@
+package ewallet.service.journal;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// A preallocated, memory-mapped file named by the sequence of its first record
+final class JournalSegment {
+
+    private static final String SUFFIX = ".journal";
+
+    private final Path file;
+
+    private final long firstSequence;
+
+    private final FileChannel channel;
+
+    private final MappedByteBuffer buffer;
+
+    private JournalSegment(Path file, long firstSequence, FileChannel channel, MappedByteBuffer buffer) {
+
+        this.file = file;
+        this.firstSequence = firstSequence;
+        this.channel = channel;
+        this.buffer = buffer;
+    }
+
+    static JournalSegment create(Path directory, long firstSequence, int bytes) throws IOException {
+
+        Path file = directory.resolve("%020d%s".formatted(firstSequence, SUFFIX));
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new JournalSegment(file, firstSequence, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes));
+    }
+
+    static JournalSegment open(Path file) throws IOException {
+
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new JournalSegment(file, firstSequenceOf(file), channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size()));
+    }
+
+    static boolean isSegment(Path file) {
+
+        return file.getFileName().toString().endsWith(SUFFIX);
+    }
+
+    static long firstSequenceOf(Path file) {
+
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+    }
+
+    long firstSequence() {
+
+        return firstSequence;
+    }
+
+    MappedByteBuffer buffer() {
+
+        return buffer;
+    }
+
+    void force() {
+
+        buffer.force();
+    }
+
+    void close() throws IOException {
+
+        channel.close();
+    }
+
+    void delete() throws IOException {
+
+        close();
+        Files.deleteIfExists(file);
+    }
+}
@@ -0,0 +1,81 @@
+package ewallet.service.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.zip.CRC32C;
+
+// Balances as of sequence; everything up to appliedSequence is already in the database
+record JournalSnapshot(long sequence, long appliedSequence, Map<UUID, Long> balances) {
+
+    private static final String FILE_NAME = "snapshot.bin";
+
+    private static final int HEADER_BYTES = Long.BYTES * 2 + Integer.BYTES;
+
+    private static final int BALANCE_BYTES = Long.BYTES * 3;
+
+    static Optional<JournalSnapshot> read(Path directory) throws IOException {
+
+        Path file = directory.resolve(FILE_NAME);
+        if (!Files.exists(file)) {
+            return Optional.empty();
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (buffer.remaining() < HEADER_BYTES + Integer.BYTES) {
+            throw new IOException("Journal snapshot is truncated: " + file);
+        }
+        long sequence = buffer.getLong();
+        long appliedSequence = buffer.getLong();
+        int count = buffer.getInt();
+        if (buffer.remaining() != (long) count * BALANCE_BYTES + Integer.BYTES) {
+            throw new IOException("Journal snapshot is truncated: " + file);
+        }
+
+        Map<UUID, Long> balances = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            balances.put(new UUID(buffer.getLong(), buffer.getLong()), buffer.getLong());
+        }
+
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), 0, buffer.position());
+        if ((int) crc.getValue() != buffer.getInt()) {
+            throw new IOException("Journal snapshot checksum mismatch: " + file);
+        }
+        return Optional.of(new JournalSnapshot(sequence, appliedSequence, balances));
+    }
+
+    // Written next to the live file and renamed over it, so a crash never leaves a half-written snapshot
+    void write(Path directory) throws IOException {
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + balances.size() * BALANCE_BYTES + Integer.BYTES);
+        buffer.putLong(sequence);
+        buffer.putLong(appliedSequence);
+        buffer.putInt(balances.size());
+        balances.forEach((uuid, balance) -> buffer.putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .putLong(balance));
+
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) crc.getValue());
+        buffer.flip();
+
+        Path temporary = directory.resolve(FILE_NAME + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, directory.resolve(FILE_NAME), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
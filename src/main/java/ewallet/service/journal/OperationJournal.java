@@ -0,0 +1,248 @@
+package ewallet.service.journal;
+
+import ewallet.dto.operation.internal.OperationDto;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+// Append-only write-ahead log of applied operations; a batch is committed once append returns
+public class OperationJournal implements AutoCloseable {
+
+    private final Path directory;
+
+    private final int segmentBytes;
+
+    private final Object appendLock = new Object();
+
+    private final Object forceLock = new Object();
+
+    private final List<JournalSegment> segments = new ArrayList<>();
+
+    private final Map<UUID, Long> balances = new ConcurrentHashMap<>();
+
+    private JournalSegment current;
+
+    private long lastSequence;
+
+    private volatile long durableSequence;
+
+    private volatile long appliedSequence;
+
+    private OperationJournal(Path directory, int segmentBytes) {
+
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+    }
+
+    // Loads the latest snapshot and replays the tail; every batch the database has not applied yet is handed to recovery
+    public static OperationJournal open(Path directory, int segmentBytes, JournalReader recovery) {
+
+        OperationJournal journal = new OperationJournal(directory, segmentBytes);
+        try {
+            Files.createDirectories(directory);
+            journal.replay(recovery);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return journal;
+    }
+
+    // Blocks until the batch is on disk; concurrent appenders share a single force
+    public long append(Map<UUID, Long> ewalletBalances, List<OperationDto> operations) {
+
+        long sequence;
+        synchronized (appendLock) {
+            sequence = lastSequence + 1;
+            ByteBuffer record = JournalRecords.encode(sequence, ewalletBalances, operations);
+            if (current.buffer().remaining() < record.remaining()) {
+                roll(record.remaining());
+            }
+            current.buffer().put(record);
+            balances.putAll(ewalletBalances);
+            lastSequence = sequence;
+        }
+        awaitDurable(sequence);
+        return sequence;
+    }
+
+    public Optional<Long> balanceOf(UUID uuid) {
+
+        return Optional.ofNullable(balances.get(uuid));
+    }
+
+    public void markApplied(long sequence) {
+
+        if (sequence > appliedSequence) {
+            appliedSequence = sequence;
+        }
+    }
+
+    public long lastSequence() {
+
+        synchronized (appendLock) {
+            return lastSequence;
+        }
+    }
+
+    public long durableSequence() {
+
+        return durableSequence;
+    }
+
+    public long appliedSequence() {
+
+        return appliedSequence;
+    }
+
+    // Segments whose batches are all in the database are no longer needed once a snapshot covers them
+    public void snapshot() {
+
+        JournalSnapshot snapshot;
+        synchronized (appendLock) {
+            snapshot = new JournalSnapshot(lastSequence, Math.min(appliedSequence, durableSequence), new HashMap<>(balances));
+        }
+        awaitDurable(snapshot.sequence());
+
+        try {
+            snapshot.write(directory);
+            synchronized (appendLock) {
+                while (segments.size() > 1 && segments.get(1).firstSequence() <= snapshot.appliedSequence() + 1) {
+                    segments.remove(0).delete();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+
+        synchronized (appendLock) {
+            try {
+                current.force();
+                for (JournalSegment segment : segments) {
+                    segment.close();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void replay(JournalReader recovery) throws IOException {
+
+        Optional<JournalSnapshot> snapshot = JournalSnapshot.read(directory);
+        long snapshotSequence = snapshot.map(JournalSnapshot::sequence).orElse(0L);
+        snapshot.ifPresent(found -> balances.putAll(found.balances()));
+        appliedSequence = snapshot.map(JournalSnapshot::appliedSequence).orElse(0L);
+        lastSequence = snapshotSequence;
+
+        List<Path> files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.filter(JournalSegment::isSegment)
+                    .sorted(Comparator.comparingLong(JournalSegment::firstSequenceOf))
+                    .toList();
+        }
+        if (!files.isEmpty() && JournalSegment.firstSequenceOf(files.get(0)) > appliedSequence + 1) {
+            throw new IllegalStateException("Journal is missing batches after sequence=[%d]".formatted(appliedSequence));
+        }
+
+        JournalReader tail = new JournalReader() {
+
+            @Override
+            public void operation(long sequence, OperationDto operation) {
+
+                recovery.operation(sequence, operation);
+            }
+
+            @Override
+            public void balance(long sequence, UUID ewalletUuid, long balance) {
+
+                if (sequence > snapshotSequence) {
+                    balances.put(ewalletUuid, balance);
+                }
+                recovery.balance(sequence, ewalletUuid, balance);
+            }
+        };
+
+        long expectedSequence = files.isEmpty() ? 0 : JournalSegment.firstSequenceOf(files.get(0));
+        boolean torn = false;
+        for (Path file : files) {
+            // Anything after a torn batch was never acknowledged, so it is discarded
+            if (torn || JournalSegment.firstSequenceOf(file) != expectedSequence) {
+                torn = true;
+                Files.delete(file);
+                continue;
+            }
+
+            JournalSegment segment = JournalSegment.open(file);
+            MappedByteBuffer buffer = segment.buffer();
+            int length;
+            while ((length = JournalRecords.decode(buffer, expectedSequence, expectedSequence <= appliedSequence, tail)) > 0) {
+                buffer.position(buffer.position() + length);
+                expectedSequence++;
+            }
+            torn = buffer.hasRemaining() && buffer.getInt(buffer.position()) != 0;
+            if (torn) {
+                // Zero the tail, so a stale record behind the torn one can never line up with a later append
+                buffer.put(buffer.position(), new byte[buffer.remaining()]);
+                segment.force();
+            }
+            segments.add(segment);
+        }
+
+        lastSequence = Math.max(snapshotSequence, expectedSequence - 1);
+        durableSequence = lastSequence;
+        if (segments.isEmpty()) {
+            current = JournalSegment.create(directory, lastSequence + 1, segmentBytes);
+            segments.add(current);
+        } else {
+            current = segments.get(segments.size() - 1);
+        }
+    }
+
+    private void roll(int recordBytes) {
+
+        if (recordBytes > segmentBytes) {
+            throw new IllegalArgumentException("Journal batch of [%d] bytes does not fit a segment of [%d] bytes".formatted(recordBytes, segmentBytes));
+        }
+        current.force();
+        try {
+            current = JournalSegment.create(directory, lastSequence + 1, segmentBytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        segments.add(current);
+    }
+
+    private void awaitDurable(long sequence) {
+
+        synchronized (forceLock) {
+            if (durableSequence >= sequence) {
+                return;
+            }
+            JournalSegment segment;
+            long upTo;
+            synchronized (appendLock) {
+                segment = current;
+                upTo = lastSequence;
+            }
+            segment.force();
+            durableSequence = upTo;
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package ewallet.service.operation;
+
+import ewallet.config.EwalletProperties;
+import ewallet.entity.operation.Operation;
+import ewallet.repository.operation.OperationDao;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+// Declines of concurrent callers are inserted together by one writer; each caller returns once its row is committed
+@Component
+@RequiredArgsConstructor
+public class DeclinedOperationRecorder {
+
+    private static final long POLL_MILLIS = 100;
+
+    private final EwalletProperties properties;
+
+    private final OperationDao operationDao;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final MeterRegistry meterRegistry;
+
+    private BlockingQueue<PendingWrite> queue;
+
+    private TransactionTemplate callerTransactionTemplate;
+
+    private Thread writer;
+
+    private volatile boolean running;
+
+    private volatile List<PendingWrite> unwritten = List.of();
+
+    private Counter enqueued;
+
+    private Counter written;
+
+    private Counter callerWritten;
+
+    private Counter dropped;
+
+    private Counter writeFailures;
+
+    private Counter skipped;
+
+    private DistributionSummary batchSize;
+
+    @PostConstruct
+    public void start() {
+
+        queue = new ArrayBlockingQueue<>(properties.getDeclined().getCapacity());
+        // Callers record from afterCommit, where a joining write would land in the transaction that already committed
+        callerTransactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        callerTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        meterRegistry.gauge("ewallet.declined.queue.size", queue, BlockingQueue::size);
+        enqueued = meterRegistry.counter("ewallet.declined.enqueued");
+        written = meterRegistry.counter("ewallet.declined.written");
+        callerWritten = meterRegistry.counter("ewallet.declined.caller.written");
+        dropped = meterRegistry.counter("ewallet.declined.dropped");
+        writeFailures = meterRegistry.counter("ewallet.declined.write.failures");
+        skipped = meterRegistry.counter("ewallet.declined.skipped");
+        batchSize = meterRegistry.summary("ewallet.declined.batch.size");
+
+        running = true;
+        writer = new Thread(this::writeLoop, "declined-operation-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // Drains whatever is still queued, so a graceful shutdown does not lose accepted records
+    @PreDestroy
+    public void stop() throws InterruptedException {
+
+        running = false;
+        writer.interrupt();
+        writer.join();
+
+        if (!unwritten.isEmpty()) {
+            writeOrSplit(unwritten);
+        }
+        List<PendingWrite> batch = new ArrayList<>();
+        while (queue.drainTo(batch, properties.getDeclined().getBatchSize()) > 0) {
+            writeOrSplit(batch);
+            batch.clear();
+        }
+    }
+
+    public void record(Operation operation) {
+
+        if (!running) {
+            writeInCaller(operation);
+            return;
+        }
+
+        PendingWrite pendingWrite = new PendingWrite(operation, new CompletableFuture<>());
+        if (queue.offer(pendingWrite)) {
+            enqueued.increment();
+            awaitWritten(pendingWrite);
+            return;
+        }
+
+        switch (properties.getDeclined().getOverflowPolicy()) {
+            case BLOCK -> offerOrWrite(pendingWrite);
+            case CALLER_WRITES -> writeInCaller(operation);
+            case DROP -> dropped.increment();
+        }
+    }
+
+    int queued() {
+
+        return queue.size();
+    }
+
+    private void offerOrWrite(PendingWrite pendingWrite) {
+
+        try {
+            if (queue.offer(pendingWrite, properties.getDeclined().getOfferTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+                enqueued.increment();
+                awaitWritten(pendingWrite);
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writeInCaller(pendingWrite.operation());
+    }
+
+    // A write queued just as stop drained the queue would never be picked up, so its caller takes it back
+    private void awaitWritten(PendingWrite pendingWrite) {
+
+        if (!running && queue.remove(pendingWrite)) {
+            writeInCaller(pendingWrite.operation());
+            return;
+        }
+        pendingWrite.written().join();
+    }
+
+    private void writeInCaller(Operation operation) {
+
+        callerTransactionTemplate.executeWithoutResult(status -> operationDao.save(operation));
+        callerWritten.increment();
+    }
+
+    private void writeLoop() {
+
+        List<PendingWrite> batch = new ArrayList<>();
+        int attempts = 0;
+        while (running) {
+            try {
+                if (batch.isEmpty()) {
+                    PendingWrite first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, properties.getDeclined().getBatchSize() - 1);
+                }
+                write(batch);
+                batch.clear();
+                attempts = 0;
+            } catch (InterruptedException e) {
+                break;
+            } catch (RuntimeException e) {
+                writeFailures.increment();
+                if (++attempts >= properties.getDeclined().getMaxWriteAttempts()) {
+                    writeEachOrSkip(batch);
+                    batch.clear();
+                    attempts = 0;
+                } else if (!pause(properties.getDeclined().getRetryBackoffMillis())) {
+                    break;
+                }
+            }
+        }
+        // A batch interrupted mid-write is handed to the final drain instead of being lost
+        unwritten = batch;
+    }
+
+    private void write(List<PendingWrite> batch) {
+
+        List<Operation> operations = batch.stream().map(PendingWrite::operation).toList();
+        transactionTemplate.executeWithoutResult(status -> operationDao.saveAll(operations));
+        written.increment(batch.size());
+        batchSize.record(batch.size());
+        batch.forEach(pendingWrite -> pendingWrite.written().complete(null));
+    }
+
+    private void writeOrSplit(List<PendingWrite> batch) {
+
+        try {
+            write(batch);
+        } catch (RuntimeException e) {
+            writeFailures.increment();
+            writeEachOrSkip(batch);
+        }
+    }
+
+    // One bad row must not hold back the rest, so a batch that keeps failing is written row by row and rejected rows are skipped
+    private void writeEachOrSkip(List<PendingWrite> batch) {
+
+        for (PendingWrite pendingWrite : batch) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> operationDao.save(pendingWrite.operation()));
+                written.increment();
+            } catch (RuntimeException e) {
+                skipped.increment();
+            }
+            pendingWrite.written().complete(null);
+        }
+    }
+
+    private static boolean pause(long millis) {
+
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            return false;
+        }
+    }
+
+    private record PendingWrite(Operation operation, CompletableFuture<Void> written) {
+    }
+}
@@ -0,0 +1,32 @@
+package ewallet.service.operation;
+
+import ewallet.dto.operation.internal.OperationDto;
+import ewallet.dto.operation.internal.OperationStatusDto;
+import ewallet.dto.operation.internal.OperationTypeDto;
+
+import static ewallet.dto.operation.internal.HourlyWithdrawalDto.hourBucketOf;
+
+public final class OperationRules {
+
+    public static final long SUSPICIOUS_AMOUNT = 1_000_000;
+
+    private static final int HOURS_IN_DAY = 24;
+
+    public static boolean isSuspicious(OperationDto operation) {
+
+        return operation.getOperationType() == OperationTypeDto.TRANSACTION &&
+                operation.getAmount() > SUSPICIOUS_AMOUNT;
+    }
+
+    public static boolean isCompletedWithdrawal(OperationDto operation) {
+
+        return operation.getOperationType() == OperationTypeDto.WITHDRAWAL &&
+                operation.getOperationStatus() == OperationStatusDto.COMPLETED;
+    }
+
+    // The current partial hour plus the 24 before it, so at most 25 aggregate rows per ewallet
+    public static long lastDayHourBucket() {
+
+        return hourBucketOf(System.currentTimeMillis()) - HOURS_IN_DAY;
+    }
+}
@@ -1,18 +1,36 @@
 package ewallet.service.operation;
 
+import ewallet.config.EwalletProperties;
+import ewallet.dto.operation.internal.HourlyWithdrawalDto;
+import ewallet.dto.operation.internal.OperationCursor;
 import ewallet.dto.operation.internal.OperationDto;
-import ewallet.dto.operation.internal.OperationTypeDto;
+import ewallet.dto.operation.internal.OperationFilterDto;
+import ewallet.dto.operation.internal.OperationPageDto;
 import ewallet.entity.operation.Operation;
+import ewallet.entity.operation.OperationStatus;
+import ewallet.entity.operation.OperationType;
+import ewallet.repository.operation.HourlyWithdrawalDao;
+import ewallet.repository.operation.OperationArchiveDao;
 import ewallet.repository.operation.OperationDao;
+import ewallet.repository.operation.OperationSummary;
 import ewallet.util.mapper.operation.OperationMapper;
+import ewallet.util.transaction.AfterCommit;
 import lombok.AllArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
-import java.sql.Timestamp;
-import java.util.Calendar;
+import java.time.Duration;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static ewallet.dto.operation.internal.HourlyWithdrawalDto.hourBucketOf;
+import static ewallet.service.operation.OperationRules.isSuspicious;
+import static ewallet.service.operation.OperationRules.lastDayHourBucket;
 
 @Service
 @AllArgsConstructor
@@ -20,37 +38,131 @@ public class OperationService {
 
     private OperationDao operationDao;
 
-    private static final int DAYS_AFTER_COMPLETED_OPERATION = -1;
+    private OperationArchiveDao operationArchiveDao;
+
+    private HourlyWithdrawalDao hourlyWithdrawalDao;
+
+    private DeclinedOperationRecorder declinedOperationRecorder;
 
-    private static final BigDecimal SUSPICIOUS_AMOUNT = BigDecimal.valueOf(10000);
+    private EwalletProperties properties;
 
     public OperationDto save(OperationDto operationDto) {
 
-        if (isSuspicious(operationDto)) {
-            operationDto.setSuspicious(true);
-        }
-        Operation operation = OperationMapper.createEntity(operationDto);
+        Operation operation = createEntity(operationDto);
 
         Operation savedOperation = operationDao.save(operation);
+        addHourlyWithdrawal(savedOperation);
 
         return OperationMapper.toDto(savedOperation);
     }
 
-    public List<OperationDto> lastDayWithdrawalsByWalletUuid(UUID uuid) {
-        Timestamp timestamp = new Timestamp(System.currentTimeMillis());
-        Calendar calendar = Calendar.getInstance();
-        calendar.setTime(timestamp);
-        calendar.add(Calendar.DAY_OF_MONTH, DAYS_AFTER_COMPLETED_OPERATION);
-        timestamp.setTime(calendar.getTime().getTime());
+    // The uuid is assigned here; the row is queued only once the caller's transaction commits, so a group that rolls back
+    // and is retried operation by operation leaves no decline behind
+    public OperationDto recordDeclined(OperationDto operationDto) {
+
+        Operation operation = createEntity(operationDto);
+        AfterCommit.run(() -> declinedOperationRecorder.record(operation));
+
+        return OperationMapper.toDto(operation);
+    }
+
+    public List<OperationDto> saveAll(List<OperationDto> operationDtos) {
+
+        List<Operation> operations = operationDtos.stream().map(this::createEntity).toList();
+
+        List<Operation> savedOperations = operationDao.saveAll(operations);
+        savedOperations.forEach(this::addHourlyWithdrawal);
+
+        return savedOperations.stream().map(OperationMapper::toDto).toList();
+    }
+
+    // Journal recovery replays batches the database may already hold, so operations with a known uuid are skipped
+    public List<OperationDto> saveAllMissing(List<OperationDto> operationDtos) {
+
+        Set<UUID> existing = operationDao.findAllById(operationDtos.stream().map(OperationDto::getUuid).toList()).stream()
+                .map(Operation::getUuid)
+                .collect(Collectors.toSet());
+
+        return saveAll(operationDtos.stream()
+                .filter(operationDto -> !existing.contains(operationDto.getUuid()))
+                .toList());
+    }
+
+    public Optional<OperationDto> find(UUID uuid) {
+
+        return operationDao.findById(uuid).map(OperationMapper::toDto)
+                .or(() -> operationArchiveDao.findById(uuid).map(OperationMapper::toDto));
+    }
+
+    // Keyset pagination, newest first: one extra row is read to tell whether another page follows
+    public OperationPageDto findPage(UUID ewalletUuid, OperationFilterDto filter, OperationCursor after, int limit) {
 
-        List<Operation> operations = operationDao.lastDayWithdrawalsByWalletUuidAndLock(uuid, timestamp);
+        OperationType operationType = filter.getOperationType() == null ? null : OperationType.valueOf(filter.getOperationType().toString());
+        OperationStatus operationStatus = filter.getOperationStatus() == null ? null : OperationStatus.valueOf(filter.getOperationStatus().toString());
+        Pageable pageable = PageRequest.of(0, limit + 1);
 
-        return operations.stream().map(OperationMapper::toDto).toList();
+        List<OperationSummary> operations = after == null
+                ? operationDao.findFirstPage(ewalletUuid, operationType, operationStatus, filter.getFrom(), filter.getTo(), pageable)
+                : operationDao.findPageBefore(ewalletUuid, operationType, operationStatus, filter.getFrom(), filter.getTo(), after.createdDate(), after.uuid(), pageable);
+
+        // Archived operations all sort before the hot ones, so a page running out of hot rows simply continues in the archive
+        if (operations.size() <= limit && reachesArchive(filter)) {
+            OperationCursor archiveAfter = operations.isEmpty()
+                    ? after
+                    : new OperationCursor(operations.get(operations.size() - 1).createdDate(), operations.get(operations.size() - 1).uuid());
+            Pageable remaining = PageRequest.of(0, limit + 1 - operations.size());
+            List<OperationSummary> archived = archiveAfter == null
+                    ? operationArchiveDao.findFirstPage(ewalletUuid, operationType, operationStatus, filter.getFrom(), filter.getTo(), remaining)
+                    : operationArchiveDao.findPageBefore(ewalletUuid, operationType, operationStatus, filter.getFrom(), filter.getTo(), archiveAfter.createdDate(), archiveAfter.uuid(), remaining);
+            operations = Stream.concat(operations.stream(), archived.stream()).toList();
+        }
+
+        List<OperationSummary> page = operations.subList(0, Math.min(limit, operations.size()));
+        OperationSummary last = page.isEmpty() ? null : page.get(page.size() - 1);
+        return OperationPageDto.builder()
+                .operations(page.stream().map(operation -> OperationMapper.toDto(ewalletUuid, operation)).toList())
+                .nextCursor(operations.size() > limit ? new OperationCursor(last.createdDate(), last.uuid()) : null)
+                .build();
+    }
+
+    public long lastDayWithdrawalsAmount(UUID uuid) {
+
+        return hourlyWithdrawalDao.sumByEwalletUuidSince(uuid, lastDayHourBucket());
+    }
+
+    public List<HourlyWithdrawalDto> lastDayWithdrawalsByWalletUuid(UUID uuid) {
+
+        return hourlyWithdrawalDao.findAllByEwalletUuidSince(uuid, lastDayHourBucket()).stream()
+                .map(OperationMapper::toDto)
+                .toList();
+    }
+
+    public List<HourlyWithdrawalDto> lastDayWithdrawals() {
+
+        return hourlyWithdrawalDao.findAllSince(lastDayHourBucket()).stream()
+                .map(OperationMapper::toDto)
+                .toList();
+    }
+
+    // Nothing newer than the horizon is ever archived, so recent history stays on the hot table
+    private boolean reachesArchive(OperationFilterDto filter) {
+
+        long horizon = System.currentTimeMillis() - Duration.ofDays(properties.getArchive().getHorizonDays()).toMillis();
+        return filter.getFrom() == null || filter.getFrom().getTime() < horizon;
     }
 
-    private boolean isSuspicious(OperationDto operation) {
+    private void addHourlyWithdrawal(Operation operation) {
 
-        return operation.getOperationType() == OperationTypeDto.TRANSACTION &&
-                operation.getAmount().compareTo(SUSPICIOUS_AMOUNT) > 0;
+        if (operation.getOperationType() == OperationType.WITHDRAWAL && operation.getOperationStatus() == OperationStatus.COMPLETED) {
+            hourlyWithdrawalDao.add(operation.getEwalletUuid(), hourBucketOf(System.currentTimeMillis()), operation.getAmount());
+        }
+    }
+
+    private Operation createEntity(OperationDto operationDto) {
+
+        if (isSuspicious(operationDto)) {
+            operationDto.setSuspicious(true);
+        }
+        return OperationMapper.createEntity(operationDto);
     }
 }
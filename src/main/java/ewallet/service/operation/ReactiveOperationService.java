@@ -0,0 +1,52 @@
+package ewallet.service.operation;
+
+import ewallet.dto.operation.internal.OperationDto;
+import ewallet.entity.operation.OperationRow;
+import ewallet.repository.operation.ReactiveHourlyWithdrawalDao;
+import ewallet.repository.operation.ReactiveOperationDao;
+import ewallet.util.mapper.operation.OperationMapper;
+import lombok.AllArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+import static ewallet.dto.operation.internal.HourlyWithdrawalDto.hourBucketOf;
+import static ewallet.service.operation.OperationRules.*;
+
+@Service
+@Profile("reactive")
+@AllArgsConstructor
+public class ReactiveOperationService {
+
+    private ReactiveOperationDao reactiveOperationDao;
+
+    private ReactiveHourlyWithdrawalDao reactiveHourlyWithdrawalDao;
+
+    // Declined operations are inserted directly too, the insert does not hold a request thread here
+    public Mono<OperationDto> save(OperationDto operationDto) {
+
+        if (isSuspicious(operationDto)) {
+            operationDto.setSuspicious(true);
+        }
+        OperationRow operation = OperationMapper.createRow(operationDto);
+
+        return reactiveOperationDao.save(operation)
+                .map(OperationMapper::toDto)
+                .flatMap(savedOperation -> addHourlyWithdrawal(savedOperation).thenReturn(savedOperation));
+    }
+
+    public Mono<Long> lastDayWithdrawalsAmount(UUID uuid) {
+
+        return reactiveHourlyWithdrawalDao.sumByEwalletUuidSince(uuid, lastDayHourBucket());
+    }
+
+    private Mono<Long> addHourlyWithdrawal(OperationDto operation) {
+
+        if (!isCompletedWithdrawal(operation)) {
+            return Mono.empty();
+        }
+        return reactiveHourlyWithdrawalDao.add(operation.getEwalletUuid(), hourBucketOf(System.currentTimeMillis()), operation.getAmount());
+    }
+}
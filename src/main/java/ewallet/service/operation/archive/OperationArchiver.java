@@ -0,0 +1,69 @@
+package ewallet.service.operation.archive;
+
+import ewallet.config.EwalletProperties;
+import ewallet.repository.operation.HourlyWithdrawalDao;
+import ewallet.repository.operation.OperationArchiveDao;
+import ewallet.repository.operation.OperationDao;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static ewallet.service.operation.OperationRules.lastDayHourBucket;
+
+// Keeps operation, and every index on it, bounded by the horizon rather than by the whole retention period
+@Component
+@RequiredArgsConstructor
+public class OperationArchiver {
+
+    private final EwalletProperties properties;
+
+    private final OperationDao operationDao;
+
+    private final OperationArchiveDao operationArchiveDao;
+
+    private final HourlyWithdrawalDao hourlyWithdrawalDao;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final MeterRegistry meterRegistry;
+
+    @Scheduled(fixedDelayString = "${ewallet.archive.interval-millis:3600000}")
+    public void archive() {
+
+        if (properties.getArchive().isEnabled()) {
+            archiveCreatedBefore(new Timestamp(System.currentTimeMillis() - Duration.ofDays(properties.getArchive().getHorizonDays()).toMillis()));
+        }
+    }
+
+    // Each batch is copied and deleted in its own short transaction, so writers are never blocked behind the whole backlog
+    public long archiveCreatedBefore(Timestamp before) {
+
+        int batchSize = properties.getArchive().getBatchSize();
+        long archived = 0;
+        int moved;
+        do {
+            moved = transactionTemplate.execute(status -> {
+                List<UUID> uuids = operationDao.findOldestCreatedBefore(before, PageRequest.of(0, batchSize));
+                if (!uuids.isEmpty()) {
+                    operationArchiveDao.copyFromOperations(uuids);
+                    operationDao.deleteAllByUuidIn(uuids);
+                }
+                return uuids.size();
+            });
+            archived += moved;
+        } while (moved == batchSize);
+        meterRegistry.counter("ewallet.operation.archived").increment(archived);
+
+        // Withdrawal limits only read the last day of hourly sums, older buckets are dead weight on their index
+        transactionTemplate.executeWithoutResult(status -> hourlyWithdrawalDao.deleteAllBefore(lastDayHourBucket()));
+        return archived;
+    }
+}
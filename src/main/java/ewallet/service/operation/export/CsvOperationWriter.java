@@ -0,0 +1,75 @@
+package ewallet.service.operation.export;
+
+import ewallet.repository.operation.OperationExportRow;
+import ewallet.util.money.Money;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.UUID;
+
+// RFC 4180: CRLF line ends, and a field holding a comma, quote or line break is quoted with its quotes doubled
+class CsvOperationWriter implements OperationWriter {
+
+    static final String HEADER = "uuid,ewallet_uuid,destination_wallet_uuid,operation_type,operation_status,amount,suspicious,description,created_date";
+
+    private final Writer writer;
+
+    CsvOperationWriter(Writer writer) throws IOException {
+
+        this.writer = writer;
+        writer.write(HEADER);
+        writer.write("\r\n");
+    }
+
+    @Override
+    public void write(OperationExportRow row) throws IOException {
+
+        writer.write(row.uuid().toString());
+        writer.write(',');
+        writer.write(row.ewalletUuid().toString());
+        writer.write(',');
+        writeNullable(row.destinationWalletUuid());
+        writer.write(',');
+        writer.write(row.operationType());
+        writer.write(',');
+        writer.write(row.operationStatus());
+        writer.write(',');
+        writer.write(Money.toBigDecimal(row.amount()).toPlainString());
+        writer.write(',');
+        writer.write(Boolean.toString(row.suspicious()));
+        writer.write(',');
+        writeEscaped(row.description());
+        writer.write(',');
+        if (row.createdDate() != null) {
+            writer.write(row.createdDate().toInstant().toString());
+        }
+        writer.write("\r\n");
+    }
+
+    @Override
+    public void finish() throws IOException {
+
+        writer.flush();
+    }
+
+    private void writeNullable(UUID uuid) throws IOException {
+
+        if (uuid != null) {
+            writer.write(uuid.toString());
+        }
+    }
+
+    private void writeEscaped(String value) throws IOException {
+
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,45 @@
+package ewallet.service.operation.export;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import ewallet.repository.operation.OperationExportRow;
+import ewallet.util.money.Money;
+
+import java.io.IOException;
+import java.io.Writer;
+
+class NdjsonOperationWriter implements OperationWriter {
+
+    private final JsonGenerator generator;
+
+    NdjsonOperationWriter(JsonFactory jsonFactory, Writer writer) throws IOException {
+
+        // Root values are separated by the newline written after each of them, not by the default space
+        this.generator = jsonFactory.createGenerator(writer).setPrettyPrinter(new MinimalPrettyPrinter(""));
+    }
+
+    @Override
+    public void write(OperationExportRow row) throws IOException {
+
+        generator.writeStartObject();
+        generator.writeStringField("uuid", row.uuid().toString());
+        generator.writeStringField("ewalletUuid", row.ewalletUuid().toString());
+        generator.writeStringField("destinationWalletUuid", row.destinationWalletUuid() == null ? null : row.destinationWalletUuid().toString());
+        generator.writeStringField("operationType", row.operationType());
+        generator.writeStringField("operationStatus", row.operationStatus());
+        generator.writeFieldName("amount");
+        generator.writeNumber(Money.toBigDecimal(row.amount()));
+        generator.writeBooleanField("suspicious", row.suspicious());
+        generator.writeStringField("description", row.description());
+        generator.writeStringField("createdDate", row.createdDate() == null ? null : row.createdDate().toInstant().toString());
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    @Override
+    public void finish() throws IOException {
+
+        generator.flush();
+    }
+}
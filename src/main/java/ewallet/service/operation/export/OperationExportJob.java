@@ -0,0 +1,46 @@
+package ewallet.service.operation.export;
+
+import ewallet.config.EwalletProperties;
+import ewallet.dto.operation.internal.OperationFilterDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Started with --spring.profiles.active=export --ewallet.export.file=<path> the application exports every operation to that
+// file and exits; the export profile starts no web server, so the job neither binds the port nor takes request threads
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "ewallet.export", name = "file")
+public class OperationExportJob implements ApplicationRunner {
+
+    private final EwalletProperties properties;
+
+    private final OperationExportService operationExportService;
+
+    private final ConfigurableApplicationContext context;
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+
+        EwalletProperties.Export export = properties.getExport();
+        try (FileChannel channel = FileChannel.open(Path.of(export.getFile()),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             OutputStream out = Channels.newOutputStream(channel)) {
+            operationExportService.export(null, OperationFilterDto.builder().build(), export.getFormat(), export.isGzip(), out);
+            channel.force(true);
+        }
+
+        System.exit(SpringApplication.exit(context));
+    }
+}
@@ -0,0 +1,72 @@
+package ewallet.service.operation.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ewallet.config.EwalletProperties;
+import ewallet.config.ExportFormat;
+import ewallet.dto.operation.internal.OperationFilterDto;
+import ewallet.repository.operation.OperationExportDao;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+// Each row is serialized into a fixed-size buffer as soon as the cursor yields it, so memory stays flat however many rows are exported
+@Service
+@AllArgsConstructor
+public class OperationExportService {
+
+    private EwalletProperties properties;
+
+    private OperationExportDao operationExportDao;
+
+    private PlatformTransactionManager transactionManager;
+
+    private ObjectMapper objectMapper;
+
+    // The stream is finished but left open, so the caller decides whether the response or file is closed
+    public long export(UUID ewalletUuid, OperationFilterDto filter, ExportFormat format, boolean gzip, OutputStream out) throws IOException {
+
+        EwalletProperties.Export export = properties.getExport();
+        GZIPOutputStream compressed = gzip ? new GZIPOutputStream(out, export.getBufferBytes()) : null;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(compressed == null ? out : compressed, StandardCharsets.UTF_8), export.getBufferBytes());
+        OperationWriter operationWriter = format == ExportFormat.CSV
+                ? new CsvOperationWriter(writer)
+                : new NdjsonOperationWriter(objectMapper.getFactory(), writer);
+
+        // Read-only keeps Hibernate from flushing and lets the database skip write bookkeeping for the long-running cursor
+        TransactionTemplate readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        // Both tables are read from one snapshot, so a row the archiver moves between the two reads is still exported exactly once
+        readOnlyTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        long exported;
+        try {
+            exported = readOnlyTransaction.execute(status -> operationExportDao.streamAll(ewalletUuid, filter, export.getFetchSize(), row -> {
+                try {
+                    operationWriter.write(row);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        operationWriter.finish();
+        if (compressed != null) {
+            compressed.finish();
+        }
+        out.flush();
+        return exported;
+    }
+}
@@ -0,0 +1,12 @@
+package ewallet.service.operation.export;
+
+import ewallet.repository.operation.OperationExportRow;
+
+import java.io.IOException;
+
+interface OperationWriter {
+
+    void write(OperationExportRow row) throws IOException;
+
+    void finish() throws IOException;
+}
@@ -4,7 +4,12 @@ public final class MediaType {
 
     public static final String CREATE_CUSTOMER_REQUEST = "application/vnd.create-customer-request.api.v1+json";
     public static final String GET_CUSTOMER_REQUEST = "application/vnd.get-customer-request.api.v1+json";
+    public static final String GET_EWALLET_REQUEST = "application/vnd.get-ewallet-request.api.v1+json";
     public static final String DEPOSIT_EWALLET_REQUEST = "application/vnd.deposit-ewallet-request.api.v1+json";
     public static final String WITHDRAW_EWALLET_REQUEST = "application/vnd.withdraw-ewallet-request.api.v1+json";
     public static final String MAKE_TRANSACTION_EWALLET_REQUEST = "application/vnd.make-transaction-ewallet-request.api.v1+json";
+    public static final String BATCH_OPERATIONS_REQUEST = "application/vnd.batch-operations-request.api.v1+json";
+    public static final String GET_OPERATION_REQUEST = "application/vnd.get-operation-request.api.v1+json";
+    public static final String GET_OPERATIONS_REQUEST = "application/vnd.get-operations-request.api.v1+json";
+    public static final String EXPORT_OPERATIONS_REQUEST = "application/vnd.export-operations-request.api.v1+json";
 }
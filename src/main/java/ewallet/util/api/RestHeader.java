@@ -0,0 +1,6 @@
+package ewallet.util.api;
+
+public final class RestHeader {
+
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+}
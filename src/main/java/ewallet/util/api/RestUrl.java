@@ -5,7 +5,12 @@ public final class RestUrl {
     public static final String API_V1 = "/api/v1";
     public static final String CUSTOMER = "/customer";
     public static final String CUSTOMER_BY_UUID = "/customer/{uuid}";
+    public static final String EWALLET_BY_UUID = "/ewallet/{uuid}";
+    public static final String EWALLET_BY_UUID_OPERATIONS = "/ewallet/{uuid}/operations";
     public static final String EWALLET_BY_UUID_DEPOSIT = "/ewallet/{uuid}/deposit";
     public static final String EWALLET_BY_UUID_WITHDRAWAL = "/ewallet/{uuid}/withdrawal";
     public static final String EWALLET_BY_UUID_TRANSACTION = "/ewallet/{uuid}/transaction";
+    public static final String OPERATION_BATCH = "/operation/batch";
+    public static final String OPERATION_EXPORT = "/operation/export";
+    public static final String OPERATION_BY_UUID = "/operation/{uuid}";
 }
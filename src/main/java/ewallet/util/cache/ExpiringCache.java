@@ -0,0 +1,91 @@
+package ewallet.util.cache;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.BiPredicate;
+import java.util.function.LongSupplier;
+
+// Every entry lives for the same ttl, so insertion order is also expiry order and eviction is a queue poll
+public class ExpiringCache<K, V> {
+
+    private final int capacity;
+
+    private final long ttlMillis;
+
+    private final LongSupplier clock;
+
+    private final Map<K, Entry<K, V>> entries = new ConcurrentHashMap<>();
+
+    private final Queue<Entry<K, V>> insertionOrder = new ConcurrentLinkedQueue<>();
+
+    public ExpiringCache(int capacity, long ttlMillis) {
+
+        this(capacity, ttlMillis, System::currentTimeMillis);
+    }
+
+    ExpiringCache(int capacity, long ttlMillis, LongSupplier clock) {
+
+        this.capacity = capacity;
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+    }
+
+    public V get(K key) {
+
+        Entry<K, V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt() <= clock.getAsLong()) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.value();
+    }
+
+    public void put(K key, V value) {
+
+        Entry<K, V> entry = new Entry<>(key, value, clock.getAsLong() + ttlMillis);
+        entries.put(key, entry);
+        insertionOrder.add(entry);
+        evict();
+    }
+
+    // The value is only stored while replaces(current, value) holds for the live entry, if there is one
+    public void put(K key, V value, BiPredicate<V, V> replaces) {
+
+        Entry<K, V> entry = new Entry<>(key, value, clock.getAsLong() + ttlMillis);
+        Entry<K, V> stored = entries.compute(key, (ignored, current) ->
+                current == null || current.expiresAt() <= clock.getAsLong() || replaces.test(current.value(), value) ? entry : current);
+        if (stored == entry) {
+            insertionOrder.add(entry);
+            evict();
+        }
+    }
+
+    public void remove(K key) {
+
+        entries.remove(key);
+    }
+
+    public int size() {
+
+        return entries.size();
+    }
+
+    private void evict() {
+
+        long now = clock.getAsLong();
+        Entry<K, V> oldest;
+        while ((oldest = insertionOrder.peek()) != null && (entries.size() > capacity || oldest.expiresAt() <= now || entries.get(oldest.key()) != oldest)) {
+            if (insertionOrder.remove(oldest)) {
+                entries.remove(oldest.key(), oldest);
+            }
+        }
+    }
+
+    private record Entry<K, V>(K key, V value, long expiresAt) {
+    }
+}
@@ -0,0 +1,8 @@
+package ewallet.util.id;
+
+import java.util.UUID;
+
+public interface IdGenerator {
+
+    UUID generate();
+}
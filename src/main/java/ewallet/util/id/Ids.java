@@ -0,0 +1,18 @@
+package ewallet.util.id;
+
+import java.util.UUID;
+
+public final class Ids {
+
+    private static volatile IdGenerator generator = new TimeOrderedIdGenerator();
+
+    public static UUID next() {
+
+        return generator.generate();
+    }
+
+    public static void use(IdGenerator idGenerator) {
+
+        generator = idGenerator;
+    }
+}
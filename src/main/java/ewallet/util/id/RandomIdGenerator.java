@@ -0,0 +1,12 @@
+package ewallet.util.id;
+
+import java.util.UUID;
+
+public final class RandomIdGenerator implements IdGenerator {
+
+    @Override
+    public UUID generate() {
+
+        return UUID.randomUUID();
+    }
+}
@@ -0,0 +1,51 @@
+package ewallet.util.id;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// UUIDv7 (RFC 9562): 48-bit unix millis, then a 12-bit counter in rand_a that keeps ids monotonic within a millisecond
+public final class TimeOrderedIdGenerator implements IdGenerator {
+
+    private static final int COUNTER_BITS = 12;
+
+    private static final long COUNTER_MASK = (1L << COUNTER_BITS) - 1;
+
+    private static final long VERSION = 0x7000L;
+
+    private static final long VARIANT = 0x8000_0000_0000_0000L;
+
+    private static final long RANDOM_MASK = 0x3FFF_FFFF_FFFF_FFFFL;
+
+    private final LongSupplier clock;
+
+    private final AtomicLong lastTimestampAndCounter = new AtomicLong();
+
+    public TimeOrderedIdGenerator() {
+
+        this(System::currentTimeMillis);
+    }
+
+    TimeOrderedIdGenerator(LongSupplier clock) {
+
+        this.clock = clock;
+    }
+
+    @Override
+    public UUID generate() {
+
+        long timestampAndCounter = nextTimestampAndCounter();
+        long mostSigBits = (timestampAndCounter >>> COUNTER_BITS) << 16 | VERSION | timestampAndCounter & COUNTER_MASK;
+        long leastSigBits = VARIANT | ThreadLocalRandom.current().nextLong() & RANDOM_MASK;
+
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    // A counter overflow or a clock moving backwards borrows from the next millisecond instead of repeating a value
+    private long nextTimestampAndCounter() {
+
+        long now = clock.getAsLong() << COUNTER_BITS;
+        return lastTimestampAndCounter.updateAndGet(last -> Math.max(now, last + 1));
+    }
+}
@@ -5,8 +5,11 @@ import ewallet.dto.customer.api.CreateCustomerResponseDto;
 import ewallet.dto.customer.api.GetCustomerResponseDto;
 import ewallet.dto.customer.internal.CustomerDto;
 import ewallet.entity.customer.Customer;
+import ewallet.entity.customer.CustomerRow;
+import ewallet.util.id.Ids;
+import org.springframework.util.DigestUtils;
 
-import java.util.UUID;
+import java.nio.charset.StandardCharsets;
 
 public final class CustomerMapper {
 
@@ -32,16 +35,16 @@ public final class CustomerMapper {
     public static Customer toEntity(CustomerDto customerDto) {
 
         return Customer.builder()
-                .uuid(UUID.randomUUID())
+                .uuid(Ids.next())
                 .firstName(customerDto.getFirstName())
                 .lastName(customerDto.getLastName())
                 .email(customerDto.getEmail())
                 .build();
     }
 
-    public static GetCustomerResponseDto toGetCustomerResponseDto(Customer customer) {
+    public static CustomerDto toDto(CustomerRow customer) {
 
-        return GetCustomerResponseDto.builder()
+        return CustomerDto.builder()
                 .uuid(customer.getUuid())
                 .firstName(customer.getFirstName())
                 .lastName(customer.getLastName())
@@ -49,10 +52,36 @@ public final class CustomerMapper {
                 .build();
     }
 
+    public static CustomerRow toRow(CustomerDto customerDto) {
+
+        return CustomerRow.builder()
+                .uuid(Ids.next())
+                .firstName(customerDto.getFirstName())
+                .lastName(customerDto.getLastName())
+                .email(customerDto.getEmail())
+                .build();
+    }
+
+    public static GetCustomerResponseDto toGetCustomerResponseDto(CustomerDto customerDto) {
+
+        return GetCustomerResponseDto.builder()
+                .uuid(customerDto.getUuid())
+                .firstName(customerDto.getFirstName())
+                .lastName(customerDto.getLastName())
+                .email(customerDto.getEmail())
+                .build();
+    }
+
     public static CreateCustomerResponseDto toCreateCustomerResponseDto(CustomerDto customerDto) {
 
         return CreateCustomerResponseDto.builder()
                 .uuid(customerDto.getUuid())
                 .build();
     }
+
+    public static String toETag(CustomerDto customerDto) {
+
+        String representation = String.join("\n", customerDto.getUuid().toString(), customerDto.getFirstName(), customerDto.getLastName(), customerDto.getEmail());
+        return "\"%s\"".formatted(DigestUtils.md5DigestAsHex(representation.getBytes(StandardCharsets.UTF_8)));
+    }
 }
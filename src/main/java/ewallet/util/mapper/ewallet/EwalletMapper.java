@@ -1,9 +1,13 @@
 package ewallet.util.mapper.ewallet;
 
+import ewallet.dto.ewallet.api.GetEwalletResponseDto;
 import ewallet.dto.ewallet.internal.EwalletDto;
 import ewallet.entity.ewallet.Ewallet;
+import ewallet.entity.ewallet.EwalletRow;
+import ewallet.repository.ewallet.EwalletSummary;
+import ewallet.util.id.Ids;
+import ewallet.util.money.Money;
 
-import java.math.BigDecimal;
 import java.util.UUID;
 
 public final class EwalletMapper {
@@ -14,14 +18,25 @@ public final class EwalletMapper {
                 .uuid(ewalletDto.getUuid())
                 .balance(ewalletDto.getBalance())
                 .customerUuid(ewalletDto.getCustomerUuid())
+                .stripes(ewalletDto.getStripes())
+                .version(ewalletDto.getVersion())
                 .build();
     }
 
     public static Ewallet createEntity(EwalletDto ewalletDto) {
 
         return Ewallet.builder()
-                .uuid(UUID.randomUUID())
-                .balance(BigDecimal.ZERO)
+                .uuid(Ids.next())
+                .balance(0)
+                .customerUuid(ewalletDto.getCustomerUuid())
+                .build();
+    }
+
+    public static EwalletRow createRow(EwalletDto ewalletDto) {
+
+        return EwalletRow.builder()
+                .uuid(Ids.next())
+                .balance(0)
                 .customerUuid(ewalletDto.getCustomerUuid())
                 .build();
     }
@@ -39,6 +54,45 @@ public final class EwalletMapper {
                 .uuid(ewallet.getUuid())
                 .customerUuid(ewallet.getCustomerUuid())
                 .balance(ewallet.getBalance())
+                .stripes(ewallet.getStripes())
+                .version(ewallet.getVersion())
+                .build();
+    }
+
+    public static EwalletDto toDto(EwalletRow ewallet) {
+
+        return EwalletDto.builder()
+                .uuid(ewallet.getUuid())
+                .customerUuid(ewallet.getCustomerUuid())
+                .balance(ewallet.getBalance())
+                .stripes(ewallet.getStripes())
+                .version(ewallet.getVersion())
                 .build();
     }
+
+    public static EwalletDto toDto(EwalletSummary ewallet) {
+
+        return EwalletDto.builder()
+                .uuid(ewallet.uuid())
+                .customerUuid(ewallet.customerUuid())
+                .balance(ewallet.balance())
+                .stripes(ewallet.stripes())
+                .version(ewallet.version())
+                .build();
+    }
+
+    public static GetEwalletResponseDto toGetEwalletResponseDto(EwalletDto ewalletDto) {
+
+        return GetEwalletResponseDto.builder()
+                .uuid(ewalletDto.getUuid())
+                .customerUuid(ewalletDto.getCustomerUuid())
+                .balance(Money.toBigDecimal(ewalletDto.getBalance()))
+                .build();
+    }
+
+    // Hot ewallets and the journal move the balance without bumping the version, so both go into the tag
+    public static String toETag(EwalletDto ewalletDto) {
+
+        return "\"%d-%d\"".formatted(ewalletDto.getVersion(), ewalletDto.getBalance());
+    }
 }
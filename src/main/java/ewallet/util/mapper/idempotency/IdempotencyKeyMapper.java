@@ -0,0 +1,61 @@
+package ewallet.util.mapper.idempotency;
+
+import ewallet.dto.operation.internal.OperationDto;
+import ewallet.dto.operation.internal.OperationStatusDto;
+import ewallet.dto.operation.internal.OperationTypeDto;
+import ewallet.entity.idempotency.IdempotencyKey;
+import ewallet.entity.operation.OperationStatus;
+import ewallet.entity.operation.OperationType;
+import ewallet.util.id.Ids;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+public final class IdempotencyKeyMapper {
+
+    public static IdempotencyKey createEntity(String idempotencyKey, OperationDto operationDto) {
+
+        return IdempotencyKey.builder()
+                .uuid(Ids.next())
+                .idempotencyKey(idempotencyKey)
+                .ewalletUuid(operationDto.getEwalletUuid())
+                .operationType(OperationType.valueOf(operationDto.getOperationType().toString()))
+                .requestFingerprint(fingerprintOf(operationDto))
+                .operationUuid(operationDto.getUuid() != null ? operationDto.getUuid() : Ids.next())
+                .build();
+    }
+
+    // Covers every field the client sends, so a retry matches and a reused key with another body does not
+    public static String fingerprintOf(OperationDto operationDto) {
+
+        String request = String.join("|",
+                String.valueOf(operationDto.getEwalletUuid()),
+                String.valueOf(operationDto.getOperationType()),
+                Long.toString(operationDto.getAmount()),
+                String.valueOf(operationDto.getDestinationWalletUuid()),
+                String.valueOf(operationDto.getDescription()));
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(request.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public static void complete(IdempotencyKey idempotencyKey, OperationDto operationDto) {
+
+        idempotencyKey.setOperationUuid(operationDto.getUuid());
+        idempotencyKey.setOperationStatus(OperationStatus.valueOf(operationDto.getOperationStatus().toString()));
+    }
+
+    public static OperationDto toOperationDto(IdempotencyKey idempotencyKey) {
+
+        return OperationDto.builder()
+                .uuid(idempotencyKey.getOperationUuid())
+                .ewalletUuid(idempotencyKey.getEwalletUuid())
+                .operationType(OperationTypeDto.valueOf(idempotencyKey.getOperationType().toString()))
+                .operationStatus(OperationStatusDto.valueOf(idempotencyKey.getOperationStatus().toString()))
+                .build();
+    }
+}
@@ -1,16 +1,29 @@
 package ewallet.util.mapper.operation;
 
+import ewallet.dto.ewallet.api.BatchOperationRequestDto;
 import ewallet.dto.ewallet.api.DepositEwalletRequestDto;
 import ewallet.dto.ewallet.api.MakeOperationResponseDto;
 import ewallet.dto.ewallet.api.MakeTransactionEwalletRequestDto;
+import ewallet.dto.ewallet.api.OperationHistoryItemDto;
+import ewallet.dto.ewallet.api.OperationHistoryResponseDto;
 import ewallet.dto.ewallet.api.WithdrawEwalletRequestDto;
+import ewallet.dto.operation.internal.HourlyWithdrawalDto;
 import ewallet.dto.operation.internal.OperationDto;
+import ewallet.dto.operation.internal.OperationPageDto;
 import ewallet.dto.operation.internal.OperationStatusDto;
 import ewallet.dto.operation.internal.OperationTypeDto;
+import ewallet.entity.operation.ArchivedOperation;
+import ewallet.entity.operation.HourlyWithdrawal;
 import ewallet.entity.operation.Operation;
+import ewallet.entity.operation.OperationRow;
 import ewallet.entity.operation.OperationStatus;
 import ewallet.entity.operation.OperationType;
+import ewallet.repository.operation.OperationSummary;
+import ewallet.util.id.Ids;
+import ewallet.util.money.Money;
 
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 public final class OperationMapper {
@@ -30,10 +43,68 @@ public final class OperationMapper {
                 .build();
     }
 
+    public static OperationDto toDto(ArchivedOperation operation) {
+
+        return OperationDto.builder()
+                .uuid(operation.getUuid())
+                .amount(operation.getAmount())
+                .operationType(OperationTypeDto.valueOf(operation.getOperationType().toString()))
+                .description(operation.getDescription())
+                .ewalletUuid(operation.getEwalletUuid())
+                .destinationWalletUuid(operation.getDestinationWalletUuid())
+                .operationStatus(OperationStatusDto.valueOf(operation.getOperationStatus().toString()))
+                .suspicious(operation.isSuspicious())
+                .createdDate(operation.getCreatedDate())
+                .build();
+    }
+
+    public static OperationDto toDto(UUID ewalletUuid, OperationSummary operation) {
+
+        return OperationDto.builder()
+                .uuid(operation.uuid())
+                .amount(operation.amount())
+                .operationType(OperationTypeDto.valueOf(operation.operationType().toString()))
+                .description(operation.description())
+                .ewalletUuid(ewalletUuid)
+                .destinationWalletUuid(operation.destinationWalletUuid())
+                .operationStatus(OperationStatusDto.valueOf(operation.operationStatus().toString()))
+                .createdDate(operation.createdDate())
+                .build();
+    }
+
     public static Operation createEntity(OperationDto operationDto) {
 
         return Operation.builder()
-                .uuid(UUID.randomUUID())
+                .uuid(operationDto.getUuid() != null ? operationDto.getUuid() : Ids.next())
+                .operationType(OperationType.valueOf(operationDto.getOperationType().toString()))
+                .amount(operationDto.getAmount())
+                .description(operationDto.getDescription())
+                .ewalletUuid(operationDto.getEwalletUuid())
+                .destinationWalletUuid(operationDto.getDestinationWalletUuid())
+                .operationStatus(OperationStatus.valueOf(operationDto.getOperationStatus().toString()))
+                .suspicious(operationDto.isSuspicious())
+                .build();
+    }
+
+    public static OperationDto toDto(OperationRow operation) {
+
+        return OperationDto.builder()
+                .uuid(operation.getUuid())
+                .amount(operation.getAmount())
+                .operationType(OperationTypeDto.valueOf(operation.getOperationType().toString()))
+                .description(operation.getDescription())
+                .ewalletUuid(operation.getEwalletUuid())
+                .destinationWalletUuid(operation.getDestinationWalletUuid())
+                .operationStatus(OperationStatusDto.valueOf(operation.getOperationStatus().toString()))
+                .suspicious(operation.isSuspicious())
+                .createdDate(Timestamp.valueOf(operation.getCreatedDate()))
+                .build();
+    }
+
+    public static OperationRow createRow(OperationDto operationDto) {
+
+        return OperationRow.builder()
+                .uuid(operationDto.getUuid() != null ? operationDto.getUuid() : Ids.next())
                 .operationType(OperationType.valueOf(operationDto.getOperationType().toString()))
                 .amount(operationDto.getAmount())
                 .description(operationDto.getDescription())
@@ -41,6 +112,16 @@ public final class OperationMapper {
                 .destinationWalletUuid(operationDto.getDestinationWalletUuid())
                 .operationStatus(OperationStatus.valueOf(operationDto.getOperationStatus().toString()))
                 .suspicious(operationDto.isSuspicious())
+                .createdDate(LocalDateTime.now())
+                .build();
+    }
+
+    public static HourlyWithdrawalDto toDto(HourlyWithdrawal hourlyWithdrawal) {
+
+        return HourlyWithdrawalDto.builder()
+                .ewalletUuid(hourlyWithdrawal.getEwalletUuid())
+                .hourBucket(hourlyWithdrawal.getHourBucket())
+                .withdrawnSum(hourlyWithdrawal.getWithdrawnSum())
                 .build();
     }
 
@@ -52,11 +133,32 @@ public final class OperationMapper {
                 .build();
     }
 
+    public static OperationHistoryResponseDto toOperationHistoryResponseDto(OperationPageDto page) {
+
+        return OperationHistoryResponseDto.builder()
+                .operations(page.getOperations().stream().map(OperationMapper::toOperationHistoryItemDto).toList())
+                .nextCursor(page.getNextCursor() == null ? null : page.getNextCursor().encode())
+                .build();
+    }
+
+    public static OperationHistoryItemDto toOperationHistoryItemDto(OperationDto operation) {
+
+        return OperationHistoryItemDto.builder()
+                .uuid(operation.getUuid())
+                .amount(Money.toBigDecimal(operation.getAmount()))
+                .type(operation.getOperationType())
+                .status(operation.getOperationStatus())
+                .description(operation.getDescription())
+                .destinationWalletUuid(operation.getDestinationWalletUuid())
+                .createdDate(operation.getCreatedDate().toInstant())
+                .build();
+    }
+
     public static OperationDto toOperationDto(UUID uuid, DepositEwalletRequestDto depositEwalletRequestDto) {
 
         return OperationDto.builder()
                 .ewalletUuid(uuid)
-                .amount(depositEwalletRequestDto.getAmount())
+                .amount(Money.toMinorUnits(depositEwalletRequestDto.getAmount()))
                 .operationType(OperationTypeDto.DEPOSIT)
                 .description(depositEwalletRequestDto.getDescription())
                 .build();
@@ -66,7 +168,7 @@ public final class OperationMapper {
 
         return OperationDto.builder()
                 .ewalletUuid(uuid)
-                .amount(makeTransactionEwalletRequestDto.getAmount())
+                .amount(Money.toMinorUnits(makeTransactionEwalletRequestDto.getAmount()))
                 .operationType(OperationTypeDto.TRANSACTION)
                 .description(makeTransactionEwalletRequestDto.getDescription())
                 .destinationWalletUuid(makeTransactionEwalletRequestDto.getDestinationWalletUuid())
@@ -77,9 +179,20 @@ public final class OperationMapper {
 
         return OperationDto.builder()
                 .ewalletUuid(uuid)
-                .amount(withdrawEwalletRequestDto.getAmount())
+                .amount(Money.toMinorUnits(withdrawEwalletRequestDto.getAmount()))
                 .operationType(OperationTypeDto.WITHDRAWAL)
                 .description(withdrawEwalletRequestDto.getDescription())
                 .build();
     }
+
+    public static OperationDto toOperationDto(BatchOperationRequestDto batchOperationRequestDto) {
+
+        return OperationDto.builder()
+                .ewalletUuid(batchOperationRequestDto.getEwalletUuid())
+                .amount(Money.toMinorUnits(batchOperationRequestDto.getAmount()))
+                .operationType(batchOperationRequestDto.getOperationType())
+                .description(batchOperationRequestDto.getDescription())
+                .destinationWalletUuid(batchOperationRequestDto.getDestinationWalletUuid())
+                .build();
+    }
 }
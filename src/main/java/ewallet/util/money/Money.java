@@ -0,0 +1,20 @@
+package ewallet.util.money;
+
+import java.math.BigDecimal;
+
+public final class Money {
+
+    public static final int SCALE = 2;
+
+    public static final int MAX_INTEGER_DIGITS = 16;
+
+    public static long toMinorUnits(BigDecimal amount) {
+
+        return amount.movePointRight(SCALE).longValueExact();
+    }
+
+    public static BigDecimal toBigDecimal(long minorUnits) {
+
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+}
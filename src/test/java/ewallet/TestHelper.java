@@ -12,9 +12,9 @@ import ewallet.entity.ewallet.Ewallet;
 import ewallet.entity.operation.Operation;
 import ewallet.entity.operation.OperationStatus;
 import ewallet.entity.operation.OperationType;
+import ewallet.util.money.Money;
 import org.apache.commons.lang3.RandomStringUtils;
 
-import java.math.BigDecimal;
 import java.sql.Timestamp;
 import java.util.UUID;
 
@@ -65,12 +65,12 @@ public class TestHelper {
     public static Ewallet randomEwallet() {
         return Ewallet.builder()
                 .uuid(UUID.randomUUID())
-                .balance(BigDecimal.ONE)
+                .balance(1)
                 .customerUuid(UUID.randomUUID())
                 .build();
     }
 
-    public static Ewallet createEwallet(UUID uuid, BigDecimal balance) {
+    public static Ewallet createEwallet(UUID uuid, long balance) {
         return Ewallet.builder()
                 .uuid(uuid)
                 .balance(balance)
@@ -82,7 +82,7 @@ public class TestHelper {
 
         return Operation.builder()
                 .uuid(UUID.randomUUID())
-                .amount(BigDecimal.ONE)
+                .amount(1)
                 .operationType(OperationType.WITHDRAWAL)
                 .operationStatus(OperationStatus.COMPLETED)
                 .ewalletUuid(UUID.randomUUID())
@@ -93,7 +93,7 @@ public class TestHelper {
     public static OperationDto createOperationDto(UUID uuid, DepositEwalletRequestDto depositEwalletRequestDto) {
 
         return OperationDto.builder()
-                .amount(depositEwalletRequestDto.getAmount())
+                .amount(Money.toMinorUnits(depositEwalletRequestDto.getAmount()))
                 .description(depositEwalletRequestDto.getDescription())
                 .ewalletUuid(uuid)
                 .build();
@@ -102,7 +102,7 @@ public class TestHelper {
     public static OperationDto createOperationDto(UUID uuid, WithdrawEwalletRequestDto withdrawEwalletRequestDto) {
 
         return OperationDto.builder()
-                .amount(withdrawEwalletRequestDto.getAmount())
+                .amount(Money.toMinorUnits(withdrawEwalletRequestDto.getAmount()))
                 .description(withdrawEwalletRequestDto.getDescription())
                 .ewalletUuid(uuid)
                 .build();
@@ -111,7 +111,7 @@ public class TestHelper {
     public static OperationDto createOperationDto(UUID uuid, MakeTransactionEwalletRequestDto makeTransactionEwalletRequestDto) {
 
         return OperationDto.builder()
-                .amount(makeTransactionEwalletRequestDto.getAmount())
+                .amount(Money.toMinorUnits(makeTransactionEwalletRequestDto.getAmount()))
                 .description(makeTransactionEwalletRequestDto.getDescription())
                 .destinationWalletUuid(UUID.randomUUID())
                 .ewalletUuid(uuid)
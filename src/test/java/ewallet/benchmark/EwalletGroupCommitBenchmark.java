@@ -0,0 +1,110 @@
+package ewallet.benchmark;
+
+import ewallet.EwalletApplication;
+import ewallet.dto.operation.internal.OperationDto;
+import ewallet.dto.operation.internal.OperationTypeDto;
+import ewallet.entity.ewallet.Ewallet;
+import ewallet.repository.ewallet.EwalletDao;
+import ewallet.service.ewallet.EwalletService;
+import ewallet.service.ewallet.groupcommit.EwalletGroupCommitter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Deposits per second, each one a balance update plus its audit row, e.g. -t 64 -p groupCommit=false,true.
+// A file database, so every commit is written out, on the default pool of 10 connections; main runs 1, 8, 32 and 128 threads.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class EwalletGroupCommitBenchmark {
+
+    private static final int[] THREADS = {1, 8, 32, 128};
+
+    private static final int EWALLETS = 10_000;
+
+    @Param({"false", "true"})
+    private boolean groupCommit;
+
+    @Param({"200"})
+    private long lingerMicros;
+
+    private Path directory;
+
+    private ConfigurableApplicationContext context;
+
+    private EwalletService ewalletService;
+
+    private EwalletGroupCommitter ewalletGroupCommitter;
+
+    private List<UUID> ewalletUuids;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+
+        directory = Files.createTempDirectory("group-commit");
+        context = new SpringApplicationBuilder(EwalletApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:file:" + directory.resolve("ewallet"),
+                        "--spring.jpa.hibernate.ddl-auto=create",
+                        "--ewallet.group-commit.enabled=" + groupCommit,
+                        "--ewallet.group-commit.linger-micros=" + lingerMicros,
+                        "--logging.level.root=warn");
+        ewalletService = context.getBean(EwalletService.class);
+        ewalletGroupCommitter = context.getBean(EwalletGroupCommitter.class);
+
+        List<Ewallet> seeded = new ArrayList<>();
+        for (int i = 0; i < EWALLETS; i++) {
+            seeded.add(Ewallet.builder().uuid(UUID.randomUUID()).balance(0).customerUuid(UUID.randomUUID()).build());
+        }
+        context.getBean(EwalletDao.class).saveAll(seeded);
+        ewalletUuids = seeded.stream().map(Ewallet::getUuid).toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+
+        context.close();
+        try (var files = Files.walk(directory)) {
+            files.sorted((first, second) -> second.compareTo(first)).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public OperationDto deposit() {
+
+        OperationDto operation = OperationDto.builder()
+                .amount(1)
+                .operationType(OperationTypeDto.DEPOSIT)
+                .ewalletUuid(ewalletUuids.get(ThreadLocalRandom.current().nextInt(EWALLETS)))
+                .build();
+        return ewalletGroupCommitter.isEnabled()
+                ? ewalletGroupCommitter.apply(operation, ewalletService::deposit)
+                : ewalletService.deposit(operation);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+
+        for (int threads : THREADS) {
+            new Runner(new OptionsBuilder()
+                    .include(EwalletGroupCommitBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .build()).run();
+        }
+    }
+}
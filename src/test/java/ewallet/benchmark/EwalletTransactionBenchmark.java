@@ -0,0 +1,101 @@
+package ewallet.benchmark;
+
+import ewallet.EwalletApplication;
+import ewallet.dto.operation.internal.OperationDto;
+import ewallet.dto.operation.internal.OperationTypeDto;
+import ewallet.entity.ewallet.Ewallet;
+import ewallet.repository.ewallet.EwalletDao;
+import ewallet.service.ewallet.EwalletService;
+import ewallet.service.ewallet.hot.HotEwalletService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Transactions per second between random pairs of ewallets, each locking both rows in uuid order, e.g. -t 16 -p ewallets=2 -p hot=true.
+// Two ewallets keep every transaction on the same pair of row locks in both directions; main runs 1, 8 and 32 threads.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class EwalletTransactionBenchmark {
+
+    private static final int[] THREADS = {1, 8, 32};
+
+    private static final long INITIAL_BALANCE = 1_000_000_000L;
+
+    @Param({"2", "1000"})
+    private int ewallets;
+
+    @Param({"false", "true"})
+    private boolean hot;
+
+    private ConfigurableApplicationContext context;
+
+    private EwalletService ewalletService;
+
+    private List<UUID> ewalletUuids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+
+        context = new SpringApplicationBuilder(EwalletApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:transaction-benchmark;LOCK_TIMEOUT=10000",
+                        "--logging.level.root=warn");
+        ewalletService = context.getBean(EwalletService.class);
+
+        List<Ewallet> seeded = new ArrayList<>();
+        for (int i = 0; i < ewallets; i++) {
+            seeded.add(Ewallet.builder().uuid(UUID.randomUUID()).balance(INITIAL_BALANCE).customerUuid(UUID.randomUUID()).build());
+        }
+        context.getBean(EwalletDao.class).saveAll(seeded);
+        ewalletUuids = seeded.stream().map(Ewallet::getUuid).toList();
+
+        if (hot) {
+            HotEwalletService hotEwalletService = context.getBean(HotEwalletService.class);
+            ewalletUuids.forEach(hotEwalletService::markHot);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+
+        context.close();
+    }
+
+    @Benchmark
+    public OperationDto makeTransaction() {
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int source = random.nextInt(ewallets);
+        int destination = (source + 1 + random.nextInt(ewallets - 1)) % ewallets;
+        return ewalletService.makeTransaction(OperationDto.builder()
+                .amount(1)
+                .operationType(OperationTypeDto.TRANSACTION)
+                .ewalletUuid(ewalletUuids.get(source))
+                .destinationWalletUuid(ewalletUuids.get(destination))
+                .build());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+
+        for (int threads : THREADS) {
+            new Runner(new OptionsBuilder()
+                    .include(EwalletTransactionBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .build()).run();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package ewallet.benchmark;
+
+import ewallet.util.id.IdGenerator;
+import ewallet.util.id.RandomIdGenerator;
+import ewallet.util.id.TimeOrderedIdGenerator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Inserts into a file-backed H2 operation-like table that is pre-filled to tableRows, e.g. -p tableRows=10000000
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class IdGeneratorBenchmark {
+
+    private static final int BATCH = 1_000;
+
+    @Param({"RANDOM", "TIME_ORDERED"})
+    private String generatorType;
+
+    @Param({"10000000"})
+    private int tableRows;
+
+    private final UUID ewalletUuid = UUID.randomUUID();
+
+    private IdGenerator generator;
+
+    private Path directory;
+
+    private Connection connection;
+
+    private PreparedStatement insert;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+
+        generator = generatorType.equals("RANDOM") ? new RandomIdGenerator() : new TimeOrderedIdGenerator();
+        directory = Files.createTempDirectory("id-benchmark");
+        connection = DriverManager.getConnection("jdbc:h2:file:" + directory.resolve("operation"), "sa", "");
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE operation (uuid UUID PRIMARY KEY, amount BIGINT NOT NULL, ewallet_uuid UUID NOT NULL)");
+        }
+        insert = connection.prepareStatement("INSERT INTO operation (uuid, amount, ewallet_uuid) VALUES (?, ?, ?)");
+        for (int i = 0; i < tableRows; i += BATCH) {
+            insertBatch();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException, SQLException {
+
+        connection.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void insert() throws SQLException {
+
+        insertBatch();
+    }
+
+    private void insertBatch() throws SQLException {
+
+        for (int i = 0; i < BATCH; i++) {
+            insert.setObject(1, generator.generate());
+            insert.setLong(2, 1);
+            insert.setObject(3, ewalletUuid);
+            insert.addBatch();
+        }
+        insert.executeBatch();
+        connection.commit();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+
+        new Runner(new OptionsBuilder().include(IdGeneratorBenchmark.class.getSimpleName()).build()).run();
+    }
+}
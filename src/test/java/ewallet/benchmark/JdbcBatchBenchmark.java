@@ -0,0 +1,82 @@
+package ewallet.benchmark;
+
+import ewallet.EwalletApplication;
+import ewallet.entity.ewallet.Ewallet;
+import ewallet.entity.operation.Operation;
+import ewallet.entity.operation.OperationStatus;
+import ewallet.entity.operation.OperationType;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JdbcBatchBenchmark {
+
+    private static final int ITEMS = 100;
+
+    @Param({"1", "50"})
+    private int batchSize;
+
+    private ConfigurableApplicationContext context;
+
+    private TransactionTemplate transactionTemplate;
+
+    private EntityManager entityManager;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+
+        context = new SpringApplicationBuilder(EwalletApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize,
+                        "spring.datasource.url=jdbc:h2:mem:batch" + batchSize,
+                        "logging.level.root=warn")
+                .run();
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        entityManager = context.getBean(EntityManager.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITEMS)
+    public void depositsWithOperations() {
+
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < ITEMS; i++) {
+                Ewallet ewallet = Ewallet.builder().uuid(UUID.randomUUID()).balance(1).customerUuid(UUID.randomUUID()).build();
+                entityManager.persist(ewallet);
+                entityManager.persist(Operation.builder()
+                        .uuid(UUID.randomUUID())
+                        .amount(1)
+                        .operationType(OperationType.DEPOSIT)
+                        .operationStatus(OperationStatus.COMPLETED)
+                        .ewalletUuid(ewallet.getUuid())
+                        .build());
+            }
+        });
+    }
+
+    public static void main(String[] args) throws RunnerException {
+
+        new Runner(new OptionsBuilder().include(JdbcBatchBenchmark.class.getSimpleName()).build()).run();
+    }
+}
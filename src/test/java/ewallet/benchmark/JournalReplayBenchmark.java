@@ -0,0 +1,121 @@
+package ewallet.benchmark;
+
+import ewallet.dto.operation.internal.OperationDto;
+import ewallet.dto.operation.internal.OperationStatusDto;
+import ewallet.dto.operation.internal.OperationTypeDto;
+import ewallet.service.journal.JournalReader;
+import ewallet.service.journal.OperationJournal;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Rebuilds wallet balances from a journal of entries operations, e.g. -p entries=50000000 (about 5 GB of segments)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class JournalReplayBenchmark {
+
+    private static final int SEGMENT_BYTES = 256 * 1024 * 1024;
+
+    private static final int BATCH = 100;
+
+    private static final int EWALLETS = 100_000;
+
+    // SNAPSHOT keeps only the batches the database has not applied yet, as after a regular periodic snapshot
+    @Param({"FULL", "SNAPSHOT"})
+    private String start;
+
+    @Param({"50000000"})
+    private int entries;
+
+    private Path directory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+
+        directory = Files.createTempDirectory("journal-benchmark");
+        UUID[] ewallets = new UUID[EWALLETS];
+        for (int i = 0; i < ewallets.length; i++) {
+            ewallets[i] = UUID.randomUUID();
+        }
+
+        try (OperationJournal journal = OperationJournal.open(directory, SEGMENT_BYTES, new CountingReader())) {
+            Timestamp now = new Timestamp(System.currentTimeMillis());
+            for (int written = 0; written < entries; written += BATCH) {
+                List<OperationDto> operations = new ArrayList<>(BATCH);
+                Map<UUID, Long> balances = new LinkedHashMap<>();
+                for (int i = 0; i < BATCH; i++) {
+                    UUID ewalletUuid = ewallets[(written + i) % EWALLETS];
+                    operations.add(OperationDto.builder()
+                            .uuid(UUID.randomUUID())
+                            .amount(100)
+                            .operationType(OperationTypeDto.DEPOSIT)
+                            .ewalletUuid(ewalletUuid)
+                            .operationStatus(OperationStatusDto.COMPLETED)
+                            .createdDate(now)
+                            .build());
+                    balances.put(ewalletUuid, (long) written + i);
+                }
+                journal.append(balances, operations);
+            }
+            if (start.equals("SNAPSHOT")) {
+                journal.markApplied(journal.lastSequence() - 10);
+                journal.snapshot();
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public long replay() {
+
+        CountingReader reader = new CountingReader();
+        try (OperationJournal journal = OperationJournal.open(directory, SEGMENT_BYTES, reader)) {
+            return reader.operations + journal.lastSequence();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+
+        new Runner(new OptionsBuilder().include(JournalReplayBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    private static class CountingReader implements JournalReader {
+
+        private long operations;
+
+        @Override
+        public void operation(long sequence, OperationDto operation) {
+
+            operations++;
+        }
+
+        @Override
+        public void balance(long sequence, UUID ewalletUuid, long balance) {
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package ewallet.benchmark;
+
+import ewallet.dto.ewallet.internal.EwalletDto;
+import ewallet.service.ewallet.EwalletRules;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+
+    private static final BigDecimal SINGLE_TRANSACTION_LIMIT = BigDecimal.valueOf(2000);
+
+    private final BigDecimal bigDecimalAmount = new BigDecimal("12.34");
+
+    private final long minorUnitsAmount = 1234;
+
+    private BigDecimal bigDecimalBalance;
+
+    private EwalletDto ewalletDto;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+
+        bigDecimalBalance = new BigDecimal("1000000.00");
+        ewalletDto = EwalletDto.builder().balance(100_000_000).build();
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalTransaction() {
+
+        if (isTransactionRequestValid(bigDecimalAmount) && bigDecimalBalance.compareTo(bigDecimalAmount) >= 0) {
+            bigDecimalBalance = bigDecimalBalance.subtract(bigDecimalAmount).setScale(2);
+            bigDecimalBalance = bigDecimalBalance.add(bigDecimalAmount).setScale(2);
+        }
+        return bigDecimalBalance;
+    }
+
+    @Benchmark
+    public long minorUnitsTransaction() {
+
+        if (EwalletRules.isTransactionRequestValid(minorUnitsAmount) && ewalletDto.isEnoughBalance(minorUnitsAmount)) {
+            ewalletDto.withdraw(minorUnitsAmount);
+            ewalletDto.deposit(minorUnitsAmount);
+        }
+        return ewalletDto.getBalance();
+    }
+
+    private static boolean isTransactionRequestValid(BigDecimal amount) {
+
+        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+            return false;
+        }
+        BigInteger fractionalPart = amount.remainder(BigDecimal.ONE).unscaledValue();
+        int fractionalDigitsQuantity = (int) (Math.log10(fractionalPart.intValue()) + 1);
+
+        return fractionalDigitsQuantity <= 2 && amount.compareTo(SINGLE_TRANSACTION_LIMIT) < 0;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+
+        new Runner(new OptionsBuilder().include(MoneyBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,165 @@
+package ewallet.benchmark;
+
+import ewallet.EwalletApplication;
+import ewallet.entity.ewallet.Ewallet;
+import ewallet.repository.ewallet.EwalletDao;
+import ewallet.util.api.MediaType;
+import ewallet.util.api.RestUrl;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// 400 clients against a server whose row-locking statements take dbLatencyMillis, e.g. on Java 21: -p threads=platform,virtual-threads.
+// SampleTime reports the p99 latency; the teardown prints the most requests that were in flight at once.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(400)
+@Fork(value = 1, jvmArgsAppend = "-Djdk.tracePinnedThreads=short")
+public class RequestThreadingBenchmark {
+
+    private static final String REQUEST = "{\"amount\": 1.00, \"description\": \"load\"}";
+
+    @Param({"platform", "virtual-threads"})
+    private String threads;
+
+    @Param({"20"})
+    private long dbLatencyMillis;
+
+    @Param({"1000"})
+    private int ewallets;
+
+    // Same pool in both modes and larger than the platform thread pool, so threads rather than connections are the limit
+    @Param({"400"})
+    private int poolSize;
+
+    private ConfigurableApplicationContext context;
+
+    private HttpClient httpClient;
+
+    private List<URI> depositUris;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+
+        SpringApplicationBuilder application = new SpringApplicationBuilder(EwalletApplication.class, LoadProbe.class);
+        if (!threads.equals("platform")) {
+            application.profiles(threads);
+        }
+        // Passed as arguments, which override application.properties and the profile's pool size
+        context = application.run("--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:load-" + threads,
+                "--spring.datasource.hikari.maximum-pool-size=" + poolSize,
+                "--logging.level.root=warn");
+        LoadProbe.latencyMillis = dbLatencyMillis;
+
+        List<Ewallet> seeded = new ArrayList<>();
+        for (int i = 0; i < ewallets; i++) {
+            seeded.add(Ewallet.builder().uuid(UUID.randomUUID()).balance(0).customerUuid(UUID.randomUUID()).build());
+        }
+        context.getBean(EwalletDao.class).saveAll(seeded);
+
+        String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + RestUrl.API_V1;
+        depositUris = seeded.stream()
+                .map(ewallet -> URI.create(baseUrl + "/ewallet/" + ewallet.getUuid() + "/deposit"))
+                .toList();
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+
+        System.out.printf("%n%s: max in-flight requests = %d%n", threads, LoadProbe.maxInFlight.get());
+        LoadProbe.maxInFlight.set(0);
+        context.close();
+    }
+
+    @Benchmark
+    public int deposit() throws IOException, InterruptedException {
+
+        URI uri = depositUris.get(ThreadLocalRandom.current().nextInt(depositUris.size()));
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .header("Content-Type", MediaType.DEPOSIT_EWALLET_REQUEST)
+                .PUT(HttpRequest.BodyPublishers.ofString(REQUEST))
+                .build();
+        HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 202) {
+            throw new IllegalStateException("Deposit answered " + response.statusCode());
+        }
+        return response.statusCode();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+
+        new Runner(new OptionsBuilder().include(RequestThreadingBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    // Passed as an application source rather than annotated, so component scanning in other tests never picks it up
+    public static class LoadProbe {
+
+        private static final AtomicInteger inFlight = new AtomicInteger();
+
+        private static final AtomicInteger maxInFlight = new AtomicInteger();
+
+        private static volatile long latencyMillis;
+
+        @Bean
+        public Filter inFlightFilter() {
+
+            return (ServletRequest request, ServletResponse response, FilterChain chain) -> {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                try {
+                    chain.doFilter(request, response);
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            };
+        }
+
+        @Bean
+        public DatabaseLatency databaseLatency() {
+
+            return new DatabaseLatency();
+        }
+    }
+
+    // Stands in for the network round trip to a remote database while the row lock and connection are held
+    @Aspect
+    public static class DatabaseLatency {
+
+        @Around("execution(* ewallet.repository.ewallet.EwalletDao.find*AndLock(..)) || " +
+                "execution(* ewallet.repository.ewallet.EwalletDao.deposit(..)) || " +
+                "execution(* ewallet.repository.ewallet.EwalletDao.withdraw(..))")
+        public Object delay(ProceedingJoinPoint joinPoint) throws Throwable {
+
+            Object result = joinPoint.proceed();
+            Thread.sleep(LoadProbe.latencyMillis);
+            return result;
+        }
+    }
+}
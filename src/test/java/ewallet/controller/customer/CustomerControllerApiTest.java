@@ -2,10 +2,10 @@ package ewallet.controller.customer;
 
 import ewallet.dto.customer.api.CreateCustomerRequestDto;
 import ewallet.dto.customer.internal.CustomerDto;
-import ewallet.entity.customer.Customer;
 import ewallet.service.customer.CustomerService;
 import ewallet.util.api.MediaType;
 import ewallet.util.api.RestUrl;
+import ewallet.util.mapper.customer.CustomerMapper;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -27,6 +27,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -123,7 +124,7 @@ class CustomerControllerApiTest {
         void get_success() throws Exception {
 
             // given
-            Customer customer = randomCustomer();
+            CustomerDto customer = randomCustomerDto();
 
             // when
             when(customerService.get(customerUuid)).thenReturn(customer);
@@ -132,6 +133,7 @@ class CustomerControllerApiTest {
             mockMvc.perform(get(GET_URL)
                             .contentType(MediaType.GET_CUSTOMER_REQUEST))
                     .andExpect(status().isOk())
+                    .andExpect(header().string("ETag", CustomerMapper.toETag(customer)))
                     .andExpect(jsonPath("$.uuid").value(customer.getUuid().toString()))
                     .andExpect(jsonPath("$.firstName").value(customer.getFirstName()))
                     .andExpect(jsonPath("$.lastName").value(customer.getLastName()))
@@ -140,6 +142,28 @@ class CustomerControllerApiTest {
             verify(customerService, times(1)).get(customerUuid);
         }
 
+        @Test
+        void get_whenETagMatches_thenNotModified() throws Exception {
+
+            // given
+            CustomerDto customer = randomCustomerDto();
+
+            // when
+            when(customerService.get(customerUuid)).thenReturn(customer);
+
+            // then
+            mockMvc.perform(get(GET_URL)
+                            .header("If-None-Match", CustomerMapper.toETag(customer))
+                            .contentType(MediaType.GET_CUSTOMER_REQUEST))
+                    .andExpect(status().isNotModified())
+                    .andExpect(jsonPath("$").doesNotExist());
+        }
+
+        private static CustomerDto randomCustomerDto() {
+
+            return createCustomer(UUID.randomUUID(), RandomStringUtils.randomAlphabetic(5), RandomStringUtils.randomAlphabetic(5), RandomStringUtils.randomAlphabetic(5) + "@email.com");
+        }
+
         @Test
         void get_whenEmptyUuidInPath_thenBadRequest() throws Exception {
 
@@ -0,0 +1,81 @@
+package ewallet.controller.customer;
+
+import ewallet.dto.customer.api.CreateCustomerRequestDto;
+import ewallet.repository.ewallet.ReactiveEwalletDao;
+import ewallet.util.api.MediaType;
+import ewallet.util.api.RestUrl;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static ewallet.TestHelper.randomCreateCustomerRequestDto;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:reactive",
+        "spring.r2dbc.url=r2dbc:h2:mem:///reactive"
+})
+@ActiveProfiles("reactive")
+@AutoConfigureWebTestClient
+class ReactiveCustomerControllerITest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private ReactiveEwalletDao reactiveEwalletDao;
+
+    @Test
+    void save_thenGet_success() {
+
+        // given
+        CreateCustomerRequestDto request = randomCreateCustomerRequestDto();
+
+        // when
+        Map<?, ?> response = webTestClient.post()
+                .uri(RestUrl.API_V1 + RestUrl.CUSTOMER)
+                .contentType(org.springframework.http.MediaType.parseMediaType(MediaType.CREATE_CUSTOMER_REQUEST))
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Map.class)
+                .returnResult()
+                .getResponseBody();
+        UUID customerUuid = UUID.fromString((String) response.get("uuid"));
+
+        // then
+        webTestClient.get()
+                .uri(RestUrl.API_V1 + "/customer/" + customerUuid)
+                .header("Content-Type", MediaType.GET_CUSTOMER_REQUEST)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.uuid").isEqualTo(customerUuid.toString())
+                .jsonPath("$.firstName").isEqualTo(request.getFirstName())
+                .jsonPath("$.lastName").isEqualTo(request.getLastName())
+                .jsonPath("$.email").isEqualTo(request.getEmail());
+
+        long ewallets = reactiveEwalletDao.findAll()
+                .filter(ewallet -> ewallet.getCustomerUuid().equals(customerUuid))
+                .count()
+                .block();
+        assertThat(ewallets).isEqualTo(1);
+    }
+
+    @Test
+    void get_whenCustomerNotFound_thenServerError() {
+
+        // then
+        webTestClient.get()
+                .uri(RestUrl.API_V1 + "/customer/" + UUID.randomUUID())
+                .header("Content-Type", MediaType.GET_CUSTOMER_REQUEST)
+                .exchange()
+                .expectStatus().is5xxServerError();
+    }
+}
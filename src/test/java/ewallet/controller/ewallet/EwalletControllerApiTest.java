@@ -1,13 +1,24 @@
 package ewallet.controller.ewallet;
 
+import ewallet.config.EwalletProperties;
 import ewallet.dto.ewallet.api.DepositEwalletRequestDto;
 import ewallet.dto.ewallet.api.MakeTransactionEwalletRequestDto;
 import ewallet.dto.ewallet.api.WithdrawEwalletRequestDto;
+import ewallet.dto.ewallet.internal.EwalletDto;
 import ewallet.dto.operation.internal.OperationDto;
+import ewallet.dto.operation.internal.OperationStatusDto;
 import ewallet.dto.operation.internal.OperationTypeDto;
+import ewallet.repository.idempotency.IdempotencyKeyDao;
 import ewallet.service.ewallet.EwalletService;
+import ewallet.service.ewallet.async.EwalletAsyncService;
+import ewallet.service.ewallet.combining.EwalletCombiner;
+import ewallet.service.ewallet.groupcommit.EwalletGroupCommitter;
+import ewallet.service.idempotency.IdempotencyService;
+import ewallet.service.operation.OperationService;
 import ewallet.util.api.MediaType;
+import ewallet.util.api.RestHeader;
 import ewallet.util.api.RestUrl;
+import ewallet.util.money.Money;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -18,9 +29,11 @@ import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Stream;
 
@@ -28,15 +41,34 @@ import static ewallet.TestHelper.asJsonString;
 import static ewallet.TestHelper.createOperationDto;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(EwalletController.class)
+@Import({IdempotencyService.class, EwalletProperties.class})
 class EwalletControllerApiTest {
 
     @MockBean
     private EwalletService ewalletService;
 
+    @MockBean
+    private IdempotencyKeyDao idempotencyKeyDao;
+
+    @MockBean
+    private OperationService operationService;
+
+    @MockBean
+    private EwalletAsyncService ewalletAsyncService;
+
+    @MockBean
+    private EwalletCombiner ewalletCombiner;
+
+    @MockBean
+    private EwalletGroupCommitter ewalletGroupCommitter;
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -69,6 +101,32 @@ class EwalletControllerApiTest {
             verifyThatWalletServiceWasCalled(captor.getValue(), request.getAmount(), OperationTypeDto.DEPOSIT, request.getDescription(), null);
         }
 
+        @Test
+        void deposit_whenIdempotencyKeyRepeated_thenExecutedOnce() throws Exception {
+
+            // given
+            OperationDto operationDto = createOperationDto(EWALLET_UUID, request);
+            operationDto.setUuid(UUID.randomUUID());
+            operationDto.setOperationType(OperationTypeDto.DEPOSIT);
+            operationDto.setOperationStatus(OperationStatusDto.COMPLETED);
+            String idempotencyKey = UUID.randomUUID().toString();
+
+            // when
+            when(ewalletService.deposit(any())).thenReturn(operationDto);
+
+            // then
+            for (int i = 0; i < 2; i++) {
+                mockMvc.perform(put(DEPOSIT_URL)
+                                .header(RestHeader.IDEMPOTENCY_KEY, idempotencyKey)
+                                .content(asJsonString(request))
+                                .contentType(MediaType.DEPOSIT_EWALLET_REQUEST))
+                        .andExpect(status().isAccepted())
+                        .andExpect(jsonPath("$.uuid").value(operationDto.getUuid().toString()));
+            }
+
+            verify(ewalletService, times(1)).deposit(any());
+        }
+
         @Test
         void deposit_whenEmptyContentType_thenBadRequest() throws Exception {
 
@@ -119,6 +177,9 @@ class EwalletControllerApiTest {
                             .build()),
                     Arguments.of(DepositEwalletRequestDto.builder()
                             .amount(BigDecimal.ZERO)
+                            .build()),
+                    Arguments.of(DepositEwalletRequestDto.builder()
+                            .amount(BigDecimal.valueOf(0.333))
                             .build())
             );
         }
@@ -209,6 +270,9 @@ class EwalletControllerApiTest {
                             .build()),
                     Arguments.of(WithdrawEwalletRequestDto.builder()
                             .amount(BigDecimal.ZERO)
+                            .build()),
+                    Arguments.of(WithdrawEwalletRequestDto.builder()
+                            .amount(BigDecimal.valueOf(0.333))
                             .build())
             );
         }
@@ -299,6 +363,9 @@ class EwalletControllerApiTest {
                             .build()),
                     Arguments.of(MakeTransactionEwalletRequestDto.builder()
                             .amount(BigDecimal.ZERO)
+                            .build()),
+                    Arguments.of(MakeTransactionEwalletRequestDto.builder()
+                            .amount(BigDecimal.valueOf(0.333))
                             .build())
             );
         }
@@ -313,11 +380,97 @@ class EwalletControllerApiTest {
         }
     }
 
+    @Nested
+    class AsyncTests {
+
+        private static final String DEPOSIT_URL = RestUrl.API_V1 + "/ewallet/" + EWALLET_UUID + "/deposit";
+
+        @Test
+        void deposit_whenAsyncEnabled_thenPendingAnswered() throws Exception {
+
+            // given
+            UUID operationUuid = UUID.randomUUID();
+            OperationDto pendingOperationDto = OperationDto.builder()
+                    .uuid(operationUuid)
+                    .operationStatus(OperationStatusDto.PENDING)
+                    .build();
+
+            // when
+            when(ewalletAsyncService.isEnabled()).thenReturn(true);
+            when(ewalletAsyncService.submit(any(), any())).thenReturn(pendingOperationDto);
+
+            // then
+            mockMvc.perform(put(DEPOSIT_URL)
+                            .content(asJsonString(DepositEwalletTests.randomDepositRequestDto()))
+                            .contentType(MediaType.DEPOSIT_EWALLET_REQUEST))
+                    .andExpect(status().isAccepted())
+                    .andExpect(jsonPath("$.uuid").value(operationUuid.toString()))
+                    .andExpect(jsonPath("$.status").value(OperationStatusDto.PENDING.toString()));
+
+            verify(ewalletAsyncService, times(1)).submit(any(), any());
+            verifyNoInteractions(ewalletService);
+        }
+    }
+
+    @Nested
+    class GetEwalletTests {
+
+        private static final String GET_URL = RestUrl.API_V1 + "/ewallet/" + EWALLET_UUID;
+
+        private static final EwalletDto EWALLET = EwalletDto.builder()
+                .uuid(EWALLET_UUID)
+                .customerUuid(UUID.randomUUID())
+                .balance(12_345)
+                .version(3L)
+                .build();
+
+        @Test
+        void get_success() throws Exception {
+
+            // when
+            when(ewalletService.find(EWALLET_UUID)).thenReturn(Optional.of(EWALLET));
+
+            // then
+            mockMvc.perform(get(GET_URL)
+                            .contentType(MediaType.GET_EWALLET_REQUEST))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("ETag", "\"3-12345\""))
+                    .andExpect(jsonPath("$.uuid").value(EWALLET_UUID.toString()))
+                    .andExpect(jsonPath("$.customerUuid").value(EWALLET.getCustomerUuid().toString()))
+                    .andExpect(jsonPath("$.balance").value(123.45));
+        }
+
+        @Test
+        void get_whenETagMatches_thenNotModified() throws Exception {
+
+            // when
+            when(ewalletService.find(EWALLET_UUID)).thenReturn(Optional.of(EWALLET));
+
+            // then
+            mockMvc.perform(get(GET_URL)
+                            .header("If-None-Match", "\"3-12345\"")
+                            .contentType(MediaType.GET_EWALLET_REQUEST))
+                    .andExpect(status().isNotModified());
+        }
+
+        @Test
+        void get_whenNotFound_thenNotFound() throws Exception {
+
+            // when
+            when(ewalletService.find(EWALLET_UUID)).thenReturn(Optional.empty());
+
+            // then
+            mockMvc.perform(get(GET_URL)
+                            .contentType(MediaType.GET_EWALLET_REQUEST))
+                    .andExpect(status().isNotFound());
+        }
+    }
+
     private void verifyThatWalletServiceWasCalled(OperationDto capturedRequest, BigDecimal amount, OperationTypeDto operationTypeDto, String description, UUID destinationWalletUuid) {
 
         assertThat(capturedRequest).isNotNull();
         assertThat(capturedRequest.getEwalletUuid()).isEqualTo(EWALLET_UUID);
-        assertThat(capturedRequest.getAmount()).isEqualTo(amount);
+        assertThat(capturedRequest.getAmount()).isEqualTo(Money.toMinorUnits(amount));
         assertThat(capturedRequest.getOperationType()).isEqualTo(operationTypeDto);
         assertThat(capturedRequest.getDescription()).isEqualTo(description);
         assertThat(capturedRequest.getDestinationWalletUuid()).isEqualTo(destinationWalletUuid);
@@ -0,0 +1,196 @@
+package ewallet.controller.ewallet;
+
+import ewallet.dto.ewallet.api.DepositEwalletRequestDto;
+import ewallet.dto.ewallet.api.MakeTransactionEwalletRequestDto;
+import ewallet.dto.ewallet.api.WithdrawEwalletRequestDto;
+import ewallet.dto.operation.internal.OperationStatusDto;
+import ewallet.entity.ewallet.EwalletRow;
+import ewallet.repository.ewallet.ReactiveEwalletDao;
+import ewallet.util.api.MediaType;
+import ewallet.util.api.RestUrl;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:reactive",
+        "spring.r2dbc.url=r2dbc:h2:mem:///reactive"
+})
+@ActiveProfiles("reactive")
+@AutoConfigureWebTestClient
+class ReactiveEwalletControllerITest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private ReactiveEwalletDao reactiveEwalletDao;
+
+    @Nested
+    class DepositTests {
+
+        @Test
+        void deposit_success() {
+
+            // given
+            EwalletRow ewallet = saveEwallet(1000);
+
+            // when
+            DepositEwalletRequestDto request = DepositEwalletRequestDto.builder().amount(new BigDecimal("2.50")).build();
+
+            // then
+            put(RestUrl.API_V1 + "/ewallet/" + ewallet.getUuid() + "/deposit", MediaType.DEPOSIT_EWALLET_REQUEST, request)
+                    .jsonPath("$.uuid").isNotEmpty()
+                    .jsonPath("$.status").isEqualTo(OperationStatusDto.COMPLETED.toString());
+
+            assertThat(balanceOf(ewallet.getUuid())).isEqualTo(1250);
+        }
+
+        @Test
+        void deposit_whenEwalletNotFound_thenDeclined() {
+
+            // when
+            DepositEwalletRequestDto request = DepositEwalletRequestDto.builder().amount(BigDecimal.ONE).build();
+
+            // then
+            put(RestUrl.API_V1 + "/ewallet/" + UUID.randomUUID() + "/deposit", MediaType.DEPOSIT_EWALLET_REQUEST, request)
+                    .jsonPath("$.status").isEqualTo(OperationStatusDto.DECLINED.toString());
+        }
+    }
+
+    @Nested
+    class WithdrawTests {
+
+        @Test
+        void withdraw_success() {
+
+            // given
+            EwalletRow ewallet = saveEwallet(1000);
+
+            // when
+            WithdrawEwalletRequestDto request = WithdrawEwalletRequestDto.builder().amount(new BigDecimal("4.00")).build();
+
+            // then
+            put(RestUrl.API_V1 + "/ewallet/" + ewallet.getUuid() + "/withdrawal", MediaType.WITHDRAW_EWALLET_REQUEST, request)
+                    .jsonPath("$.status").isEqualTo(OperationStatusDto.COMPLETED.toString());
+
+            assertThat(balanceOf(ewallet.getUuid())).isEqualTo(600);
+        }
+
+        @Test
+        void withdraw_whenNotEnoughBalance_thenDeclined() {
+
+            // given
+            EwalletRow ewallet = saveEwallet(100);
+
+            // when
+            WithdrawEwalletRequestDto request = WithdrawEwalletRequestDto.builder().amount(new BigDecimal("2.00")).build();
+
+            // then
+            put(RestUrl.API_V1 + "/ewallet/" + ewallet.getUuid() + "/withdrawal", MediaType.WITHDRAW_EWALLET_REQUEST, request)
+                    .jsonPath("$.status").isEqualTo(OperationStatusDto.DECLINED.toString());
+
+            assertThat(balanceOf(ewallet.getUuid())).isEqualTo(100);
+        }
+
+        @Test
+        void withdraw_whenDailyLimitExceeded_thenDeclinedAndBalanceRestored() {
+
+            // given
+            EwalletRow ewallet = saveEwallet(1_000_000);
+            WithdrawEwalletRequestDto request = WithdrawEwalletRequestDto.builder().amount(new BigDecimal("3000.00")).build();
+            String url = RestUrl.API_V1 + "/ewallet/" + ewallet.getUuid() + "/withdrawal";
+
+            // when
+            put(url, MediaType.WITHDRAW_EWALLET_REQUEST, request)
+                    .jsonPath("$.status").isEqualTo(OperationStatusDto.COMPLETED.toString());
+            put(url, MediaType.WITHDRAW_EWALLET_REQUEST, request)
+                    .jsonPath("$.status").isEqualTo(OperationStatusDto.COMPLETED.toString());
+
+            // then
+            put(url, MediaType.WITHDRAW_EWALLET_REQUEST, request)
+                    .jsonPath("$.status").isEqualTo(OperationStatusDto.DECLINED.toString());
+
+            assertThat(balanceOf(ewallet.getUuid())).isEqualTo(400_000);
+        }
+    }
+
+    @Nested
+    class MakeTransactionTests {
+
+        @Test
+        void makeTransaction_success() {
+
+            // given
+            EwalletRow sourceEwallet = saveEwallet(1000);
+            EwalletRow destinationEwallet = saveEwallet(0);
+
+            // when
+            MakeTransactionEwalletRequestDto request = MakeTransactionEwalletRequestDto.builder()
+                    .amount(new BigDecimal("7.00"))
+                    .destinationWalletUuid(destinationEwallet.getUuid())
+                    .build();
+
+            // then
+            put(RestUrl.API_V1 + "/ewallet/" + sourceEwallet.getUuid() + "/transaction", MediaType.MAKE_TRANSACTION_EWALLET_REQUEST, request)
+                    .jsonPath("$.status").isEqualTo(OperationStatusDto.COMPLETED.toString());
+
+            assertThat(balanceOf(sourceEwallet.getUuid())).isEqualTo(300);
+            assertThat(balanceOf(destinationEwallet.getUuid())).isEqualTo(700);
+        }
+
+        @Test
+        void makeTransaction_whenDestinationNotFound_thenDeclined() {
+
+            // given
+            EwalletRow sourceEwallet = saveEwallet(1000);
+
+            // when
+            MakeTransactionEwalletRequestDto request = MakeTransactionEwalletRequestDto.builder()
+                    .amount(new BigDecimal("7.00"))
+                    .destinationWalletUuid(UUID.randomUUID())
+                    .build();
+
+            // then
+            put(RestUrl.API_V1 + "/ewallet/" + sourceEwallet.getUuid() + "/transaction", MediaType.MAKE_TRANSACTION_EWALLET_REQUEST, request)
+                    .jsonPath("$.status").isEqualTo(OperationStatusDto.DECLINED.toString());
+
+            assertThat(balanceOf(sourceEwallet.getUuid())).isEqualTo(1000);
+        }
+    }
+
+    private WebTestClient.BodyContentSpec put(String url, String contentType, Object request) {
+
+        return webTestClient.put()
+                .uri(url)
+                .contentType(org.springframework.http.MediaType.parseMediaType(contentType))
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isAccepted()
+                .expectBody();
+    }
+
+    private EwalletRow saveEwallet(long balance) {
+
+        return reactiveEwalletDao.save(EwalletRow.builder()
+                        .uuid(UUID.randomUUID())
+                        .balance(balance)
+                        .customerUuid(UUID.randomUUID())
+                        .build())
+                .block();
+    }
+
+    private long balanceOf(UUID uuid) {
+
+        return reactiveEwalletDao.findById(uuid).map(EwalletRow::getBalance).block();
+    }
+}
@@ -0,0 +1,341 @@
+package ewallet.controller.operation;
+
+import ewallet.config.EwalletProperties;
+import ewallet.config.ExportFormat;
+import ewallet.dto.ewallet.api.BatchOperationRequestDto;
+import ewallet.dto.operation.internal.OperationCursor;
+import ewallet.dto.operation.internal.OperationDto;
+import ewallet.dto.operation.internal.OperationFilterDto;
+import ewallet.dto.operation.internal.OperationPageDto;
+import ewallet.dto.operation.internal.OperationStatusDto;
+import ewallet.dto.operation.internal.OperationTypeDto;
+import ewallet.service.ewallet.async.EwalletAsyncService;
+import ewallet.service.ewallet.batch.EwalletBatchService;
+import ewallet.service.operation.OperationService;
+import ewallet.service.operation.export.OperationExportService;
+import ewallet.util.api.MediaType;
+import ewallet.util.api.RestUrl;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static ewallet.TestHelper.asJsonString;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(OperationController.class)
+@Import(EwalletProperties.class)
+class OperationControllerApiTest {
+
+    @MockBean
+    private EwalletBatchService ewalletBatchService;
+
+    @MockBean
+    private EwalletAsyncService ewalletAsyncService;
+
+    @MockBean
+    private OperationService operationService;
+
+    @MockBean
+    private OperationExportService operationExportService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Nested
+    class ExecuteAllTests {
+
+        private static final String BATCH_URL = RestUrl.API_V1 + "/operation/batch";
+
+        @Test
+        void executeAll_success() throws Exception {
+
+            // given
+            UUID ewalletUuid = UUID.randomUUID();
+            UUID destinationWalletUuid = UUID.randomUUID();
+            List<BatchOperationRequestDto> request = List.of(
+                    createRequestDto(OperationTypeDto.DEPOSIT, ewalletUuid, null, "10.05"),
+                    createRequestDto(OperationTypeDto.TRANSACTION, ewalletUuid, destinationWalletUuid, "1"));
+
+            // when
+            when(ewalletBatchService.executeAll(any())).thenAnswer(invocation -> {
+                List<OperationDto> operations = invocation.getArgument(0);
+                operations.forEach(operation -> {
+                    operation.setUuid(UUID.randomUUID());
+                    operation.setOperationStatus(OperationStatusDto.COMPLETED);
+                });
+                return operations;
+            });
+
+            // then
+            mockMvc.perform(post(BATCH_URL)
+                            .content(asJsonString(request))
+                            .contentType(MediaType.BATCH_OPERATIONS_REQUEST))
+                    .andExpect(status().isAccepted())
+                    .andExpect(jsonPath("$.length()").value(2))
+                    .andExpect(jsonPath("$[1].status").value("COMPLETED"));
+
+            ArgumentCaptor<List<OperationDto>> captor = ArgumentCaptor.forClass(List.class);
+            verify(ewalletBatchService, times(1)).executeAll(captor.capture());
+            List<OperationDto> operations = captor.getValue();
+            assertThat(operations.get(0).getAmount()).isEqualTo(1005);
+            assertThat(operations.get(0).getOperationType()).isEqualTo(OperationTypeDto.DEPOSIT);
+            assertThat(operations.get(1).getEwalletUuid()).isEqualTo(ewalletUuid);
+            assertThat(operations.get(1).getDestinationWalletUuid()).isEqualTo(destinationWalletUuid);
+        }
+
+        @Test
+        void executeAll_whenItemIsInvalid_thenBadRequest() throws Exception {
+
+            // given
+            List<BatchOperationRequestDto> request = List.of(
+                    createRequestDto(OperationTypeDto.DEPOSIT, UUID.randomUUID(), null, "1"),
+                    createRequestDto(OperationTypeDto.WITHDRAWAL, UUID.randomUUID(), null, "0.333"));
+
+            // then
+            mockMvc.perform(post(BATCH_URL)
+                            .content(asJsonString(request))
+                            .contentType(MediaType.BATCH_OPERATIONS_REQUEST))
+                    .andExpect(status().isBadRequest());
+
+            verify(ewalletBatchService, never()).executeAll(any());
+        }
+
+        @Test
+        void executeAll_whenNotArray_thenBadRequest() throws Exception {
+
+            // then
+            mockMvc.perform(post(BATCH_URL)
+                            .content(asJsonString(createRequestDto(OperationTypeDto.DEPOSIT, UUID.randomUUID(), null, "1")))
+                            .contentType(MediaType.BATCH_OPERATIONS_REQUEST))
+                    .andExpect(status().isBadRequest());
+
+            verify(ewalletBatchService, never()).executeAll(any());
+        }
+
+        @Test
+        void executeAll_whenMalformedJson_thenBadRequest() throws Exception {
+
+            // then
+            mockMvc.perform(post(BATCH_URL)
+                            .content("[{\"operationType\": \"UNKNOWN\"}]")
+                            .contentType(MediaType.BATCH_OPERATIONS_REQUEST))
+                    .andExpect(status().isBadRequest());
+
+            verify(ewalletBatchService, never()).executeAll(any());
+        }
+
+        @Test
+        void executeAll_whenEmptyContentType_thenUnsupportedMediaType() throws Exception {
+
+            // then
+            mockMvc.perform(post(BATCH_URL)
+                            .content("[]"))
+                    .andExpect(status().isUnsupportedMediaType());
+        }
+
+        private static BatchOperationRequestDto createRequestDto(OperationTypeDto operationType, UUID ewalletUuid, UUID destinationWalletUuid, String amount) {
+            return BatchOperationRequestDto.builder()
+                    .operationType(operationType)
+                    .ewalletUuid(ewalletUuid)
+                    .amount(new BigDecimal(amount))
+                    .destinationWalletUuid(destinationWalletUuid)
+                    .build();
+        }
+    }
+
+    @Nested
+    class GetOperationTests {
+
+        @Test
+        void get_success() throws Exception {
+
+            // given
+            UUID operationUuid = UUID.randomUUID();
+            OperationDto operationDto = OperationDto.builder()
+                    .uuid(operationUuid)
+                    .operationStatus(OperationStatusDto.COMPLETED)
+                    .build();
+
+            // when
+            when(ewalletAsyncService.find(operationUuid, 1000)).thenReturn(Optional.of(CompletableFuture.completedFuture(operationDto)));
+
+            // then
+            MvcResult result = mockMvc.perform(get(RestUrl.API_V1 + "/operation/" + operationUuid)
+                            .param("waitMillis", "1000")
+                            .contentType(MediaType.GET_OPERATION_REQUEST))
+                    .andReturn();
+
+            mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.uuid").value(operationUuid.toString()))
+                    .andExpect(jsonPath("$.status").value(OperationStatusDto.COMPLETED.toString()));
+        }
+
+        @Test
+        void get_whenOperationNotFound_thenNotFound() throws Exception {
+
+            // given
+            UUID operationUuid = UUID.randomUUID();
+
+            // when
+            when(ewalletAsyncService.find(operationUuid, 0)).thenReturn(Optional.empty());
+
+            // then
+            mockMvc.perform(get(RestUrl.API_V1 + "/operation/" + operationUuid)
+                            .contentType(MediaType.GET_OPERATION_REQUEST))
+                    .andExpect(status().isNotFound());
+        }
+    }
+    @Nested
+    class HistoryTests {
+
+        private static final UUID EWALLET_UUID = UUID.randomUUID();
+
+        private static final String HISTORY_URL = RestUrl.API_V1 + "/ewallet/" + EWALLET_UUID + "/operations";
+
+        @Test
+        void history_success() throws Exception {
+
+            // given
+            Instant createdDate = Instant.parse("2023-04-01T10:15:30.123456Z");
+            OperationDto operationDto = OperationDto.builder()
+                    .uuid(UUID.randomUUID())
+                    .amount(1005)
+                    .operationType(OperationTypeDto.DEPOSIT)
+                    .operationStatus(OperationStatusDto.COMPLETED)
+                    .ewalletUuid(EWALLET_UUID)
+                    .createdDate(Timestamp.from(createdDate))
+                    .build();
+            OperationCursor after = new OperationCursor(Timestamp.from(createdDate.plusSeconds(1)), UUID.randomUUID());
+            OperationCursor next = new OperationCursor(Timestamp.from(createdDate), operationDto.getUuid());
+
+            // when
+            when(operationService.findPage(eq(EWALLET_UUID), any(), eq(after), eq(1)))
+                    .thenReturn(new OperationPageDto(List.of(operationDto), next));
+
+            // then
+            mockMvc.perform(get(HISTORY_URL)
+                            .param("type", "DEPOSIT")
+                            .param("from", "2023-04-01T00:00:00Z")
+                            .param("cursor", after.encode())
+                            .param("limit", "1")
+                            .contentType(MediaType.GET_OPERATIONS_REQUEST))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.operations.length()").value(1))
+                    .andExpect(jsonPath("$.operations[0].uuid").value(operationDto.getUuid().toString()))
+                    .andExpect(jsonPath("$.operations[0].amount").value(10.05))
+                    .andExpect(jsonPath("$.operations[0].type").value(OperationTypeDto.DEPOSIT.toString()))
+                    .andExpect(jsonPath("$.nextCursor").value(next.encode()));
+
+            ArgumentCaptor<OperationFilterDto> captor = ArgumentCaptor.forClass(OperationFilterDto.class);
+            verify(operationService, times(1)).findPage(eq(EWALLET_UUID), captor.capture(), eq(after), eq(1));
+            assertThat(captor.getValue().getOperationType()).isEqualTo(OperationTypeDto.DEPOSIT);
+            assertThat(captor.getValue().getOperationStatus()).isNull();
+            assertThat(captor.getValue().getFrom()).isEqualTo(Timestamp.from(Instant.parse("2023-04-01T00:00:00Z")));
+            assertThat(OperationCursor.decode(next.encode())).isEqualTo(next);
+        }
+
+        @Test
+        void history_whenCursorInvalid_thenBadRequest() throws Exception {
+
+            // then
+            mockMvc.perform(get(HISTORY_URL)
+                            .param("cursor", "not-a-cursor")
+                            .contentType(MediaType.GET_OPERATIONS_REQUEST))
+                    .andExpect(status().isBadRequest());
+
+            verifyNoInteractions(operationService);
+        }
+
+        @Test
+        void history_whenLimitTooLarge_thenBadRequest() throws Exception {
+
+            // then
+            mockMvc.perform(get(HISTORY_URL)
+                            .param("limit", "501")
+                            .contentType(MediaType.GET_OPERATIONS_REQUEST))
+                    .andExpect(status().isBadRequest());
+
+            verifyNoInteractions(operationService);
+        }
+    }
+
+    @Nested
+    class ExportTests {
+
+        private static final String EXPORT_URL = RestUrl.API_V1 + "/operation/export";
+
+        @Test
+        void export_success() throws Exception {
+
+            // given
+            UUID ewalletUuid = UUID.randomUUID();
+            String body = "{\"uuid\":\"%s\"}\n".formatted(UUID.randomUUID());
+
+            // when
+            when(operationExportService.export(eq(ewalletUuid), any(), eq(ExportFormat.NDJSON), eq(false), any())).thenAnswer(invocation -> {
+                invocation.<OutputStream>getArgument(4).write(body.getBytes(StandardCharsets.UTF_8));
+                return 1L;
+            });
+
+            // then
+            MvcResult result = mockMvc.perform(get(EXPORT_URL)
+                            .param("ewalletUuid", ewalletUuid.toString())
+                            .param("type", "DEPOSIT")
+                            .contentType(MediaType.EXPORT_OPERATIONS_REQUEST))
+                    .andReturn();
+
+            mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("Content-Type", "application/x-ndjson"))
+                    .andExpect(header().string("Content-Disposition", "attachment; filename=\"operations.ndjson\""))
+                    .andExpect(content().string(body));
+
+            ArgumentCaptor<OperationFilterDto> captor = ArgumentCaptor.forClass(OperationFilterDto.class);
+            verify(operationExportService, times(1)).export(eq(ewalletUuid), captor.capture(), eq(ExportFormat.NDJSON), eq(false), any());
+            assertThat(captor.getValue().getOperationType()).isEqualTo(OperationTypeDto.DEPOSIT);
+        }
+
+        @Test
+        void export_whenCsvGzip_thenGzipAttachment() throws Exception {
+
+            // then
+            MvcResult result = mockMvc.perform(get(EXPORT_URL)
+                            .param("format", "CSV")
+                            .param("gzip", "true")
+                            .contentType(MediaType.EXPORT_OPERATIONS_REQUEST))
+                    .andReturn();
+
+            mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("Content-Type", "application/gzip"))
+                    .andExpect(header().string("Content-Disposition", "attachment; filename=\"operations.csv.gz\""));
+
+            verify(operationExportService, times(1)).export(isNull(), any(), eq(ExportFormat.CSV), eq(true), any());
+        }
+    }
+}
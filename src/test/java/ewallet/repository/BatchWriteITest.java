@@ -0,0 +1,159 @@
+package ewallet.repository;
+
+import ewallet.entity.customer.Customer;
+import ewallet.entity.ewallet.Ewallet;
+import ewallet.entity.operation.Operation;
+import ewallet.entity.operation.OperationStatus;
+import ewallet.repository.customer.CustomerDao;
+import ewallet.repository.ewallet.EwalletDao;
+import ewallet.repository.operation.OperationDao;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static ewallet.TestHelper.randomEwallet;
+import static ewallet.TestHelper.randomOperation;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class BatchWriteITest {
+
+    private static final int ITEMS = 20;
+
+    @Autowired
+    private CustomerDao customerDao;
+
+    @Autowired
+    private EwalletDao ewalletDao;
+
+    @Autowired
+    private OperationDao operationDao;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void saveAll_whenManyOperations_thenOneBatchedInsert() {
+
+        // given
+        List<Operation> operations = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            operations.add(randomOperation());
+        }
+
+        // when
+        operationDao.saveAll(operations);
+        testEntityManager.flush();
+
+        // then
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(ITEMS);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void persist_whenCustomersAndEwalletsInterleaved_thenOneBatchedInsertPerTable() {
+
+        // when
+        for (int i = 0; i < ITEMS; i++) {
+            Customer customer = createCustomer();
+            customerDao.save(customer);
+            ewalletDao.save(Ewallet.builder().uuid(UUID.randomUUID()).customerUuid(customer.getUuid()).build());
+        }
+        testEntityManager.flush();
+
+        // then
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(2 * ITEMS);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void saveAll_whenManyEwalletsUpdated_thenOneBatchedUpdate() {
+
+        // given
+        List<Ewallet> ewallets = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            ewallets.add(randomEwallet());
+        }
+        ewalletDao.saveAll(ewallets);
+        testEntityManager.flush();
+        statistics.clear();
+
+        // when
+        ewallets.forEach(ewallet -> ewallet.setBalance(ewallet.getBalance() + 1));
+        ewalletDao.saveAll(ewallets);
+        testEntityManager.flush();
+
+        // then
+        assertThat(statistics.getEntityUpdateCount()).isEqualTo(ITEMS);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void save_whenNewEntities_thenSingleInsertEach() {
+
+        // given
+        Customer customer = createCustomer();
+        Ewallet ewallet = Ewallet.builder().uuid(UUID.randomUUID()).customerUuid(customer.getUuid()).build();
+        Operation operation = randomOperation();
+        operation.setOperationStatus(OperationStatus.DECLINED);
+
+        // when
+        customerDao.save(customer);
+        ewalletDao.save(ewallet);
+        operationDao.save(operation);
+        testEntityManager.flush();
+
+        // then
+        assertThat(statistics.getEntityLoadCount()).isEqualTo(0);
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(3);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    @Test
+    void save_whenLoadedOperation_thenNotNew() {
+
+        // given
+        Operation operation = operationDao.save(randomOperation());
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        // then
+        assertThat(operation.isNew()).isFalse();
+        assertThat(operationDao.findById(operation.getUuid()).get().isNew()).isFalse();
+    }
+
+    private static Customer createCustomer() {
+
+        UUID uuid = UUID.randomUUID();
+        return Customer.builder()
+                .uuid(uuid)
+                .firstName("first")
+                .lastName("last")
+                .email(uuid + "@ewallet.com")
+                .build();
+    }
+}
@@ -1,16 +1,22 @@
 package ewallet.repository.ewallet;
 
 import ewallet.entity.ewallet.Ewallet;
+import ewallet.entity.ewallet.EwalletStripe;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import java.util.List;
 import java.util.UUID;
 
+import static ewallet.TestHelper.createEwallet;
 import static ewallet.TestHelper.randomEwallet;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @ExtendWith(SpringExtension.class)
 @DataJpaTest
@@ -19,6 +25,9 @@ class EwalletRepositoryITest {
     @Autowired
     private EwalletDao ewalletDao;
 
+    @Autowired
+    private TestEntityManager testEntityManager;
+
     private static Ewallet ewallet = randomEwallet();
 
     @Test
@@ -38,4 +47,104 @@ class EwalletRepositoryITest {
 
         assertThat(ewalletDao.findByIdAndLock(UUID.randomUUID()).isEmpty());
     }
+
+    @Test
+    void save_whenStaleVersion_thenOptimisticLockingFailure() {
+
+        // given
+        Ewallet savedEwallet = ewalletDao.saveAndFlush(randomEwallet());
+        Ewallet staleEwallet = createEwallet(savedEwallet.getUuid(), 10);
+        staleEwallet.setCustomerUuid(savedEwallet.getCustomerUuid());
+        staleEwallet.setVersion(savedEwallet.getVersion());
+
+        // when
+        savedEwallet.setBalance(2);
+        ewalletDao.saveAndFlush(savedEwallet);
+
+        // then
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> ewalletDao.saveAndFlush(staleEwallet));
+    }
+
+    @Test
+    void findAllByIdAndLock_thenOrderedByUuid() {
+
+        // given
+        Ewallet firstEwallet = createEwallet(UUID.fromString("00000000-0000-0000-0000-000000000001"), 1);
+        Ewallet secondEwallet = createEwallet(UUID.fromString("00000000-0000-0000-0000-000000000002"), 1);
+        ewalletDao.saveAll(List.of(secondEwallet, firstEwallet));
+
+        // when
+        List<Ewallet> ewallets = ewalletDao.findAllByIdAndLock(List.of(secondEwallet.getUuid(), firstEwallet.getUuid(), UUID.randomUUID()));
+
+        // then
+        assertThat(ewallets.stream().map(Ewallet::getUuid).toList())
+                .isEqualTo(List.of(firstEwallet.getUuid(), secondEwallet.getUuid()));
+    }
+
+    @Test
+    void depositAndWithdraw_success() {
+
+        // given
+        Ewallet savedEwallet = ewalletDao.saveAndFlush(createEwallet(UUID.randomUUID(), 10));
+
+        // when
+        int deposited = ewalletDao.deposit(savedEwallet.getUuid(), 5);
+        int withdrawn = ewalletDao.withdraw(savedEwallet.getUuid(), 15);
+        testEntityManager.clear();
+
+        // then
+        assertThat(deposited).isEqualTo(1);
+        assertThat(withdrawn).isEqualTo(1);
+        Ewallet ewallet = ewalletDao.findById(savedEwallet.getUuid()).orElseThrow();
+        assertThat(ewallet.getBalance()).isEqualTo(0);
+        assertThat(ewallet.getVersion()).isEqualTo(savedEwallet.getVersion() + 2);
+    }
+
+    @Test
+    void withdraw_whenNotEnoughBalance_thenNoRowsUpdated() {
+
+        // given
+        Ewallet savedEwallet = ewalletDao.saveAndFlush(createEwallet(UUID.randomUUID(), 1));
+
+        // when
+        int withdrawn = ewalletDao.withdraw(savedEwallet.getUuid(), 10);
+        testEntityManager.clear();
+
+        // then
+        assertThat(withdrawn).isEqualTo(0);
+        assertThat(ewalletDao.findById(savedEwallet.getUuid()).orElseThrow().getBalance()).isEqualTo(1);
+    }
+
+    @Test
+    void findWithStripesBalance_thenStripesAddedToBalance() {
+
+        // given
+        Ewallet savedEwallet = ewalletDao.saveAndFlush(createEwallet(UUID.randomUUID(), 10));
+        Ewallet unstripedEwallet = ewalletDao.saveAndFlush(createEwallet(UUID.randomUUID(), 3));
+        testEntityManager.persist(createStripe(savedEwallet.getUuid(), 0, 5));
+        testEntityManager.persist(createStripe(savedEwallet.getUuid(), 1, 7));
+        testEntityManager.flush();
+
+        // then
+        assertThat(ewalletDao.findWithStripesBalance(savedEwallet.getUuid()).orElseThrow().balance()).isEqualTo(22);
+        assertThat(ewalletDao.findWithStripesBalance(unstripedEwallet.getUuid()).orElseThrow().balance()).isEqualTo(3);
+        assertThat(ewalletDao.findWithStripesBalance(UUID.randomUUID()).isEmpty()).isTrue();
+    }
+
+    @Test
+    void deposit_whenEwalletDoesNotExist_thenNoRowsUpdated() {
+
+        // then
+        assertThat(ewalletDao.deposit(UUID.randomUUID(), 1)).isEqualTo(0);
+    }
+
+    private static EwalletStripe createStripe(UUID ewalletUuid, int stripe, long balance) {
+
+        return EwalletStripe.builder()
+                .uuid(UUID.randomUUID())
+                .ewalletUuid(ewalletUuid)
+                .stripe(stripe)
+                .balance(balance)
+                .build();
+    }
 }
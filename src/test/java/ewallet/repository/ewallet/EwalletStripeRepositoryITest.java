@@ -0,0 +1,65 @@
+package ewallet.repository.ewallet;
+
+import ewallet.entity.ewallet.EwalletStripe;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@DataJpaTest
+class EwalletStripeRepositoryITest {
+
+    @Autowired
+    private EwalletStripeDao ewalletStripeDao;
+
+    @Test
+    void creditAndSumBalance_success() {
+
+        // given
+        UUID ewalletUuid = UUID.randomUUID();
+        ewalletStripeDao.saveAll(List.of(createStripe(ewalletUuid, 0), createStripe(ewalletUuid, 1)));
+
+        // then
+        assertThat(ewalletStripeDao.credit(ewalletUuid, 0, 1)).isEqualTo(1);
+        assertThat(ewalletStripeDao.credit(ewalletUuid, 1, 10)).isEqualTo(1);
+        assertThat(ewalletStripeDao.sumBalanceByEwalletUuid(ewalletUuid)).isEqualTo(11);
+    }
+
+    @Test
+    void credit_whenStripeDoesNotExist_thenNoRowsUpdated() {
+
+        // then
+        assertThat(ewalletStripeDao.credit(UUID.randomUUID(), 0, 1)).isEqualTo(0);
+    }
+
+    @Test
+    void findAllByEwalletUuidAndLock_success() {
+
+        // given
+        UUID ewalletUuid = UUID.randomUUID();
+        ewalletStripeDao.saveAll(List.of(createStripe(ewalletUuid, 1), createStripe(ewalletUuid, 0)));
+
+        // then
+        List<EwalletStripe> stripes = ewalletStripeDao.findAllByEwalletUuidAndLock(ewalletUuid);
+        assertThat(stripes.size()).isEqualTo(2);
+        assertThat(stripes.get(0).getStripe()).isEqualTo(0);
+        assertThat(stripes.get(1).getStripe()).isEqualTo(1);
+    }
+
+    private static EwalletStripe createStripe(UUID ewalletUuid, int stripe) {
+
+        return EwalletStripe.builder()
+                .uuid(UUID.randomUUID())
+                .ewalletUuid(ewalletUuid)
+                .stripe(stripe)
+                .balance(0)
+                .build();
+    }
+}
@@ -0,0 +1,90 @@
+package ewallet.repository.idempotency;
+
+import ewallet.entity.idempotency.IdempotencyKey;
+import ewallet.entity.operation.OperationStatus;
+import ewallet.entity.operation.OperationType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.sql.Timestamp;
+import java.util.UUID;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@ExtendWith(SpringExtension.class)
+@DataJpaTest
+class IdempotencyKeyRepositoryITest {
+
+    @Autowired
+    private IdempotencyKeyDao idempotencyKeyDao;
+
+    @Test
+    void saveAndFlush_success() {
+
+        // given
+        IdempotencyKey idempotencyKey = createIdempotencyKey("key-1");
+
+        // then
+        idempotencyKeyDao.saveAndFlush(idempotencyKey);
+
+        assertThat(idempotencyKeyDao.findByIdempotencyKey("key-1").isPresent()).isTrue();
+    }
+
+    @Test
+    void saveAndFlush_whenKeyExists_thenException() {
+
+        // given
+        idempotencyKeyDao.saveAndFlush(createIdempotencyKey("key-2"));
+
+        // then
+        assertThrows(DataIntegrityViolationException.class, () -> idempotencyKeyDao.saveAndFlush(createIdempotencyKey("key-2")));
+    }
+
+    @Test
+    void deleteAllCreatedBefore_success() {
+
+        // given
+        idempotencyKeyDao.saveAndFlush(createIdempotencyKey("key-3"));
+
+        // then
+        int deleted = idempotencyKeyDao.deleteAllCreatedBefore(new Timestamp(System.currentTimeMillis() + 1000));
+
+        assertThat(deleted).isEqualTo(1);
+        assertThat(idempotencyKeyDao.findByIdempotencyKey("key-3").isPresent()).isFalse();
+    }
+
+    @Test
+    void renewUnfinishedCreatedBefore_whenCompletedOrOtherRequest_thenKept() {
+
+        // given
+        IdempotencyKey unfinished = createIdempotencyKey("key-4");
+        IdempotencyKey completed = createIdempotencyKey("key-5");
+        completed.setOperationStatus(OperationStatus.COMPLETED);
+        idempotencyKeyDao.saveAndFlush(unfinished);
+        idempotencyKeyDao.saveAndFlush(completed);
+        Timestamp later = new Timestamp(System.currentTimeMillis() + 1000);
+
+        // then
+        assertThat(idempotencyKeyDao.renewUnfinishedCreatedBefore("key-4", "other fingerprint", later, later)).isEqualTo(0);
+        assertThat(idempotencyKeyDao.renewUnfinishedCreatedBefore("key-4", "fingerprint", later, later)).isEqualTo(1);
+        assertThat(idempotencyKeyDao.renewUnfinishedCreatedBefore("key-4", "fingerprint", later, later)).isEqualTo(0);
+        assertThat(idempotencyKeyDao.renewUnfinishedCreatedBefore("key-5", "fingerprint", later, later)).isEqualTo(0);
+    }
+
+    private static IdempotencyKey createIdempotencyKey(String key) {
+
+        return IdempotencyKey.builder()
+                .uuid(UUID.randomUUID())
+                .idempotencyKey(key)
+                .ewalletUuid(UUID.randomUUID())
+                .operationType(OperationType.DEPOSIT)
+                .requestFingerprint("fingerprint")
+                .operationUuid(UUID.randomUUID())
+                .build();
+    }
+}
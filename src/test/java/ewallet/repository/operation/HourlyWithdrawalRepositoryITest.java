@@ -0,0 +1,75 @@
+package ewallet.repository.operation;
+
+import ewallet.entity.operation.HourlyWithdrawal;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@DataJpaTest
+class HourlyWithdrawalRepositoryITest {
+
+    @Autowired
+    private HourlyWithdrawalDao hourlyWithdrawalDao;
+
+    @Test
+    void add_whenSameHour_thenAccumulated() {
+
+        // given
+        UUID uuid = UUID.randomUUID();
+
+        // then
+        hourlyWithdrawalDao.add(uuid, 100, 10);
+        hourlyWithdrawalDao.add(uuid, 100, 20);
+        hourlyWithdrawalDao.add(uuid, 101, 40);
+
+        List<HourlyWithdrawal> hourlyWithdrawals = hourlyWithdrawalDao.findAllByEwalletUuidSince(uuid, 0);
+        assertThat(hourlyWithdrawals.size()).isEqualTo(2);
+        assertThat(hourlyWithdrawals.get(0).getWithdrawnSum()).isEqualTo(30);
+        assertThat(hourlyWithdrawals.get(1).getWithdrawnSum()).isEqualTo(40);
+    }
+
+    @Test
+    void sumByEwalletUuidSince_success() {
+
+        // given
+        UUID uuid = UUID.randomUUID();
+
+        // then
+        hourlyWithdrawalDao.add(uuid, 75, 10);
+        hourlyWithdrawalDao.add(uuid, 76, 20);
+        hourlyWithdrawalDao.add(uuid, 100, 40);
+        hourlyWithdrawalDao.add(UUID.randomUUID(), 100, 80);
+
+        assertThat(hourlyWithdrawalDao.sumByEwalletUuidSince(uuid, 76)).isEqualTo(60);
+    }
+
+    @Test
+    void sumByEwalletUuidSince_whenNoWithdrawals_thenZero() {
+
+        // then
+        assertThat(hourlyWithdrawalDao.sumByEwalletUuidSince(UUID.randomUUID(), 0)).isEqualTo(0);
+    }
+
+    @Test
+    void findAllSince_success() {
+
+        // given
+        UUID uuid = UUID.randomUUID();
+
+        // then
+        hourlyWithdrawalDao.add(uuid, 200, 10);
+        hourlyWithdrawalDao.add(UUID.randomUUID(), 150, 20);
+
+        List<HourlyWithdrawal> hourlyWithdrawals = hourlyWithdrawalDao.findAllSince(200);
+        assertThat(hourlyWithdrawals.size()).isEqualTo(1);
+        assertThat(hourlyWithdrawals.get(0).getEwalletUuid()).isEqualTo(uuid);
+    }
+}
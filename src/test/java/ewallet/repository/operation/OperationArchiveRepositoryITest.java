@@ -0,0 +1,91 @@
+package ewallet.repository.operation;
+
+import ewallet.entity.operation.ArchivedOperation;
+import ewallet.entity.operation.Operation;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static ewallet.TestHelper.randomOperation;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@DataJpaTest
+class OperationArchiveRepositoryITest {
+
+    @Autowired
+    private OperationArchiveDao operationArchiveDao;
+
+    @Autowired
+    private OperationDao operationDao;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void copyFromOperations_thenOldestMovedToArchive() {
+
+        // given
+        UUID ewalletUuid = UUID.randomUUID();
+        long now = System.currentTimeMillis();
+        Operation oldest = createOperation(ewalletUuid);
+        Operation older = createOperation(ewalletUuid);
+        Operation recent = createOperation(ewalletUuid);
+        operationDao.saveAll(List.of(oldest, older, recent));
+        entityManager.flush();
+        backdate(oldest, new Timestamp(now - 3_000));
+        backdate(older, new Timestamp(now - 2_000));
+
+        // when
+        List<UUID> uuids = operationDao.findOldestCreatedBefore(new Timestamp(now - 1_000), PageRequest.of(0, 10));
+        operationArchiveDao.copyFromOperations(uuids);
+        operationDao.deleteAllByUuidIn(uuids);
+        entityManager.clear();
+
+        // then
+        assertThat(uuids).containsExactly(oldest.getUuid(), older.getUuid());
+        assertThat(operationDao.findAll().stream().map(Operation::getUuid).toList()).containsExactly(recent.getUuid());
+
+        Optional<ArchivedOperation> archived = operationArchiveDao.findById(oldest.getUuid());
+        assertThat(archived.isPresent()).isTrue();
+        assertThat(archived.get().getEwalletUuid()).isEqualTo(ewalletUuid);
+        assertThat(archived.get().getCreatedDate()).isEqualTo(new Timestamp(now - 3_000));
+
+        List<OperationSummary> page = operationArchiveDao.findFirstPage(ewalletUuid, null, null, null, null, PageRequest.of(0, 10));
+        assertThat(page.stream().map(OperationSummary::uuid).toList()).containsExactly(older.getUuid(), oldest.getUuid());
+    }
+
+    @Test
+    void findOldestCreatedBefore_thenServedByCreatedDateIndex() {
+
+        // then
+        String plan = (String) entityManager.createNativeQuery("EXPLAIN SELECT uuid FROM operation WHERE created_date < CURRENT_TIMESTAMP " +
+                        "ORDER BY created_date, uuid LIMIT 1000")
+                .getSingleResult();
+
+        assertThat(plan.toLowerCase()).contains("operation_created_date_uuid_idx");
+    }
+
+    // created_date is assigned on insert, so it is moved back afterwards
+    private void backdate(Operation operation, Timestamp createdDate) {
+        entityManager.createNativeQuery("UPDATE operation SET created_date = :createdDate WHERE uuid = :uuid")
+                .setParameter("createdDate", createdDate)
+                .setParameter("uuid", operation.getUuid())
+                .executeUpdate();
+    }
+
+    private static Operation createOperation(UUID ewalletUuid) {
+        Operation operation = randomOperation();
+        operation.setEwalletUuid(ewalletUuid);
+        return operation;
+    }
+}
@@ -0,0 +1,135 @@
+package ewallet.repository.operation;
+
+import ewallet.dto.operation.internal.OperationFilterDto;
+import ewallet.dto.operation.internal.OperationTypeDto;
+import ewallet.entity.operation.Operation;
+import ewallet.entity.operation.OperationType;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static ewallet.TestHelper.randomOperation;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@DataJpaTest
+@Import(OperationExportDao.class)
+class OperationExportDaoITest {
+
+    @Autowired
+    private OperationExportDao operationExportDao;
+
+    @Autowired
+    private OperationDao operationDao;
+
+    @Autowired
+    private OperationArchiveDao operationArchiveDao;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void streamAll_whenEwalletGiven_thenItsOperationsOldestFirst() {
+
+        // given
+        UUID ewalletUuid = UUID.randomUUID();
+        long now = System.currentTimeMillis();
+        List<Operation> operations = IntStream.range(0, 5)
+                .mapToObj(i -> createOperation(ewalletUuid, OperationType.DEPOSIT))
+                .toList();
+        operationDao.saveAll(operations);
+        operationDao.save(createOperation(UUID.randomUUID(), OperationType.DEPOSIT));
+        entityManager.flush();
+        for (int i = 0; i < operations.size(); i++) {
+            backdate(operations.get(i), new Timestamp(now - i * 1000L));
+        }
+        entityManager.clear();
+
+        // when
+        List<OperationExportRow> rows = new ArrayList<>();
+        long exported = operationExportDao.streamAll(ewalletUuid, OperationFilterDto.builder().build(), 2, rows::add);
+
+        // then
+        assertThat(exported).isEqualTo(5L);
+        assertThat(rows.stream().map(OperationExportRow::uuid).toList())
+                .isEqualTo(IntStream.range(0, 5).mapToObj(i -> operations.get(4 - i).getUuid()).toList());
+        assertThat(rows.get(0).operationType()).isEqualTo(OperationType.DEPOSIT.name());
+        assertThat(rows.get(0).ewalletUuid()).isEqualTo(ewalletUuid);
+    }
+
+    @Test
+    void streamAll_whenFiltered_thenOnlyMatchingOperations() {
+
+        // given
+        UUID ewalletUuid = UUID.randomUUID();
+        long now = System.currentTimeMillis();
+        Operation oldDeposit = createOperation(ewalletUuid, OperationType.DEPOSIT);
+        operationDao.saveAll(List.of(
+                oldDeposit,
+                createOperation(ewalletUuid, OperationType.WITHDRAWAL),
+                createOperation(ewalletUuid, OperationType.DEPOSIT)));
+        entityManager.flush();
+        backdate(oldDeposit, new Timestamp(now - 60_000));
+
+        OperationFilterDto filter = OperationFilterDto.builder()
+                .operationType(OperationTypeDto.DEPOSIT)
+                .from(new Timestamp(now - 1000))
+                .build();
+
+        // when
+        List<OperationExportRow> rows = new ArrayList<>();
+        long exported = operationExportDao.streamAll(null, filter, 100, rows::add);
+
+        // then
+        assertThat(exported).isEqualTo(1L);
+        assertThat(rows.get(0).operationType()).isEqualTo(OperationType.DEPOSIT.name());
+        assertThat(rows.get(0).uuid()).isNotEqualTo(oldDeposit.getUuid());
+    }
+
+    @Test
+    void streamAll_whenPartlyArchived_thenArchivedOperationsFirst() {
+
+        // given
+        UUID ewalletUuid = UUID.randomUUID();
+        Operation archived = createOperation(ewalletUuid, OperationType.DEPOSIT);
+        Operation hot = createOperation(ewalletUuid, OperationType.WITHDRAWAL);
+        operationDao.saveAll(List.of(archived, hot));
+        entityManager.flush();
+        backdate(archived, new Timestamp(System.currentTimeMillis() - 60_000));
+        operationArchiveDao.copyFromOperations(List.of(archived.getUuid()));
+        operationDao.deleteAllByUuidIn(List.of(archived.getUuid()));
+
+        // when
+        List<OperationExportRow> rows = new ArrayList<>();
+        long exported = operationExportDao.streamAll(ewalletUuid, OperationFilterDto.builder().build(), 100, rows::add);
+
+        // then
+        assertThat(exported).isEqualTo(2L);
+        assertThat(rows.stream().map(OperationExportRow::uuid).toList()).containsExactly(archived.getUuid(), hot.getUuid());
+    }
+
+    // created_date is assigned on insert, so it is moved back afterwards
+    private void backdate(Operation operation, Timestamp createdDate) {
+        entityManager.createNativeQuery("UPDATE operation SET created_date = :createdDate WHERE uuid = :uuid")
+                .setParameter("createdDate", createdDate)
+                .setParameter("uuid", operation.getUuid())
+                .executeUpdate();
+    }
+
+    private static Operation createOperation(UUID ewalletUuid, OperationType operationType) {
+        Operation operation = randomOperation();
+        operation.setEwalletUuid(ewalletUuid);
+        operation.setOperationType(operationType);
+        return operation;
+    }
+}
@@ -3,126 +3,135 @@ package ewallet.repository.operation;
 import ewallet.entity.operation.Operation;
 import ewallet.entity.operation.OperationStatus;
 import ewallet.entity.operation.OperationType;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.junit.jupiter.params.ParameterizedTest;
-import org.junit.jupiter.params.provider.Arguments;
-import org.junit.jupiter.params.provider.MethodSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
-import java.math.BigDecimal;
+import javax.sql.DataSource;
 import java.sql.Timestamp;
-import java.util.Calendar;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
-import java.util.stream.Stream;
+import java.util.stream.IntStream;
 
 import static ewallet.TestHelper.randomOperation;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 
 @ExtendWith(SpringExtension.class)
-@DataJpaTest
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=ewallet.repository.operation.OperationRepositoryITest$GeneratedSql")
 class OperationRepositoryITest {
 
+    // H2 orders uuids as unsigned bytes, which is the order of their string form
+    private static final Comparator<OperationSummary> NEWEST_FIRST = Comparator.comparing(OperationSummary::createdDate)
+            .thenComparing(operation -> operation.uuid().toString())
+            .reversed();
+
     @Autowired
     private OperationDao operationDao;
 
-    private static Operation operation = randomOperation();
+    @Autowired
+    private DataSource dataSource;
 
-    @ParameterizedTest
-    @MethodSource("provideHoursForSuccessCase")
-    void lastDayWithdrawalsByWalletUuidAndLock_success(int timeType, int time) {
+    @Test
+    void save_success() {
 
         // given
-        Timestamp timestamp = createTimestamp(timeType, time);
+        Operation operation = randomOperation();
 
         // then
         operationDao.save(operation);
 
-        List<Operation> savedOperation = operationDao.lastDayWithdrawalsByWalletUuidAndLock(operation.getEwalletUuid(), timestamp);
-        assertThat(savedOperation.isEmpty()).isFalse();
-        assertThat(savedOperation.get(0).getUuid()).isEqualTo(operation.getUuid());
+        Optional<Operation> savedOperation = operationDao.findById(operation.getUuid());
+        assertThat(savedOperation.isPresent()).isTrue();
+        assertThat(savedOperation.get().getAmount()).isEqualTo(operation.getAmount());
     }
 
-    private static Stream<Arguments> provideHoursForSuccessCase() {
-        return Stream.of(
-                Arguments.of(Calendar.HOUR, -1),
-                Arguments.of(Calendar.HOUR, -5),
-                Arguments.of(Calendar.HOUR, -23)
-        );
-    }
-
-    @ParameterizedTest
-    @MethodSource("provideHoursForUnsuccessfulCase")
-    void lastDayWithdrawalsByWalletUuidAndLock_whenOverDay_thenEmpty(int timeType, int time) {
+    @Test
+    void findPageBefore_whenPagedThrough_thenEveryOperationOnceNewestFirst() {
 
         // given
-        Timestamp timestamp = createTimestamp(timeType, time);
+        UUID ewalletUuid = UUID.randomUUID();
+        List<Operation> operations = IntStream.range(0, 7)
+                .mapToObj(i -> createOperation(ewalletUuid, i % 2 == 0 ? OperationType.DEPOSIT : OperationType.WITHDRAWAL))
+                .toList();
+        operationDao.saveAll(operations);
+        operationDao.save(createOperation(UUID.randomUUID(), OperationType.DEPOSIT));
+
+        // when
+        List<OperationSummary> pagedOperations = new ArrayList<>();
+        List<OperationSummary> page = operationDao.findFirstPage(ewalletUuid, null, null, null, null, PageRequest.of(0, 3));
+        while (!page.isEmpty()) {
+            pagedOperations.addAll(page);
+            OperationSummary last = page.get(page.size() - 1);
+            page = operationDao.findPageBefore(ewalletUuid, null, null, null, null, last.createdDate(), last.uuid(), PageRequest.of(0, 3));
+        }
 
         // then
-        operationDao.save(operation);
-
-        List<Operation> savedOperation = operationDao.lastDayWithdrawalsByWalletUuidAndLock(operation.getEwalletUuid(), timestamp);
-        assertThat(savedOperation.isEmpty()).isTrue();
-    }
-
-    private static Stream<Arguments> provideHoursForUnsuccessfulCase() {
-        return Stream.of(
-                Arguments.of(Calendar.DAY_OF_MONTH, 2),
-                Arguments.of(Calendar.DAY_OF_MONTH, 3)
-        );
+        assertThat(pagedOperations.stream().map(OperationSummary::uuid).distinct().count()).isEqualTo(7L);
+        assertThat(pagedOperations.stream().sorted(NEWEST_FIRST).toList()).isEqualTo(pagedOperations);
     }
 
     @Test
-    void lastDayWithdrawalsByWalletUuidAndLock_whenOperationType_thenEmpty() {
+    void findFirstPage_whenFiltered_thenOnlyMatchingOperations() {
 
         // given
-        Operation depositOperation = Operation.builder()
-                .uuid(UUID.randomUUID())
-                .amount(BigDecimal.ONE)
-                .operationType(OperationType.DEPOSIT)
-                .operationStatus(OperationStatus.COMPLETED)
-                .ewalletUuid(UUID.randomUUID())
-                .createdDate(createTimestamp(Calendar.HOUR, -1))
-                .build();
+        UUID ewalletUuid = UUID.randomUUID();
+        operationDao.saveAll(List.of(
+                createOperation(ewalletUuid, OperationType.DEPOSIT),
+                createOperation(ewalletUuid, OperationType.WITHDRAWAL),
+                createOperation(ewalletUuid, OperationType.DEPOSIT)));
 
         // then
-        operationDao.save(depositOperation);
+        List<OperationSummary> deposits = operationDao.findFirstPage(ewalletUuid, OperationType.DEPOSIT, OperationStatus.COMPLETED, null, null, PageRequest.of(0, 10));
 
-        List<Operation> savedOperation = operationDao.lastDayWithdrawalsByWalletUuidAndLock(operation.getEwalletUuid(), depositOperation.getCreatedDate());
-        assertThat(savedOperation.isEmpty()).isTrue();
+        assertThat(deposits.size()).isEqualTo(2);
+        assertThat(deposits.stream().allMatch(operation -> operation.operationType() == OperationType.DEPOSIT)).isTrue();
     }
 
     @Test
-    void lastDayWithdrawalsByWalletUuidAndLock_whenOperationStatus_thenEmpty() {
+    void findPageBefore_thenServedByEwalletIndex() {
 
         // given
-        Operation declinedOperation = Operation.builder()
-                .uuid(UUID.randomUUID())
-                .amount(BigDecimal.ONE)
-                .operationType(OperationType.WITHDRAWAL)
-                .operationStatus(OperationStatus.DECLINED)
-                .ewalletUuid(UUID.randomUUID())
-                .createdDate(createTimestamp(Calendar.HOUR, -1))
-                .build();
+        UUID ewalletUuid = UUID.randomUUID();
+        Timestamp createdDate = new Timestamp(System.currentTimeMillis());
+        UUID uuid = UUID.randomUUID();
+
+        // when
+        operationDao.findPageBefore(ewalletUuid, null, null, null, null, createdDate, uuid, PageRequest.of(0, 50));
+        String sql = GeneratedSql.last;
 
         // then
-        operationDao.save(declinedOperation);
+        // Bound in statement order: the ewallet, the four unset filters twice each, the cursor, then offset and limit
+        String plan = new JdbcTemplate(dataSource).queryForObject("EXPLAIN " + sql, String.class,
+                ewalletUuid, null, null, null, null, null, null, null, null, createdDate, createdDate, uuid, 0, 50);
 
-        List<Operation> savedOperation = operationDao.lastDayWithdrawalsByWalletUuidAndLock(operation.getEwalletUuid(), declinedOperation.getCreatedDate());
-        assertThat(savedOperation.isEmpty()).isTrue();
+        assertThat(plan.toLowerCase()).contains("operation_ewallet_uuid_created_date_uuid_idx");
     }
 
-    private Timestamp createTimestamp(int timeType, int time) {
+    // Keeps the last statement Hibernate prepared, so its plan can be asked for exactly as it runs
+    public static class GeneratedSql implements StatementInspector {
 
-        Timestamp timestamp = new Timestamp(System.currentTimeMillis());
-        Calendar calendar = Calendar.getInstance();
-        calendar.setTime(operation.getCreatedDate());
-        calendar.add(timeType, time);
-        timestamp.setTime(calendar.getTime().getTime());
+        private static volatile String last;
+
+        @Override
+        public String inspect(String sql) {
+
+            last = sql;
+            return sql;
+        }
+    }
 
-        return timestamp;
+    private static Operation createOperation(UUID ewalletUuid, OperationType operationType) {
+        Operation operation = randomOperation();
+        operation.setEwalletUuid(ewalletUuid);
+        operation.setOperationType(operationType);
+        return operation;
     }
 }
@@ -0,0 +1,123 @@
+package ewallet.service.customer;
+
+import ewallet.config.EwalletProperties;
+import ewallet.dto.customer.internal.CustomerDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static ewallet.TestHelper.createCustomer;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CustomerCacheUTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private CustomerCache customerCache;
+
+    @BeforeEach
+    void setUp() {
+
+        customerCache = new CustomerCache(new EwalletProperties(), meterRegistry);
+        customerCache.start();
+    }
+
+    @Test
+    void get_whenCached_thenNotLoadedAgain() {
+
+        // given
+        CustomerDto customer = randomCustomerDto();
+        AtomicInteger loads = new AtomicInteger();
+
+        // when
+        customerCache.get(customer.getUuid(), () -> {
+            loads.incrementAndGet();
+            return Optional.of(customer);
+        });
+
+        // then
+        assertThat(customerCache.get(customer.getUuid(), Optional::empty).get()).isEqualTo(customer);
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(meterRegistry.counter("ewallet.customer.cache.hits").count()).isEqualTo(1.0);
+        assertThat(meterRegistry.counter("ewallet.customer.cache.misses").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void get_whenMissing_thenMissRemembered() {
+
+        // given
+        CustomerDto customer = randomCustomerDto();
+        customerCache.get(customer.getUuid(), Optional::empty);
+
+        // then
+        assertThat(customerCache.get(customer.getUuid(), () -> Optional.of(customer)).isPresent()).isFalse();
+    }
+
+    @Test
+    void get_whenLoadFails_thenNothingCached() {
+
+        // given
+        UUID uuid = UUID.randomUUID();
+
+        // when
+        assertThrows(IllegalStateException.class, () -> customerCache.get(uuid, () -> {
+            throw new IllegalStateException();
+        }));
+
+        // then
+        assertThat(customerCache.get(uuid, Optional::empty).isPresent()).isFalse();
+    }
+
+    @Test
+    void get_whenConcurrentMisses_thenSingleLoad() throws Exception {
+
+        // given
+        CustomerDto customer = randomCustomerDto();
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<Optional<CustomerDto>> follower = new AtomicReference<>();
+
+        Thread leader = new Thread(() -> customerCache.get(customer.getUuid(), () -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Optional.of(customer);
+        }));
+        leader.start();
+        loading.await();
+
+        // when
+        Thread waiter = new Thread(() -> follower.set(customerCache.get(customer.getUuid(), () -> {
+            loads.incrementAndGet();
+            return Optional.of(customer);
+        })));
+        waiter.start();
+        while (meterRegistry.counter("ewallet.customer.cache.coalesced").count() == 0) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+        leader.join();
+        waiter.join();
+
+        // then
+        assertThat(follower.get().get()).isEqualTo(customer);
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    private static CustomerDto randomCustomerDto() {
+        return createCustomer(UUID.randomUUID(), "first", "last", "first@email.com");
+    }
+}
@@ -17,12 +17,14 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 import static ewallet.TestHelper.createCustomer;
 import static ewallet.TestHelper.randomCustomer;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -34,6 +36,9 @@ class CustomerServiceUTest {
     @Mock
     private CustomerDao customerDao;
 
+    @Mock
+    private CustomerCache customerCache;
+
     @InjectMocks
     private CustomerService customerService;
 
@@ -120,25 +125,46 @@ class CustomerServiceUTest {
             Customer customer = randomCustomer();
 
             // when
+            whenCacheMissed();
             when(customerDao.findById(customer.getUuid())).thenReturn(Optional.of(customer));
 
             // then
-            Customer fetchedCustomer = customerService.get(customer.getUuid());
+            CustomerDto fetchedCustomer = customerService.get(customer.getUuid());
 
             assertThat(fetchedCustomer.getUuid()).isEqualTo(customer.getUuid());
             verify(customerDao, times(1)).findById(customer.getUuid());
         }
 
+        @Test
+        void get_whenCached_thenNoDaoCall() {
+
+            // given
+            CustomerDto customerDto = createCustomer(UUID.randomUUID(), "first", "last", "email@email.com");
+
+            // when
+            when(customerCache.get(eq(customerDto.getUuid()), any())).thenReturn(Optional.of(customerDto));
+
+            // then
+            assertThat(customerService.get(customerDto.getUuid())).isEqualTo(customerDto);
+            verifyNoInteractions(customerDao);
+        }
+
         @Test
         void get_whenNotFound_thenNoSuchElementException() {
 
             // when
+            whenCacheMissed();
             when(customerDao.findById(any())).thenReturn(Optional.empty());
 
             // then
-            assertThrows(NoSuchElementException.class, () -> customerService.get(any()));
+            assertThrows(NoSuchElementException.class, () -> customerService.get(UUID.randomUUID()));
 
             verify(customerDao, times(1)).findById(any());
         }
+
+        private void whenCacheMissed() {
+
+            when(customerCache.get(any(), any())).thenAnswer(invocation -> invocation.<Supplier<Optional<CustomerDto>>>getArgument(1).get());
+        }
     }
 }
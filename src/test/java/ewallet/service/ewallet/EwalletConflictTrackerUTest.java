@@ -0,0 +1,85 @@
+package ewallet.service.ewallet;
+
+import ewallet.config.EwalletProperties;
+import ewallet.config.LockingMode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+class EwalletConflictTrackerUTest {
+
+    private final EwalletProperties properties = new EwalletProperties();
+
+    private EwalletConflictTracker ewalletConflictTracker;
+
+    @BeforeEach
+    void setUp() {
+
+        properties.getLocking().setMode(LockingMode.OPTIMISTIC);
+        properties.getLocking().setConflictRateThreshold(0.2);
+        ewalletConflictTracker = new EwalletConflictTracker(properties);
+    }
+
+    @Test
+    void isOptimistic_whenPessimisticMode_thenFalse() {
+
+        // given
+        properties.getLocking().setMode(LockingMode.PESSIMISTIC);
+
+        // then
+        assertThat(ewalletConflictTracker.isOptimistic(UUID.randomUUID())).isFalse();
+    }
+
+    @Test
+    void isOptimistic_whenNoConflicts_thenTrue() {
+
+        // given
+        UUID uuid = UUID.randomUUID();
+
+        // when
+        for (int i = 0; i < 100; i++) {
+            ewalletConflictTracker.recordAttempt(uuid, false);
+        }
+
+        // then
+        assertThat(ewalletConflictTracker.isOptimistic(uuid)).isTrue();
+    }
+
+    @Test
+    void isOptimistic_whenConflictRateExceedsThreshold_thenFallbackToPessimistic() {
+
+        // given
+        UUID uuid = UUID.randomUUID();
+        UUID otherUuid = UUID.randomUUID();
+
+        // when
+        for (int i = 0; i < 3; i++) {
+            ewalletConflictTracker.recordAttempt(uuid, true);
+        }
+
+        // then
+        assertThat(ewalletConflictTracker.isOptimistic(uuid)).isFalse();
+        assertThat(ewalletConflictTracker.isOptimistic(otherUuid)).isTrue();
+    }
+
+    @Test
+    void isOptimistic_whenConflictsStop_thenBackToOptimistic() {
+
+        // given
+        UUID uuid = UUID.randomUUID();
+        for (int i = 0; i < 3; i++) {
+            ewalletConflictTracker.recordAttempt(uuid, true);
+        }
+
+        // when
+        for (int i = 0; i < 10; i++) {
+            ewalletConflictTracker.recordAttempt(uuid, false);
+        }
+
+        // then
+        assertThat(ewalletConflictTracker.isOptimistic(uuid)).isTrue();
+    }
+}
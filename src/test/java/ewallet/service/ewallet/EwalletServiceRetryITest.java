@@ -0,0 +1,132 @@
+package ewallet.service.ewallet;
+
+import ewallet.dto.operation.internal.OperationDto;
+import ewallet.dto.operation.internal.OperationStatusDto;
+import ewallet.dto.operation.internal.OperationTypeDto;
+import ewallet.entity.ewallet.Ewallet;
+import ewallet.repository.ewallet.EwalletDao;
+import ewallet.service.ewallet.cache.EwalletBalanceCache;
+import ewallet.service.ewallet.hot.HotEwalletService;
+import ewallet.service.ewallet.limit.DailyWithdrawalTracker;
+import ewallet.service.ewallet.shard.EwalletShardEngine;
+import ewallet.service.operation.OperationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.retry.annotation.EnableRetry;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static ewallet.TestHelper.createEwallet;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@SpringJUnitConfig(EwalletServiceRetryITest.RetryConfig.class)
+class EwalletServiceRetryITest {
+
+    @MockBean
+    private EwalletDao ewalletDao;
+
+    @MockBean
+    private OperationService operationService;
+
+    @MockBean
+    private EwalletShardEngine ewalletShardEngine;
+
+    @MockBean
+    private HotEwalletService hotEwalletService;
+
+    @MockBean
+    private EwalletConflictTracker ewalletConflictTracker;
+
+    @MockBean
+    private DailyWithdrawalTracker dailyWithdrawalTracker;
+
+    @MockBean
+    private EwalletBalanceCache ewalletBalanceCache;
+
+    @MockBean
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EwalletService ewalletService;
+
+    @BeforeEach
+    void setUp() {
+
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    void makeTransaction_whenOptimisticLockFails_thenRetried() {
+
+        // given
+        Ewallet sourceEwallet = createEwallet(UUID.randomUUID(), 10);
+        Ewallet destinationEwallet = createEwallet(UUID.randomUUID(), 1);
+        OperationDto operationDto = createOperationDto(sourceEwallet.getUuid(), destinationEwallet.getUuid());
+
+        // when
+        when(ewalletDao.findAllByIdAndLock(any())).thenReturn(List.of(sourceEwallet, destinationEwallet));
+        when(ewalletDao.saveAll(any()))
+                .thenThrow(new OptimisticLockingFailureException("conflict"))
+                .thenReturn(List.of(sourceEwallet, destinationEwallet));
+        when(operationService.save(operationDto)).thenReturn(operationDto);
+
+        // then
+        OperationDto returnedOperationDto = ewalletService.makeTransaction(operationDto);
+
+        assertThat(returnedOperationDto.getOperationStatus()).isEqualTo(OperationStatusDto.COMPLETED);
+        verify(ewalletDao, times(2)).saveAll(any());
+        verify(ewalletConflictTracker, times(1)).recordAttempt(sourceEwallet.getUuid(), false);
+        verify(ewalletConflictTracker, times(1)).recordAttempt(sourceEwallet.getUuid(), true);
+    }
+
+    @Test
+    void makeTransaction_whenOptimisticLockAlwaysFails_thenException() {
+
+        // given
+        Ewallet sourceEwallet = createEwallet(UUID.randomUUID(), 10);
+        Ewallet destinationEwallet = createEwallet(UUID.randomUUID(), 1);
+        OperationDto operationDto = createOperationDto(sourceEwallet.getUuid(), destinationEwallet.getUuid());
+
+        // when
+        when(ewalletDao.findAllByIdAndLock(any())).thenReturn(List.of(sourceEwallet, destinationEwallet));
+        when(ewalletDao.saveAll(any())).thenThrow(new OptimisticLockingFailureException("conflict"));
+
+        // then
+        assertThrows(OptimisticLockingFailureException.class, () -> ewalletService.makeTransaction(operationDto));
+
+        verify(ewalletDao, times(5)).saveAll(any());
+        verify(ewalletConflictTracker, times(4)).recordAttempt(eq(sourceEwallet.getUuid()), eq(true));
+        verifyNoInteractions(operationService);
+    }
+
+    private static OperationDto createOperationDto(UUID ewalletUuid, UUID destinationWalletUuid) {
+
+        return OperationDto.builder()
+                .uuid(UUID.randomUUID())
+                .amount(1)
+                .operationType(OperationTypeDto.TRANSACTION)
+                .ewalletUuid(ewalletUuid)
+                .destinationWalletUuid(destinationWalletUuid)
+                .build();
+    }
+
+    @Configuration
+    @EnableRetry
+    @Import(EwalletService.class)
+    static class RetryConfig {
+    }
+}
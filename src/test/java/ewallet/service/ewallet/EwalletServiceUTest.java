@@ -1,12 +1,19 @@
 package ewallet.service.ewallet;
 
+import ewallet.dto.ewallet.internal.EwalletDto;
 import ewallet.dto.operation.internal.OperationDto;
 import ewallet.dto.operation.internal.OperationStatusDto;
 import ewallet.dto.operation.internal.OperationTypeDto;
 import ewallet.entity.ewallet.Ewallet;
 import ewallet.repository.ewallet.EwalletDao;
+import ewallet.repository.ewallet.EwalletSummary;
+import ewallet.service.ewallet.cache.EwalletBalanceCache;
+import ewallet.service.ewallet.hot.HotEwalletService;
+import ewallet.service.ewallet.limit.DailyWithdrawalTracker;
+import ewallet.service.ewallet.shard.EwalletShardEngine;
 import ewallet.service.operation.OperationService;
 import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -14,11 +21,13 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.math.BigDecimal;
 import java.sql.Timestamp;
 import java.util.List;
 import java.util.Optional;
@@ -39,9 +48,34 @@ class EwalletServiceUTest {
     @Mock
     private OperationService operationService;
 
+    @Mock
+    private EwalletShardEngine ewalletShardEngine;
+
+    @Mock
+    private HotEwalletService hotEwalletService;
+
+    @Mock
+    private EwalletConflictTracker ewalletConflictTracker;
+
+    @Mock
+    private DailyWithdrawalTracker dailyWithdrawalTracker;
+
+    @Mock
+    private EwalletBalanceCache ewalletBalanceCache;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
     @InjectMocks
     private EwalletService ewalletService;
 
+    @BeforeEach
+    void setUp() {
+
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
     @Nested
     class DepositEwalletTests {
 
@@ -49,38 +83,55 @@ class EwalletServiceUTest {
         void deposit_success() {
 
             // given
-            OperationDto operationDto = createOperationDtoWithBalance(BigDecimal.valueOf(1), OperationTypeDto.DEPOSIT);
+            OperationDto operationDto = createOperationDtoWithBalance(1, OperationTypeDto.DEPOSIT);
 
-            Ewallet ewallet = createEwallet(operationDto.getEwalletUuid(), BigDecimal.valueOf(2));
+            Ewallet ewallet = createEwallet(operationDto.getEwalletUuid(), 2);
 
             // when
-            when(ewalletDao.findByIdAndLock(ewallet.getUuid())).thenReturn(Optional.of(ewallet));
+            when(ewalletDao.deposit(ewallet.getUuid(), operationDto.getAmount())).thenReturn(1);
             when(operationService.save(operationDto)).thenReturn(operationDto);
 
             // then
             OperationDto returnedOperationDto = ewalletService.deposit(operationDto);
 
             verifyReturnedOperationDto(operationDto, returnedOperationDto);
-            verifyEwallet(ewallet, 3);
+            verify(ewalletDao, times(1)).deposit(ewallet.getUuid(), operationDto.getAmount());
+            verify(ewalletDao, never()).findByIdAndLock(any());
+            verify(ewalletDao, never()).save(any());
+            verify(ewalletBalanceCache, times(1)).evictAfterCommit(List.of(ewallet.getUuid()));
             verifySavedOperation(ewallet.getUuid(), OperationStatusDto.COMPLETED, operationDto.getAmount(), operationDto.getDescription(), OperationTypeDto.DEPOSIT, operationDto.getDestinationWalletUuid());
         }
 
+        @Test
+        void deposit_whenShardEngineEnabled_thenNoTransaction() {
+
+            // given
+            OperationDto operationDto = createOperationDtoWithBalance(1, OperationTypeDto.DEPOSIT);
+
+            // when
+            when(ewalletShardEngine.isEnabled()).thenReturn(true);
+            when(ewalletShardEngine.deposit(operationDto)).thenReturn(operationDto);
+
+            // then
+            assertThat(ewalletService.deposit(operationDto)).isEqualTo(operationDto);
+            verifyNoInteractions(transactionTemplate, ewalletDao);
+        }
+
         @Test
         void deposit_whenOperationServiceFails_thenNoEwalletSave() {
 
             // given
-            OperationDto operationDto = createOperationDtoWithBalance(BigDecimal.valueOf(1), OperationTypeDto.DEPOSIT);
-            Ewallet ewallet = createEwallet(operationDto.getEwalletUuid(), BigDecimal.ONE);
+            OperationDto operationDto = createOperationDtoWithBalance(1, OperationTypeDto.DEPOSIT);
+            Ewallet ewallet = createEwallet(operationDto.getEwalletUuid(), 1);
 
             // when
-            when(ewalletDao.findByIdAndLock(ewallet.getUuid())).thenReturn(Optional.of(ewallet));
+            when(ewalletDao.deposit(ewallet.getUuid(), operationDto.getAmount())).thenReturn(1);
             doThrow(new RuntimeException()).when(operationService).save(any());
 
             // then
             assertThrows(RuntimeException.class, () -> ewalletService.deposit(operationDto));
 
-            verify(ewalletDao, times(1)).findByIdAndLock(ewallet.getUuid());
-            verifyEwallet(ewallet, 2);
+            verify(ewalletDao, times(1)).deposit(ewallet.getUuid(), operationDto.getAmount());
             verifySavedOperation(ewallet.getUuid(), OperationStatusDto.COMPLETED, operationDto.getAmount(), operationDto.getDescription(), OperationTypeDto.DEPOSIT, operationDto.getDestinationWalletUuid());
         }
 
@@ -88,35 +139,71 @@ class EwalletServiceUTest {
         void deposit_whenEwalletDoesNotExist_thenNoSaveDeclinedOperation() {
 
             // given
-            OperationDto operationDto = createOperationDtoWithBalance(BigDecimal.valueOf(1), OperationTypeDto.DEPOSIT);
+            OperationDto operationDto = createOperationDtoWithBalance(1, OperationTypeDto.DEPOSIT);
 
             // when
-            when(operationService.save(operationDto)).thenReturn(operationDto);
+            when(operationService.recordDeclined(operationDto)).thenReturn(operationDto);
 
             // then
             OperationDto returnedOperationDto = ewalletService.deposit(operationDto);
 
-            verify(ewalletDao, times(1)).findByIdAndLock(operationDto.getEwalletUuid());
+            verify(ewalletDao, times(1)).deposit(operationDto.getEwalletUuid(), operationDto.getAmount());
             verify(ewalletDao, never()).save(any());
             verifySavedOperation(operationDto.getEwalletUuid(), OperationStatusDto.DECLINED, operationDto.getAmount(), operationDto.getDescription(), OperationTypeDto.DEPOSIT, operationDto.getDestinationWalletUuid());
             verifyReturnedOperationDto(operationDto, returnedOperationDto);
         }
 
+        @Test
+        void deposit_whenEwalletIsHot_thenCreditStripe() {
+
+            // given
+            OperationDto operationDto = createOperationDtoWithBalance(1, OperationTypeDto.DEPOSIT);
+
+            // when
+            when(hotEwalletService.isHot(operationDto.getEwalletUuid())).thenReturn(true);
+            when(hotEwalletService.credit(operationDto.getEwalletUuid(), operationDto.getAmount())).thenReturn(true);
+            when(operationService.save(operationDto)).thenReturn(operationDto);
+
+            // then
+            OperationDto returnedOperationDto = ewalletService.deposit(operationDto);
+
+            verify(ewalletDao, never()).deposit(any(), anyLong());
+            verifySavedOperation(operationDto.getEwalletUuid(), OperationStatusDto.COMPLETED, operationDto.getAmount(), operationDto.getDescription(), OperationTypeDto.DEPOSIT, operationDto.getDestinationWalletUuid());
+            verifyReturnedOperationDto(operationDto, returnedOperationDto);
+        }
+
+        @Test
+        void deposit_whenHotEwalletHasNoStripes_thenDeclined() {
+
+            // given
+            OperationDto operationDto = createOperationDtoWithBalance(1, OperationTypeDto.DEPOSIT);
+
+            // when
+            when(hotEwalletService.isHot(operationDto.getEwalletUuid())).thenReturn(true);
+            when(hotEwalletService.credit(operationDto.getEwalletUuid(), operationDto.getAmount())).thenReturn(false);
+            when(operationService.recordDeclined(operationDto)).thenReturn(operationDto);
+
+            // then
+            OperationDto returnedOperationDto = ewalletService.deposit(operationDto);
+
+            verifySavedOperation(operationDto.getEwalletUuid(), OperationStatusDto.DECLINED, operationDto.getAmount(), operationDto.getDescription(), OperationTypeDto.DEPOSIT, operationDto.getDestinationWalletUuid());
+            verifyReturnedOperationDto(operationDto, returnedOperationDto);
+        }
+
         @ParameterizedTest
         @MethodSource("provideArgumentsForIncorrectAmountCase")
-        void deposit_whenAmountIsIncorrect_thenNoSaveDeclinedOperation(BigDecimal amount) {
+        void deposit_whenAmountIsIncorrect_thenNoSaveDeclinedOperation(long amount) {
 
             // given
             OperationDto operationDto = createOperationDtoWithBalance(amount, OperationTypeDto.DEPOSIT);
 
             // when
-            when(operationService.save(operationDto)).thenReturn(operationDto);
+            when(operationService.recordDeclined(operationDto)).thenReturn(operationDto);
 
             // then
             OperationDto returnedOperationDto = ewalletService.deposit(operationDto);
 
-            verify(ewalletDao, never()).save(any());
-            verify(ewalletDao, never()).findByIdAndLock(any());
+            verify(ewalletDao, never()).deposit(any(), anyLong());
             verifySavedOperation(operationDto.getEwalletUuid(), OperationStatusDto.DECLINED, operationDto.getAmount(), operationDto.getDescription(), OperationTypeDto.DEPOSIT, operationDto.getDestinationWalletUuid());
             verifyReturnedOperationDto(operationDto, returnedOperationDto);
         }
@@ -124,20 +211,21 @@ class EwalletServiceUTest {
         private static Stream<Arguments> provideArgumentsForIncorrectAmountCase() {
             return Stream.of(
                     // Amount is zero or negative
-                    Arguments.of(BigDecimal.valueOf(0.0000000000)),
-                    Arguments.of(BigDecimal.valueOf(0)),
-                    Arguments.of(BigDecimal.valueOf(-1)),
-                    Arguments.of(BigDecimal.valueOf(-1.11)),
-                    // Incorrect fractional part
-                    Arguments.of(BigDecimal.valueOf(0.333)),
-                    Arguments.of(BigDecimal.valueOf(1.3333333333333333))
+                    Arguments.of(0L),
+                    Arguments.of(-1L),
+                    Arguments.of(-111L)
             );
         }
 
-        private void verifySavedOperation(UUID walletUuid, OperationStatusDto operationStatusDto, BigDecimal amount, String description, OperationTypeDto operationTypeDto, UUID destinationWalletUuid) {
+        private void verifySavedOperation(UUID walletUuid, OperationStatusDto operationStatusDto, long amount, String description, OperationTypeDto operationTypeDto, UUID destinationWalletUuid) {
 
             ArgumentCaptor<OperationDto> captor = ArgumentCaptor.forClass(OperationDto.class);
-            verify(operationService, times(1)).save(captor.capture());
+            if (operationStatusDto == OperationStatusDto.DECLINED) {
+                verify(operationService, times(1)).recordDeclined(captor.capture());
+                verify(operationService, never()).save(any());
+            } else {
+                verify(operationService, times(1)).save(captor.capture());
+            }
             OperationDto capturedValue = captor.getValue();
 
             assertThat(capturedValue.getAmount()).isEqualTo(amount);
@@ -149,7 +237,7 @@ class EwalletServiceUTest {
         }
 
         //
-        private static OperationDto createOperationDtoWithBalance(BigDecimal amount, OperationTypeDto operationTypeDto) {
+        private static OperationDto createOperationDtoWithBalance(long amount, OperationTypeDto operationTypeDto) {
             return OperationDto.builder()
                     .uuid(UUID.randomUUID())
                     .amount(amount)
@@ -169,19 +257,22 @@ class EwalletServiceUTest {
             void withdraw_success() {
 
                 // given
-                OperationDto operationDto = createOperationDtoWithBalance(BigDecimal.valueOf(1), OperationTypeDto.WITHDRAWAL);
+                OperationDto operationDto = createOperationDtoWithBalance(1, OperationTypeDto.WITHDRAWAL);
 
-                Ewallet ewallet = createEwallet(operationDto.getEwalletUuid(), BigDecimal.valueOf(2));
+                Ewallet ewallet = createEwallet(operationDto.getEwalletUuid(), 2);
 
                 // when
-                when(ewalletDao.findByIdAndLock(ewallet.getUuid())).thenReturn(Optional.of(ewallet));
+                when(ewalletDao.withdraw(ewallet.getUuid(), operationDto.getAmount())).thenReturn(1);
                 when(operationService.save(operationDto)).thenReturn(operationDto);
 
                 // then
                 OperationDto returnedOperationDto = ewalletService.withdraw(operationDto);
 
                 verifyReturnedOperationDto(operationDto, returnedOperationDto);
-                verifyEwallet(ewallet, 1);
+                verify(ewalletDao, times(1)).withdraw(ewallet.getUuid(), operationDto.getAmount());
+                verify(ewalletDao, never()).findByIdAndLock(any());
+                verify(ewalletDao, never()).save(any());
+                verify(dailyWithdrawalTracker, times(1)).record(ewallet.getUuid(), operationDto.getAmount());
                 verifySavedOperation(ewallet.getUuid(), OperationStatusDto.COMPLETED, operationDto.getAmount(), operationDto.getDescription(), OperationTypeDto.WITHDRAWAL, operationDto.getDestinationWalletUuid());
             }
 
@@ -189,18 +280,17 @@ class EwalletServiceUTest {
             void withdraw_whenOperationServiceFails_thenNoEwalletSave() {
 
                 // given
-                OperationDto operationDto = createOperationDtoWithBalance(BigDecimal.valueOf(1), OperationTypeDto.WITHDRAWAL);
-                Ewallet ewallet = createEwallet(operationDto.getEwalletUuid(), BigDecimal.valueOf(2));
+                OperationDto operationDto = createOperationDtoWithBalance(1, OperationTypeDto.WITHDRAWAL);
+                Ewallet ewallet = createEwallet(operationDto.getEwalletUuid(), 2);
 
                 // when
-                when(ewalletDao.findByIdAndLock(ewallet.getUuid())).thenReturn(Optional.of(ewallet));
+                when(ewalletDao.withdraw(ewallet.getUuid(), operationDto.getAmount())).thenReturn(1);
                 doThrow(new RuntimeException()).when(operationService).save(any());
 
                 // then
                 assertThrows(RuntimeException.class, () -> ewalletService.withdraw(operationDto));
 
-                verify(ewalletDao, times(1)).findByIdAndLock(ewallet.getUuid());
-                verifyEwallet(ewallet, 1);
+                verify(ewalletDao, times(1)).withdraw(ewallet.getUuid(), operationDto.getAmount());
                 verifySavedOperation(ewallet.getUuid(), OperationStatusDto.COMPLETED, operationDto.getAmount(), operationDto.getDescription(), OperationTypeDto.WITHDRAWAL, operationDto.getDestinationWalletUuid());
             }
 
@@ -208,16 +298,16 @@ class EwalletServiceUTest {
             void withdraw_whenEwalletDoesNotExist_thenNoSaveDeclinedOperation() {
 
                 // given
-                OperationDto operationDto = createOperationDtoWithBalance(BigDecimal.valueOf(1), OperationTypeDto.WITHDRAWAL);
+                OperationDto operationDto = createOperationDtoWithBalance(1, OperationTypeDto.WITHDRAWAL);
 
                 // when
-                when(operationService.save(operationDto)).thenReturn(operationDto);
+                when(operationService.recordDeclined(operationDto)).thenReturn(operationDto);
 
                 // then
                 OperationDto returnedOperationDto = ewalletService.withdraw(operationDto);
 
-                verify(ewalletDao, times(1)).findByIdAndLock(operationDto.getEwalletUuid());
-                verify(ewalletDao, never()).save(any());
+                verify(ewalletDao, times(1)).withdraw(operationDto.getEwalletUuid(), operationDto.getAmount());
+                verify(ewalletDao, never()).deposit(any(), anyLong());
                 verifySavedOperation(operationDto.getEwalletUuid(), OperationStatusDto.DECLINED, operationDto.getAmount(), operationDto.getDescription(), OperationTypeDto.WITHDRAWAL, operationDto.getDestinationWalletUuid());
                 verifyReturnedOperationDto(operationDto, returnedOperationDto);
             }
@@ -226,18 +316,18 @@ class EwalletServiceUTest {
             void withdraw_whenNotEnoughBalance_thenNoSaveDeclinedOperation() {
 
                 // given
-                OperationDto operationDto = createOperationDtoWithBalance(BigDecimal.valueOf(2), OperationTypeDto.WITHDRAWAL);
-                Ewallet ewallet = createEwallet(operationDto.getEwalletUuid(), BigDecimal.valueOf(1));
+                OperationDto operationDto = createOperationDtoWithBalance(2, OperationTypeDto.WITHDRAWAL);
+                Ewallet ewallet = createEwallet(operationDto.getEwalletUuid(), 1);
 
                 // when
-                when(operationService.save(operationDto)).thenReturn(operationDto);
-                when(ewalletDao.findByIdAndLock(ewallet.getUuid())).thenReturn(Optional.of(ewallet));
+                when(operationService.recordDeclined(operationDto)).thenReturn(operationDto);
+                when(ewalletDao.withdraw(ewallet.getUuid(), operationDto.getAmount())).thenReturn(0);
 
                 // then
                 OperationDto returnedOperationDto = ewalletService.withdraw(operationDto);
 
-                verify(ewalletDao, times(1)).findByIdAndLock(operationDto.getEwalletUuid());
-                verify(ewalletDao, never()).save(any());
+                verify(ewalletDao, times(1)).withdraw(operationDto.getEwalletUuid(), operationDto.getAmount());
+                verify(ewalletDao, never()).deposit(any(), anyLong());
                 verifySavedOperation(operationDto.getEwalletUuid(), OperationStatusDto.DECLINED, operationDto.getAmount(), operationDto.getDescription(), OperationTypeDto.WITHDRAWAL, operationDto.getDestinationWalletUuid());
                 verifyReturnedOperationDto(operationDto, returnedOperationDto);
             }
@@ -246,56 +336,80 @@ class EwalletServiceUTest {
             void withdraw_whenExceededDailyLimit_thenNoSaveDeclinedOperation() {
 
                 // given
-                OperationDto operationDto = createOperationDtoWithBalance(BigDecimal.valueOf(2), OperationTypeDto.WITHDRAWAL);
-                Ewallet ewallet = createEwallet(operationDto.getEwalletUuid(), BigDecimal.valueOf(2));
+                OperationDto operationDto = createOperationDtoWithBalance(2, OperationTypeDto.WITHDRAWAL);
+                Ewallet ewallet = createEwallet(operationDto.getEwalletUuid(), 2);
 
                 // when
-                when(operationService.save(operationDto)).thenReturn(operationDto);
-                when(ewalletDao.findByIdAndLock(ewallet.getUuid())).thenReturn(Optional.of(ewallet));
-                when(operationService.lastDayWithdrawalsByWalletUuid(operationDto.getEwalletUuid())).thenReturn(List.of(createOperationDtoWithBalance(BigDecimal.valueOf(5001), OperationTypeDto.WITHDRAWAL)));
+                when(operationService.recordDeclined(operationDto)).thenReturn(operationDto);
+                when(ewalletDao.withdraw(ewallet.getUuid(), operationDto.getAmount())).thenReturn(1);
+                when(dailyWithdrawalTracker.lastDayWithdrawals(operationDto.getEwalletUuid())).thenReturn(500_100L);
 
                 // then
                 OperationDto returnedOperationDto = ewalletService.withdraw(operationDto);
 
-                verify(ewalletDao, times(1)).findByIdAndLock(operationDto.getEwalletUuid());
-                verify(ewalletDao, never()).save(any());
+                verify(ewalletDao, times(1)).withdraw(operationDto.getEwalletUuid(), operationDto.getAmount());
+                verify(ewalletDao, times(1)).deposit(operationDto.getEwalletUuid(), operationDto.getAmount());
+                verify(dailyWithdrawalTracker, never()).record(any(), anyLong());
                 verifySavedOperation(operationDto.getEwalletUuid(), OperationStatusDto.DECLINED, operationDto.getAmount(), operationDto.getDescription(), OperationTypeDto.WITHDRAWAL, operationDto.getDestinationWalletUuid());
                 verifyReturnedOperationDto(operationDto, returnedOperationDto);
             }
 
             @Test
-            void withdraw_whenAmountExceededDailyLimit_thenNoSaveDeclinedOperation() {
+            void withdraw_whenEwalletIsHot_thenBorrowFromStripes() {
 
                 // given
-                OperationDto operationDto = createOperationDtoWithBalance(BigDecimal.valueOf(5001), OperationTypeDto.WITHDRAWAL);
+                OperationDto operationDto = createOperationDtoWithBalance(3, OperationTypeDto.WITHDRAWAL);
+                Ewallet ewallet = createEwallet(operationDto.getEwalletUuid(), 2);
 
                 // when
+                when(hotEwalletService.isHot(ewallet.getUuid())).thenReturn(true);
+                when(ewalletDao.findByIdAndLock(ewallet.getUuid())).thenReturn(Optional.of(ewallet));
+                when(hotEwalletService.canBorrow(any(), eq(operationDto.getAmount()))).thenReturn(true);
+                doAnswer(invocation -> invocation.<EwalletDto>getArgument(0).deposit(2))
+                        .when(hotEwalletService).borrow(any(), eq(operationDto.getAmount()));
                 when(operationService.save(operationDto)).thenReturn(operationDto);
 
                 // then
                 OperationDto returnedOperationDto = ewalletService.withdraw(operationDto);
 
-                verify(ewalletDao, never()).saveAll(any());
-                verify(ewalletDao, never()).findByIdAndLock(any());
+                verify(ewalletDao, never()).withdraw(any(), anyLong());
+                verify(hotEwalletService, times(1)).borrow(any(), eq(operationDto.getAmount()));
+                verifyEwallet(ewallet, 1);
+                verifySavedOperation(operationDto.getEwalletUuid(), OperationStatusDto.COMPLETED, operationDto.getAmount(), operationDto.getDescription(), OperationTypeDto.WITHDRAWAL, operationDto.getDestinationWalletUuid());
+                verifyReturnedOperationDto(operationDto, returnedOperationDto);
+            }
+
+            @Test
+            void withdraw_whenAmountExceededDailyLimit_thenNoSaveDeclinedOperation() {
+
+                // given
+                OperationDto operationDto = createOperationDtoWithBalance(500_100, OperationTypeDto.WITHDRAWAL);
+
+                // when
+                when(operationService.recordDeclined(operationDto)).thenReturn(operationDto);
+
+                // then
+                OperationDto returnedOperationDto = ewalletService.withdraw(operationDto);
+
+                verify(ewalletDao, never()).withdraw(any(), anyLong());
                 verifySavedOperation(operationDto.getEwalletUuid(), OperationStatusDto.DECLINED, operationDto.getAmount(), operationDto.getDescription(), OperationTypeDto.WITHDRAWAL, operationDto.getDestinationWalletUuid());
                 verifyReturnedOperationDto(operationDto, returnedOperationDto);
             }
 
             @ParameterizedTest
             @MethodSource("provideArgumentsForIncorrectAmountCase")
-            void withdraw_whenAmountIsIncorrect_thenNoSaveDeclinedOperation(BigDecimal amount) {
+            void withdraw_whenAmountIsIncorrect_thenNoSaveDeclinedOperation(long amount) {
 
                 // given
                 OperationDto operationDto = createOperationDtoWithBalance(amount, OperationTypeDto.WITHDRAWAL);
 
                 // when
-                when(operationService.save(operationDto)).thenReturn(operationDto);
+                when(operationService.recordDeclined(operationDto)).thenReturn(operationDto);
 
                 // then
                 OperationDto returnedOperationDto = ewalletService.withdraw(operationDto);
 
-                verify(ewalletDao, never()).saveAll(any());
-                verify(ewalletDao, never()).findByIdAndLock(any());
+                verify(ewalletDao, never()).withdraw(any(), anyLong());
                 verifySavedOperation(operationDto.getEwalletUuid(), OperationStatusDto.DECLINED, operationDto.getAmount(), operationDto.getDescription(), OperationTypeDto.WITHDRAWAL, operationDto.getDestinationWalletUuid());
                 verifyReturnedOperationDto(operationDto, returnedOperationDto);
             }
@@ -303,13 +417,9 @@ class EwalletServiceUTest {
             private static Stream<Arguments> provideArgumentsForIncorrectAmountCase() {
                 return Stream.of(
                         // Amount is zero or negative
-                        Arguments.of(BigDecimal.valueOf(0.0000000000)),
-                        Arguments.of(BigDecimal.valueOf(0)),
-                        Arguments.of(BigDecimal.valueOf(-1)),
-                        Arguments.of(BigDecimal.valueOf(-1.11)),
-                        // Incorrect fractional part
-                        Arguments.of(BigDecimal.valueOf(0.333)),
-                        Arguments.of(BigDecimal.valueOf(1.3333333333333333))
+                        Arguments.of(0L),
+                        Arguments.of(-1L),
+                        Arguments.of(-111L)
                 );
             }
         }
@@ -321,21 +431,20 @@ class EwalletServiceUTest {
             void makeTransaction_success() {
 
                 // given
-                OperationDto operationDto = createOperationDtoWithBalance(BigDecimal.valueOf(1), OperationTypeDto.TRANSACTION);
+                OperationDto operationDto = createOperationDtoWithBalance(1, OperationTypeDto.TRANSACTION);
 
-                Ewallet sourceEwallet = createEwallet(operationDto.getEwalletUuid(), BigDecimal.valueOf(2));
-                Ewallet destinationEwallet = createEwallet(operationDto.getDestinationWalletUuid(), BigDecimal.valueOf(2));
+                Ewallet sourceEwallet = createEwallet(operationDto.getEwalletUuid(), 2);
+                Ewallet destinationEwallet = createEwallet(operationDto.getDestinationWalletUuid(), 2);
 
                 // when
-                when(ewalletDao.findByIdAndLock(sourceEwallet.getUuid())).thenReturn(Optional.of(sourceEwallet));
-                when(ewalletDao.findByIdAndLock(destinationEwallet.getUuid())).thenReturn(Optional.of(destinationEwallet));
+                when(ewalletDao.findAllByIdAndLock(List.of(sourceEwallet.getUuid(), destinationEwallet.getUuid()))).thenReturn(List.of(sourceEwallet, destinationEwallet));
                 when(operationService.save(operationDto)).thenReturn(operationDto);
 
                 // then
                 OperationDto returnedOperationDto = ewalletService.makeTransaction(operationDto);
 
-                verify(ewalletDao, times(1)).findByIdAndLock(sourceEwallet.getUuid());
-                verify(ewalletDao, times(1)).findByIdAndLock(destinationEwallet.getUuid());
+                verify(ewalletDao, times(1)).findAllByIdAndLock(List.of(sourceEwallet.getUuid(), destinationEwallet.getUuid()));
+                verify(ewalletDao, never()).findByIdAndLock(any());
                 verifyTransactionWallets(operationDto);
                 verifyReturnedOperationDto(operationDto, returnedOperationDto);
                 verifySavedOperation(sourceEwallet.getUuid(), OperationStatusDto.COMPLETED, operationDto.getAmount(), operationDto.getDescription(), OperationTypeDto.TRANSACTION, operationDto.getDestinationWalletUuid());
@@ -346,21 +455,20 @@ class EwalletServiceUTest {
             void makeTransaction_whenOperationServiceFails_thenNoEwalletSave() {
 
                 // given
-                OperationDto operationDto = createOperationDtoWithBalance(BigDecimal.valueOf(1), OperationTypeDto.TRANSACTION);
-                Ewallet sourceEwallet = createEwallet(operationDto.getEwalletUuid(), BigDecimal.valueOf(2));
-                Ewallet destinationEwallet = createEwallet(operationDto.getDestinationWalletUuid(), BigDecimal.valueOf(2));
+                OperationDto operationDto = createOperationDtoWithBalance(1, OperationTypeDto.TRANSACTION);
+                Ewallet sourceEwallet = createEwallet(operationDto.getEwalletUuid(), 2);
+                Ewallet destinationEwallet = createEwallet(operationDto.getDestinationWalletUuid(), 2);
 
                 // when
-                when(ewalletDao.findByIdAndLock(sourceEwallet.getUuid())).thenReturn(Optional.of(sourceEwallet));
-                when(ewalletDao.findByIdAndLock(destinationEwallet.getUuid())).thenReturn(Optional.of(destinationEwallet));
+                when(ewalletDao.findAllByIdAndLock(List.of(sourceEwallet.getUuid(), destinationEwallet.getUuid()))).thenReturn(List.of(sourceEwallet, destinationEwallet));
 
                 doThrow(new RuntimeException()).when(operationService).save(any());
 
                 // then
                 assertThrows(RuntimeException.class, () -> ewalletService.makeTransaction(operationDto));
 
-                verify(ewalletDao, times(1)).findByIdAndLock(sourceEwallet.getUuid());
-                verify(ewalletDao, times(1)).findByIdAndLock(destinationEwallet.getUuid());
+                verify(ewalletDao, times(1)).findAllByIdAndLock(List.of(sourceEwallet.getUuid(), destinationEwallet.getUuid()));
+                verify(ewalletDao, never()).findByIdAndLock(any());
                 verifyTransactionWallets(operationDto);
                 verifySavedOperation(sourceEwallet.getUuid(), OperationStatusDto.COMPLETED, operationDto.getAmount(), operationDto.getDescription(), OperationTypeDto.TRANSACTION, operationDto.getDestinationWalletUuid());
                 verifyTransactionWallets(operationDto);
@@ -370,15 +478,15 @@ class EwalletServiceUTest {
             void makeTransaction_whenSourceEwalletDoesNotExist_thenNoSaveDeclinedOperation() {
 
                 // given
-                OperationDto operationDto = createOperationDtoWithBalance(BigDecimal.valueOf(1), OperationTypeDto.TRANSACTION);
+                OperationDto operationDto = createOperationDtoWithBalance(1, OperationTypeDto.TRANSACTION);
 
                 // when
-                when(operationService.save(operationDto)).thenReturn(operationDto);
+                when(operationService.recordDeclined(operationDto)).thenReturn(operationDto);
 
                 // then
                 OperationDto returnedOperationDto = ewalletService.makeTransaction(operationDto);
 
-                verify(ewalletDao, times(1)).findByIdAndLock(operationDto.getEwalletUuid());
+                verify(ewalletDao, times(1)).findAllByIdAndLock(List.of(operationDto.getEwalletUuid(), operationDto.getDestinationWalletUuid()));
                 verify(ewalletDao, never()).saveAll(any());
                 verifySavedOperation(operationDto.getEwalletUuid(), OperationStatusDto.DECLINED, operationDto.getAmount(), operationDto.getDescription(), OperationTypeDto.TRANSACTION, operationDto.getDestinationWalletUuid());
                 verifyReturnedOperationDto(operationDto, returnedOperationDto);
@@ -388,54 +496,174 @@ class EwalletServiceUTest {
             void makeTransaction_whenDestinationEwalletDoesNotExist_thenNoSaveDeclinedOperation() {
 
                 // given
-                OperationDto operationDto = createOperationDtoWithBalance(BigDecimal.valueOf(1), OperationTypeDto.TRANSACTION);
-                Ewallet sourceEwallet = createEwallet(operationDto.getEwalletUuid(), BigDecimal.valueOf(2));
+                OperationDto operationDto = createOperationDtoWithBalance(1, OperationTypeDto.TRANSACTION);
+                Ewallet sourceEwallet = createEwallet(operationDto.getEwalletUuid(), 2);
 
                 // when
-                when(ewalletDao.findByIdAndLock(sourceEwallet.getUuid())).thenReturn(Optional.of(sourceEwallet));
-                when(operationService.save(operationDto)).thenReturn(operationDto);
+                when(ewalletDao.findAllByIdAndLock(List.of(sourceEwallet.getUuid(), operationDto.getDestinationWalletUuid()))).thenReturn(List.of(sourceEwallet));
+                when(operationService.recordDeclined(operationDto)).thenReturn(operationDto);
 
                 // then
                 OperationDto returnedOperationDto = ewalletService.makeTransaction(operationDto);
 
-                verify(ewalletDao, times(1)).findByIdAndLock(operationDto.getEwalletUuid());
+                verify(ewalletDao, times(1)).findAllByIdAndLock(List.of(operationDto.getEwalletUuid(), operationDto.getDestinationWalletUuid()));
                 verify(ewalletDao, never()).saveAll(any());
                 verifySavedOperation(operationDto.getEwalletUuid(), OperationStatusDto.DECLINED, operationDto.getAmount(), operationDto.getDescription(), OperationTypeDto.TRANSACTION, operationDto.getDestinationWalletUuid());
                 verifyReturnedOperationDto(operationDto, returnedOperationDto);
             }
 
             @Test
-            void makeTransaction_whenNotEnoughBalance_thenNoSaveDeclinedOperation() {
+            void makeTransaction_whenDestinationEwalletIsHot_thenCreditStripe() {
 
                 // given
-                OperationDto operationDto = createOperationDtoWithBalance(BigDecimal.valueOf(4), OperationTypeDto.TRANSACTION);
-                Ewallet sourceEwallet = createEwallet(operationDto.getEwalletUuid(), BigDecimal.valueOf(2));
+                OperationDto operationDto = createOperationDtoWithBalance(1, OperationTypeDto.TRANSACTION);
+                Ewallet sourceEwallet = createEwallet(operationDto.getEwalletUuid(), 2);
 
                 // when
+                when(ewalletDao.findByIdAndLock(sourceEwallet.getUuid())).thenReturn(Optional.of(sourceEwallet));
+                when(hotEwalletService.isHot(operationDto.getDestinationWalletUuid())).thenReturn(true);
+                when(hotEwalletService.credit(operationDto.getDestinationWalletUuid(), operationDto.getAmount())).thenReturn(true);
                 when(operationService.save(operationDto)).thenReturn(operationDto);
+                when(ewalletDao.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+                // then
+                OperationDto returnedOperationDto = ewalletService.makeTransaction(operationDto);
+
+                verify(ewalletDao, never()).findByIdAndLock(operationDto.getDestinationWalletUuid());
+                verifyEwallet(sourceEwallet, 1);
+                verifySavedOperation(operationDto.getEwalletUuid(), OperationStatusDto.COMPLETED, operationDto.getAmount(), operationDto.getDescription(), OperationTypeDto.TRANSACTION, operationDto.getDestinationWalletUuid());
+                verifyReturnedOperationDto(operationDto, returnedOperationDto);
+            }
+
+            @Test
+            void makeTransaction_whenHotDestinationHasNoStripes_thenDeclinedAndSourceUntouched() {
+
+                // given
+                OperationDto operationDto = createOperationDtoWithBalance(1, OperationTypeDto.TRANSACTION);
+                Ewallet sourceEwallet = createEwallet(operationDto.getEwalletUuid(), 2);
+
+                // when
                 when(ewalletDao.findByIdAndLock(sourceEwallet.getUuid())).thenReturn(Optional.of(sourceEwallet));
+                when(hotEwalletService.isHot(operationDto.getDestinationWalletUuid())).thenReturn(true);
+                when(hotEwalletService.credit(operationDto.getDestinationWalletUuid(), operationDto.getAmount())).thenReturn(false);
+                when(operationService.recordDeclined(operationDto)).thenReturn(operationDto);
 
                 // then
                 OperationDto returnedOperationDto = ewalletService.makeTransaction(operationDto);
 
-                verify(ewalletDao, times(1)).findByIdAndLock(operationDto.getEwalletUuid());
                 verify(ewalletDao, never()).save(any());
                 verifySavedOperation(operationDto.getEwalletUuid(), OperationStatusDto.DECLINED, operationDto.getAmount(), operationDto.getDescription(), OperationTypeDto.TRANSACTION, operationDto.getDestinationWalletUuid());
                 verifyReturnedOperationDto(operationDto, returnedOperationDto);
             }
 
             @Test
-            void makeTransaction_whenAmountIsBiggerThanLimit_thenNoSaveDeclinedOperation() {
+            void makeTransaction_whenBothEwalletsHot_thenBothRowsLockedBeforeStripes() {
+
+                // given
+                OperationDto operationDto = createOperationDtoWithBalance(3, OperationTypeDto.TRANSACTION);
+                Ewallet sourceEwallet = createEwallet(operationDto.getEwalletUuid(), 2);
+                Ewallet destinationEwallet = createEwallet(operationDto.getDestinationWalletUuid(), 2);
+
+                // when
+                when(ewalletConflictTracker.isOptimistic(any())).thenReturn(true);
+                when(ewalletDao.findAllByIdAndLock(List.of(sourceEwallet.getUuid(), destinationEwallet.getUuid()))).thenReturn(List.of(sourceEwallet, destinationEwallet));
+                when(hotEwalletService.isHot(any())).thenReturn(true);
+                when(hotEwalletService.canBorrow(any(), eq(operationDto.getAmount()))).thenReturn(true);
+                when(hotEwalletService.credit(destinationEwallet.getUuid(), operationDto.getAmount())).thenReturn(true);
+                doAnswer(invocation -> invocation.<EwalletDto>getArgument(0).deposit(1))
+                        .when(hotEwalletService).borrow(any(), eq(operationDto.getAmount()));
+                when(ewalletDao.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+                when(operationService.save(operationDto)).thenReturn(operationDto);
+
+                // then
+                OperationDto returnedOperationDto = ewalletService.makeTransaction(operationDto);
+
+                InOrder inOrder = inOrder(ewalletDao, hotEwalletService);
+                inOrder.verify(ewalletDao).findAllByIdAndLock(List.of(sourceEwallet.getUuid(), destinationEwallet.getUuid()));
+                inOrder.verify(hotEwalletService).credit(destinationEwallet.getUuid(), operationDto.getAmount());
+                inOrder.verify(hotEwalletService).borrow(any(), eq(operationDto.getAmount()));
+                verify(ewalletDao, never()).findAllById(any());
+                verifyEwallet(sourceEwallet, 0);
+                verifySavedOperation(operationDto.getEwalletUuid(), OperationStatusDto.COMPLETED, operationDto.getAmount(), operationDto.getDescription(), OperationTypeDto.TRANSACTION, operationDto.getDestinationWalletUuid());
+                verifyReturnedOperationDto(operationDto, returnedOperationDto);
+            }
+
+            @Test
+            void makeTransaction_whenSourceEwalletIsHot_thenBorrowFromStripes() {
 
                 // given
-                OperationDto operationDto = createOperationDtoWithBalance(BigDecimal.valueOf(2001), OperationTypeDto.TRANSACTION);
+                OperationDto operationDto = createOperationDtoWithBalance(3, OperationTypeDto.TRANSACTION);
+                Ewallet sourceEwallet = createEwallet(operationDto.getEwalletUuid(), 2);
+                Ewallet destinationEwallet = createEwallet(operationDto.getDestinationWalletUuid(), 2);
 
                 // when
+                when(ewalletDao.findAllByIdAndLock(List.of(sourceEwallet.getUuid(), destinationEwallet.getUuid()))).thenReturn(List.of(sourceEwallet, destinationEwallet));
+                when(hotEwalletService.isHot(destinationEwallet.getUuid())).thenReturn(false);
+                when(hotEwalletService.isHot(sourceEwallet.getUuid())).thenReturn(true);
+                when(hotEwalletService.canBorrow(any(), eq(operationDto.getAmount()))).thenReturn(true);
+                doAnswer(invocation -> invocation.<EwalletDto>getArgument(0).deposit(1))
+                        .when(hotEwalletService).borrow(any(), eq(operationDto.getAmount()));
                 when(operationService.save(operationDto)).thenReturn(operationDto);
 
                 // then
                 OperationDto returnedOperationDto = ewalletService.makeTransaction(operationDto);
 
+                verify(hotEwalletService, times(1)).borrow(any(), eq(operationDto.getAmount()));
+                verifySavedOperation(operationDto.getEwalletUuid(), OperationStatusDto.COMPLETED, operationDto.getAmount(), operationDto.getDescription(), OperationTypeDto.TRANSACTION, operationDto.getDestinationWalletUuid());
+                verifyReturnedOperationDto(operationDto, returnedOperationDto);
+            }
+
+            @Test
+            void makeTransaction_whenNotEnoughBalance_thenNoSaveDeclinedOperation() {
+
+                // given
+                OperationDto operationDto = createOperationDtoWithBalance(4, OperationTypeDto.TRANSACTION);
+                Ewallet sourceEwallet = createEwallet(operationDto.getEwalletUuid(), 2);
+
+                // when
+                when(operationService.recordDeclined(operationDto)).thenReturn(operationDto);
+                when(ewalletDao.findAllByIdAndLock(List.of(sourceEwallet.getUuid(), operationDto.getDestinationWalletUuid()))).thenReturn(List.of(sourceEwallet));
+
+                // then
+                OperationDto returnedOperationDto = ewalletService.makeTransaction(operationDto);
+
+                verify(ewalletDao, times(1)).findAllByIdAndLock(List.of(operationDto.getEwalletUuid(), operationDto.getDestinationWalletUuid()));
+                verify(ewalletDao, never()).save(any());
+                verifySavedOperation(operationDto.getEwalletUuid(), OperationStatusDto.DECLINED, operationDto.getAmount(), operationDto.getDescription(), OperationTypeDto.TRANSACTION, operationDto.getDestinationWalletUuid());
+                verifyReturnedOperationDto(operationDto, returnedOperationDto);
+            }
+
+            @Test
+            void makeTransaction_whenSourceEwalletIsDestinationEwallet_thenNoSaveDeclinedOperation() {
+
+                // given
+                OperationDto operationDto = createOperationDtoWithBalance(1, OperationTypeDto.TRANSACTION);
+                operationDto.setDestinationWalletUuid(operationDto.getEwalletUuid());
+
+                // when
+                when(operationService.recordDeclined(operationDto)).thenReturn(operationDto);
+
+                // then
+                OperationDto returnedOperationDto = ewalletService.makeTransaction(operationDto);
+
+                verify(ewalletDao, never()).saveAll(any());
+                verify(ewalletDao, never()).findAllByIdAndLock(any());
+                verifySavedOperation(operationDto.getEwalletUuid(), OperationStatusDto.DECLINED, operationDto.getAmount(), operationDto.getDescription(), OperationTypeDto.TRANSACTION, operationDto.getEwalletUuid());
+                verifyReturnedOperationDto(operationDto, returnedOperationDto);
+            }
+
+            @Test
+            void makeTransaction_whenAmountIsBiggerThanLimit_thenNoSaveDeclinedOperation() {
+
+                // given
+                OperationDto operationDto = createOperationDtoWithBalance(200_100, OperationTypeDto.TRANSACTION);
+
+                // when
+                when(operationService.recordDeclined(operationDto)).thenReturn(operationDto);
+
+                // then
+                OperationDto returnedOperationDto = ewalletService.makeTransaction(operationDto);
+
                 verify(ewalletDao, never()).saveAll(any());
                 verify(ewalletDao, never()).findByIdAndLock(any());
                 verifySavedOperation(operationDto.getEwalletUuid(), OperationStatusDto.DECLINED, operationDto.getAmount(), operationDto.getDescription(), OperationTypeDto.TRANSACTION, operationDto.getDestinationWalletUuid());
@@ -445,13 +673,13 @@ class EwalletServiceUTest {
 
             @ParameterizedTest
             @MethodSource("provideArgumentsForIncorrectAmountCase")
-            void makeTransaction_whenAmountIsIncorrect_thenNoSaveDeclinedOperation(BigDecimal amount) {
+            void makeTransaction_whenAmountIsIncorrect_thenNoSaveDeclinedOperation(long amount) {
 
                 // given
                 OperationDto operationDto = createOperationDtoWithBalance(amount, OperationTypeDto.TRANSACTION);
 
                 // when
-                when(operationService.save(operationDto)).thenReturn(operationDto);
+                when(operationService.recordDeclined(operationDto)).thenReturn(operationDto);
 
                 // then
                 OperationDto returnedOperationDto = ewalletService.makeTransaction(operationDto);
@@ -465,19 +693,206 @@ class EwalletServiceUTest {
             private static Stream<Arguments> provideArgumentsForIncorrectAmountCase() {
                 return Stream.of(
                         // Amount is zero or negative
-                        Arguments.of(BigDecimal.valueOf(0.0000000000)),
-                        Arguments.of(BigDecimal.valueOf(0)),
-                        Arguments.of(BigDecimal.valueOf(-1)),
-                        Arguments.of(BigDecimal.valueOf(-1.11)),
-                        // Incorrect fractional part
-                        Arguments.of(BigDecimal.valueOf(0.333)),
-                        Arguments.of(BigDecimal.valueOf(1.3333333333333333))
+                        Arguments.of(0L),
+                        Arguments.of(-1L),
+                        Arguments.of(-111L)
                 );
             }
 
         }
     }
 
+    @Nested
+    class FindTests {
+
+        @Test
+        void find_whenHot_thenStripesAddedWithoutCache() {
+
+            // given
+            EwalletSummary ewallet = new EwalletSummary(UUID.randomUUID(), 120, UUID.randomUUID(), 4, 1L);
+
+            // when
+            when(hotEwalletService.isHot(ewallet.uuid())).thenReturn(true);
+            when(ewalletDao.findWithStripesBalance(ewallet.uuid())).thenReturn(Optional.of(ewallet));
+
+            // then
+            Optional<EwalletDto> returnedEwallet = ewalletService.find(ewallet.uuid());
+
+            assertThat(returnedEwallet.get().getBalance()).isEqualTo(120);
+            verify(ewalletDao, never()).findById(any());
+            verify(ewalletDao, never()).findByIdAndLock(any());
+            verifyNoInteractions(ewalletBalanceCache);
+        }
+
+        @Test
+        void find_whenShardEngineEnabled_thenReadFromEngine() {
+
+            // given
+            EwalletDto ewalletDto = EwalletDto.builder().uuid(UUID.randomUUID()).balance(100).build();
+
+            // when
+            when(ewalletShardEngine.isEnabled()).thenReturn(true);
+            when(ewalletShardEngine.find(ewalletDto.getUuid())).thenReturn(Optional.of(ewalletDto));
+
+            // then
+            assertThat(ewalletService.find(ewalletDto.getUuid()).get()).isEqualTo(ewalletDto);
+            verifyNoInteractions(ewalletDao, ewalletBalanceCache);
+        }
+    }
+
+    @Nested
+    class ApplyAllTests {
+
+        @Test
+        void applyAll_success() {
+
+            // given
+            Ewallet ewallet = createEwallet(UUID.randomUUID(), 10);
+            Ewallet destinationEwallet = createEwallet(UUID.randomUUID(), 0);
+            OperationDto deposit = createOperationDto(ewallet.getUuid(), null, 5, OperationTypeDto.DEPOSIT);
+            OperationDto withdrawal = createOperationDto(ewallet.getUuid(), null, 8, OperationTypeDto.WITHDRAWAL);
+            OperationDto transaction = createOperationDto(ewallet.getUuid(), destinationEwallet.getUuid(), 4, OperationTypeDto.TRANSACTION);
+            OperationDto declinedTransaction = createOperationDto(ewallet.getUuid(), destinationEwallet.getUuid(), 5, OperationTypeDto.TRANSACTION);
+            List<OperationDto> operations = List.of(deposit, withdrawal, transaction, declinedTransaction);
+
+            // when
+            when(ewalletDao.findAllByIdAndLock(any())).thenReturn(List.of(ewallet, destinationEwallet));
+            when(operationService.saveAll(operations)).thenReturn(operations);
+
+            // then
+            List<OperationDto> returnedOperations = ewalletService.applyAll(operations);
+
+            assertThat(returnedOperations.get(0).getOperationStatus()).isEqualTo(OperationStatusDto.COMPLETED);
+            assertThat(returnedOperations.get(1).getOperationStatus()).isEqualTo(OperationStatusDto.COMPLETED);
+            assertThat(returnedOperations.get(2).getOperationStatus()).isEqualTo(OperationStatusDto.COMPLETED);
+            assertThat(returnedOperations.get(3).getOperationStatus()).isEqualTo(OperationStatusDto.DECLINED);
+            verify(ewalletDao, times(1)).findAllByIdAndLock(any());
+            verify(dailyWithdrawalTracker, times(1)).record(ewallet.getUuid(), 8L);
+
+            ArgumentCaptor<List> captor = ArgumentCaptor.forClass(List.class);
+            verify(ewalletDao, times(1)).saveAll(captor.capture());
+            List<Ewallet> savedEwallets = captor.getValue();
+            assertThat(savedEwallets.get(0).getBalance()).isEqualTo(3);
+            assertThat(savedEwallets.get(1).getBalance()).isEqualTo(4);
+        }
+
+        @Test
+        void applyAll_whenGroupExceedsDailyLimit_thenDeclined() {
+
+            // given
+            Ewallet ewallet = createEwallet(UUID.randomUUID(), 1_000_000);
+            OperationDto firstWithdrawal = createOperationDto(ewallet.getUuid(), null, 200_000, OperationTypeDto.WITHDRAWAL);
+            OperationDto secondWithdrawal = createOperationDto(ewallet.getUuid(), null, 200_000, OperationTypeDto.WITHDRAWAL);
+            OperationDto thirdWithdrawal = createOperationDto(ewallet.getUuid(), null, 200_000, OperationTypeDto.WITHDRAWAL);
+            List<OperationDto> operations = List.of(firstWithdrawal, secondWithdrawal, thirdWithdrawal);
+
+            // when
+            when(ewalletDao.findAllByIdAndLock(List.of(ewallet.getUuid()))).thenReturn(List.of(ewallet));
+            when(dailyWithdrawalTracker.lastDayWithdrawals(ewallet.getUuid())).thenReturn(100_001L);
+            when(operationService.saveAll(operations)).thenReturn(operations);
+
+            // then
+            List<OperationDto> returnedOperations = ewalletService.applyAll(operations);
+
+            assertThat(returnedOperations.get(0).getOperationStatus()).isEqualTo(OperationStatusDto.COMPLETED);
+            assertThat(returnedOperations.get(1).getOperationStatus()).isEqualTo(OperationStatusDto.COMPLETED);
+            assertThat(returnedOperations.get(2).getOperationStatus()).isEqualTo(OperationStatusDto.DECLINED);
+            verify(dailyWithdrawalTracker, times(1)).record(ewallet.getUuid(), 400_000L);
+        }
+
+        @Test
+        void applyAll_whenShardedOperationFails_thenOnlyItMarkedFailed() {
+
+            // given
+            OperationDto failing = createOperationDto(UUID.randomUUID(), null, 5, OperationTypeDto.DEPOSIT);
+            OperationDto deposit = createOperationDto(UUID.randomUUID(), null, 5, OperationTypeDto.DEPOSIT);
+
+            // when
+            when(ewalletShardEngine.isEnabled()).thenReturn(true);
+            when(ewalletShardEngine.deposit(failing)).thenThrow(new IllegalStateException("Flush failed"));
+            when(ewalletShardEngine.deposit(deposit)).thenAnswer(invocation -> {
+                deposit.setOperationStatus(OperationStatusDto.COMPLETED);
+                return deposit;
+            });
+
+            // then
+            List<OperationDto> returnedOperations = ewalletService.applyAll(List.of(failing, deposit));
+
+            assertThat(returnedOperations.get(0).getOperationStatus()).isEqualTo(OperationStatusDto.FAILED);
+            assertThat(returnedOperations.get(1).getOperationStatus()).isEqualTo(OperationStatusDto.COMPLETED);
+            verifyNoInteractions(transactionTemplate);
+        }
+
+        @Test
+        void applyAll_whenTransactionHasNoDestination_thenDeclined() {
+
+            // given
+            OperationDto transaction = createOperationDto(UUID.randomUUID(), null, 5, OperationTypeDto.TRANSACTION);
+            Ewallet ewallet = createEwallet(transaction.getEwalletUuid(), 10);
+
+            // when
+            when(ewalletDao.findAllByIdAndLock(List.of(ewallet.getUuid()))).thenReturn(List.of(ewallet));
+            when(operationService.saveAll(List.of(transaction))).thenReturn(List.of(transaction));
+
+            // then
+            List<OperationDto> returnedOperations = ewalletService.applyAll(List.of(transaction));
+
+            assertThat(returnedOperations.get(0).getOperationStatus()).isEqualTo(OperationStatusDto.DECLINED);
+        }
+
+        @Test
+        void applyAll_whenEwalletIsHot_thenAppliedOneByOne() {
+
+            // given
+            OperationDto deposit = createOperationDto(UUID.randomUUID(), null, 5, OperationTypeDto.DEPOSIT);
+
+            // when
+            when(hotEwalletService.isHot(deposit.getEwalletUuid())).thenReturn(true);
+            when(hotEwalletService.credit(deposit.getEwalletUuid(), 5)).thenReturn(true);
+            when(operationService.save(deposit)).thenReturn(deposit);
+
+            // then
+            List<OperationDto> returnedOperations = ewalletService.applyAll(List.of(deposit));
+
+            assertThat(returnedOperations.get(0).getOperationStatus()).isEqualTo(OperationStatusDto.COMPLETED);
+            verify(ewalletDao, times(1)).findAllByIdAndLock(List.of(deposit.getEwalletUuid()));
+            verify(operationService, never()).saveAll(any());
+        }
+
+        @Test
+        void applyAll_whenEwalletIsHot_thenEveryRowLockedInUuidOrderFirst() {
+
+            // given
+            UUID first = new UUID(0, 1);
+            UUID second = new UUID(0, 2);
+            OperationDto withdrawal = createOperationDto(second, null, 0, OperationTypeDto.WITHDRAWAL);
+            OperationDto deposit = createOperationDto(first, null, 5, OperationTypeDto.DEPOSIT);
+
+            // when
+            when(hotEwalletService.isHot(any())).thenAnswer(invocation -> second.equals(invocation.getArgument(0)));
+            when(ewalletDao.deposit(first, 5)).thenReturn(1);
+            when(operationService.save(deposit)).thenReturn(deposit);
+            when(operationService.recordDeclined(withdrawal)).thenReturn(withdrawal);
+
+            // then
+            ewalletService.applyAll(List.of(withdrawal, deposit));
+
+            InOrder inOrder = inOrder(ewalletDao);
+            inOrder.verify(ewalletDao).findAllByIdAndLock(List.of(first, second));
+            inOrder.verify(ewalletDao).deposit(first, 5);
+        }
+
+        private static OperationDto createOperationDto(UUID ewalletUuid, UUID destinationWalletUuid, long amount, OperationTypeDto operationTypeDto) {
+            return OperationDto.builder()
+                    .uuid(UUID.randomUUID())
+                    .amount(amount)
+                    .operationType(operationTypeDto)
+                    .ewalletUuid(ewalletUuid)
+                    .destinationWalletUuid(destinationWalletUuid)
+                    .build();
+        }
+    }
+
     private void verifyTransactionWallets(OperationDto operationDto) {
         ArgumentCaptor<List> captor = ArgumentCaptor.forClass(List.class);
         verify(ewalletDao, times(1)).saveAll(captor.capture());
@@ -487,10 +902,10 @@ class EwalletServiceUTest {
         Ewallet savedDestinationEwallet = capturedEwallet.stream().filter(wallet -> wallet.getUuid().equals(operationDto.getDestinationWalletUuid())).findFirst().get();
 
         assertThat(savedSourceEwallet.getUuid()).isEqualTo(savedSourceEwallet.getUuid());
-        assertThat(savedSourceEwallet.getBalance()).isEqualTo(BigDecimal.valueOf(1).setScale(2));
+        assertThat(savedSourceEwallet.getBalance()).isEqualTo(1);
         assertThat(savedSourceEwallet.getCustomerUuid()).isEqualTo(savedSourceEwallet.getCustomerUuid());
         assertThat(savedDestinationEwallet.getUuid()).isEqualTo(savedDestinationEwallet.getUuid());
-        assertThat(savedDestinationEwallet.getBalance()).isEqualTo(BigDecimal.valueOf(3).setScale(2));
+        assertThat(savedDestinationEwallet.getBalance()).isEqualTo(3);
         assertThat(savedDestinationEwallet.getCustomerUuid()).isEqualTo(savedDestinationEwallet.getCustomerUuid());
     }
 
@@ -514,7 +929,7 @@ class EwalletServiceUTest {
 
         Ewallet capturedEwallet = captor.getValue();
         assertThat(capturedEwallet.getUuid()).isEqualTo(ewallet.getUuid());
-        assertThat(capturedEwallet.getBalance()).isEqualTo(BigDecimal.valueOf(balance).setScale(2));
+        assertThat(capturedEwallet.getBalance()).isEqualTo(balance);
         assertThat(capturedEwallet.getCustomerUuid()).isEqualTo(ewallet.getCustomerUuid());
     }
 }
@@ -0,0 +1,131 @@
+package ewallet.service.ewallet;
+
+import ewallet.dto.operation.internal.OperationDto;
+import ewallet.dto.operation.internal.OperationStatusDto;
+import ewallet.dto.operation.internal.OperationTypeDto;
+import ewallet.entity.ewallet.Ewallet;
+import ewallet.repository.ewallet.EwalletDao;
+import ewallet.service.ewallet.hot.HotEwalletService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static ewallet.TestHelper.createEwallet;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+@SpringBootTest
+class EwalletTransactionConcurrencyITest {
+
+    private static final int THREADS = 8;
+
+    private static final int TRANSACTIONS_PER_THREAD = 50;
+
+    @Autowired
+    private EwalletService ewalletService;
+
+    @Autowired
+    private EwalletDao ewalletDao;
+
+    @Autowired
+    private HotEwalletService hotEwalletService;
+
+    @Test
+    void makeTransaction_whenOppositeTransactionsRunConcurrently_thenNoDeadlock() throws Exception {
+
+        // given
+        Ewallet firstEwallet = ewalletDao.save(createEwallet(UUID.randomUUID(), 1000));
+        Ewallet secondEwallet = ewalletDao.save(createEwallet(UUID.randomUUID(), 1000));
+
+        // when
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<OperationDto>> results = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            boolean forward = thread % 2 == 0;
+            UUID sourceUuid = forward ? firstEwallet.getUuid() : secondEwallet.getUuid();
+            UUID destinationUuid = forward ? secondEwallet.getUuid() : firstEwallet.getUuid();
+            for (int i = 0; i < TRANSACTIONS_PER_THREAD; i++) {
+                results.add(executor.submit(() -> ewalletService.makeTransaction(createOperationDto(sourceUuid, destinationUuid))));
+            }
+        }
+        executor.shutdown();
+
+        // then
+        assertThat(executor.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+        for (Future<OperationDto> result : results) {
+            assertThat(result.get().getOperationStatus()).isEqualTo(OperationStatusDto.COMPLETED);
+        }
+
+        long firstBalance = ewalletDao.findById(firstEwallet.getUuid()).orElseThrow().getBalance();
+        long secondBalance = ewalletDao.findById(secondEwallet.getUuid()).orElseThrow().getBalance();
+        assertThat(firstBalance).isEqualTo(1000);
+        assertThat(secondBalance).isEqualTo(1000);
+    }
+
+    @Test
+    void makeTransaction_whenOppositeTransactionsBetweenHotEwalletsRunConcurrently_thenNoDeadlock() throws Exception {
+
+        // given
+        Ewallet firstEwallet = ewalletDao.save(createEwallet(UUID.randomUUID(), 10));
+        Ewallet secondEwallet = ewalletDao.save(createEwallet(UUID.randomUUID(), 10));
+        hotEwalletService.markHot(firstEwallet.getUuid());
+        hotEwalletService.markHot(secondEwallet.getUuid());
+
+        // when
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<OperationDto>> forwardResults = new ArrayList<>();
+        List<Future<OperationDto>> backwardResults = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            boolean forward = thread % 2 == 0;
+            UUID sourceUuid = forward ? firstEwallet.getUuid() : secondEwallet.getUuid();
+            UUID destinationUuid = forward ? secondEwallet.getUuid() : firstEwallet.getUuid();
+            for (int i = 0; i < TRANSACTIONS_PER_THREAD; i++) {
+                (forward ? forwardResults : backwardResults).add(executor.submit(() -> ewalletService.makeTransaction(createOperationDto(sourceUuid, destinationUuid))));
+            }
+        }
+        executor.shutdown();
+
+        // then
+        assertThat(executor.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+        long forwardCompleted = completedCount(forwardResults);
+        long backwardCompleted = completedCount(backwardResults);
+
+        assertThat(totalBalance(firstEwallet.getUuid())).isEqualTo(10 - forwardCompleted + backwardCompleted);
+        assertThat(totalBalance(secondEwallet.getUuid())).isEqualTo(10 + forwardCompleted - backwardCompleted);
+    }
+
+    // Every operation ends COMPLETED or, once its source ran dry, DECLINED; a deadlock would surface as an exception here
+    private static long completedCount(List<Future<OperationDto>> results) throws Exception {
+
+        long completed = 0;
+        for (Future<OperationDto> result : results) {
+            if (result.get().getOperationStatus() == OperationStatusDto.COMPLETED) {
+                completed++;
+            }
+        }
+        return completed;
+    }
+
+    private long totalBalance(UUID uuid) {
+
+        return ewalletDao.findById(uuid).orElseThrow().getBalance() + hotEwalletService.stripesBalance(uuid);
+    }
+
+    private static OperationDto createOperationDto(UUID sourceUuid, UUID destinationUuid) {
+
+        return OperationDto.builder()
+                .amount(1)
+                .operationType(OperationTypeDto.TRANSACTION)
+                .description("transaction")
+                .ewalletUuid(sourceUuid)
+                .destinationWalletUuid(destinationUuid)
+                .build();
+    }
+}
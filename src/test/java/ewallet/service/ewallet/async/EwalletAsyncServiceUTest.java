@@ -0,0 +1,199 @@
+package ewallet.service.ewallet.async;
+
+import ewallet.config.EwalletProperties;
+import ewallet.dto.operation.internal.OperationDto;
+import ewallet.dto.operation.internal.OperationStatusDto;
+import ewallet.dto.operation.internal.OperationTypeDto;
+import ewallet.service.operation.OperationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.function.UnaryOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EwalletAsyncServiceUTest {
+
+    private final EwalletProperties properties = new EwalletProperties();
+
+    private final CountDownLatch laneReleased = new CountDownLatch(1);
+
+    @Mock
+    private OperationService operationService;
+
+    private EwalletAsyncService ewalletAsyncService;
+
+    @BeforeEach
+    void setUp() {
+
+        properties.getAsync().setEnabled(true);
+        properties.getAsync().setLanes(2);
+        properties.getAsync().setQueueCapacity(1);
+        ewalletAsyncService = new EwalletAsyncService(properties, operationService, new SimpleMeterRegistry());
+        ewalletAsyncService.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+
+        laneReleased.countDown();
+        ewalletAsyncService.stop();
+    }
+
+    @Test
+    void submit_success() throws Exception {
+
+        // given
+        OperationDto operation = createOperationDto(UUID.randomUUID());
+
+        // when
+        OperationDto pendingOperation = ewalletAsyncService.submit(operation, complete());
+
+        // then
+        assertThat(pendingOperation.getUuid()).isNotNull();
+        assertThat(pendingOperation.getOperationStatus()).isEqualTo(OperationStatusDto.PENDING);
+
+        OperationDto completedOperation = ewalletAsyncService.find(pendingOperation.getUuid(), 1000).orElseThrow().get();
+        assertThat(completedOperation.getUuid()).isEqualTo(pendingOperation.getUuid());
+        assertThat(completedOperation.getOperationStatus()).isEqualTo(OperationStatusDto.COMPLETED);
+    }
+
+    @Test
+    void submit_whenSameEwallet_thenAppliedInArrivalOrder() throws Exception {
+
+        // given
+        UUID ewalletUuid = UUID.randomUUID();
+        List<UUID> applied = new CopyOnWriteArrayList<>();
+        UnaryOperator<OperationDto> action = operation -> {
+            applied.add(operation.getUuid());
+            return complete().apply(operation);
+        };
+        properties.getAsync().setQueueCapacity(10);
+        ewalletAsyncService.stop();
+        ewalletAsyncService.start();
+
+        // when
+        List<UUID> submitted = List.of(
+                ewalletAsyncService.submit(createOperationDto(ewalletUuid), action).getUuid(),
+                ewalletAsyncService.submit(createOperationDto(ewalletUuid), action).getUuid(),
+                ewalletAsyncService.submit(createOperationDto(ewalletUuid), action).getUuid());
+
+        // then
+        ewalletAsyncService.find(submitted.get(2), 1000).orElseThrow().get();
+        assertThat(applied).isEqualTo(submitted);
+    }
+
+    @Test
+    void find_whenStillPending_thenPendingAfterWait() throws Exception {
+
+        // given
+        OperationDto pendingOperation = ewalletAsyncService.submit(createOperationDto(UUID.randomUUID()), blockUntilReleased());
+
+        // when
+        OperationDto foundOperation = ewalletAsyncService.find(pendingOperation.getUuid(), 50).orElseThrow().get();
+
+        // then
+        assertThat(foundOperation.getOperationStatus()).isEqualTo(OperationStatusDto.PENDING);
+    }
+
+    @Test
+    void find_whenNotCached_thenLookedUpInDatabase() throws Exception {
+
+        // given
+        OperationDto operation = createOperationDto(UUID.randomUUID());
+        operation.setUuid(UUID.randomUUID());
+        operation.setOperationStatus(OperationStatusDto.DECLINED);
+
+        // when
+        when(operationService.find(operation.getUuid())).thenReturn(Optional.of(operation));
+
+        // then
+        assertThat(ewalletAsyncService.find(operation.getUuid(), 0).orElseThrow().get()).isEqualTo(operation);
+    }
+
+    @Test
+    void submit_whenActionFails_thenFailedWithServerError() {
+
+        // given
+        OperationDto operation = createOperationDto(UUID.randomUUID());
+
+        // when
+        OperationDto pendingOperation = ewalletAsyncService.submit(operation, failing -> {
+            throw new IllegalStateException();
+        });
+
+        // then
+        ExecutionException exception = assertThrows(ExecutionException.class,
+                () -> ewalletAsyncService.find(pendingOperation.getUuid(), 1000).orElseThrow().get());
+        assertThat(exception.getCause()).isInstanceOf(ResponseStatusException.class);
+        assertThat(((ResponseStatusException) exception.getCause()).getStatusCode().value()).isEqualTo(500);
+    }
+
+    @Test
+    void submit_whenLaneQueueFull_thenServiceUnavailable() {
+
+        // given
+        UUID ewalletUuid = UUID.randomUUID();
+        CountDownLatch started = new CountDownLatch(1);
+        ewalletAsyncService.submit(createOperationDto(ewalletUuid), operation -> {
+            started.countDown();
+            return blockUntilReleased().apply(operation);
+        });
+        awaitQuietly(started);
+        ewalletAsyncService.submit(createOperationDto(ewalletUuid), complete());
+
+        // then
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> ewalletAsyncService.submit(createOperationDto(ewalletUuid), complete()));
+        assertThat(exception.getStatusCode().value()).isEqualTo(503);
+    }
+
+    private UnaryOperator<OperationDto> blockUntilReleased() {
+
+        return operation -> {
+            awaitQuietly(laneReleased);
+            return complete().apply(operation);
+        };
+    }
+
+    private static UnaryOperator<OperationDto> complete() {
+
+        return operation -> {
+            operation.setOperationStatus(OperationStatusDto.COMPLETED);
+            return operation;
+        };
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static OperationDto createOperationDto(UUID ewalletUuid) {
+
+        return OperationDto.builder()
+                .amount(100)
+                .operationType(OperationTypeDto.DEPOSIT)
+                .ewalletUuid(ewalletUuid)
+                .build();
+    }
+}
@@ -0,0 +1,96 @@
+package ewallet.service.ewallet.batch;
+
+import ewallet.config.EwalletProperties;
+import ewallet.dto.operation.internal.OperationDto;
+import ewallet.dto.operation.internal.OperationStatusDto;
+import ewallet.dto.operation.internal.OperationTypeDto;
+import ewallet.service.ewallet.EwalletService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EwalletBatchServiceUTest {
+
+    private final EwalletProperties properties = new EwalletProperties();
+
+    @Mock
+    private EwalletService ewalletService;
+
+    private EwalletBatchService ewalletBatchService;
+
+    @BeforeEach
+    void setUp() {
+
+        properties.getBatch().setGroupSize(2);
+        ewalletBatchService = new EwalletBatchService(properties, ewalletService);
+    }
+
+    @Test
+    void executeAll_success() {
+
+        // given
+        UUID firstUuid = UUID.randomUUID();
+        UUID secondUuid = UUID.randomUUID();
+        OperationDto first = createOperationDto(firstUuid);
+        OperationDto second = createOperationDto(secondUuid);
+        OperationDto third = createOperationDto(firstUuid);
+        OperationDto fourth = createOperationDto(firstUuid);
+
+        // when
+        when(ewalletService.applyAll(any())).thenAnswer(invocation -> {
+            List<OperationDto> operations = invocation.getArgument(0);
+            operations.forEach(operation -> operation.setOperationStatus(OperationStatusDto.COMPLETED));
+            return operations;
+        });
+
+        // then
+        List<OperationDto> returnedOperations = ewalletBatchService.executeAll(List.of(first, second, third, fourth));
+
+        assertThat(returnedOperations).containsExactly(first, second, third, fourth);
+        verify(ewalletService, times(1)).applyAll(List.of(first, third));
+        verify(ewalletService, times(1)).applyAll(List.of(fourth));
+        verify(ewalletService, times(1)).applyAll(List.of(second));
+    }
+
+    @Test
+    void executeAll_whenGroupFails_thenEachOperationRetriedAlone() {
+
+        // given
+        UUID ewalletUuid = UUID.randomUUID();
+        OperationDto first = createOperationDto(ewalletUuid);
+        OperationDto second = createOperationDto(ewalletUuid);
+
+        // when
+        when(ewalletService.applyAll(List.of(first, second))).thenThrow(new IllegalStateException("Group failed"));
+        when(ewalletService.applyAll(List.of(first))).thenAnswer(invocation -> {
+            first.setOperationStatus(OperationStatusDto.COMPLETED);
+            return List.of(first);
+        });
+        when(ewalletService.applyAll(List.of(second))).thenThrow(new IllegalStateException("Operation failed"));
+
+        // then
+        List<OperationDto> returnedOperations = ewalletBatchService.executeAll(List.of(first, second));
+
+        assertThat(returnedOperations).containsExactly(first, second);
+        assertThat(first.getOperationStatus()).isEqualTo(OperationStatusDto.COMPLETED);
+        assertThat(second.getOperationStatus()).isEqualTo(OperationStatusDto.FAILED);
+    }
+
+    private static OperationDto createOperationDto(UUID ewalletUuid) {
+        return OperationDto.builder()
+                .uuid(UUID.randomUUID())
+                .amount(1)
+                .operationType(OperationTypeDto.DEPOSIT)
+                .ewalletUuid(ewalletUuid)
+                .build();
+    }
+}
@@ -0,0 +1,123 @@
+package ewallet.service.ewallet.cache;
+
+import ewallet.config.EwalletProperties;
+import ewallet.dto.ewallet.internal.EwalletDto;
+import ewallet.entity.ewallet.Ewallet;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+class EwalletBalanceCacheUTest {
+
+    private EwalletBalanceCache ewalletBalanceCache;
+
+    @BeforeEach
+    void setUp() {
+
+        ewalletBalanceCache = new EwalletBalanceCache(new EwalletProperties(), new SimpleMeterRegistry());
+        ewalletBalanceCache.start();
+    }
+
+    @Test
+    void get_whenCached_thenNotLoadedAgain() {
+
+        // given
+        EwalletDto ewallet = createEwalletDto(UUID.randomUUID(), 100, 1);
+        AtomicInteger loads = new AtomicInteger();
+
+        // when
+        ewalletBalanceCache.get(ewallet.getUuid(), () -> {
+            loads.incrementAndGet();
+            return Optional.of(ewallet);
+        });
+
+        // then
+        Optional<EwalletDto> returnedEwallet = ewalletBalanceCache.get(ewallet.getUuid(), Optional::empty);
+
+        assertThat(returnedEwallet.get().getBalance()).isEqualTo(100);
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void get_whenEvictedDuringLoad_thenNotCached() {
+
+        // given
+        UUID uuid = UUID.randomUUID();
+
+        // when
+        ewalletBalanceCache.get(uuid, () -> {
+            ewalletBalanceCache.evictAfterCommit(List.of(uuid));
+            return Optional.of(createEwalletDto(uuid, 100, 1));
+        });
+
+        // then
+        Optional<EwalletDto> returnedEwallet = ewalletBalanceCache.get(uuid, () -> Optional.of(createEwalletDto(uuid, 50, 2)));
+
+        assertThat(returnedEwallet.get().getBalance()).isEqualTo(50);
+    }
+
+    @Test
+    void putAfterCommit_whenOlderVersion_thenNewerKept() {
+
+        // given
+        UUID uuid = UUID.randomUUID();
+        ewalletBalanceCache.putAfterCommit(List.of(createEwallet(uuid, 50, 2)));
+
+        // when
+        ewalletBalanceCache.putAfterCommit(List.of(createEwallet(uuid, 100, 1)));
+
+        // then
+        Optional<EwalletDto> returnedEwallet = ewalletBalanceCache.get(uuid, Optional::empty);
+
+        assertThat(returnedEwallet.get().getBalance()).isEqualTo(50);
+        assertThat(returnedEwallet.get().getVersion()).isEqualTo(2L);
+    }
+
+    @Test
+    void evictAfterCommit_whenInTransaction_thenEvictedOnlyAfterCommit() {
+
+        // given
+        UUID uuid = UUID.randomUUID();
+        ewalletBalanceCache.putAfterCommit(List.of(createEwallet(uuid, 100, 1)));
+        TransactionSynchronizationManager.initSynchronization();
+
+        try {
+            // when
+            ewalletBalanceCache.evictAfterCommit(List.of(uuid));
+
+            // then
+            assertThat(ewalletBalanceCache.get(uuid, Optional::empty).isPresent()).isTrue();
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertThat(ewalletBalanceCache.get(uuid, Optional::empty).isPresent()).isFalse();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static EwalletDto createEwalletDto(UUID uuid, long balance, long version) {
+        return EwalletDto.builder()
+                .uuid(uuid)
+                .balance(balance)
+                .customerUuid(UUID.randomUUID())
+                .version(version)
+                .build();
+    }
+
+    private static Ewallet createEwallet(UUID uuid, long balance, long version) {
+        return Ewallet.builder()
+                .uuid(uuid)
+                .balance(balance)
+                .customerUuid(UUID.randomUUID())
+                .version(version)
+                .build();
+    }
+}
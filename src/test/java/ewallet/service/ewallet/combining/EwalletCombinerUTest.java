@@ -0,0 +1,222 @@
+package ewallet.service.ewallet.combining;
+
+import ewallet.config.EwalletProperties;
+import ewallet.dto.operation.internal.OperationDto;
+import ewallet.dto.operation.internal.OperationStatusDto;
+import ewallet.dto.operation.internal.OperationTypeDto;
+import ewallet.service.ewallet.EwalletService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EwalletCombinerUTest {
+
+    private static final UUID EWALLET_UUID = UUID.randomUUID();
+
+    private final EwalletProperties properties = new EwalletProperties();
+
+    @Mock
+    private EwalletService ewalletService;
+
+    private EwalletCombiner ewalletCombiner;
+
+    @BeforeEach
+    void setUp() {
+
+        properties.getCombining().setEnabled(true);
+        ewalletCombiner = new EwalletCombiner(properties, ewalletService, new SimpleMeterRegistry());
+        ewalletCombiner.start();
+    }
+
+    @Test
+    void apply_whenAlone_thenAppliedDirectly() {
+
+        // given
+        OperationDto operation = createOperationDto(100);
+
+        // when
+        OperationDto appliedOperation = ewalletCombiner.apply(operation, complete());
+
+        // then
+        assertThat(appliedOperation.getOperationStatus()).isEqualTo(OperationStatusDto.COMPLETED);
+        verifyNoInteractions(ewalletService);
+    }
+
+    @Test
+    void apply_whenQueuedBehindLeader_thenAppliedAsOneGroupInOrder() throws Exception {
+
+        // given
+        List<OperationDto> queuedOperations = List.of(createOperationDto(2), createOperationDto(3), createOperationDto(4));
+        when(ewalletService.applyAll(any())).thenAnswer(invocation -> {
+            List<OperationDto> operations = invocation.getArgument(0);
+            operations.forEach(operation -> operation.setOperationStatus(OperationStatusDto.COMPLETED));
+            return operations;
+        });
+
+        // when
+        Map<OperationDto, Object> results = applyBehindLeader(queuedOperations, complete());
+
+        // then
+        assertThat(results).hasSize(4);
+        results.values().forEach(operation -> assertThat(((OperationDto) operation).getOperationStatus()).isEqualTo(OperationStatusDto.COMPLETED));
+
+        ArgumentCaptor<List<OperationDto>> captor = ArgumentCaptor.forClass(List.class);
+        verify(ewalletService, times(1)).applyAll(captor.capture());
+        assertThat(captor.getValue()).containsExactlyElementsOf(queuedOperations);
+    }
+
+    @Test
+    void apply_whenGroupFails_thenEachWaiterRetriedAlone() throws Exception {
+
+        // given
+        OperationDto failingOperation = createOperationDto(3);
+        List<OperationDto> queuedOperations = List.of(createOperationDto(2), failingOperation, createOperationDto(4));
+        IllegalStateException failure = new IllegalStateException();
+        UnaryOperator<OperationDto> action = operation -> {
+            if (operation == failingOperation) {
+                throw failure;
+            }
+            return complete().apply(operation);
+        };
+        when(ewalletService.applyAll(any())).thenThrow(new IllegalStateException());
+
+        // when
+        Map<OperationDto, Object> results = applyBehindLeader(queuedOperations, action);
+
+        // then
+        assertThat(results).hasSize(4);
+        assertThat(results.get(failingOperation)).isSameAs(failure);
+        assertThat(((OperationDto) results.get(queuedOperations.get(0))).getOperationStatus()).isEqualTo(OperationStatusDto.COMPLETED);
+        assertThat(((OperationDto) results.get(queuedOperations.get(2))).getOperationStatus()).isEqualTo(OperationStatusDto.COMPLETED);
+    }
+
+    @Test
+    void apply_whenGroupMarksOperationFailed_thenOnlyItRetriedAlone() throws Exception {
+
+        // given
+        OperationDto failedOperation = createOperationDto(3);
+        List<OperationDto> queuedOperations = List.of(createOperationDto(2), failedOperation);
+        List<OperationDto> appliedAlone = new ArrayList<>();
+        UnaryOperator<OperationDto> action = operation -> {
+            appliedAlone.add(operation);
+            return complete().apply(operation);
+        };
+        when(ewalletService.applyAll(any())).thenAnswer(invocation -> {
+            List<OperationDto> operations = invocation.getArgument(0);
+            operations.forEach(operation -> operation.setOperationStatus(operation == failedOperation ? OperationStatusDto.FAILED : OperationStatusDto.COMPLETED));
+            return operations;
+        });
+
+        // when
+        Map<OperationDto, Object> results = applyBehindLeader(queuedOperations, action);
+
+        // then
+        assertThat(results).hasSize(3);
+        assertThat(((OperationDto) results.get(failedOperation)).getOperationStatus()).isEqualTo(OperationStatusDto.COMPLETED);
+        assertThat(appliedAlone).containsExactly(failedOperation);
+    }
+
+    @Test
+    void apply_whenActionFails_thenFailureThrown() {
+
+        // given
+        OperationDto operation = createOperationDto(100);
+
+        // then
+        assertThrows(IllegalStateException.class, () -> ewalletCombiner.apply(operation, failing -> {
+            throw new IllegalStateException();
+        }));
+    }
+
+    // The leader blocks inside its own action, so every queued operation lands in the next group; maps each to its result or failure
+    private Map<OperationDto, Object> applyBehindLeader(List<OperationDto> queuedOperations, UnaryOperator<OperationDto> action) throws Exception {
+
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch leaderReleased = new CountDownLatch(1);
+        UnaryOperator<OperationDto> blocking = operation -> {
+            leaderStarted.countDown();
+            awaitQuietly(leaderReleased);
+            return complete().apply(operation);
+        };
+
+        Map<OperationDto, Object> results = new ConcurrentHashMap<>();
+        OperationDto leaderOperation = createOperationDto(1);
+        Thread leader = start(() -> results.put(leaderOperation, ewalletCombiner.apply(leaderOperation, blocking)));
+        assertThat(leaderStarted.await(1, TimeUnit.SECONDS)).isTrue();
+
+        List<Thread> queued = new ArrayList<>();
+        for (OperationDto operation : queuedOperations) {
+            Thread thread = start(() -> {
+                try {
+                    results.put(operation, ewalletCombiner.apply(operation, action));
+                } catch (RuntimeException e) {
+                    results.put(operation, e);
+                }
+            });
+            // A waiter only parks once it is queued, so this keeps the arrival order
+            while (thread.getState() != Thread.State.TIMED_WAITING) {
+                Thread.onSpinWait();
+            }
+            queued.add(thread);
+        }
+        leaderReleased.countDown();
+
+        leader.join(1000);
+        for (Thread thread : queued) {
+            thread.join(1000);
+        }
+        return results;
+    }
+
+    private static Thread start(Runnable runnable) {
+
+        Thread thread = new Thread(runnable);
+        thread.start();
+        return thread;
+    }
+
+    private static UnaryOperator<OperationDto> complete() {
+
+        return operation -> {
+            operation.setOperationStatus(OperationStatusDto.COMPLETED);
+            return operation;
+        };
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static OperationDto createOperationDto(long amount) {
+
+        return OperationDto.builder()
+                .amount(amount)
+                .operationType(OperationTypeDto.DEPOSIT)
+                .ewalletUuid(EWALLET_UUID)
+                .build();
+    }
+}
@@ -0,0 +1,183 @@
+package ewallet.service.ewallet.groupcommit;
+
+import ewallet.config.EwalletProperties;
+import ewallet.dto.operation.internal.OperationDto;
+import ewallet.dto.operation.internal.OperationStatusDto;
+import ewallet.dto.operation.internal.OperationTypeDto;
+import ewallet.service.ewallet.EwalletService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class EwalletGroupCommitterUTest {
+
+    private final EwalletProperties properties = new EwalletProperties();
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Mock
+    private EwalletService ewalletService;
+
+    private EwalletGroupCommitter ewalletGroupCommitter;
+
+    @BeforeEach
+    void setUp() {
+
+        properties.getGroupCommit().setEnabled(true);
+        properties.getGroupCommit().setStripes(1);
+        ewalletGroupCommitter = new EwalletGroupCommitter(properties, ewalletService, meterRegistry);
+        ewalletGroupCommitter.start();
+    }
+
+    @Test
+    void apply_whenAlone_thenAppliedWithItsOwnAction() {
+
+        // given
+        OperationDto operation = createOperationDto();
+
+        // when
+        OperationDto appliedOperation = ewalletGroupCommitter.apply(operation, complete());
+
+        // then
+        assertThat(appliedOperation.getOperationStatus()).isEqualTo(OperationStatusDto.COMPLETED);
+        verifyNoInteractions(ewalletService);
+        assertThat(meterRegistry.counter("ewallet.group.commit.committed").count()).isEqualTo(1);
+    }
+
+    @Test
+    void apply_whenStripeBusy_thenOperationsOfOtherEwalletsShareOneApplyAll() throws InterruptedException {
+
+        // given
+        List<OperationDto> queuedOperations = List.of(createOperationDto(), createOperationDto(), createOperationDto());
+        when(ewalletService.applyAll(any())).thenAnswer(invocation -> {
+            List<OperationDto> operations = invocation.getArgument(0);
+            operations.forEach(operation -> operation.setOperationStatus(OperationStatusDto.COMPLETED));
+            return operations;
+        });
+
+        // when
+        Map<OperationDto, Object> results = applyBehindLeader(queuedOperations, complete());
+
+        // then
+        assertThat(results).hasSize(4);
+        verify(ewalletService, times(1)).applyAll(queuedOperations);
+        assertThat(meterRegistry.counter("ewallet.group.commit.committed").count()).isEqualTo(4);
+    }
+
+    @Test
+    void apply_whenGroupFails_thenEachRetriedAlone() throws InterruptedException {
+
+        // given
+        OperationDto failing = createOperationDto();
+        OperationDto succeeding = createOperationDto();
+        when(ewalletService.applyAll(any())).thenThrow(IllegalStateException.class);
+        UnaryOperator<OperationDto> action = operation -> {
+            if (operation == failing) {
+                throw new IllegalArgumentException();
+            }
+            return complete().apply(operation);
+        };
+
+        // when
+        Map<OperationDto, Object> results = applyBehindLeader(List.of(failing, succeeding), action);
+
+        // then
+        assertThat(results.get(failing)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(((OperationDto) results.get(succeeding)).getOperationStatus()).isEqualTo(OperationStatusDto.COMPLETED);
+        assertThat(meterRegistry.counter("ewallet.group.commit.group.failures").count()).isEqualTo(1);
+    }
+
+    // The leader blocks inside its own action, so every queued operation lands in the next group; maps each to its result or failure
+    private Map<OperationDto, Object> applyBehindLeader(List<OperationDto> queuedOperations, UnaryOperator<OperationDto> action) throws InterruptedException {
+
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch leaderReleased = new CountDownLatch(1);
+        UnaryOperator<OperationDto> blocking = operation -> {
+            leaderStarted.countDown();
+            awaitQuietly(leaderReleased);
+            return complete().apply(operation);
+        };
+
+        Map<OperationDto, Object> results = new ConcurrentHashMap<>();
+        OperationDto leaderOperation = createOperationDto();
+        Thread leader = start(() -> results.put(leaderOperation, ewalletGroupCommitter.apply(leaderOperation, blocking)));
+        assertThat(leaderStarted.await(1, TimeUnit.SECONDS)).isTrue();
+
+        List<Thread> queued = new ArrayList<>();
+        for (OperationDto operation : queuedOperations) {
+            Thread thread = start(() -> {
+                try {
+                    results.put(operation, ewalletGroupCommitter.apply(operation, action));
+                } catch (RuntimeException e) {
+                    results.put(operation, e);
+                }
+            });
+            // A waiter only parks once it is queued, so this keeps the arrival order
+            while (thread.getState() != Thread.State.TIMED_WAITING) {
+                Thread.onSpinWait();
+            }
+            queued.add(thread);
+        }
+        leaderReleased.countDown();
+
+        leader.join(1000);
+        for (Thread thread : queued) {
+            thread.join(1000);
+        }
+        return results;
+    }
+
+    private static UnaryOperator<OperationDto> complete() {
+
+        return operation -> {
+            operation.setOperationStatus(OperationStatusDto.COMPLETED);
+            return operation;
+        };
+    }
+
+    private static OperationDto createOperationDto() {
+
+        return OperationDto.builder()
+                .amount(100)
+                .operationType(OperationTypeDto.DEPOSIT)
+                .ewalletUuid(UUID.randomUUID())
+                .build();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+
+        try {
+            latch.await(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Thread start(Runnable runnable) {
+
+        Thread thread = new Thread(runnable);
+        thread.start();
+        return thread;
+    }
+}
@@ -0,0 +1,179 @@
+package ewallet.service.ewallet.hot;
+
+import ewallet.config.EwalletProperties;
+import ewallet.dto.ewallet.internal.EwalletDto;
+import ewallet.entity.ewallet.Ewallet;
+import ewallet.entity.ewallet.EwalletStripe;
+import ewallet.repository.ewallet.EwalletDao;
+import ewallet.repository.ewallet.EwalletStripeDao;
+import ewallet.service.ewallet.shard.EwalletShardEngine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+import static ewallet.TestHelper.createEwallet;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HotEwalletServiceUTest {
+
+    @Mock
+    private EwalletDao ewalletDao;
+
+    @Mock
+    private EwalletStripeDao ewalletStripeDao;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private EwalletShardEngine ewalletShardEngine;
+
+    @Captor
+    private ArgumentCaptor<List<EwalletStripe>> stripesCaptor;
+
+    private final EwalletProperties properties = new EwalletProperties();
+
+    private HotEwalletService hotEwalletService;
+
+    @BeforeEach
+    void setUp() {
+
+        properties.getHot().setStripes(4);
+        hotEwalletService = new HotEwalletService(properties, ewalletDao, ewalletStripeDao, transactionTemplate, ewalletShardEngine);
+    }
+
+    @Test
+    void markHot_success() {
+
+        // given
+        Ewallet ewallet = createEwallet(UUID.randomUUID(), 1);
+
+        // when
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(ewalletDao.findByIdAndLock(ewallet.getUuid())).thenReturn(Optional.of(ewallet));
+
+        // then
+        assertThat(hotEwalletService.markHot(ewallet.getUuid())).isTrue();
+        assertThat(hotEwalletService.isHot(ewallet.getUuid())).isTrue();
+
+        verify(ewalletStripeDao, times(1)).saveAll(stripesCaptor.capture());
+        assertThat(stripesCaptor.getValue().size()).isEqualTo(4);
+        assertThat(ewallet.getStripes()).isEqualTo(4);
+    }
+
+    @Test
+    void markHot_whenEwalletDoesNotExist_thenFalse() {
+
+        // given
+        UUID uuid = UUID.randomUUID();
+
+        // when
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+
+        // then
+        assertThat(hotEwalletService.markHot(uuid)).isFalse();
+        assertThat(hotEwalletService.isHot(uuid)).isFalse();
+        verifyNoInteractions(ewalletStripeDao);
+    }
+
+    @Test
+    void borrow_success() {
+
+        // given
+        EwalletDto ewalletDto = EwalletDto.builder().uuid(UUID.randomUUID()).balance(1).build();
+        EwalletStripe firstStripe = createStripe(ewalletDto.getUuid(), 0, 2);
+        EwalletStripe secondStripe = createStripe(ewalletDto.getUuid(), 1, 5);
+
+        // when
+        when(ewalletStripeDao.findAllByEwalletUuidAndLock(ewalletDto.getUuid())).thenReturn(List.of(firstStripe, secondStripe));
+
+        // then
+        hotEwalletService.borrow(ewalletDto, 5);
+
+        assertThat(ewalletDto.getBalance()).isEqualTo(5);
+        assertThat(firstStripe.getBalance()).isEqualTo(0);
+        assertThat(secondStripe.getBalance()).isEqualTo(3);
+    }
+
+    @Test
+    void sweep_success() {
+
+        // given
+        Ewallet ewallet = createEwallet(UUID.randomUUID(), 1);
+        ewallet.setStripes(2);
+        EwalletStripe firstStripe = createStripe(ewallet.getUuid(), 0, 2);
+        EwalletStripe secondStripe = createStripe(ewallet.getUuid(), 1, 3);
+
+        // when
+        when(ewalletDao.findAllStriped()).thenReturn(List.of(ewallet));
+        when(ewalletDao.findByIdAndLock(ewallet.getUuid())).thenReturn(Optional.of(ewallet));
+        when(ewalletStripeDao.findAllByEwalletUuidAndLock(ewallet.getUuid())).thenReturn(List.of(firstStripe, secondStripe));
+        doAnswer(invocation -> {
+            invocation.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        // then
+        hotEwalletService.loadHotEwallets();
+        hotEwalletService.sweep();
+
+        verify(ewalletDao, times(1)).deposit(ewallet.getUuid(), 5);
+        verify(ewalletDao, never()).save(any());
+        assertThat(firstStripe.getBalance()).isEqualTo(0);
+        assertThat(secondStripe.getBalance()).isEqualTo(0);
+    }
+
+    @Test
+    void sweep_whenShardEngineEnabled_thenConsolidatedThroughEngine() {
+
+        // given
+        Ewallet ewallet = createEwallet(UUID.randomUUID(), 1);
+        ewallet.setStripes(2);
+        EwalletStripe firstStripe = createStripe(ewallet.getUuid(), 0, 2);
+        EwalletStripe secondStripe = createStripe(ewallet.getUuid(), 1, 3);
+
+        // when
+        when(ewalletDao.findAllStriped()).thenReturn(List.of(ewallet));
+        when(ewalletShardEngine.isEnabled()).thenReturn(true);
+        when(ewalletStripeDao.sumBalanceByEwalletUuid(ewallet.getUuid())).thenReturn(5L);
+        when(ewalletStripeDao.findAllByEwalletUuidAndLock(ewallet.getUuid())).thenReturn(List.of(firstStripe, secondStripe));
+        when(ewalletShardEngine.consolidate(eq(ewallet.getUuid()), any()))
+                .thenAnswer(invocation -> invocation.<ToLongFunction<UUID>>getArgument(1).applyAsLong(ewallet.getUuid()));
+
+        // then
+        hotEwalletService.loadHotEwallets();
+        hotEwalletService.sweep();
+
+        verify(ewalletShardEngine, times(1)).consolidate(eq(ewallet.getUuid()), any());
+        verify(ewalletDao, never()).save(any());
+        verifyNoInteractions(transactionTemplate);
+        assertThat(firstStripe.getBalance()).isEqualTo(0);
+        assertThat(secondStripe.getBalance()).isEqualTo(0);
+    }
+
+    private static EwalletStripe createStripe(UUID ewalletUuid, int stripe, long balance) {
+
+        return EwalletStripe.builder()
+                .uuid(UUID.randomUUID())
+                .ewalletUuid(ewalletUuid)
+                .stripe(stripe)
+                .balance(balance)
+                .build();
+    }
+}
@@ -0,0 +1,162 @@
+package ewallet.service.ewallet.limit;
+
+import ewallet.config.EwalletProperties;
+import ewallet.config.LimitSource;
+import ewallet.dto.operation.internal.HourlyWithdrawalDto;
+import ewallet.service.operation.OperationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DailyWithdrawalTrackerUTest {
+
+    private static final long BUCKET_MILLIS = 300_000;
+
+    private static final long DAY_MILLIS = 288 * BUCKET_MILLIS;
+
+    private final EwalletProperties properties = new EwalletProperties();
+
+    @Mock
+    private OperationService operationService;
+
+    private DailyWithdrawalTracker dailyWithdrawalTracker;
+
+    @BeforeEach
+    void setUp() {
+
+        properties.getLimit().setBuckets(288);
+        properties.getLimit().setBucketMillis(BUCKET_MILLIS);
+        dailyWithdrawalTracker = new DailyWithdrawalTracker(properties, operationService);
+    }
+
+    @Test
+    void lastDayWithdrawals_success() {
+
+        // given
+        UUID uuid = UUID.randomUUID();
+        long now = System.currentTimeMillis();
+
+        // when
+        dailyWithdrawalTracker.add(uuid, 100, now - DAY_MILLIS / 2);
+        dailyWithdrawalTracker.add(uuid, 200, now);
+        dailyWithdrawalTracker.add(UUID.randomUUID(), 300, now);
+
+        // then
+        assertThat(dailyWithdrawalTracker.lastDayWithdrawals(uuid, now)).isEqualTo(300);
+    }
+
+    @Test
+    void lastDayWithdrawals_whenOlderThanDay_thenExpired() {
+
+        // given
+        UUID uuid = UUID.randomUUID();
+        long now = System.currentTimeMillis();
+
+        // when
+        dailyWithdrawalTracker.add(uuid, 100, now - DAY_MILLIS - BUCKET_MILLIS);
+        dailyWithdrawalTracker.add(uuid, 200, now - BUCKET_MILLIS);
+
+        // then
+        assertThat(dailyWithdrawalTracker.lastDayWithdrawals(uuid, now)).isEqualTo(200);
+        assertThat(dailyWithdrawalTracker.lastDayWithdrawals(uuid, now + DAY_MILLIS)).isEqualTo(0);
+    }
+
+    @Test
+    void lastDayWithdrawals_whenUnknownEwallet_thenZero() {
+
+        // then
+        assertThat(dailyWithdrawalTracker.lastDayWithdrawals(UUID.randomUUID())).isEqualTo(0);
+    }
+
+    @Test
+    void rebuild_success() {
+
+        // given
+        UUID uuid = UUID.randomUUID();
+        long now = System.currentTimeMillis();
+
+        // when
+        when(operationService.lastDayWithdrawals()).thenReturn(List.of(
+                createHourlyWithdrawalDto(uuid, 100, now - DAY_MILLIS / 2),
+                createHourlyWithdrawalDto(uuid, 200, now - BUCKET_MILLIS)));
+        dailyWithdrawalTracker.rebuild();
+
+        // then
+        assertThat(dailyWithdrawalTracker.lastDayWithdrawals(uuid)).isEqualTo(300);
+    }
+
+    @Test
+    void lastDayWithdrawals_whenDatabaseSource_thenAggregateSum() {
+
+        // given
+        UUID uuid = UUID.randomUUID();
+        properties.getLimit().setSource(LimitSource.DATABASE);
+
+        // when
+        when(operationService.lastDayWithdrawalsAmount(uuid)).thenReturn(500L);
+        dailyWithdrawalTracker.record(uuid, 100);
+
+        // then
+        assertThat(dailyWithdrawalTracker.lastDayWithdrawals(uuid)).isEqualTo(500);
+        assertThat(dailyWithdrawalTracker.isTracked(uuid)).isFalse();
+    }
+
+    @Test
+    void record_whenTransactionRolledBack_thenReverted() {
+
+        // given
+        UUID uuid = UUID.randomUUID();
+
+        // when
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            dailyWithdrawalTracker.record(uuid, 100);
+            assertThat(dailyWithdrawalTracker.lastDayWithdrawals(uuid)).isEqualTo(100);
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // then
+        assertThat(dailyWithdrawalTracker.lastDayWithdrawals(uuid)).isEqualTo(0);
+    }
+
+    @Test
+    void evictIdle_whenNoWithdrawalsInDay_thenEvicted() {
+
+        // given
+        UUID idleUuid = UUID.randomUUID();
+        UUID activeUuid = UUID.randomUUID();
+        long now = System.currentTimeMillis();
+
+        // when
+        dailyWithdrawalTracker.add(idleUuid, 100, now - DAY_MILLIS - BUCKET_MILLIS);
+        dailyWithdrawalTracker.add(activeUuid, 100, now);
+        dailyWithdrawalTracker.evictIdle(now);
+
+        // then
+        assertThat(dailyWithdrawalTracker.isTracked(idleUuid)).isFalse();
+        assertThat(dailyWithdrawalTracker.isTracked(activeUuid)).isTrue();
+    }
+
+    private static HourlyWithdrawalDto createHourlyWithdrawalDto(UUID ewalletUuid, long withdrawnSum, long timestamp) {
+
+        return HourlyWithdrawalDto.builder()
+                .ewalletUuid(ewalletUuid)
+                .hourBucket(HourlyWithdrawalDto.hourBucketOf(timestamp))
+                .withdrawnSum(withdrawnSum)
+                .build();
+    }
+}
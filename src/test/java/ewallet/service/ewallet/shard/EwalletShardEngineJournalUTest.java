@@ -0,0 +1,289 @@
+package ewallet.service.ewallet.shard;
+
+import ewallet.config.EngineMode;
+import ewallet.config.EwalletProperties;
+import ewallet.dto.operation.internal.OperationDto;
+import ewallet.dto.operation.internal.OperationStatusDto;
+import ewallet.dto.operation.internal.OperationTypeDto;
+import ewallet.entity.ewallet.Ewallet;
+import ewallet.repository.ewallet.EwalletDao;
+import ewallet.service.journal.JournalReader;
+import ewallet.service.journal.OperationJournal;
+import ewallet.service.operation.OperationService;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static ewallet.TestHelper.createEwallet;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class EwalletShardEngineJournalUTest {
+
+    private static final int SHARDS = 2;
+
+    private static final int SEGMENT_BYTES = 64 * 1024;
+
+    @Mock
+    private EwalletDao ewalletDao;
+
+    @Mock
+    private OperationService operationService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @TempDir
+    private Path directory;
+
+    private final EwalletProperties properties = new EwalletProperties();
+
+    private EwalletShardEngine ewalletShardEngine;
+
+    @BeforeEach
+    void setUp() {
+
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        properties.getEngine().setMode(EngineMode.JOURNALED);
+        properties.getEngine().setShards(SHARDS);
+        properties.getEngine().setBatchSize(16);
+        properties.getJournal().setDirectory(directory.toString());
+        properties.getJournal().setSegmentBytes(SEGMENT_BYTES);
+
+        ewalletShardEngine = new EwalletShardEngine(properties, ewalletDao, operationService, transactionTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+
+        ewalletShardEngine.stop();
+    }
+
+    @Test
+    void deposit_success() {
+
+        // given
+        Ewallet ewallet = createEwallet(UUID.randomUUID(), 2);
+        OperationDto operationDto = createOperationDto(ewallet.getUuid(), null, 1, OperationTypeDto.DEPOSIT);
+        ewalletShardEngine.start();
+
+        // when
+        when(ewalletDao.findById(ewallet.getUuid())).thenReturn(Optional.of(ewallet));
+
+        // then
+        OperationDto returnedOperationDto = ewalletShardEngine.deposit(operationDto);
+
+        assertThat(returnedOperationDto.getOperationStatus()).isEqualTo(OperationStatusDto.COMPLETED);
+        assertThat(returnedOperationDto.getUuid()).isNotNull();
+        verify(ewalletDao, timeout(1000)).setBalance(ewallet.getUuid(), 3);
+        verify(operationService, timeout(1000)).saveAll(List.of(returnedOperationDto));
+        verify(ewalletDao, never()).saveAll(any());
+    }
+
+    @Test
+    void makeTransaction_whenOtherShard_thenBothBalancesJournaled() {
+
+        // given
+        Ewallet sourceEwallet = createEwallet(UUID.randomUUID(), 10);
+        Ewallet destinationEwallet = createEwallet(uuidOnOtherShard(sourceEwallet.getUuid()), 0);
+        OperationDto operationDto = createOperationDto(sourceEwallet.getUuid(), destinationEwallet.getUuid(), 4, OperationTypeDto.TRANSACTION);
+        ewalletShardEngine.start();
+
+        // when
+        when(ewalletDao.findById(sourceEwallet.getUuid())).thenReturn(Optional.of(sourceEwallet));
+        when(ewalletDao.findById(destinationEwallet.getUuid())).thenReturn(Optional.of(destinationEwallet));
+        when(ewalletDao.existsById(destinationEwallet.getUuid())).thenReturn(true);
+
+        // then
+        OperationDto returnedOperationDto = ewalletShardEngine.makeTransaction(operationDto);
+        ewalletShardEngine.stop();
+
+        assertThat(returnedOperationDto.getOperationStatus()).isEqualTo(OperationStatusDto.COMPLETED);
+        verify(ewalletDao).setBalance(sourceEwallet.getUuid(), 6);
+        verify(ewalletDao).setBalance(destinationEwallet.getUuid(), 4);
+        try (OperationJournal journal = OperationJournal.open(directory, SEGMENT_BYTES, new IgnoredBatches())) {
+            assertThat(journal.balanceOf(sourceEwallet.getUuid())).contains(6L);
+            assertThat(journal.balanceOf(destinationEwallet.getUuid())).contains(4L);
+        }
+    }
+
+    @Test
+    void start_whenDatabaseBehindJournal_thenMissedBatchesWritten() {
+
+        // given
+        UUID ewalletUuid = UUID.randomUUID();
+        OperationDto operationDto = createOperationDto(ewalletUuid, null, 5, OperationTypeDto.DEPOSIT);
+        operationDto.setOperationStatus(OperationStatusDto.COMPLETED);
+        try (OperationJournal journal = OperationJournal.open(directory, SEGMENT_BYTES, new IgnoredBatches())) {
+            journal.append(Map.of(ewalletUuid, 5L), List.of(operationDto));
+        }
+
+        // when
+        ewalletShardEngine.start();
+
+        // then
+        verify(ewalletDao).setBalance(ewalletUuid, 5);
+        verify(operationService).saveAllMissing(List.of(operationDto));
+    }
+
+    @Test
+    void withdraw_whenDatabaseLagsJournal_thenJournalBalanceUsed() {
+
+        // given
+        Ewallet ewallet = createEwallet(UUID.randomUUID(), 2);
+        try (OperationJournal journal = OperationJournal.open(directory, SEGMENT_BYTES, new IgnoredBatches())) {
+            journal.append(Map.of(ewallet.getUuid(), 10L), List.of());
+            journal.markApplied(1);
+            journal.snapshot();
+        }
+        OperationDto operationDto = createOperationDto(ewallet.getUuid(), null, 8, OperationTypeDto.WITHDRAWAL);
+        ewalletShardEngine.start();
+
+        // when
+        when(ewalletDao.findById(ewallet.getUuid())).thenReturn(Optional.of(ewallet));
+        when(operationService.lastDayWithdrawalsByWalletUuid(ewallet.getUuid())).thenReturn(new ArrayList<>());
+
+        // then
+        OperationDto returnedOperationDto = ewalletShardEngine.withdraw(operationDto);
+
+        assertThat(returnedOperationDto.getOperationStatus()).isEqualTo(OperationStatusDto.COMPLETED);
+        verify(ewalletDao, timeout(1000)).setBalance(ewallet.getUuid(), 2);
+    }
+
+    @Test
+    void deposit_whenDatabaseKeepsFailing_thenEngineHalted() throws InterruptedException {
+
+        // given
+        Ewallet ewallet = createEwallet(UUID.randomUUID(), 2);
+        properties.getJournal().setMaxWriteAttempts(2);
+        properties.getJournal().setRetryBackoffMillis(1);
+        ewalletShardEngine.start();
+
+        // when
+        when(ewalletDao.findById(ewallet.getUuid())).thenReturn(Optional.of(ewallet));
+        doThrow(new IllegalStateException("Database is down")).when(transactionTemplate).executeWithoutResult(any());
+
+        // then
+        ewalletShardEngine.deposit(createOperationDto(ewallet.getUuid(), null, 1, OperationTypeDto.DEPOSIT));
+
+        verify(transactionTemplate, timeout(1000).times(2)).executeWithoutResult(any());
+        for (int i = 0; i < 100 && ewalletShardEngine.writeFailure().isEmpty(); i++) {
+            Thread.sleep(10);
+        }
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> ewalletShardEngine.deposit(createOperationDto(ewallet.getUuid(), null, 1, OperationTypeDto.DEPOSIT)));
+        assertThat(exception.getStatusCode().value()).isEqualTo(503);
+        assertThat(new EwalletJournalHealthIndicator(ewalletShardEngine).health().getStatus()).isEqualTo(Status.DOWN);
+    }
+
+    @Test
+    void consolidate_whenRestarted_thenConsolidatedBalanceRecoveredFromJournal() {
+
+        // given
+        Ewallet ewallet = createEwallet(UUID.randomUUID(), 2);
+        ewalletShardEngine.start();
+
+        // when
+        when(ewalletDao.findById(ewallet.getUuid())).thenReturn(Optional.of(ewallet));
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        ewalletShardEngine.deposit(createOperationDto(ewallet.getUuid(), null, 1, OperationTypeDto.DEPOSIT));
+        assertThat(ewalletShardEngine.consolidate(ewallet.getUuid(), uuid -> 5)).isEqualTo(5);
+        ewalletShardEngine.stop();
+
+        // then
+        verify(ewalletDao).setBalance(ewallet.getUuid(), 8);
+        EwalletShardEngine restartedEngine = new EwalletShardEngine(properties, ewalletDao, operationService, transactionTemplate);
+        restartedEngine.start();
+        try {
+            assertThat(restartedEngine.find(ewallet.getUuid()).get().getBalance()).isEqualTo(8);
+        } finally {
+            restartedEngine.stop();
+        }
+    }
+
+    @Test
+    void consolidate_whenStripesRollBack_thenJournalKeepsBalanceWithoutThem() {
+
+        // given
+        Ewallet ewallet = createEwallet(UUID.randomUUID(), 2);
+        ewalletShardEngine.start();
+
+        // when
+        when(ewalletDao.findById(ewallet.getUuid())).thenReturn(Optional.of(ewallet));
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null);
+            throw new IllegalStateException("Commit failed");
+        });
+
+        // then
+        assertThrows(IllegalStateException.class, () -> ewalletShardEngine.consolidate(ewallet.getUuid(), uuid -> 5));
+        assertThat(ewalletShardEngine.find(ewallet.getUuid()).get().getBalance()).isEqualTo(2);
+        ewalletShardEngine.stop();
+
+        try (OperationJournal journal = OperationJournal.open(directory, SEGMENT_BYTES, new IgnoredBatches())) {
+            assertThat(journal.balanceOf(ewallet.getUuid())).contains(2L);
+        }
+    }
+
+    private static UUID uuidOnOtherShard(UUID uuid) {
+
+        UUID otherUuid = UUID.randomUUID();
+        while (Math.floorMod(otherUuid.hashCode(), SHARDS) == Math.floorMod(uuid.hashCode(), SHARDS)) {
+            otherUuid = UUID.randomUUID();
+        }
+        return otherUuid;
+    }
+
+    private static OperationDto createOperationDto(UUID ewalletUuid, UUID destinationWalletUuid, long amount, OperationTypeDto operationTypeDto) {
+
+        return OperationDto.builder()
+                .uuid(UUID.randomUUID())
+                .amount(amount)
+                .operationType(operationTypeDto)
+                .description(RandomStringUtils.randomAlphabetic(5))
+                .ewalletUuid(ewalletUuid)
+                .destinationWalletUuid(destinationWalletUuid)
+                .createdDate(new Timestamp(System.currentTimeMillis()))
+                .build();
+    }
+
+    private static class IgnoredBatches implements JournalReader {
+
+        @Override
+        public void operation(long sequence, OperationDto operation) {
+        }
+
+        @Override
+        public void balance(long sequence, UUID ewalletUuid, long balance) {
+        }
+    }
+}
@@ -0,0 +1,368 @@
+package ewallet.service.ewallet.shard;
+
+import ewallet.config.EngineMode;
+import ewallet.config.EwalletProperties;
+import ewallet.dto.operation.internal.HourlyWithdrawalDto;
+import ewallet.dto.operation.internal.OperationDto;
+import ewallet.dto.operation.internal.OperationStatusDto;
+import ewallet.dto.operation.internal.OperationTypeDto;
+import ewallet.entity.ewallet.Ewallet;
+import ewallet.repository.ewallet.EwalletDao;
+import ewallet.service.operation.OperationService;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static ewallet.TestHelper.createEwallet;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class EwalletShardEngineUTest {
+
+    private static final int SHARDS = 2;
+
+    @Mock
+    private EwalletDao ewalletDao;
+
+    @Mock
+    private OperationService operationService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private EwalletShardEngine ewalletShardEngine;
+
+    @BeforeEach
+    void setUp() {
+
+        EwalletProperties properties = new EwalletProperties();
+        properties.getEngine().setMode(EngineMode.SHARDED);
+        properties.getEngine().setShards(SHARDS);
+        properties.getEngine().setBatchSize(16);
+
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(operationService.saveAll(any())).thenAnswer(invocation -> new ArrayList<>(invocation.<List<OperationDto>>getArgument(0)));
+
+        ewalletShardEngine = new EwalletShardEngine(properties, ewalletDao, operationService, transactionTemplate);
+        ewalletShardEngine.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+
+        ewalletShardEngine.stop();
+    }
+
+    @Test
+    void deposit_success() {
+
+        // given
+        Ewallet ewallet = createEwallet(UUID.randomUUID(), 2);
+        OperationDto operationDto = createOperationDto(ewallet.getUuid(), null, 1, OperationTypeDto.DEPOSIT);
+
+        // when
+        when(ewalletDao.findById(ewallet.getUuid())).thenReturn(Optional.of(ewallet));
+
+        // then
+        OperationDto returnedOperationDto = ewalletShardEngine.deposit(operationDto);
+
+        assertThat(returnedOperationDto.getOperationStatus()).isEqualTo(OperationStatusDto.COMPLETED);
+        assertThat(lastSavedBalance(ewallet.getUuid())).isEqualTo(3);
+    }
+
+    @Test
+    void find_whenDeposited_thenPersistedBalanceReturned() {
+
+        // given
+        Ewallet ewallet = createEwallet(UUID.randomUUID(), 2);
+        OperationDto operationDto = createOperationDto(ewallet.getUuid(), null, 1, OperationTypeDto.DEPOSIT);
+
+        // when
+        when(ewalletDao.findById(ewallet.getUuid())).thenReturn(Optional.of(ewallet));
+        ewalletShardEngine.deposit(operationDto);
+
+        // then
+        assertThat(ewalletShardEngine.find(ewallet.getUuid()).get().getBalance()).isEqualTo(3);
+        assertThat(ewalletShardEngine.find(UUID.randomUUID()).isPresent()).isFalse();
+    }
+
+    @Test
+    void deposit_whenEwalletDoesNotExist_thenDeclined() {
+
+        // given
+        OperationDto operationDto = createOperationDto(UUID.randomUUID(), null, 1, OperationTypeDto.DEPOSIT);
+
+        // then
+        OperationDto returnedOperationDto = ewalletShardEngine.deposit(operationDto);
+
+        assertThat(returnedOperationDto.getOperationStatus()).isEqualTo(OperationStatusDto.DECLINED);
+    }
+
+    @Test
+    void deposit_whenConcurrent_thenAllApplied() throws Exception {
+
+        // given
+        Ewallet ewallet = createEwallet(UUID.randomUUID(), 0);
+        int deposits = 500;
+
+        // when
+        when(ewalletDao.findById(ewallet.getUuid())).thenReturn(Optional.of(ewallet));
+
+        // then
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<OperationDto>> results = new ArrayList<>();
+        for (int i = 0; i < deposits; i++) {
+            results.add(executor.submit(() -> ewalletShardEngine.deposit(createOperationDto(ewallet.getUuid(), null, 1, OperationTypeDto.DEPOSIT))));
+        }
+        for (Future<OperationDto> result : results) {
+            assertThat(result.get().getOperationStatus()).isEqualTo(OperationStatusDto.COMPLETED);
+        }
+        executor.shutdown();
+
+        assertThat(lastSavedBalance(ewallet.getUuid())).isEqualTo(deposits);
+        verify(ewalletDao, times(1)).findById(ewallet.getUuid());
+    }
+
+    @Test
+    void withdraw_whenNotEnoughBalance_thenDeclined() {
+
+        // given
+        Ewallet ewallet = createEwallet(UUID.randomUUID(), 1);
+        OperationDto operationDto = createOperationDto(ewallet.getUuid(), null, 2, OperationTypeDto.WITHDRAWAL);
+
+        // when
+        when(ewalletDao.findById(ewallet.getUuid())).thenReturn(Optional.of(ewallet));
+
+        // then
+        OperationDto returnedOperationDto = ewalletShardEngine.withdraw(operationDto);
+
+        assertThat(returnedOperationDto.getOperationStatus()).isEqualTo(OperationStatusDto.DECLINED);
+    }
+
+    @Test
+    void withdraw_whenExceededDailyLimit_thenDeclined() {
+
+        // given
+        Ewallet ewallet = createEwallet(UUID.randomUUID(), 10);
+        HourlyWithdrawalDto previousWithdrawal = HourlyWithdrawalDto.builder()
+                .ewalletUuid(ewallet.getUuid())
+                .hourBucket(HourlyWithdrawalDto.hourBucketOf(System.currentTimeMillis()))
+                .withdrawnSum(500_100)
+                .build();
+        OperationDto operationDto = createOperationDto(ewallet.getUuid(), null, 1, OperationTypeDto.WITHDRAWAL);
+
+        // when
+        when(ewalletDao.findById(ewallet.getUuid())).thenReturn(Optional.of(ewallet));
+        when(operationService.lastDayWithdrawalsByWalletUuid(ewallet.getUuid())).thenReturn(List.of(previousWithdrawal));
+
+        // then
+        OperationDto returnedOperationDto = ewalletShardEngine.withdraw(operationDto);
+
+        assertThat(returnedOperationDto.getOperationStatus()).isEqualTo(OperationStatusDto.DECLINED);
+    }
+
+    @Test
+    void withdraw_whenWithdrawalsReachDailyLimit_thenNextDeclined() {
+
+        // given
+        Ewallet ewallet = createEwallet(UUID.randomUUID(), 2_000_000);
+
+        // when
+        when(ewalletDao.findById(ewallet.getUuid())).thenReturn(Optional.of(ewallet));
+
+        // then
+        for (int i = 0; i < 3; i++) {
+            OperationDto withdrawal = createOperationDto(ewallet.getUuid(), null, 199_900, OperationTypeDto.WITHDRAWAL);
+            assertThat(ewalletShardEngine.withdraw(withdrawal).getOperationStatus()).isEqualTo(OperationStatusDto.COMPLETED);
+        }
+        OperationDto withdrawal = createOperationDto(ewallet.getUuid(), null, 1, OperationTypeDto.WITHDRAWAL);
+        assertThat(ewalletShardEngine.withdraw(withdrawal).getOperationStatus()).isEqualTo(OperationStatusDto.DECLINED);
+    }
+
+    @Test
+    void makeTransaction_whenEwalletsOnDifferentShards_thenSuccess() {
+
+        // given
+        Ewallet sourceEwallet = createEwallet(UUID.randomUUID(), 2);
+        Ewallet destinationEwallet = createEwallet(uuidOnOtherShard(sourceEwallet.getUuid()), 2);
+        OperationDto operationDto = createOperationDto(sourceEwallet.getUuid(), destinationEwallet.getUuid(), 1, OperationTypeDto.TRANSACTION);
+
+        // when
+        when(ewalletDao.findById(sourceEwallet.getUuid())).thenReturn(Optional.of(sourceEwallet));
+        when(ewalletDao.findById(destinationEwallet.getUuid())).thenReturn(Optional.of(destinationEwallet));
+        when(ewalletDao.existsById(destinationEwallet.getUuid())).thenReturn(true);
+
+        // then
+        OperationDto returnedOperationDto = ewalletShardEngine.makeTransaction(operationDto);
+
+        assertThat(returnedOperationDto.getOperationStatus()).isEqualTo(OperationStatusDto.COMPLETED);
+        assertThat(lastSavedBalance(sourceEwallet.getUuid())).isEqualTo(1);
+        assertThat(lastSavedBalance(destinationEwallet.getUuid())).isEqualTo(3);
+    }
+
+    @Test
+    void makeTransaction_whenCreditFails_thenDebitRefunded() {
+
+        // given
+        Ewallet sourceEwallet = createEwallet(UUID.randomUUID(), 2);
+        Ewallet destinationEwallet = createEwallet(uuidOnOtherShard(sourceEwallet.getUuid()), 2);
+        OperationDto operationDto = createOperationDto(sourceEwallet.getUuid(), destinationEwallet.getUuid(), 1, OperationTypeDto.TRANSACTION);
+        List<OperationTypeDto> savedOperationTypes = new CopyOnWriteArrayList<>();
+
+        // when
+        when(ewalletDao.findById(sourceEwallet.getUuid())).thenReturn(Optional.of(sourceEwallet));
+        when(ewalletDao.findById(destinationEwallet.getUuid())).thenReturn(Optional.of(destinationEwallet));
+        when(ewalletDao.existsById(destinationEwallet.getUuid())).thenReturn(true);
+        doAnswer(invocation -> {
+            List<OperationDto> operations = invocation.getArgument(0);
+            operations.forEach(operation -> savedOperationTypes.add(operation.getOperationType()));
+            return new ArrayList<>(operations);
+        }).when(operationService).saveAll(any());
+        when(ewalletDao.saveAll(any())).thenAnswer(invocation -> {
+            for (Ewallet ewallet : invocation.<Iterable<Ewallet>>getArgument(0)) {
+                if (ewallet.getUuid().equals(destinationEwallet.getUuid())) {
+                    throw new IllegalStateException("Destination flush failed");
+                }
+            }
+            return List.of();
+        });
+
+        // then
+        assertThrows(IllegalStateException.class, () -> ewalletShardEngine.makeTransaction(operationDto));
+        assertThat(lastSavedBalance(sourceEwallet.getUuid())).isEqualTo(2);
+        assertThat(savedOperationTypes).isEqualTo(List.of(OperationTypeDto.TRANSACTION, OperationTypeDto.DEPOSIT));
+    }
+
+    @Test
+    void makeTransaction_whenDestinationDisappears_thenDebitRefundedAndShardKeepsRunning() {
+
+        // given
+        Ewallet sourceEwallet = createEwallet(UUID.randomUUID(), 2);
+        UUID destinationUuid = uuidOnOtherShard(sourceEwallet.getUuid());
+        Ewallet otherEwallet = createEwallet(destinationUuid, 0);
+        OperationDto operationDto = createOperationDto(sourceEwallet.getUuid(), destinationUuid, 1, OperationTypeDto.TRANSACTION);
+
+        // when
+        when(ewalletDao.findById(sourceEwallet.getUuid())).thenReturn(Optional.of(sourceEwallet));
+        when(ewalletDao.existsById(destinationUuid)).thenReturn(true);
+
+        // then
+        assertThrows(IllegalStateException.class, () -> ewalletShardEngine.makeTransaction(operationDto));
+        assertThat(lastSavedBalance(sourceEwallet.getUuid())).isEqualTo(2);
+
+        when(ewalletDao.findById(destinationUuid)).thenReturn(Optional.of(otherEwallet));
+        OperationDto deposit = createOperationDto(destinationUuid, null, 1, OperationTypeDto.DEPOSIT);
+        assertThat(ewalletShardEngine.deposit(deposit).getOperationStatus()).isEqualTo(OperationStatusDto.COMPLETED);
+    }
+
+    @Test
+    void makeTransaction_whenDestinationEwalletDoesNotExist_thenDeclined() {
+
+        // given
+        Ewallet sourceEwallet = createEwallet(UUID.randomUUID(), 2);
+        OperationDto operationDto = createOperationDto(sourceEwallet.getUuid(), uuidOnOtherShard(sourceEwallet.getUuid()), 1, OperationTypeDto.TRANSACTION);
+
+        // when
+        when(ewalletDao.findById(sourceEwallet.getUuid())).thenReturn(Optional.of(sourceEwallet));
+
+        // then
+        OperationDto returnedOperationDto = ewalletShardEngine.makeTransaction(operationDto);
+
+        assertThat(returnedOperationDto.getOperationStatus()).isEqualTo(OperationStatusDto.DECLINED);
+        verify(ewalletDao, never()).saveAll(any());
+    }
+
+    @Test
+    void makeTransaction_whenAmountIsBiggerThanLimit_thenDeclined() {
+
+        // given
+        OperationDto operationDto = createOperationDto(UUID.randomUUID(), UUID.randomUUID(), 200_100, OperationTypeDto.TRANSACTION);
+
+        // then
+        OperationDto returnedOperationDto = ewalletShardEngine.makeTransaction(operationDto);
+
+        assertThat(returnedOperationDto.getOperationStatus()).isEqualTo(OperationStatusDto.DECLINED);
+        verify(ewalletDao, never()).findById(any());
+    }
+
+    @Test
+    void consolidate_whenStripesHoldBalance_thenFoldedIntoEngineBalance() {
+
+        // given
+        Ewallet ewallet = createEwallet(UUID.randomUUID(), 2);
+        ewallet.setVersion(0L);
+
+        // when
+        when(ewalletDao.findById(ewallet.getUuid())).thenReturn(Optional.of(ewallet));
+        ewalletShardEngine.deposit(createOperationDto(ewallet.getUuid(), null, 1, OperationTypeDto.DEPOSIT));
+
+        // then
+        assertThat(ewalletShardEngine.consolidate(ewallet.getUuid(), uuid -> 5)).isEqualTo(5);
+        verify(ewalletDao, times(1)).setBalance(ewallet.getUuid(), 8);
+        assertThat(ewalletShardEngine.find(ewallet.getUuid()).get().getBalance()).isEqualTo(8);
+
+        ewalletShardEngine.deposit(createOperationDto(ewallet.getUuid(), null, 1, OperationTypeDto.DEPOSIT));
+        assertThat(lastSavedBalance(ewallet.getUuid())).isEqualTo(9);
+    }
+
+    private Long lastSavedBalance(UUID uuid) {
+
+        ArgumentCaptor<List<Ewallet>> captor = ArgumentCaptor.forClass(List.class);
+        verify(ewalletDao, atLeastOnce()).saveAll(captor.capture());
+
+        Long balance = null;
+        for (List<Ewallet> savedEwallets : captor.getAllValues()) {
+            for (Ewallet savedEwallet : savedEwallets) {
+                if (savedEwallet.getUuid().equals(uuid)) {
+                    balance = savedEwallet.getBalance();
+                }
+            }
+        }
+        return balance;
+    }
+
+    private static UUID uuidOnOtherShard(UUID uuid) {
+
+        UUID otherUuid = UUID.randomUUID();
+        while (Math.floorMod(otherUuid.hashCode(), SHARDS) == Math.floorMod(uuid.hashCode(), SHARDS)) {
+            otherUuid = UUID.randomUUID();
+        }
+        return otherUuid;
+    }
+
+    private static OperationDto createOperationDto(UUID ewalletUuid, UUID destinationWalletUuid, long amount, OperationTypeDto operationTypeDto) {
+
+        return OperationDto.builder()
+                .uuid(UUID.randomUUID())
+                .amount(amount)
+                .operationType(operationTypeDto)
+                .description(RandomStringUtils.randomAlphabetic(5))
+                .ewalletUuid(ewalletUuid)
+                .destinationWalletUuid(destinationWalletUuid)
+                .createdDate(new Timestamp(System.currentTimeMillis()))
+                .build();
+    }
+}
@@ -0,0 +1,298 @@
+package ewallet.service.idempotency;
+
+import ewallet.config.EwalletProperties;
+import ewallet.dto.operation.internal.OperationDto;
+import ewallet.dto.operation.internal.OperationStatusDto;
+import ewallet.dto.operation.internal.OperationTypeDto;
+import ewallet.entity.idempotency.IdempotencyKey;
+import ewallet.entity.operation.OperationStatus;
+import ewallet.entity.operation.OperationType;
+import ewallet.repository.idempotency.IdempotencyKeyDao;
+import ewallet.service.operation.OperationService;
+import ewallet.util.mapper.idempotency.IdempotencyKeyMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceUTest {
+
+    private static final String KEY = "key";
+
+    @Mock
+    private IdempotencyKeyDao idempotencyKeyDao;
+
+    @Mock
+    private OperationService operationService;
+
+    private IdempotencyService idempotencyService;
+
+    private final AtomicInteger executions = new AtomicInteger();
+
+    private final UnaryOperator<OperationDto> action = operation -> {
+        executions.incrementAndGet();
+        operation.setOperationStatus(OperationStatusDto.COMPLETED);
+        return operation;
+    };
+
+    @BeforeEach
+    void setUp() {
+
+        idempotencyService = new IdempotencyService(new EwalletProperties(), idempotencyKeyDao, operationService);
+        idempotencyService.start();
+    }
+
+    @Test
+    void execute_whenNoKey_thenExecuted() {
+
+        // given
+        OperationDto operationDto = createOperationDto(UUID.randomUUID());
+
+        // then
+        idempotencyService.execute(null, operationDto, action);
+        idempotencyService.execute(null, operationDto, action);
+
+        assertThat(executions.get()).isEqualTo(2);
+        verifyNoInteractions(idempotencyKeyDao);
+    }
+
+    @Test
+    void execute_whenKeyRepeated_thenExecutedOnce() {
+
+        // given
+        UUID ewalletUuid = UUID.randomUUID();
+
+        // then
+        OperationDto first = idempotencyService.execute(KEY, createOperationDto(ewalletUuid), action);
+        OperationDto second = idempotencyService.execute(KEY, createOperationDto(ewalletUuid), action);
+
+        assertThat(executions.get()).isEqualTo(1);
+        assertThat(second.getUuid()).isEqualTo(first.getUuid());
+        verify(idempotencyKeyDao, times(1)).saveAndFlush(any());
+        verify(idempotencyKeyDao, times(1)).save(any());
+    }
+
+    @Test
+    void execute_whenConcurrentDuplicates_thenCoalesced() throws Exception {
+
+        // given
+        UUID ewalletUuid = UUID.randomUUID();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        UnaryOperator<OperationDto> blockingAction = operation -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return action.apply(operation);
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        // when
+        List<Future<OperationDto>> results = new ArrayList<>();
+        results.add(executor.submit(() -> idempotencyService.execute(KEY, createOperationDto(ewalletUuid), blockingAction)));
+        started.await(5, TimeUnit.SECONDS);
+        for (int i = 0; i < 3; i++) {
+            results.add(executor.submit(() -> idempotencyService.execute(KEY, createOperationDto(ewalletUuid), blockingAction)));
+        }
+        Thread.sleep(50);
+        release.countDown();
+
+        // then
+        UUID operationUuid = results.get(0).get().getUuid();
+        for (Future<OperationDto> result : results) {
+            assertThat(result.get().getUuid()).isEqualTo(operationUuid);
+        }
+        assertThat(executions.get()).isEqualTo(1);
+        executor.shutdown();
+    }
+
+    @Test
+    void execute_whenKeyStoredByOtherNode_thenStoredResultReturned() {
+
+        // given
+        UUID ewalletUuid = UUID.randomUUID();
+        IdempotencyKey stored = createIdempotencyKey(ewalletUuid, OperationStatus.COMPLETED);
+
+        // when
+        when(idempotencyKeyDao.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("duplicate"));
+        when(idempotencyKeyDao.findByIdempotencyKey(KEY)).thenReturn(Optional.of(stored));
+
+        // then
+        OperationDto returnedOperationDto = idempotencyService.execute(KEY, createOperationDto(ewalletUuid), action);
+
+        assertThat(returnedOperationDto.getUuid()).isEqualTo(stored.getOperationUuid());
+        assertThat(returnedOperationDto.getOperationStatus()).isEqualTo(OperationStatusDto.COMPLETED);
+        assertThat(executions.get()).isEqualTo(0);
+    }
+
+    @Test
+    void execute_whenKeyInProgressOnOtherNode_thenConflict() {
+
+        // given
+        UUID ewalletUuid = UUID.randomUUID();
+
+        // when
+        when(idempotencyKeyDao.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("duplicate"));
+        when(idempotencyKeyDao.findByIdempotencyKey(KEY)).thenReturn(Optional.of(createIdempotencyKey(ewalletUuid, null)));
+
+        // then
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> idempotencyService.execute(KEY, createOperationDto(ewalletUuid), action));
+
+        assertThat(exception.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(executions.get()).isEqualTo(0);
+    }
+
+    @Test
+    void execute_whenKeyUsedForOtherEwallet_thenUnprocessable() {
+
+        // given
+        idempotencyService.execute(KEY, createOperationDto(UUID.randomUUID()), action);
+
+        // then
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> idempotencyService.execute(KEY, createOperationDto(UUID.randomUUID()), action));
+
+        assertThat(exception.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+        assertThat(executions.get()).isEqualTo(1);
+    }
+
+    @Test
+    void execute_whenKeyReusedWithOtherAmount_thenUnprocessable() {
+
+        // given
+        UUID ewalletUuid = UUID.randomUUID();
+        OperationDto otherAmount = createOperationDto(ewalletUuid);
+        otherAmount.setAmount(200);
+        idempotencyService.execute(KEY, createOperationDto(ewalletUuid), action);
+
+        // then
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> idempotencyService.execute(KEY, otherAmount, action));
+
+        assertThat(exception.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+        assertThat(executions.get()).isEqualTo(1);
+    }
+
+    @Test
+    void execute_whenClaimLeaseExpired_thenTakenOverUnderClaimedOperationUuid() {
+
+        // given
+        UUID ewalletUuid = UUID.randomUUID();
+        IdempotencyKey abandoned = createIdempotencyKey(ewalletUuid, null);
+
+        // when
+        when(idempotencyKeyDao.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("duplicate"));
+        when(idempotencyKeyDao.renewUnfinishedCreatedBefore(eq(KEY), eq(abandoned.getRequestFingerprint()), any(), any())).thenReturn(1);
+        when(idempotencyKeyDao.findByIdempotencyKey(KEY)).thenReturn(Optional.of(abandoned));
+        when(operationService.find(abandoned.getOperationUuid())).thenReturn(Optional.empty());
+
+        // then
+        OperationDto returnedOperationDto = idempotencyService.execute(KEY, createOperationDto(ewalletUuid), action);
+
+        assertThat(returnedOperationDto.getUuid()).isEqualTo(abandoned.getOperationUuid());
+        assertThat(returnedOperationDto.getOperationStatus()).isEqualTo(OperationStatusDto.COMPLETED);
+        assertThat(abandoned.getOperationStatus()).isEqualTo(OperationStatus.COMPLETED);
+        assertThat(executions.get()).isEqualTo(1);
+    }
+
+    @Test
+    void execute_whenClaimLeaseExpiredAfterOperationCommitted_thenCommittedOperationReturned() {
+
+        // given
+        UUID ewalletUuid = UUID.randomUUID();
+        IdempotencyKey abandoned = createIdempotencyKey(ewalletUuid, null);
+        OperationDto committed = createOperationDto(ewalletUuid);
+        committed.setUuid(abandoned.getOperationUuid());
+        committed.setOperationStatus(OperationStatusDto.COMPLETED);
+
+        // when
+        when(idempotencyKeyDao.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("duplicate"));
+        when(idempotencyKeyDao.renewUnfinishedCreatedBefore(eq(KEY), eq(abandoned.getRequestFingerprint()), any(), any())).thenReturn(1);
+        when(idempotencyKeyDao.findByIdempotencyKey(KEY)).thenReturn(Optional.of(abandoned));
+        when(operationService.find(abandoned.getOperationUuid())).thenReturn(Optional.of(committed));
+
+        // then
+        OperationDto returnedOperationDto = idempotencyService.execute(KEY, createOperationDto(ewalletUuid), action);
+
+        assertThat(returnedOperationDto).isEqualTo(committed);
+        assertThat(executions.get()).isEqualTo(0);
+        verify(idempotencyKeyDao, times(1)).save(abandoned);
+        assertThat(abandoned.getOperationStatus()).isEqualTo(OperationStatus.COMPLETED);
+    }
+
+    @Test
+    void execute_whenActionFails_thenKeyReleased() {
+
+        // given
+        UUID ewalletUuid = UUID.randomUUID();
+        UnaryOperator<OperationDto> failingAction = operation -> {
+            throw new IllegalStateException("failed");
+        };
+
+        // then
+        assertThrows(IllegalStateException.class, () -> idempotencyService.execute(KEY, createOperationDto(ewalletUuid), failingAction));
+        idempotencyService.execute(KEY, createOperationDto(ewalletUuid), action);
+
+        verify(idempotencyKeyDao, times(1)).delete(any());
+        assertThat(executions.get()).isEqualTo(1);
+    }
+
+    @Test
+    void execute_whenKeyTooLong_thenBadRequest() {
+
+        // then
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> idempotencyService.execute("k".repeat(256), createOperationDto(UUID.randomUUID()), action));
+
+        assertThat(exception.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    private static OperationDto createOperationDto(UUID ewalletUuid) {
+
+        return OperationDto.builder()
+                .amount(100)
+                .operationType(OperationTypeDto.DEPOSIT)
+                .ewalletUuid(ewalletUuid)
+                .build();
+    }
+
+    private static IdempotencyKey createIdempotencyKey(UUID ewalletUuid, OperationStatus operationStatus) {
+
+        return IdempotencyKey.builder()
+                .uuid(UUID.randomUUID())
+                .idempotencyKey(KEY)
+                .ewalletUuid(ewalletUuid)
+                .operationType(OperationType.DEPOSIT)
+                .requestFingerprint(IdempotencyKeyMapper.fingerprintOf(createOperationDto(ewalletUuid)))
+                .operationUuid(UUID.randomUUID())
+                .operationStatus(operationStatus)
+                .build();
+    }
+}
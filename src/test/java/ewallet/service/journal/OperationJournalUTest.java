@@ -0,0 +1,215 @@
+package ewallet.service.journal;
+
+import ewallet.dto.operation.internal.OperationDto;
+import ewallet.dto.operation.internal.OperationStatusDto;
+import ewallet.dto.operation.internal.OperationTypeDto;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OperationJournalUTest {
+
+    private static final int SEGMENT_BYTES = 4096;
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void append_thenReplayedOnOpen() {
+
+        // given
+        UUID ewalletUuid = UUID.randomUUID();
+        UUID destinationUuid = UUID.randomUUID();
+        OperationDto deposit = operation(ewalletUuid, null, OperationTypeDto.DEPOSIT, "salary");
+        OperationDto transaction = operation(ewalletUuid, destinationUuid, OperationTypeDto.TRANSACTION, null);
+        try (OperationJournal journal = OperationJournal.open(directory, SEGMENT_BYTES, new Recorded())) {
+            journal.append(Map.of(ewalletUuid, 100L), List.of(deposit));
+            journal.append(Map.of(ewalletUuid, 60L, destinationUuid, 40L), List.of(transaction));
+        }
+
+        // when
+        Recorded recorded = new Recorded();
+        try (OperationJournal journal = OperationJournal.open(directory, SEGMENT_BYTES, recorded)) {
+
+            // then
+            assertThat(journal.lastSequence()).isEqualTo(2);
+            assertThat(journal.balanceOf(ewalletUuid)).contains(60L);
+            assertThat(journal.balanceOf(destinationUuid)).contains(40L);
+        }
+        assertThat(recorded.operations).containsExactly(deposit, transaction);
+        assertThat(recorded.balances).containsEntry(ewalletUuid, 60L).containsEntry(destinationUuid, 40L);
+    }
+
+    @Test
+    void append_whenSegmentFull_thenRollsToNewSegment() throws IOException {
+
+        // given
+        UUID ewalletUuid = UUID.randomUUID();
+        OperationJournal journal = OperationJournal.open(directory, SEGMENT_BYTES, new Recorded());
+
+        // when
+        for (int i = 1; i <= 100; i++) {
+            journal.append(Map.of(ewalletUuid, (long) i), List.of(operation(ewalletUuid, null, OperationTypeDto.DEPOSIT, null)));
+        }
+        journal.close();
+
+        // then
+        assertThat(segments()).hasSizeGreaterThan(1);
+        Recorded recorded = new Recorded();
+        try (OperationJournal reopened = OperationJournal.open(directory, SEGMENT_BYTES, recorded)) {
+            assertThat(reopened.lastSequence()).isEqualTo(100);
+            assertThat(reopened.balanceOf(ewalletUuid)).contains(100L);
+        }
+        assertThat(recorded.operations).hasSize(100);
+    }
+
+    @Test
+    void open_whenTornTail_thenStopsAtLastValidBatch() throws IOException {
+
+        // given
+        UUID ewalletUuid = UUID.randomUUID();
+        try (OperationJournal journal = OperationJournal.open(directory, SEGMENT_BYTES, new Recorded())) {
+            journal.append(Map.of(ewalletUuid, 10L), List.of(operation(ewalletUuid, null, OperationTypeDto.DEPOSIT, null)));
+            journal.append(Map.of(ewalletUuid, 20L), List.of(operation(ewalletUuid, null, OperationTypeDto.DEPOSIT, null)));
+        }
+        try (RandomAccessFile file = new RandomAccessFile(segments().get(0).toFile(), "rw")) {
+            long secondBatch = file.readInt() + JournalRecords.HEADER_BYTES;
+            file.seek(secondBatch + JournalRecords.HEADER_BYTES + 20);
+            file.write(0xFF);
+        }
+
+        // when
+        Recorded recorded = new Recorded();
+        try (OperationJournal journal = OperationJournal.open(directory, SEGMENT_BYTES, recorded)) {
+            long sequence = journal.append(Map.of(ewalletUuid, 30L), List.of(operation(ewalletUuid, null, OperationTypeDto.DEPOSIT, null)));
+
+            // then
+            assertThat(sequence).isEqualTo(2);
+            assertThat(recorded.operations).hasSize(1);
+            assertThat(recorded.balances).containsEntry(ewalletUuid, 10L);
+        }
+        try (OperationJournal journal = OperationJournal.open(directory, SEGMENT_BYTES, new Recorded())) {
+            assertThat(journal.lastSequence()).isEqualTo(2);
+            assertThat(journal.balanceOf(ewalletUuid)).contains(30L);
+        }
+    }
+
+    @Test
+    void snapshot_whenBatchesApplied_thenReplaysOnlyTailAndDeletesSegments() throws IOException {
+
+        // given
+        UUID ewalletUuid = UUID.randomUUID();
+        try (OperationJournal journal = OperationJournal.open(directory, SEGMENT_BYTES, new Recorded())) {
+            for (int i = 1; i <= 100; i++) {
+                journal.append(Map.of(ewalletUuid, (long) i), List.of(operation(ewalletUuid, null, OperationTypeDto.DEPOSIT, null)));
+            }
+            journal.markApplied(98);
+            int segmentsBefore = segments().size();
+
+            // when
+            journal.snapshot();
+
+            // then
+            assertThat(segments().size()).isLessThan(segmentsBefore);
+        }
+        Recorded recorded = new Recorded();
+        try (OperationJournal journal = OperationJournal.open(directory, SEGMENT_BYTES, recorded)) {
+            assertThat(journal.lastSequence()).isEqualTo(100);
+            assertThat(journal.appliedSequence()).isEqualTo(98);
+            assertThat(journal.balanceOf(ewalletUuid)).contains(100L);
+        }
+        assertThat(recorded.operations).hasSize(2);
+    }
+
+    @Test
+    void append_whenConcurrent_thenEveryBatchDurableOnce() throws Exception {
+
+        // given
+        int threads = 8;
+        int batches = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // when
+        try (OperationJournal journal = OperationJournal.open(directory, 64 * 1024, new Recorded())) {
+            for (int thread = 0; thread < threads; thread++) {
+                UUID ewalletUuid = UUID.randomUUID();
+                futures.add(executor.submit(() -> {
+                    for (int i = 1; i <= batches; i++) {
+                        long sequence = journal.append(Map.of(ewalletUuid, (long) i), List.of(operation(ewalletUuid, null, OperationTypeDto.DEPOSIT, null)));
+                        assertThat(journal.durableSequence()).isGreaterThanOrEqualTo(sequence);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // then
+        Recorded recorded = new Recorded();
+        try (OperationJournal journal = OperationJournal.open(directory, 64 * 1024, recorded)) {
+            assertThat(journal.lastSequence()).isEqualTo(threads * batches);
+        }
+        assertThat(recorded.operations).hasSize(threads * batches);
+        assertThat(recorded.balances.values()).containsOnly((long) batches);
+    }
+
+    private List<Path> segments() throws IOException {
+
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(JournalSegment::isSegment).sorted().toList();
+        }
+    }
+
+    private static OperationDto operation(UUID ewalletUuid, UUID destinationUuid, OperationTypeDto operationType, String description) {
+
+        return OperationDto.builder()
+                .uuid(UUID.randomUUID())
+                .amount(10)
+                .operationType(operationType)
+                .description(description)
+                .ewalletUuid(ewalletUuid)
+                .destinationWalletUuid(destinationUuid)
+                .operationStatus(OperationStatusDto.COMPLETED)
+                .createdDate(new Timestamp(System.currentTimeMillis()))
+                .build();
+    }
+
+    private static class Recorded implements JournalReader {
+
+        private final List<OperationDto> operations = new ArrayList<>();
+
+        private final Map<UUID, Long> balances = new HashMap<>();
+
+        @Override
+        public void operation(long sequence, OperationDto operation) {
+
+            operations.add(operation);
+        }
+
+        @Override
+        public void balance(long sequence, UUID ewalletUuid, long balance) {
+
+            balances.put(ewalletUuid, balance);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package ewallet.service.operation;
+
+import ewallet.config.EwalletProperties;
+import ewallet.config.OverflowPolicy;
+import ewallet.entity.operation.Operation;
+import ewallet.repository.operation.OperationDao;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Consumer;
+
+import static ewallet.TestHelper.randomOperation;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class DeclinedOperationRecorderUTest {
+
+    private final EwalletProperties properties = new EwalletProperties();
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final CountDownLatch writerReleased = new CountDownLatch(1);
+
+    private final List<CompletableFuture<Void>> recording = new ArrayList<>();
+
+    @Mock
+    private OperationDao operationDao;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private DeclinedOperationRecorder declinedOperationRecorder;
+
+    @BeforeEach
+    void setUp() {
+
+        properties.getDeclined().setCapacity(1);
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        when(transactionTemplate.getTransactionManager()).thenReturn(transactionManager);
+        declinedOperationRecorder = new DeclinedOperationRecorder(properties, operationDao, transactionTemplate, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+
+        writerReleased.countDown();
+        declinedOperationRecorder.stop();
+    }
+
+    @Test
+    void record_success() {
+
+        // given
+        Operation operation = randomOperation();
+        declinedOperationRecorder.start();
+
+        // when
+        declinedOperationRecorder.record(operation);
+
+        // then
+        verify(operationDao, times(1)).saveAll(List.of(operation));
+        verify(operationDao, never()).save(any());
+    }
+
+    @Test
+    void record_whenBatchKeepsFailing_thenWrittenRowByRowAndRejectedRowSkipped() throws InterruptedException {
+
+        // given
+        Operation rejectedOperation = randomOperation();
+        Operation operation = randomOperation();
+        properties.getDeclined().setCapacity(2);
+        properties.getDeclined().setMaxWriteAttempts(2);
+        properties.getDeclined().setRetryBackoffMillis(1);
+        doThrow(new IllegalStateException("Batch rejected")).when(operationDao).saveAll(any());
+        doThrow(new IllegalStateException("Row rejected")).when(operationDao).save(rejectedOperation);
+        declinedOperationRecorder.start();
+
+        // when
+        declinedOperationRecorder.record(rejectedOperation);
+        declinedOperationRecorder.record(operation);
+
+        // then
+        verify(operationDao, times(1)).save(operation);
+        assertThat(meterRegistry.counter("ewallet.declined.skipped").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("ewallet.declined.written").count()).isEqualTo(1);
+    }
+
+    @Test
+    void record_whenQueueFullAndCallerWrites_thenSavedInCaller() throws InterruptedException {
+
+        // given
+        properties.getDeclined().setOverflowPolicy(OverflowPolicy.CALLER_WRITES);
+        Operation overflowingOperation = fillQueue();
+
+        // when
+        declinedOperationRecorder.record(overflowingOperation);
+
+        // then
+        verify(operationDao, times(1)).save(overflowingOperation);
+        assertThat(meterRegistry.counter("ewallet.declined.caller.written").count()).isEqualTo(1);
+    }
+
+    @Test
+    void record_whenQueueFullAndDrop_thenDropped() throws InterruptedException {
+
+        // given
+        properties.getDeclined().setOverflowPolicy(OverflowPolicy.DROP);
+        Operation overflowingOperation = fillQueue();
+
+        // when
+        declinedOperationRecorder.record(overflowingOperation);
+
+        // then
+        verify(operationDao, never()).save(any());
+        assertThat(meterRegistry.counter("ewallet.declined.dropped").count()).isEqualTo(1);
+    }
+
+    @Test
+    void record_whenQueued_thenReturnsOnlyOnceWritten() throws InterruptedException {
+
+        // given
+        fillQueue();
+
+        // when
+        boolean returnedBeforeWrite = recording.stream().anyMatch(CompletableFuture::isDone);
+        writerReleased.countDown();
+
+        // then
+        assertThat(returnedBeforeWrite).isFalse();
+        CompletableFuture.allOf(recording.toArray(CompletableFuture[]::new)).join();
+        assertThat(meterRegistry.counter("ewallet.declined.written").count()).isEqualTo(2);
+    }
+
+    @Test
+    void stop_whenQueued_thenDrained() throws InterruptedException {
+
+        // given
+        fillQueue();
+
+        // when
+        writerReleased.countDown();
+        declinedOperationRecorder.stop();
+
+        // then
+        assertThat(declinedOperationRecorder.queued()).isEqualTo(0);
+        assertThat(meterRegistry.counter("ewallet.declined.written").count()).isEqualTo(2);
+        CompletableFuture.allOf(recording.toArray(CompletableFuture[]::new)).join();
+    }
+
+    // Parks the writer inside its first batch and leaves one more operation queued, so the next record overflows;
+    // record waits for its row, so these two are recorded off the test thread
+    private Operation fillQueue() throws InterruptedException {
+
+        CountDownLatch writerBlocked = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            writerBlocked.countDown();
+            writerReleased.await();
+            return invocation.getArgument(0);
+        }).when(operationDao).saveAll(any());
+        declinedOperationRecorder.start();
+
+        recording.add(CompletableFuture.runAsync(() -> declinedOperationRecorder.record(randomOperation())));
+        writerBlocked.await();
+        recording.add(CompletableFuture.runAsync(() -> declinedOperationRecorder.record(randomOperation())));
+        while (declinedOperationRecorder.queued() < 1) {
+            Thread.onSpinWait();
+        }
+
+        return randomOperation();
+    }
+}
@@ -1,12 +1,22 @@
 package ewallet.service.operation;
 
+import ewallet.config.EwalletProperties;
+import ewallet.dto.operation.internal.HourlyWithdrawalDto;
+import ewallet.dto.operation.internal.OperationCursor;
 import ewallet.dto.operation.internal.OperationDto;
+import ewallet.dto.operation.internal.OperationFilterDto;
+import ewallet.dto.operation.internal.OperationPageDto;
 import ewallet.dto.operation.internal.OperationStatusDto;
 import ewallet.dto.operation.internal.OperationTypeDto;
+import ewallet.entity.operation.ArchivedOperation;
+import ewallet.entity.operation.HourlyWithdrawal;
 import ewallet.entity.operation.Operation;
 import ewallet.entity.operation.OperationStatus;
 import ewallet.entity.operation.OperationType;
+import ewallet.repository.operation.HourlyWithdrawalDao;
+import ewallet.repository.operation.OperationArchiveDao;
 import ewallet.repository.operation.OperationDao;
+import ewallet.repository.operation.OperationSummary;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -16,17 +26,23 @@ import org.junit.jupiter.params.provider.MethodSource;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.math.BigDecimal;
 import java.sql.Timestamp;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Stream;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -35,6 +51,18 @@ class OperationServiceUTest {
     @Mock
     private OperationDao operationDao;
 
+    @Mock
+    private HourlyWithdrawalDao hourlyWithdrawalDao;
+
+    @Mock
+    private DeclinedOperationRecorder declinedOperationRecorder;
+
+    @Mock
+    private OperationArchiveDao operationArchiveDao;
+
+    @Spy
+    private EwalletProperties properties = new EwalletProperties();
+
     @InjectMocks
     private OperationService operationService;
 
@@ -43,7 +71,7 @@ class OperationServiceUTest {
 
         @ParameterizedTest
         @MethodSource("provideHoursForSuccessCase")
-        void save_success(OperationTypeDto operationTypeDto, BigDecimal amount, boolean suspicious) {
+        void save_success(OperationTypeDto operationTypeDto, long amount, boolean suspicious) {
 
             // given
             OperationDto operationDto = createOperationDto(operationTypeDto, amount);
@@ -61,10 +89,10 @@ class OperationServiceUTest {
 
         private static Stream<Arguments> provideHoursForSuccessCase() {
             return Stream.of(
-                    Arguments.of(OperationTypeDto.WITHDRAWAL, BigDecimal.valueOf(10001), false),
-                    Arguments.of(OperationTypeDto.DEPOSIT, BigDecimal.valueOf(10001), false),
-                    Arguments.of(OperationTypeDto.TRANSACTION, BigDecimal.valueOf(9999), false),
-                    Arguments.of(OperationTypeDto.TRANSACTION, BigDecimal.valueOf(10001), true)
+                    Arguments.of(OperationTypeDto.WITHDRAWAL, 1_000_100, false),
+                    Arguments.of(OperationTypeDto.DEPOSIT, 1_000_100, false),
+                    Arguments.of(OperationTypeDto.TRANSACTION, 999_900, false),
+                    Arguments.of(OperationTypeDto.TRANSACTION, 1_000_100, true)
             );
         }
 
@@ -73,7 +101,7 @@ class OperationServiceUTest {
         void save_whenDaoFails_thenException() {
 
             // given
-            OperationDto operationDto = createOperationDto(OperationTypeDto.DEPOSIT, BigDecimal.ONE);
+            OperationDto operationDto = createOperationDto(OperationTypeDto.DEPOSIT, 1);
 
             // when
             when(operationDao.save(any())).thenThrow(RuntimeException.class);
@@ -84,36 +112,269 @@ class OperationServiceUTest {
     }
 
     @Nested
-    class LastDayWithdrawalsByWalletUuidTests {
+    class RecordDeclinedTests {
+
+        @Test
+        void recordDeclined_success() {
+
+            // given
+            OperationDto operationDto = createOperationDto(OperationTypeDto.WITHDRAWAL, 100);
+            operationDto.setOperationStatus(OperationStatusDto.DECLINED);
+
+            // then
+            OperationDto returnedOperationDto = operationService.recordDeclined(operationDto);
+
+            ArgumentCaptor<Operation> captor = ArgumentCaptor.forClass(Operation.class);
+            verify(declinedOperationRecorder, times(1)).record(captor.capture());
+            assertThat(returnedOperationDto.getUuid()).isEqualTo(captor.getValue().getUuid());
+            assertThat(returnedOperationDto.getOperationStatus()).isEqualTo(OperationStatusDto.DECLINED);
+            verifyNoInteractions(operationDao, hourlyWithdrawalDao);
+        }
+
+        @Test
+        void recordDeclined_whenInTransaction_thenRecordedOnlyAfterCommit() {
+
+            // given
+            OperationDto operationDto = createOperationDto(OperationTypeDto.WITHDRAWAL, 100);
+            operationDto.setOperationStatus(OperationStatusDto.DECLINED);
+            TransactionSynchronizationManager.initSynchronization();
+
+            try {
+                // when
+                operationService.recordDeclined(operationDto);
+
+                // then
+                verifyNoInteractions(declinedOperationRecorder);
+                TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+                verify(declinedOperationRecorder, times(1)).record(any());
+            } finally {
+                TransactionSynchronizationManager.clearSynchronization();
+            }
+        }
+    }
+
+    @Nested
+    class SaveAllMissingTests {
+
+        @Test
+        void saveAllMissing_whenSomeAlreadySaved_thenOnlyMissingSaved() {
+
+            // given
+            OperationDto savedOperationDto = createOperationDto(OperationTypeDto.DEPOSIT, 1);
+            OperationDto missingOperationDto = createOperationDto(OperationTypeDto.DEPOSIT, 2);
+
+            // when
+            when(operationDao.findAllById(List.of(savedOperationDto.getUuid(), missingOperationDto.getUuid())))
+                    .thenReturn(List.of(createOperation(savedOperationDto, false)));
+            when(operationDao.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+            // then
+            List<OperationDto> returnedOperationDtos = operationService.saveAllMissing(List.of(savedOperationDto, missingOperationDto));
+
+            assertThat(returnedOperationDtos.size()).isEqualTo(1);
+            assertThat(returnedOperationDtos.get(0).getUuid()).isEqualTo(missingOperationDto.getUuid());
+        }
+    }
+
+    @Nested
+    class FindTests {
+
+        @Test
+        void find_whenArchived_thenFoundInArchive() {
+
+            // given
+            ArchivedOperation archivedOperation = ArchivedOperation.builder()
+                    .uuid(UUID.randomUUID())
+                    .amount(1)
+                    .operationType(OperationType.DEPOSIT)
+                    .operationStatus(OperationStatus.COMPLETED)
+                    .ewalletUuid(UUID.randomUUID())
+                    .createdDate(new Timestamp(1_000))
+                    .build();
+
+            // when
+            when(operationDao.findById(archivedOperation.getUuid())).thenReturn(Optional.empty());
+            when(operationArchiveDao.findById(archivedOperation.getUuid())).thenReturn(Optional.of(archivedOperation));
+
+            // then
+            Optional<OperationDto> operationDto = operationService.find(archivedOperation.getUuid());
+
+            assertThat(operationDto.isPresent()).isTrue();
+            assertThat(operationDto.get().getEwalletUuid()).isEqualTo(archivedOperation.getEwalletUuid());
+        }
+
+        @Test
+        void find_whenHot_thenArchiveNotRead() {
+
+            // given
+            Operation operation = createOperation(createOperationDto(OperationTypeDto.DEPOSIT, 1), false);
+
+            // when
+            when(operationDao.findById(operation.getUuid())).thenReturn(Optional.of(operation));
+
+            // then
+            assertThat(operationService.find(operation.getUuid()).isPresent()).isTrue();
+            verifyNoInteractions(operationArchiveDao);
+        }
+    }
+
+    @Nested
+    class FindPageTests {
+
+        @Test
+        void findPage_whenMoreOperations_thenNextCursorAtLastReturned() {
+
+            // given
+            UUID ewalletUuid = UUID.randomUUID();
+            OperationSummary newest = createOperationSummary(2_000);
+            OperationSummary older = createOperationSummary(1_000);
+            OperationFilterDto filter = OperationFilterDto.builder().operationType(OperationTypeDto.DEPOSIT).build();
+
+            // when
+            when(operationDao.findFirstPage(eq(ewalletUuid), eq(OperationType.DEPOSIT), isNull(), isNull(), isNull(), any()))
+                    .thenReturn(List.of(newest, older));
+
+            // then
+            OperationPageDto page = operationService.findPage(ewalletUuid, filter, null, 1);
+
+            assertThat(page.getOperations().size()).isEqualTo(1);
+            assertThat(page.getOperations().get(0).getUuid()).isEqualTo(newest.uuid());
+            assertThat(page.getOperations().get(0).getEwalletUuid()).isEqualTo(ewalletUuid);
+            assertThat(page.getNextCursor()).isEqualTo(new OperationCursor(newest.createdDate(), newest.uuid()));
+        }
+
+        @Test
+        void findPage_whenLastPage_thenNoNextCursor() {
+
+            // given
+            UUID ewalletUuid = UUID.randomUUID();
+            OperationSummary operation = createOperationSummary(1_000);
+            OperationCursor after = new OperationCursor(new Timestamp(2_000), UUID.randomUUID());
+
+            // when
+            when(operationDao.findPageBefore(eq(ewalletUuid), isNull(), isNull(), isNull(), isNull(), eq(after.createdDate()), eq(after.uuid()), any()))
+                    .thenReturn(List.of(operation));
+
+            // then
+            OperationPageDto page = operationService.findPage(ewalletUuid, OperationFilterDto.builder().build(), after, 1);
+
+            assertThat(page.getOperations().size()).isEqualTo(1);
+            assertThat(page.getNextCursor()).isNull();
+        }
+
+        @Test
+        void findPage_whenHotRunsOut_thenContinuesInArchive() {
+
+            // given
+            UUID ewalletUuid = UUID.randomUUID();
+            OperationSummary hot = createOperationSummary(3_000);
+            OperationSummary archived = createOperationSummary(2_000);
+            OperationSummary olderArchived = createOperationSummary(1_000);
+
+            // when
+            when(operationDao.findFirstPage(eq(ewalletUuid), isNull(), isNull(), isNull(), isNull(), any()))
+                    .thenReturn(List.of(hot));
+            when(operationArchiveDao.findPageBefore(eq(ewalletUuid), isNull(), isNull(), isNull(), isNull(), eq(hot.createdDate()), eq(hot.uuid()), eq(PageRequest.of(0, 2))))
+                    .thenReturn(List.of(archived, olderArchived));
+
+            // then
+            OperationPageDto page = operationService.findPage(ewalletUuid, OperationFilterDto.builder().build(), null, 2);
+
+            assertThat(page.getOperations().stream().map(OperationDto::getUuid).toList()).isEqualTo(List.of(hot.uuid(), archived.uuid()));
+            assertThat(page.getNextCursor()).isEqualTo(new OperationCursor(archived.createdDate(), archived.uuid()));
+        }
+
+        @Test
+        void findPage_whenFromWithinHorizon_thenArchiveNotRead() {
+
+            // given
+            UUID ewalletUuid = UUID.randomUUID();
+            OperationFilterDto filter = OperationFilterDto.builder().from(new Timestamp(System.currentTimeMillis() - 60_000)).build();
+
+            // when
+            when(operationDao.findFirstPage(eq(ewalletUuid), isNull(), isNull(), eq(filter.getFrom()), isNull(), any()))
+                    .thenReturn(List.of());
+
+            // then
+            OperationPageDto page = operationService.findPage(ewalletUuid, filter, null, 10);
+
+            assertThat(page.getOperations().isEmpty()).isTrue();
+            verifyNoInteractions(operationArchiveDao);
+        }
+
+        private static OperationSummary createOperationSummary(long createdMillis) {
+            return new OperationSummary(UUID.randomUUID(), 1, OperationType.DEPOSIT, OperationStatus.COMPLETED, null, null, new Timestamp(createdMillis));
+        }
+    }
+
+    @Nested
+    class HourlyWithdrawalTests {
 
         @Test
-        void save_success() {
+        void save_whenCompletedWithdrawal_thenAddedToHourlyWithdrawal() {
 
             // given
-            OperationDto operationDto = createOperationDto(OperationTypeDto.DEPOSIT, BigDecimal.ONE);
+            OperationDto operationDto = createOperationDto(OperationTypeDto.WITHDRAWAL, 100);
             Operation operation = createOperation(operationDto, false);
 
             // when
-            when(operationDao.lastDayWithdrawalsByWalletUuidAndLock(any(UUID.class), any(Timestamp.class))).thenReturn(List.of(operation));
+            when(operationDao.save(any())).thenReturn(operation);
 
             // then
-            List<OperationDto> returnedOperations = operationService.lastDayWithdrawalsByWalletUuid(operation.getUuid());
-            ArgumentCaptor<UUID> captor = ArgumentCaptor.forClass(UUID.class);
-            verify(operationDao, times(1)).lastDayWithdrawalsByWalletUuidAndLock(captor.capture(), any());
-            UUID capturedUuid = captor.getValue();
-            assertThat(capturedUuid).isEqualTo(operation.getUuid());
+            operationService.save(operationDto);
 
-            verifyReturnedOperationDto(operationDto, returnedOperations.get(0), false);
+            verify(hourlyWithdrawalDao, times(1)).add(eq(operationDto.getEwalletUuid()), anyLong(), eq(100L));
         }
 
         @Test
-        void save_whenDaoFails_thenException() {
+        void save_whenDeclinedWithdrawal_thenNotAddedToHourlyWithdrawal() {
+
+            // given
+            OperationDto operationDto = createOperationDto(OperationTypeDto.WITHDRAWAL, 100);
+            operationDto.setOperationStatus(OperationStatusDto.DECLINED);
+            Operation operation = createOperation(operationDto, false);
+
+            // when
+            when(operationDao.save(any())).thenReturn(operation);
+
+            // then
+            operationService.save(operationDto);
+
+            verifyNoInteractions(hourlyWithdrawalDao);
+        }
+
+        @Test
+        void lastDayWithdrawalsAmount_success() {
+
+            // given
+            UUID uuid = UUID.randomUUID();
+
+            // when
+            when(hourlyWithdrawalDao.sumByEwalletUuidSince(eq(uuid), anyLong())).thenReturn(300L);
+
+            // then
+            assertThat(operationService.lastDayWithdrawalsAmount(uuid)).isEqualTo(300L);
+
+            ArgumentCaptor<Long> captor = ArgumentCaptor.forClass(Long.class);
+            verify(hourlyWithdrawalDao, times(1)).sumByEwalletUuidSince(eq(uuid), captor.capture());
+            assertThat(captor.getValue()).isEqualTo(HourlyWithdrawalDto.hourBucketOf(System.currentTimeMillis()) - 24);
+        }
+
+        @Test
+        void lastDayWithdrawalsByWalletUuid_success() {
+
+            // given
+            HourlyWithdrawal hourlyWithdrawal = new HourlyWithdrawal(UUID.randomUUID(), 10, 300);
 
             // when
-            when(operationDao.lastDayWithdrawalsByWalletUuidAndLock(any(), any())).thenThrow(RuntimeException.class);
+            when(hourlyWithdrawalDao.findAllByEwalletUuidSince(eq(hourlyWithdrawal.getEwalletUuid()), anyLong())).thenReturn(List.of(hourlyWithdrawal));
 
             // then
-            assertThrows(RuntimeException.class, () -> operationDao.lastDayWithdrawalsByWalletUuidAndLock(any(), any()));
+            List<HourlyWithdrawalDto> returnedHourlyWithdrawals = operationService.lastDayWithdrawalsByWalletUuid(hourlyWithdrawal.getEwalletUuid());
+
+            assertThat(returnedHourlyWithdrawals.get(0).getEwalletUuid()).isEqualTo(hourlyWithdrawal.getEwalletUuid());
+            assertThat(returnedHourlyWithdrawals.get(0).getHourBucket()).isEqualTo(10);
+            assertThat(returnedHourlyWithdrawals.get(0).getWithdrawnSum()).isEqualTo(300);
         }
     }
 
@@ -141,7 +402,7 @@ class OperationServiceUTest {
         assertThat(returnedOperationDto.isSuspicious()).isEqualTo(suspicious);
     }
 
-    private static OperationDto createOperationDto(OperationTypeDto operationTypeDto, BigDecimal amount) {
+    private static OperationDto createOperationDto(OperationTypeDto operationTypeDto, long amount) {
         return OperationDto.builder()
                 .uuid(UUID.randomUUID())
                 .amount(amount)
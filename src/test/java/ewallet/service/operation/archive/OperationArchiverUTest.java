@@ -0,0 +1,115 @@
+package ewallet.service.operation.archive;
+
+import ewallet.config.EwalletProperties;
+import ewallet.repository.operation.HourlyWithdrawalDao;
+import ewallet.repository.operation.OperationArchiveDao;
+import ewallet.repository.operation.OperationDao;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class OperationArchiverUTest {
+
+    private final EwalletProperties properties = new EwalletProperties();
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Mock
+    private OperationDao operationDao;
+
+    @Mock
+    private OperationArchiveDao operationArchiveDao;
+
+    @Mock
+    private HourlyWithdrawalDao hourlyWithdrawalDao;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private OperationArchiver operationArchiver;
+
+    @BeforeEach
+    void setUp() {
+
+        properties.getArchive().setBatchSize(2);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        operationArchiver = new OperationArchiver(properties, operationDao, operationArchiveDao, hourlyWithdrawalDao, transactionTemplate, meterRegistry);
+    }
+
+    @Test
+    void archiveCreatedBefore_thenMovesBatchesUntilShortOne() {
+
+        // given
+        Timestamp before = new Timestamp(System.currentTimeMillis());
+        List<UUID> first = List.of(UUID.randomUUID(), UUID.randomUUID());
+        List<UUID> second = List.of(UUID.randomUUID());
+
+        // when
+        when(operationDao.findOldestCreatedBefore(eq(before), any())).thenReturn(first, second);
+
+        // then
+        long archived = operationArchiver.archiveCreatedBefore(before);
+
+        assertThat(archived).isEqualTo(3L);
+        verify(operationArchiveDao, times(1)).copyFromOperations(first);
+        verify(operationDao, times(1)).deleteAllByUuidIn(first);
+        verify(operationArchiveDao, times(1)).copyFromOperations(second);
+        verify(operationDao, times(1)).deleteAllByUuidIn(second);
+        verify(hourlyWithdrawalDao, times(1)).deleteAllBefore(anyLong());
+        assertThat(meterRegistry.counter("ewallet.operation.archived").count()).isEqualTo(3.0);
+    }
+
+    @Test
+    void archiveCreatedBefore_whenNothingOld_thenNothingMoved() {
+
+        // given
+        Timestamp before = new Timestamp(System.currentTimeMillis());
+
+        // when
+        when(operationDao.findOldestCreatedBefore(eq(before), any())).thenReturn(List.of());
+
+        // then
+        assertThat(operationArchiver.archiveCreatedBefore(before)).isEqualTo(0L);
+        verifyNoInteractions(operationArchiveDao);
+        verify(operationDao, never()).deleteAllByUuidIn(any());
+    }
+
+    @Test
+    void archive_whenDisabled_thenNothingMoved() {
+
+        // given
+        properties.getArchive().setEnabled(false);
+
+        // when
+        operationArchiver.archive();
+
+        // then
+        verifyNoInteractions(operationDao, operationArchiveDao, hourlyWithdrawalDao);
+    }
+}
@@ -0,0 +1,99 @@
+package ewallet.service.operation.export;
+
+import ewallet.config.ExportFormat;
+import ewallet.dto.operation.internal.OperationFilterDto;
+import ewallet.entity.operation.Operation;
+import ewallet.repository.operation.OperationArchiveDao;
+import ewallet.repository.operation.OperationDao;
+import ewallet.repository.operation.OperationExportDao;
+import ewallet.repository.operation.OperationExportRow;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import static ewallet.TestHelper.randomOperation;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.doAnswer;
+
+@SpringBootTest
+class OperationExportServiceITest {
+
+    @Autowired
+    private OperationExportService operationExportService;
+
+    @Autowired
+    private OperationDao operationDao;
+
+    @Autowired
+    private OperationArchiveDao operationArchiveDao;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @MockBean
+    private OperationExportDao operationExportDao;
+
+    @Test
+    void export_whenOperationArchivedMidway_thenExportedOnce() throws Exception {
+
+        // given
+        UUID ewalletUuid = UUID.randomUUID();
+        long now = System.currentTimeMillis();
+        Operation archived = save(ewalletUuid, new Timestamp(now - 3000));
+        Operation archivedMidway = save(ewalletUuid, new Timestamp(now - 2000));
+        Operation hot = save(ewalletUuid, new Timestamp(now - 1000));
+        move(archived);
+
+        // when
+        // H2 pins a repeatable-read snapshot per table on first read, unlike PostgreSQL's per transaction, so the row
+        // is moved once both tables have been read from
+        OperationExportDao realDao = new OperationExportDao(jdbcTemplate);
+        doAnswer(invocation -> {
+            Consumer<OperationExportRow> consumer = invocation.getArgument(3);
+            return realDao.streamAll(invocation.getArgument(0), invocation.getArgument(1), invocation.getArgument(2), row -> {
+                if (row.uuid().equals(archivedMidway.getUuid())) {
+                    CompletableFuture.runAsync(() -> move(archivedMidway)).join();
+                }
+                consumer.accept(row);
+            });
+        }).when(operationExportDao).streamAll(any(), any(), anyInt(), any());
+
+        // then
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long exported = operationExportService.export(ewalletUuid, OperationFilterDto.builder().build(), ExportFormat.CSV, false, out);
+
+        assertThat(exported).isEqualTo(3);
+        assertThat(out.toString()).contains(archived.getUuid().toString(), archivedMidway.getUuid().toString(), hot.getUuid().toString());
+    }
+
+    private Operation save(UUID ewalletUuid, Timestamp createdDate) {
+
+        Operation operation = randomOperation();
+        operation.setEwalletUuid(ewalletUuid);
+        operationDao.save(operation);
+        jdbcTemplate.update("UPDATE operation SET created_date = ? WHERE uuid = ?", createdDate, operation.getUuid());
+        return operation;
+    }
+
+    private void move(Operation operation) {
+
+        transactionTemplate.executeWithoutResult(status -> {
+            operationArchiveDao.copyFromOperations(List.of(operation.getUuid()));
+            operationDao.deleteAllByUuidIn(List.of(operation.getUuid()));
+        });
+    }
+}
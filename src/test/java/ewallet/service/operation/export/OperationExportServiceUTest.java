@@ -0,0 +1,129 @@
+package ewallet.service.operation.export;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ewallet.config.EwalletProperties;
+import ewallet.config.ExportFormat;
+import ewallet.dto.operation.internal.OperationFilterDto;
+import ewallet.repository.operation.OperationExportDao;
+import ewallet.repository.operation.OperationExportRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OperationExportServiceUTest {
+
+    private static final Instant CREATED_DATE = Instant.parse("2023-04-01T10:15:30.123Z");
+
+    private static final OperationExportRow DEPOSIT = new OperationExportRow(UUID.randomUUID(), UUID.randomUUID(), null,
+            "DEPOSIT", "COMPLETED", 1005, false, "salary, \"april\"", Timestamp.from(CREATED_DATE));
+
+    private static final OperationExportRow TRANSACTION = new OperationExportRow(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(),
+            "TRANSACTION", "COMPLETED", 20, true, null, Timestamp.from(CREATED_DATE));
+
+    private final EwalletProperties properties = new EwalletProperties();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final OperationFilterDto filter = OperationFilterDto.builder().build();
+
+    @Mock
+    private OperationExportDao operationExportDao;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private OperationExportService operationExportService;
+
+    @BeforeEach
+    void setUp() {
+
+        doAnswer(invocation -> {
+            List.of(DEPOSIT, TRANSACTION).forEach(invocation.<Consumer<OperationExportRow>>getArgument(3));
+            return 2L;
+        }).when(operationExportDao).streamAll(any(), any(), anyInt(), any());
+        operationExportService = new OperationExportService(properties, operationExportDao, transactionManager, objectMapper);
+    }
+
+    @Test
+    void export_whenNdjson_thenOneObjectPerLine() throws IOException {
+
+        // given
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // when
+        long exported = operationExportService.export(null, filter, ExportFormat.NDJSON, false, out);
+
+        // then
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(exported).isEqualTo(2L);
+        assertThat(lines.length).isEqualTo(2);
+
+        JsonNode deposit = objectMapper.readTree(lines[0]);
+        assertThat(deposit.get("uuid").asText()).isEqualTo(DEPOSIT.uuid().toString());
+        assertThat(deposit.get("amount").decimalValue()).isEqualByComparingTo("10.05");
+        assertThat(deposit.get("description").asText()).isEqualTo(DEPOSIT.description());
+        assertThat(deposit.get("destinationWalletUuid").isNull()).isTrue();
+        assertThat(deposit.get("createdDate").asText()).isEqualTo(CREATED_DATE.toString());
+        assertThat(objectMapper.readTree(lines[1]).get("suspicious").asBoolean()).isTrue();
+
+        verify(operationExportDao, times(1)).streamAll(isNull(), eq(filter), eq(properties.getExport().getFetchSize()), any());
+        verify(transactionManager, times(1)).getTransaction(argThat(TransactionDefinition::isReadOnly));
+    }
+
+    @Test
+    void export_whenCsv_thenHeaderAndQuotedDescription() throws IOException {
+
+        // given
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // when
+        operationExportService.export(null, filter, ExportFormat.CSV, false, out);
+
+        // then
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertThat(lines).containsExactly(
+                CsvOperationWriter.HEADER,
+                "%s,%s,,DEPOSIT,COMPLETED,10.05,false,\"salary, \"\"april\"\"\",%s".formatted(DEPOSIT.uuid(), DEPOSIT.ewalletUuid(), CREATED_DATE),
+                "%s,%s,%s,TRANSACTION,COMPLETED,0.20,true,,%s".formatted(TRANSACTION.uuid(), TRANSACTION.ewalletUuid(), TRANSACTION.destinationWalletUuid(), CREATED_DATE));
+    }
+
+    @Test
+    void export_whenGzip_thenCompressedStreamIsComplete() throws IOException {
+
+        // given
+        ByteArrayOutputStream plain = new ByteArrayOutputStream();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+
+        // when
+        operationExportService.export(null, filter, ExportFormat.NDJSON, false, plain);
+        operationExportService.export(null, filter, ExportFormat.NDJSON, true, compressed);
+
+        // then
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed.toByteArray()))) {
+            assertThat(in.readAllBytes()).isEqualTo(plain.toByteArray());
+        }
+    }
+}
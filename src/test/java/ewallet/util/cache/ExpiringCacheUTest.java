@@ -0,0 +1,90 @@
+package ewallet.util.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+class ExpiringCacheUTest {
+
+    @Test
+    void get_success() {
+
+        // given
+        ExpiringCache<String, String> cache = new ExpiringCache<>(10, 1_000, () -> 0);
+
+        // when
+        cache.put("key", "value");
+
+        // then
+        assertThat(cache.get("key")).isEqualTo("value");
+        assertThat(cache.get("other")).isNull();
+    }
+
+    @Test
+    void get_whenExpired_thenNull() {
+
+        // given
+        AtomicLong clock = new AtomicLong();
+        ExpiringCache<String, String> cache = new ExpiringCache<>(10, 1_000, clock::get);
+        cache.put("key", "value");
+
+        // when
+        clock.set(1_000);
+
+        // then
+        assertThat(cache.get("key")).isNull();
+        assertThat(cache.size()).isEqualTo(0);
+    }
+
+    @Test
+    void put_whenFull_thenOldestEvicted() {
+
+        // given
+        ExpiringCache<Integer, Integer> cache = new ExpiringCache<>(3, 1_000, () -> 0);
+
+        // when
+        for (int i = 0; i < 5; i++) {
+            cache.put(i, i);
+        }
+
+        // then
+        assertThat(cache.size()).isEqualTo(3);
+        assertThat(cache.get(0)).isNull();
+        assertThat(cache.get(1)).isNull();
+        assertThat(cache.get(4)).isEqualTo(4);
+    }
+
+    @Test
+    void put_whenKeyReplaced_thenLatestValueKept() {
+
+        // given
+        ExpiringCache<String, String> cache = new ExpiringCache<>(2, 1_000, () -> 0);
+
+        // when
+        cache.put("key", "first");
+        cache.put("key", "second");
+        cache.put("other", "value");
+
+        // then
+        assertThat(cache.get("key")).isEqualTo("second");
+        assertThat(cache.get("other")).isEqualTo("value");
+    }
+
+    @Test
+    void put_whenReplaceRejected_thenCurrentValueKept() {
+
+        // given
+        ExpiringCache<String, Integer> cache = new ExpiringCache<>(10, 1_000, () -> 0);
+        cache.put("key", 2);
+
+        // when
+        cache.put("key", 1, (current, value) -> value > current);
+        cache.put("other", 1, (current, value) -> value > current);
+
+        // then
+        assertThat(cache.get("key")).isEqualTo(2);
+        assertThat(cache.get("other")).isEqualTo(1);
+    }
+}
@@ -0,0 +1,95 @@
+package ewallet.util.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimeOrderedIdGeneratorUTest {
+
+    @Test
+    void generate_success() {
+
+        // given
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(() -> 0x0123_4567_89ABL);
+
+        // when
+        UUID uuid = generator.generate();
+
+        // then
+        assertThat(uuid.version()).isEqualTo(7);
+        assertThat(uuid.variant()).isEqualTo(2);
+        assertThat(uuid.getMostSignificantBits() >>> 16).isEqualTo(0x0123_4567_89ABL);
+    }
+
+    @Test
+    void generate_whenSameMillisecond_thenMonotonic() {
+
+        // given
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(() -> 1_000);
+        List<UUID> uuids = new ArrayList<>();
+
+        // when
+        for (int i = 0; i < 10_000; i++) {
+            uuids.add(generator.generate());
+        }
+
+        // then
+        List<UUID> sortedUuids = new ArrayList<>(uuids);
+        Collections.sort(sortedUuids);
+        assertThat(sortedUuids).isEqualTo(uuids);
+        assertThat(Set.copyOf(uuids)).hasSize(uuids.size());
+    }
+
+    @Test
+    void generate_whenClockMovesBackwards_thenMonotonic() {
+
+        // given
+        AtomicLong clock = new AtomicLong(2_000);
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(clock::get);
+
+        // when
+        UUID first = generator.generate();
+        clock.set(1_000);
+        UUID second = generator.generate();
+
+        // then
+        assertThat(second).isGreaterThan(first);
+    }
+
+    @Test
+    void generate_whenConcurrent_thenUnique() throws Exception {
+
+        // given
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator();
+        Set<UUID> uuids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // when
+        List<Future<?>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(executor.submit(() -> {
+                for (int j = 0; j < 10_000; j++) {
+                    uuids.add(generator.generate());
+                }
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get();
+        }
+        executor.shutdown();
+
+        // then
+        assertThat(uuids).hasSize(80_000);
+    }
+}
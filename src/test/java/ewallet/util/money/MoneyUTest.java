@@ -0,0 +1,34 @@
+package ewallet.util.money;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MoneyUTest {
+
+    @Test
+    void toMinorUnits_success() {
+
+        // then
+        assertThat(Money.toMinorUnits(new BigDecimal("12.34"))).isEqualTo(1234);
+        assertThat(Money.toMinorUnits(new BigDecimal("5"))).isEqualTo(500);
+        assertThat(Money.toMinorUnits(new BigDecimal("0.10"))).isEqualTo(10);
+    }
+
+    @Test
+    void toMinorUnits_whenMoreThanTwoFractionalDigits_thenException() {
+
+        // then
+        assertThrows(ArithmeticException.class, () -> Money.toMinorUnits(new BigDecimal("0.333")));
+    }
+
+    @Test
+    void toBigDecimal_success() {
+
+        // then
+        assertThat(Money.toBigDecimal(1234)).isEqualTo(new BigDecimal("12.34"));
+    }
+}